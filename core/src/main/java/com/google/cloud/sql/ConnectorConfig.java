@@ -16,9 +16,12 @@
 
 package com.google.cloud.sql;
 
+import com.google.auth.http.HttpTransportFactory;
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.common.base.Objects;
+import java.security.KeyPair;
 import java.time.Duration;
+import java.util.Base64;
 import java.util.List;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -29,6 +32,7 @@ import java.util.function.Supplier;
  */
 public class ConnectorConfig {
   public static final Duration DEFAULT_FAILOVER_PERIOD = Duration.ofSeconds(30);
+  public static final Duration DEFAULT_STANDBY_POOL_MAX_IDLE = Duration.ofSeconds(5);
 
   // go into ConnectorConfig
   private final String targetPrincipal;
@@ -50,6 +54,114 @@ public class ConnectorConfig {
    */
   private final Duration failoverPeriod;
 
+  /**
+   * ConnectAttemptDelay is the delay between starting connection attempts to successive IP
+   * addresses of an instance. When null, addresses are tried one after another.
+   */
+  private final Duration connectAttemptDelay;
+
+  /**
+   * StandbyPoolSize is the number of connected sockets that the connector keeps ready for each
+   * instance. When 0, every socket is connected when it is requested.
+   */
+  private final int standbyPoolSize;
+
+  /**
+   * StandbyPoolMaxIdle is how long a standby socket may wait before it is discarded. It must be
+   * shorter than the time the database server waits for a new connection to authenticate.
+   */
+  private final Duration standbyPoolMaxIdle;
+
+  /** ConnectorMetrics receives the duration of each connect phase. When null, none is recorded. */
+  private final ConnectorMetrics connectorMetrics;
+
+  /**
+   * ConnectTimeout is the time allowed to establish a connection, from waiting for the connection
+   * info to the metadata exchange. When null, the default of 45 seconds is used.
+   */
+  private final Duration connectTimeout;
+
+  /**
+   * MaxConcurrentHandshakes is the number of TCP connects and TLS handshakes that may be in
+   * progress at the same time for each instance. When 0, the number is not limited.
+   */
+  private final int maxConcurrentHandshakes;
+
+  /**
+   * MaxConcurrentConnectorHandshakes is the number of TCP connects and TLS handshakes that may be
+   * in progress at the same time for all instances of the connector. When 0, the number is not
+   * limited.
+   */
+  private final int maxConcurrentConnectorHandshakes;
+
+  /**
+   * ConnectionInfoCacheDirectory is the directory where the connection info of each instance is
+   * saved, encrypted, so that a restarted process can connect without waiting for the Admin API.
+   * When null, connection info is not saved.
+   */
+  private final String connectionInfoCacheDirectory;
+
+  /**
+   * ConnectionInfoCacheKey is the base64 encoded AES key used to encrypt the files in
+   * ConnectionInfoCacheDirectory.
+   */
+  private final String connectionInfoCacheKey;
+
+  /**
+   * KeyPairSupplier supplies the client key pair of the connector. When null, the key pair
+   * generated by the connector registry is used.
+   */
+  private final Supplier<KeyPair> keyPairSupplier;
+
+  /**
+   * MetadataCacheTtl is how long the metadata of an instance is reused by later refreshes of its
+   * client certificate. When null, each refresh fetches the metadata.
+   */
+  private final Duration metadataCacheTtl;
+
+  /**
+   * InstanceIdleTimeout is how long the connector keeps refreshing the connection info of an
+   * instance that it has not connected to. When null, instances are kept until the connector is
+   * closed.
+   */
+  private final Duration instanceIdleTimeout;
+
+  /**
+   * MaxInstances is the number of instances the connector keeps connection info for. When 0, the
+   * number is not limited.
+   */
+  private final int maxInstances;
+
+  /**
+   * AdminApiRateLimit is the number of requests per second that the connectors of the JVM with the
+   * same Admin API limits send to the Cloud SQL Admin API. When 0, the rate is not limited.
+   */
+  private final double adminApiRateLimit;
+
+  /**
+   * AdminApiBurst is the number of Admin API requests that may be sent at once after a period
+   * without requests. When 0, it is the AdminApiRateLimit rounded up.
+   */
+  private final int adminApiBurst;
+
+  /**
+   * AdminApiMaxConcurrentRequests is the number of Admin API requests that the connectors of the
+   * JVM with the same Admin API limits may run at once. When 0, the number is not limited.
+   */
+  private final int adminApiMaxConcurrentRequests;
+
+  /**
+   * RetryPolicy configures the retries of Admin API requests and access token refreshes. When null,
+   * RetryPolicy.DEFAULT is used.
+   */
+  private final RetryPolicy retryPolicy;
+
+  /**
+   * HttpTransportFactory creates the HTTP transport of the Admin API client. When null, the
+   * connectors share a default transport.
+   */
+  private final HttpTransportFactory httpTransportFactory;
+
   private ConnectorConfig(
       String targetPrincipal,
       List<String> delegates,
@@ -62,7 +174,25 @@ public class ConnectorConfig {
       String universeDomain,
       RefreshStrategy refreshStrategy,
       Function<String, String> instanceNameResolver,
-      Duration failoverPeriod) {
+      Duration failoverPeriod,
+      Duration connectAttemptDelay,
+      int standbyPoolSize,
+      Duration standbyPoolMaxIdle,
+      ConnectorMetrics connectorMetrics,
+      Duration connectTimeout,
+      int maxConcurrentHandshakes,
+      int maxConcurrentConnectorHandshakes,
+      String connectionInfoCacheDirectory,
+      String connectionInfoCacheKey,
+      Supplier<KeyPair> keyPairSupplier,
+      Duration metadataCacheTtl,
+      Duration instanceIdleTimeout,
+      int maxInstances,
+      double adminApiRateLimit,
+      int adminApiBurst,
+      int adminApiMaxConcurrentRequests,
+      RetryPolicy retryPolicy,
+      HttpTransportFactory httpTransportFactory) {
     this.targetPrincipal = targetPrincipal;
     this.delegates = delegates;
     this.adminRootUrl = adminRootUrl;
@@ -75,6 +205,24 @@ public class ConnectorConfig {
     this.refreshStrategy = refreshStrategy;
     this.instanceNameResolver = instanceNameResolver;
     this.failoverPeriod = failoverPeriod;
+    this.connectAttemptDelay = connectAttemptDelay;
+    this.standbyPoolSize = standbyPoolSize;
+    this.standbyPoolMaxIdle = standbyPoolMaxIdle;
+    this.connectorMetrics = connectorMetrics;
+    this.connectTimeout = connectTimeout;
+    this.maxConcurrentHandshakes = maxConcurrentHandshakes;
+    this.maxConcurrentConnectorHandshakes = maxConcurrentConnectorHandshakes;
+    this.connectionInfoCacheDirectory = connectionInfoCacheDirectory;
+    this.connectionInfoCacheKey = connectionInfoCacheKey;
+    this.keyPairSupplier = keyPairSupplier;
+    this.metadataCacheTtl = metadataCacheTtl;
+    this.instanceIdleTimeout = instanceIdleTimeout;
+    this.maxInstances = maxInstances;
+    this.adminApiRateLimit = adminApiRateLimit;
+    this.adminApiBurst = adminApiBurst;
+    this.adminApiMaxConcurrentRequests = adminApiMaxConcurrentRequests;
+    this.retryPolicy = retryPolicy;
+    this.httpTransportFactory = httpTransportFactory;
   }
 
   @Override
@@ -97,7 +245,25 @@ public class ConnectorConfig {
         && Objects.equal(universeDomain, that.universeDomain)
         && Objects.equal(refreshStrategy, that.refreshStrategy)
         && Objects.equal(instanceNameResolver, that.instanceNameResolver)
-        && Objects.equal(failoverPeriod, that.failoverPeriod);
+        && Objects.equal(failoverPeriod, that.failoverPeriod)
+        && Objects.equal(connectAttemptDelay, that.connectAttemptDelay)
+        && standbyPoolSize == that.standbyPoolSize
+        && Objects.equal(standbyPoolMaxIdle, that.standbyPoolMaxIdle)
+        && Objects.equal(connectorMetrics, that.connectorMetrics)
+        && Objects.equal(connectTimeout, that.connectTimeout)
+        && maxConcurrentHandshakes == that.maxConcurrentHandshakes
+        && maxConcurrentConnectorHandshakes == that.maxConcurrentConnectorHandshakes
+        && Objects.equal(connectionInfoCacheDirectory, that.connectionInfoCacheDirectory)
+        && Objects.equal(connectionInfoCacheKey, that.connectionInfoCacheKey)
+        && Objects.equal(keyPairSupplier, that.keyPairSupplier)
+        && Objects.equal(metadataCacheTtl, that.metadataCacheTtl)
+        && Objects.equal(instanceIdleTimeout, that.instanceIdleTimeout)
+        && maxInstances == that.maxInstances
+        && adminApiRateLimit == that.adminApiRateLimit
+        && adminApiBurst == that.adminApiBurst
+        && adminApiMaxConcurrentRequests == that.adminApiMaxConcurrentRequests
+        && Objects.equal(retryPolicy, that.retryPolicy)
+        && Objects.equal(httpTransportFactory, that.httpTransportFactory);
   }
 
   @Override
@@ -114,7 +280,25 @@ public class ConnectorConfig {
         universeDomain,
         refreshStrategy,
         instanceNameResolver,
-        failoverPeriod);
+        failoverPeriod,
+        connectAttemptDelay,
+        standbyPoolSize,
+        standbyPoolMaxIdle,
+        connectorMetrics,
+        connectTimeout,
+        maxConcurrentHandshakes,
+        maxConcurrentConnectorHandshakes,
+        connectionInfoCacheDirectory,
+        connectionInfoCacheKey,
+        keyPairSupplier,
+        metadataCacheTtl,
+        instanceIdleTimeout,
+        maxInstances,
+        adminApiRateLimit,
+        adminApiBurst,
+        adminApiMaxConcurrentRequests,
+        retryPolicy,
+        httpTransportFactory);
   }
 
   public String getTargetPrincipal() {
@@ -165,6 +349,78 @@ public class ConnectorConfig {
     return failoverPeriod;
   }
 
+  public Duration getConnectAttemptDelay() {
+    return connectAttemptDelay;
+  }
+
+  public int getStandbyPoolSize() {
+    return standbyPoolSize;
+  }
+
+  public Duration getStandbyPoolMaxIdle() {
+    return standbyPoolMaxIdle;
+  }
+
+  public ConnectorMetrics getConnectorMetrics() {
+    return connectorMetrics;
+  }
+
+  public Duration getConnectTimeout() {
+    return connectTimeout;
+  }
+
+  public int getMaxConcurrentHandshakes() {
+    return maxConcurrentHandshakes;
+  }
+
+  public int getMaxConcurrentConnectorHandshakes() {
+    return maxConcurrentConnectorHandshakes;
+  }
+
+  public String getConnectionInfoCacheDirectory() {
+    return connectionInfoCacheDirectory;
+  }
+
+  public String getConnectionInfoCacheKey() {
+    return connectionInfoCacheKey;
+  }
+
+  public Supplier<KeyPair> getKeyPairSupplier() {
+    return keyPairSupplier;
+  }
+
+  public Duration getMetadataCacheTtl() {
+    return metadataCacheTtl;
+  }
+
+  public Duration getInstanceIdleTimeout() {
+    return instanceIdleTimeout;
+  }
+
+  public int getMaxInstances() {
+    return maxInstances;
+  }
+
+  public double getAdminApiRateLimit() {
+    return adminApiRateLimit;
+  }
+
+  public int getAdminApiBurst() {
+    return adminApiBurst;
+  }
+
+  public int getAdminApiMaxConcurrentRequests() {
+    return adminApiMaxConcurrentRequests;
+  }
+
+  public RetryPolicy getRetryPolicy() {
+    return retryPolicy;
+  }
+
+  public HttpTransportFactory getHttpTransportFactory() {
+    return httpTransportFactory;
+  }
+
   /** The builder for the ConnectionConfig. */
   public static class Builder {
 
@@ -181,6 +437,24 @@ public class ConnectorConfig {
     private Function<String, String> instanceNameResolver;
 
     private Duration failoverPeriod = DEFAULT_FAILOVER_PERIOD;
+    private Duration connectAttemptDelay;
+    private int standbyPoolSize;
+    private Duration standbyPoolMaxIdle = DEFAULT_STANDBY_POOL_MAX_IDLE;
+    private ConnectorMetrics connectorMetrics;
+    private Duration connectTimeout;
+    private int maxConcurrentHandshakes;
+    private int maxConcurrentConnectorHandshakes;
+    private String connectionInfoCacheDirectory;
+    private String connectionInfoCacheKey;
+    private Supplier<KeyPair> keyPairSupplier;
+    private Duration metadataCacheTtl;
+    private Duration instanceIdleTimeout;
+    private int maxInstances;
+    private double adminApiRateLimit;
+    private int adminApiBurst;
+    private int adminApiMaxConcurrentRequests;
+    private RetryPolicy retryPolicy;
+    private HttpTransportFactory httpTransportFactory;
 
     /** Chained setter for TargetPrinciple field. */
     public Builder withTargetPrincipal(String targetPrincipal) {
@@ -255,6 +529,188 @@ public class ConnectorConfig {
       return this;
     }
 
+    /**
+     * Chained setter for the ConnectAttemptDelay field. When set, the connector starts a connection
+     * attempt to the next IP address of the instance if the previous attempt has not completed
+     * within this delay, and uses the first socket to complete the TLS handshake.
+     */
+    public Builder withConnectAttemptDelay(Duration connectAttemptDelay) {
+      this.connectAttemptDelay = connectAttemptDelay;
+      return this;
+    }
+
+    /**
+     * Chained setter for the StandbyPoolSize field. When greater than 0, the connector keeps up to
+     * this many sockets per instance connected and TLS handshaked in the background, and hands
+     * them out before connecting a new socket.
+     */
+    public Builder withStandbyPoolSize(int standbyPoolSize) {
+      this.standbyPoolSize = standbyPoolSize;
+      return this;
+    }
+
+    /** Chained setter for the StandbyPoolMaxIdle field. */
+    public Builder withStandbyPoolMaxIdle(Duration standbyPoolMaxIdle) {
+      this.standbyPoolMaxIdle = standbyPoolMaxIdle;
+      return this;
+    }
+
+    /**
+     * Chained setter for the ConnectorMetrics field. When set, the connector reports the duration
+     * of each phase of a new connection: waiting for the connection info, DNS resolution, TCP
+     * connect, TLS handshake and the metadata exchange.
+     */
+    public Builder withConnectorMetrics(ConnectorMetrics connectorMetrics) {
+      this.connectorMetrics = connectorMetrics;
+      return this;
+    }
+
+    /**
+     * Chained setter for the ConnectTimeout field. A connection attempt fails when it has not
+     * completed within this time, including the time spent waiting for the connection info of the
+     * instance. The time left is shared by the IP addresses of the instance.
+     */
+    public Builder withConnectTimeout(Duration connectTimeout) {
+      this.connectTimeout = connectTimeout;
+      return this;
+    }
+
+    /**
+     * Chained setter for the MaxConcurrentHandshakes field. When greater than 0, a new connection
+     * to an instance waits while this many connections to the same instance are completing their
+     * TCP connect and TLS handshake. Waiting connections proceed in the order they arrived.
+     */
+    public Builder withMaxConcurrentHandshakes(int maxConcurrentHandshakes) {
+      this.maxConcurrentHandshakes = maxConcurrentHandshakes;
+      return this;
+    }
+
+    /**
+     * Chained setter for the MaxConcurrentConnectorHandshakes field. Like MaxConcurrentHandshakes,
+     * but counts the handshakes to all instances of the connector.
+     */
+    public Builder withMaxConcurrentConnectorHandshakes(int maxConcurrentConnectorHandshakes) {
+      this.maxConcurrentConnectorHandshakes = maxConcurrentConnectorHandshakes;
+      return this;
+    }
+
+    /**
+     * Chained setter for the ConnectionInfoCacheDirectory field. When set, the connection info of
+     * each instance is saved in this directory after each refresh, and a new connector loads it
+     * from there while it is still valid. The directory must only be readable by the application.
+     * Requires ConnectionInfoCacheKey.
+     */
+    public Builder withConnectionInfoCacheDirectory(String connectionInfoCacheDirectory) {
+      this.connectionInfoCacheDirectory = connectionInfoCacheDirectory;
+      return this;
+    }
+
+    /**
+     * Chained setter for the ConnectionInfoCacheKey field, a base64 encoded 128, 192 or 256 bit AES
+     * key. The files in ConnectionInfoCacheDirectory contain the private key of the client
+     * certificate, so keep this key secret.
+     */
+    public Builder withConnectionInfoCacheKey(String connectionInfoCacheKey) {
+      this.connectionInfoCacheKey = connectionInfoCacheKey;
+      return this;
+    }
+
+    /**
+     * Chained setter for the KeyPairSupplier field. When set, the connector calls the supplier
+     * once, on a background thread, and uses the returned key pair for the client certificates of
+     * all its instances instead of the RSA key pair generated by the connector registry. Use it to
+     * load a pre-generated key pair, for example from a file or a secret, or to take one from a
+     * pool generated ahead of time. The key pair must be an RSA key pair of at least 2048 bits.
+     */
+    public Builder withKeyPairSupplier(Supplier<KeyPair> keyPairSupplier) {
+      this.keyPairSupplier = keyPairSupplier;
+      return this;
+    }
+
+    /**
+     * Chained setter for the MetadataCacheTtl field. When set, a refresh reuses the instance
+     * metadata (IP addresses, server CA certificates and DNS names) fetched within this time, and
+     * only requests a new client certificate from the Admin API. The metadata is fetched again when
+     * a connection to the instance fails.
+     */
+    public Builder withMetadataCacheTtl(Duration metadataCacheTtl) {
+      this.metadataCacheTtl = metadataCacheTtl;
+      return this;
+    }
+
+    /**
+     * Chained setter for the InstanceIdleTimeout field. When set, the connector stops refreshing
+     * and forgets an instance that has not been connected to within this time. The next connection
+     * to the instance fetches its connection info again. Connections already open to the instance
+     * are not closed.
+     */
+    public Builder withInstanceIdleTimeout(Duration instanceIdleTimeout) {
+      this.instanceIdleTimeout = instanceIdleTimeout;
+      return this;
+    }
+
+    /**
+     * Chained setter for the MaxInstances field. When greater than 0, and a connection to a new
+     * instance would exceed this number, the connector stops refreshing and forgets the instance
+     * that it connected to least recently. Connections already open to that instance are not
+     * closed.
+     */
+    public Builder withMaxInstances(int maxInstances) {
+      this.maxInstances = maxInstances;
+      return this;
+    }
+
+    /**
+     * Chained setter for the AdminApiRateLimit field. When greater than 0, requests to the Cloud
+     * SQL Admin API wait for their turn so that no more than this many requests per second are
+     * sent. Connectors configured with the same Admin API limits share the limit. Waiting refreshes
+     * of the instances whose client certificates expire soonest are sent first.
+     */
+    public Builder withAdminApiRateLimit(double adminApiRateLimit) {
+      this.adminApiRateLimit = adminApiRateLimit;
+      return this;
+    }
+
+    /**
+     * Chained setter for the AdminApiBurst field. The number of requests to the Cloud SQL Admin API
+     * that may be sent at once, above AdminApiRateLimit, after a period without requests.
+     */
+    public Builder withAdminApiBurst(int adminApiBurst) {
+      this.adminApiBurst = adminApiBurst;
+      return this;
+    }
+
+    /**
+     * Chained setter for the AdminApiMaxConcurrentRequests field. When greater than 0, no more than
+     * this many requests to the Cloud SQL Admin API run at once. Connectors configured with the
+     * same Admin API limits share the limit.
+     */
+    public Builder withAdminApiMaxConcurrentRequests(int adminApiMaxConcurrentRequests) {
+      this.adminApiMaxConcurrentRequests = adminApiMaxConcurrentRequests;
+      return this;
+    }
+
+    /**
+     * Chained setter for the RetryPolicy field. Configures the number of attempts, backoff,
+     * timeouts and retryable errors of the requests to the Cloud SQL Admin API and of the refreshes
+     * of IAM access tokens.
+     */
+    public Builder withRetryPolicy(RetryPolicy retryPolicy) {
+      this.retryPolicy = retryPolicy;
+      return this;
+    }
+
+    /**
+     * Chained setter for the HttpTransportFactory field. Creates the HTTP transport of the Cloud
+     * SQL Admin API client, for example to use an HTTP client with its own connection pool. The
+     * factory is called once, and the connectors configured with the same factory share its
+     * transport.
+     */
+    public Builder withHttpTransportFactory(HttpTransportFactory httpTransportFactory) {
+      this.httpTransportFactory = httpTransportFactory;
+      return this;
+    }
+
     /** Builds a new instance of {@code ConnectionConfig}. */
     public ConnectorConfig build() {
       // validate only one GoogleCredentials configuration field set
@@ -273,6 +729,64 @@ public class ConnectorConfig {
             "Invalid configuration, more than one GoogleCredentials field has a value "
                 + "(googleCredentials, googleCredentialsPath, googleCredentialsSupplier)");
       }
+      if (connectAttemptDelay != null && connectAttemptDelay.isNegative()) {
+        throw new IllegalStateException("Invalid configuration, connectAttemptDelay is negative");
+      }
+      if (connectTimeout != null && (connectTimeout.isNegative() || connectTimeout.isZero())) {
+        throw new IllegalStateException(
+            "Invalid configuration, connectTimeout must be greater than 0");
+      }
+      if (standbyPoolSize < 0) {
+        throw new IllegalStateException("Invalid configuration, standbyPoolSize is negative");
+      }
+      if (maxConcurrentHandshakes < 0) {
+        throw new IllegalStateException(
+            "Invalid configuration, maxConcurrentHandshakes is negative");
+      }
+      if (maxConcurrentConnectorHandshakes < 0) {
+        throw new IllegalStateException(
+            "Invalid configuration, maxConcurrentConnectorHandshakes is negative");
+      }
+      if (standbyPoolMaxIdle == null
+          || standbyPoolMaxIdle.isNegative()
+          || standbyPoolMaxIdle.isZero()) {
+        throw new IllegalStateException(
+            "Invalid configuration, standbyPoolMaxIdle must be greater than 0");
+      }
+      if ((connectionInfoCacheDirectory == null) != (connectionInfoCacheKey == null)) {
+        throw new IllegalStateException(
+            "Invalid configuration, connectionInfoCacheDirectory and connectionInfoCacheKey must"
+                + " be set together");
+      }
+      if (connectionInfoCacheKey != null) {
+        int keyLength;
+        try {
+          keyLength = Base64.getDecoder().decode(connectionInfoCacheKey).length;
+        } catch (IllegalArgumentException e) {
+          keyLength = 0;
+        }
+        if (keyLength != 16 && keyLength != 24 && keyLength != 32) {
+          throw new IllegalStateException(
+              "Invalid configuration, connectionInfoCacheKey must be a base64 encoded 128, 192 or"
+                  + " 256 bit key");
+        }
+      }
+      if (metadataCacheTtl != null && metadataCacheTtl.isNegative()) {
+        throw new IllegalStateException("Invalid configuration, metadataCacheTtl is negative");
+      }
+      if (instanceIdleTimeout != null
+          && (instanceIdleTimeout.isNegative() || instanceIdleTimeout.isZero())) {
+        throw new IllegalStateException(
+            "Invalid configuration, instanceIdleTimeout must be greater than 0");
+      }
+      if (maxInstances < 0) {
+        throw new IllegalStateException("Invalid configuration, maxInstances is negative");
+      }
+      if (adminApiRateLimit < 0 || adminApiBurst < 0 || adminApiMaxConcurrentRequests < 0) {
+        throw new IllegalStateException(
+            "Invalid configuration, adminApiRateLimit, adminApiBurst and"
+                + " adminApiMaxConcurrentRequests must not be negative");
+      }
       if (adminRootUrl != null && universeDomain != null) {
         throw new IllegalStateException(
             "Can not set Admin API Endpoint and Universe Domain together, "
@@ -291,7 +805,25 @@ public class ConnectorConfig {
           universeDomain,
           refreshStrategy,
           instanceNameResolver,
-          failoverPeriod);
+          failoverPeriod,
+          connectAttemptDelay,
+          standbyPoolSize,
+          standbyPoolMaxIdle,
+          connectorMetrics,
+          connectTimeout,
+          maxConcurrentHandshakes,
+          maxConcurrentConnectorHandshakes,
+          connectionInfoCacheDirectory,
+          connectionInfoCacheKey,
+          keyPairSupplier,
+          metadataCacheTtl,
+          instanceIdleTimeout,
+          maxInstances,
+          adminApiRateLimit,
+          adminApiBurst,
+          adminApiMaxConcurrentRequests,
+          retryPolicy,
+          httpTransportFactory);
     }
   }
 }
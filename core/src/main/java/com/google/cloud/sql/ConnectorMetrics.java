@@ -0,0 +1,149 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql;
+
+import java.time.Instant;
+
+/**
+ * Receives the duration of each phase of a connection to a Cloud SQL instance. Implementations
+ * typically record the durations into a histogram per instance and phase, using the metrics
+ * library of the application.
+ *
+ * <p>Methods are called on the thread that runs the connect phase, so implementations must be
+ * thread safe and should return quickly.
+ */
+public interface ConnectorMetrics {
+
+  /** The reasons the connector forgets an instance. */
+  enum EvictionCause {
+    /** The instance was not connected to within the instance idle timeout. */
+    IDLE,
+    /** The connector reached its maximum number of instances. */
+    SIZE
+  }
+
+  /** The phases of a connection to a Cloud SQL instance. */
+  enum ConnectPhase {
+    /** Waiting for the connection info and client certificate of the instance. */
+    METADATA_WAIT,
+    /** Resolving a DNS name of the instance. */
+    DNS,
+    /** Waiting for other handshakes to complete, when the number of handshakes is limited. */
+    HANDSHAKE_QUEUE,
+    /** Connecting the TCP socket to the server proxy. */
+    TCP_CONNECT,
+    /** Completing the TLS handshake with the server proxy. */
+    TLS_HANDSHAKE,
+    /** Reading the metadata exchange response from the server proxy. */
+    MDX
+  }
+
+  /**
+   * Records the duration of a connect phase.
+   *
+   * @param instanceName the instance connection name, in the form "project:region:instance".
+   * @param phase the connect phase.
+   * @param durationNanos the duration of the phase in nanoseconds.
+   */
+  void recordConnectPhase(String instanceName, ConnectPhase phase, long durationNanos);
+
+  /**
+   * Records the time from the creation of a connector until its client key pair is available. The
+   * first connection to each instance waits for the key pair, so this is part of the startup time
+   * of the application. The default implementation does nothing.
+   *
+   * @param durationNanos the duration in nanoseconds.
+   */
+  default void recordKeyPairReady(long durationNanos) {}
+
+  /**
+   * Records the refresh buffer of an instance, how long before its client certificate expires the
+   * next refresh starts. The connector adapts the buffer to the duration and failures of recent
+   * refreshes, and reports it after each refresh. The default implementation does nothing.
+   *
+   * @param instanceName the instance connection name, in the form "project:region:instance".
+   * @param bufferNanos the refresh buffer in nanoseconds.
+   */
+  default void recordRefreshBuffer(String instanceName, long bufferNanos) {}
+
+  /**
+   * Records the time of the next scheduled refresh of an instance, after each refresh. The
+   * connector moves each refresh earlier by a jitter that is stable for the process and instance,
+   * so that processes started together do not refresh at the same time. The default
+   * implementation does nothing.
+   *
+   * @param instanceName the instance connection name, in the form "project:region:instance".
+   * @param nextRefresh when the next refresh starts.
+   */
+  default void recordNextRefresh(String instanceName, Instant nextRefresh) {}
+
+  /**
+   * Records a completed TLS handshake with an instance. A resumed handshake reuses a cached TLS
+   * session and skips the verification of the server certificate chain. The default
+   * implementation does nothing.
+   *
+   * @param instanceName the instance connection name, in the form "project:region:instance".
+   * @param resumed whether the handshake resumed a cached session.
+   */
+  default void recordHandshake(String instanceName, boolean resumed) {}
+
+  /**
+   * Records a lookup of the addresses of a custom domain name by a connection. A hit is served from
+   * the DNS cache of the connector, a miss waits for a DNS query. The default implementation does
+   * nothing.
+   *
+   * @param hostName the domain name.
+   * @param hit whether the addresses were served from the cache.
+   */
+  default void recordDnsLookup(String hostName, boolean hit) {}
+
+  /**
+   * Records that the connector stopped refreshing an instance and forgot it. The default
+   * implementation does nothing.
+   *
+   * @param instanceName the instance connection name, in the form "project:region:instance".
+   * @param cause why the instance was evicted.
+   */
+  default void recordInstanceEviction(String instanceName, EvictionCause cause) {}
+
+  /**
+   * Records a retry of a failed request. The default implementation does nothing.
+   *
+   * @param endpoint the request that is retried: an Admin API method, such as
+   *     "connect.generateEphemeralCert", or "accessToken" for the refresh of an IAM access token.
+   */
+  default void recordRetry(String endpoint) {}
+
+  /**
+   * Records the time that an instance took until its connection info was ready, when it was
+   * prewarmed with {@link ConnectorRegistry#prewarm}. The default implementation does nothing.
+   *
+   * @param instanceName the instance connection name, in the form "project:region:instance".
+   * @param durationNanos the time since the prewarm started, in nanoseconds.
+   */
+  default void recordInstanceReady(String instanceName, long durationNanos) {}
+
+  /**
+   * Records a request for a downscoped IAM login token to the token endpoint. The token is shared
+   * by the instances that use IAM authentication, so this is called about once per token lifetime
+   * rather than once per refresh. The default implementation does nothing.
+   *
+   * @param durationNanos the duration of the request, including its retries, in nanoseconds.
+   * @param success whether a token was fetched.
+   */
+  default void recordTokenFetch(long durationNanos, boolean success) {}
+}
@@ -16,7 +16,12 @@
 
 package com.google.cloud.sql;
 
+import com.google.cloud.sql.core.ConnectionConfig;
 import com.google.cloud.sql.core.InternalConnectorRegistry;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /** Configure the CloudSQL JDBC Connector. */
 public final class ConnectorRegistry {
@@ -41,6 +46,19 @@ public final class ConnectorRegistry {
     InternalConnectorRegistry.getInstance().close(name);
   }
 
+  /**
+   * Starts the refresh of the connection info of the instances in parallel, so that the first
+   * connections to them do not wait for the Cloud SQL Admin API.
+   *
+   * @param configs the connection configurations of the instances.
+   * @return a future that completes when the connection info of all the instances is ready, with
+   *     the time that each instance took to be ready, by instance connection name.
+   */
+  public static CompletableFuture<Map<String, Duration>> prewarm(
+      Collection<ConnectionConfig> configs) {
+    return InternalConnectorRegistry.getInstance().prewarm(configs);
+  }
+
   /**
    * Shutdown the entire CloudSQL JDBC Connector. This will stop all background threads. All future
    * attempts to connect to a CloudSQL database will fail.
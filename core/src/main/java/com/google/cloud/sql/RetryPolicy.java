@@ -0,0 +1,219 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql;
+
+import com.google.common.base.Objects;
+import java.time.Duration;
+import java.util.function.Predicate;
+
+/**
+ * RetryPolicy configures how the connector retries failed requests to the Cloud SQL Admin API and
+ * failed refreshes of IAM access tokens.
+ *
+ * <p>The delay before retry n, starting at 0, is initialBackoff * backoffMultiplier^(n + jitter *
+ * r), where r is random in [0, 1). The defaults match the backoff of the Cloud SQL Proxy v1: 5
+ * attempts, with delays between 324ms and 3588ms.
+ */
+public class RetryPolicy {
+  public static final int DEFAULT_MAX_ATTEMPTS = 5;
+  public static final Duration DEFAULT_INITIAL_BACKOFF = Duration.ofMillis(324);
+  public static final double DEFAULT_BACKOFF_MULTIPLIER = 1.618;
+  public static final double DEFAULT_JITTER = 1.0;
+
+  /** The policy used when ConnectorConfig has no RetryPolicy. */
+  public static final RetryPolicy DEFAULT = new RetryPolicy.Builder().build();
+
+  private final int maxAttempts;
+  private final Duration initialBackoff;
+  private final double backoffMultiplier;
+  private final double jitter;
+  private final Duration attemptTimeout;
+  private final Duration totalTimeout;
+  private final Predicate<Throwable> retryable;
+
+  private RetryPolicy(
+      int maxAttempts,
+      Duration initialBackoff,
+      double backoffMultiplier,
+      double jitter,
+      Duration attemptTimeout,
+      Duration totalTimeout,
+      Predicate<Throwable> retryable) {
+    this.maxAttempts = maxAttempts;
+    this.initialBackoff = initialBackoff;
+    this.backoffMultiplier = backoffMultiplier;
+    this.jitter = jitter;
+    this.attemptTimeout = attemptTimeout;
+    this.totalTimeout = totalTimeout;
+    this.retryable = retryable;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof RetryPolicy)) {
+      return false;
+    }
+    RetryPolicy that = (RetryPolicy) o;
+    return maxAttempts == that.maxAttempts
+        && Objects.equal(initialBackoff, that.initialBackoff)
+        && backoffMultiplier == that.backoffMultiplier
+        && jitter == that.jitter
+        && Objects.equal(attemptTimeout, that.attemptTimeout)
+        && Objects.equal(totalTimeout, that.totalTimeout)
+        && Objects.equal(retryable, that.retryable);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(
+        maxAttempts,
+        initialBackoff,
+        backoffMultiplier,
+        jitter,
+        attemptTimeout,
+        totalTimeout,
+        retryable);
+  }
+
+  public int getMaxAttempts() {
+    return maxAttempts;
+  }
+
+  public Duration getInitialBackoff() {
+    return initialBackoff;
+  }
+
+  public double getBackoffMultiplier() {
+    return backoffMultiplier;
+  }
+
+  public double getJitter() {
+    return jitter;
+  }
+
+  public Duration getAttemptTimeout() {
+    return attemptTimeout;
+  }
+
+  public Duration getTotalTimeout() {
+    return totalTimeout;
+  }
+
+  public Predicate<Throwable> getRetryable() {
+    return retryable;
+  }
+
+  /** The builder for the RetryPolicy. */
+  public static class Builder {
+    private int maxAttempts = DEFAULT_MAX_ATTEMPTS;
+    private Duration initialBackoff = DEFAULT_INITIAL_BACKOFF;
+    private double backoffMultiplier = DEFAULT_BACKOFF_MULTIPLIER;
+    private double jitter = DEFAULT_JITTER;
+    private Duration attemptTimeout;
+    private Duration totalTimeout;
+    private Predicate<Throwable> retryable;
+
+    /** Chained setter for the MaxAttempts field, the number of attempts including the first. */
+    public Builder withMaxAttempts(int maxAttempts) {
+      this.maxAttempts = maxAttempts;
+      return this;
+    }
+
+    /** Chained setter for the InitialBackoff field, the base of the delay before each retry. */
+    public Builder withInitialBackoff(Duration initialBackoff) {
+      this.initialBackoff = initialBackoff;
+      return this;
+    }
+
+    /** Chained setter for the BackoffMultiplier field, the growth of the delay per retry. */
+    public Builder withBackoffMultiplier(double backoffMultiplier) {
+      this.backoffMultiplier = backoffMultiplier;
+      return this;
+    }
+
+    /**
+     * Chained setter for the Jitter field, the fraction of a backoff step that is randomized, so
+     * that clients that failed together do not retry together. 0 disables the randomization.
+     */
+    public Builder withJitter(double jitter) {
+      this.jitter = jitter;
+      return this;
+    }
+
+    /**
+     * Chained setter for the AttemptTimeout field. When set, an attempt of a background refresh
+     * that takes longer fails, and may be retried.
+     */
+    public Builder withAttemptTimeout(Duration attemptTimeout) {
+      this.attemptTimeout = attemptTimeout;
+      return this;
+    }
+
+    /**
+     * Chained setter for the TotalTimeout field. When set, no retry starts after this time since
+     * the first attempt, and the last failure is returned.
+     */
+    public Builder withTotalTimeout(Duration totalTimeout) {
+      this.totalTimeout = totalTimeout;
+      return this;
+    }
+
+    /**
+     * Chained setter for the Retryable field. When set, a failed attempt is retried only if it
+     * returns true for the exception. When null, server errors, rate limit errors of a limited
+     * Admin API, timeouts and network errors are retried.
+     */
+    public Builder withRetryable(Predicate<Throwable> retryable) {
+      this.retryable = retryable;
+      return this;
+    }
+
+    /** Builds a new instance of {@code RetryPolicy}. */
+    public RetryPolicy build() {
+      if (maxAttempts < 1) {
+        throw new IllegalStateException("Invalid configuration, maxAttempts must be at least 1");
+      }
+      if (initialBackoff == null || initialBackoff.isNegative()) {
+        throw new IllegalStateException("Invalid configuration, initialBackoff is negative");
+      }
+      if (backoffMultiplier < 1 || jitter < 0) {
+        throw new IllegalStateException(
+            "Invalid configuration, backoffMultiplier must be at least 1 and jitter must not be"
+                + " negative");
+      }
+      if (attemptTimeout != null && (attemptTimeout.isNegative() || attemptTimeout.isZero())) {
+        throw new IllegalStateException(
+            "Invalid configuration, attemptTimeout must be greater than 0");
+      }
+      if (totalTimeout != null && (totalTimeout.isNegative() || totalTimeout.isZero())) {
+        throw new IllegalStateException(
+            "Invalid configuration, totalTimeout must be greater than 0");
+      }
+      return new RetryPolicy(
+          maxAttempts,
+          initialBackoff,
+          backoffMultiplier,
+          jitter,
+          attemptTimeout,
+          totalTimeout,
+          retryable);
+    }
+  }
+}
@@ -17,6 +17,8 @@
 package com.google.cloud.sql.core;
 
 import com.google.auth.oauth2.AccessToken;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
 import java.io.IOException;
 import java.util.Optional;
 
@@ -31,4 +33,16 @@ interface AccessTokenSupplier {
    * @throws IOException when an error occurs attempting to refresh the token.
    */
   Optional<AccessToken> get() throws IOException;
+
+  /**
+   * Returns a future of a valid access token, or of Optional.empty() when no token is available.
+   * The default implementation calls get() on the executor.
+   *
+   * @param executor the executor that runs the requests to the token endpoint.
+   * @return the future of the access token
+   */
+  default ListenableFuture<Optional<AccessToken>> getAsync(
+      ListeningScheduledExecutorService executor) {
+    return executor.submit(this::get);
+  }
 }
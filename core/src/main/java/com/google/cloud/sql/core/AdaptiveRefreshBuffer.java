@@ -0,0 +1,115 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import static com.google.cloud.sql.core.RefreshCalculator.DEFAULT_REFRESH_BUFFER;
+
+import com.google.cloud.sql.ConnectorMetrics;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import java.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * AdaptiveRefreshBuffer sizes the refresh buffer of an instance from the history of its refresh
+ * operations. The refresh buffer is how long before the client certificate expires a refresh
+ * starts.
+ *
+ * <p>The buffer grows with the average duration of recent refreshes, and with recent failures, so
+ * that a slow or failing Admin API still leaves time to complete a refresh before the certificate
+ * expires. When refreshes are fast and succeed, the buffer shrinks to MIN_REFRESH_BUFFER, and the
+ * certificate is used longer. Until the first refresh completes, the buffer is
+ * DEFAULT_REFRESH_BUFFER.
+ */
+class AdaptiveRefreshBuffer {
+  private static final Logger logger = LoggerFactory.getLogger(AdaptiveRefreshBuffer.class);
+
+  static final Duration MIN_REFRESH_BUFFER = Duration.ofMinutes(2);
+  static final Duration MAX_REFRESH_BUFFER = Duration.ofMinutes(15);
+
+  // The buffer allows this many refreshes of the average duration.
+  private static final int LATENCY_MULTIPLE = 10;
+  // Added to the buffer for each recent failure.
+  private static final Duration FAILURE_PENALTY = Duration.ofMinutes(2);
+  // The weight of the latest refresh in the average duration.
+  private static final double LATENCY_WEIGHT = 0.3;
+
+  private final String name;
+  private final ConnectorMetrics metrics;
+
+  @GuardedBy("this")
+  private double averageNanos = -1;
+
+  // Incremented by each failure, halved by each success.
+  @GuardedBy("this")
+  private double recentFailures;
+
+  @GuardedBy("this")
+  private Duration buffer = DEFAULT_REFRESH_BUFFER;
+
+  /**
+   * Creates a new AdaptiveRefreshBuffer.
+   *
+   * @param name the instance connection name, for logging and metrics.
+   * @param metrics receives the buffer after each refresh, or null.
+   */
+  AdaptiveRefreshBuffer(String name, ConnectorMetrics metrics) {
+    this.name = name;
+    this.metrics = metrics;
+  }
+
+  /** Returns the current refresh buffer. */
+  synchronized Duration get() {
+    return buffer;
+  }
+
+  /** Records a successful refresh that took durationNanos. */
+  void recordSuccess(long durationNanos) {
+    record(durationNanos, false);
+  }
+
+  /** Records a failed refresh that took durationNanos. */
+  void recordFailure(long durationNanos) {
+    record(durationNanos, true);
+  }
+
+  private void record(long durationNanos, boolean failed) {
+    Duration newBuffer;
+    synchronized (this) {
+      averageNanos =
+          averageNanos < 0
+              ? durationNanos
+              : LATENCY_WEIGHT * durationNanos + (1 - LATENCY_WEIGHT) * averageNanos;
+      recentFailures = failed ? recentFailures + 1 : recentFailures / 2;
+
+      long nanos =
+          MIN_REFRESH_BUFFER.toNanos()
+              + (long) (averageNanos * LATENCY_MULTIPLE)
+              + (long) (recentFailures * FAILURE_PENALTY.toNanos());
+      newBuffer = Duration.ofNanos(Math.min(nanos, MAX_REFRESH_BUFFER.toNanos()));
+      buffer = newBuffer;
+    }
+    logger.debug(String.format("[%s] Refresh buffer is now %s.", name, newBuffer));
+    if (metrics != null) {
+      try {
+        metrics.recordRefreshBuffer(name, newBuffer.toNanos());
+      } catch (RuntimeException e) {
+        logger.debug(String.format("[%s] Failed to record the refresh buffer", name), e);
+      }
+    }
+  }
+}
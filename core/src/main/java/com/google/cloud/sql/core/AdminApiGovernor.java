@@ -0,0 +1,386 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import static java.time.format.DateTimeFormatter.RFC_1123_DATE_TIME;
+
+import com.google.api.client.http.HttpResponseException;
+import com.google.cloud.sql.ConnectorConfig;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * AdminApiGovernor limits the rate and the concurrency of the requests to the Cloud SQL Admin API,
+ * with a token bucket that holds up to burst tokens and refills at ratePerSecond tokens per second.
+ * Each request takes a token, and waits when the bucket is empty or when maxConcurrentRequests
+ * requests are running.
+ *
+ * <p>Waiting requests start in order of priority, lowest first. The connector uses the expiration
+ * time of the current client certificate as the priority, so that the instances whose certificates
+ * expire soonest are refreshed first.
+ *
+ * <p>When the Admin API responds with 429 Too Many Requests, no request starts until the time in
+ * the Retry-After header, or DEFAULT_BACKOFF_MS when the header is missing or malformed.
+ *
+ * <p>Governors are shared by all connectors in the JVM that are configured with the same limits.
+ */
+class AdminApiGovernor {
+  private static final Logger logger = LoggerFactory.getLogger(AdminApiGovernor.class);
+
+  static final long DEFAULT_BACKOFF_MS = 1000;
+  private static final int TOO_MANY_REQUESTS = 429;
+
+  private static final ConcurrentHashMap<Key, AdminApiGovernor> sharedGovernors =
+      new ConcurrentHashMap<>();
+
+  // Wakes up waiting requests when tokens are available again, or when a backoff ends.
+  private static final ScheduledExecutorService timer =
+      Executors.newSingleThreadScheduledExecutor(
+          r -> {
+            Thread t = new Thread(r, "CloudSqlAdminApiGovernor");
+            t.setDaemon(true);
+            return t;
+          });
+
+  private final double ratePerSecond;
+  private final int burst;
+  private final int maxConcurrentRequests;
+
+  @GuardedBy("this")
+  private final PriorityQueue<Waiter> waiters = new PriorityQueue<>();
+
+  @GuardedBy("this")
+  private double tokens;
+
+  @GuardedBy("this")
+  private long refilledAtNanos = System.nanoTime();
+
+  @GuardedBy("this")
+  private long pausedUntilNanos = System.nanoTime();
+
+  @GuardedBy("this")
+  private int activeRequests;
+
+  @GuardedBy("this")
+  private long nextSequence;
+
+  @GuardedBy("this")
+  private long wakeUpAtNanos = Long.MAX_VALUE;
+
+  /**
+   * Creates a new AdminApiGovernor.
+   *
+   * @param ratePerSecond the number of requests per second, or 0 for no limit.
+   * @param burst the number of requests that may start at once after a period without requests.
+   * @param maxConcurrentRequests the number of requests that may run at once, or 0 for no limit.
+   */
+  AdminApiGovernor(double ratePerSecond, int burst, int maxConcurrentRequests) {
+    this.ratePerSecond = ratePerSecond;
+    this.burst = Math.max(1, burst);
+    this.maxConcurrentRequests = maxConcurrentRequests;
+    this.tokens = this.burst;
+  }
+
+  /**
+   * Returns the governor shared by the connectors configured with the same Admin API limits, or
+   * null when config does not limit the Admin API.
+   */
+  static AdminApiGovernor forConfig(ConnectorConfig config) {
+    if (config.getAdminApiRateLimit() <= 0 && config.getAdminApiMaxConcurrentRequests() <= 0) {
+      return null;
+    }
+    int burst =
+        config.getAdminApiBurst() > 0
+            ? config.getAdminApiBurst()
+            : (int) Math.ceil(config.getAdminApiRateLimit());
+    Key key =
+        new Key(config.getAdminApiRateLimit(), burst, config.getAdminApiMaxConcurrentRequests());
+    return sharedGovernors.computeIfAbsent(
+        key, k -> new AdminApiGovernor(k.ratePerSecond, k.burst, k.maxConcurrentRequests));
+  }
+
+  /**
+   * Returns a Callable that waits until the governor allows the request, and then calls callable.
+   *
+   * @param callable the request to the Admin API.
+   * @param priority the priority of the request, lower values start first.
+   */
+  <T> Callable<T> govern(Callable<T> callable, long priority) {
+    return () -> {
+      CountDownLatch started = new CountDownLatch(1);
+      Waiter waiter = enqueue(priority, started::countDown);
+      try {
+        started.await();
+      } catch (InterruptedException e) {
+        if (!cancel(waiter)) {
+          // The request was allowed to start, give its slot to the next request.
+          release();
+        }
+        throw e;
+      }
+      return run(callable);
+    };
+  }
+
+  /**
+   * Submits callable to executor when the governor allows the request, without holding a thread
+   * while the request waits.
+   *
+   * @param callable the request to the Admin API.
+   * @param priority the priority of the request, lower values start first.
+   * @param executor the executor that runs the request.
+   * @return a future with the result of callable.
+   */
+  <T> ListenableFuture<T> submit(
+      Callable<T> callable, long priority, ListeningExecutorService executor) {
+    SettableFuture<T> result = SettableFuture.create();
+    Waiter waiter =
+        enqueue(
+            priority,
+            () -> {
+              if (result.isCancelled()) {
+                // The caller gave up, such as on an attempt timeout, while the request was
+                // being started. Give its slot to the next request.
+                release();
+                return;
+              }
+              try {
+                // Once submitted, the request runs even if result is cancelled, so that it
+                // releases its slot.
+                result.setFuture(
+                    Futures.nonCancellationPropagating(executor.submit(() -> run(callable))));
+              } catch (RejectedExecutionException e) {
+                release();
+                result.setException(e);
+              }
+            });
+    // Don't keep a request that the caller gave up on waiting for a slot.
+    result.addListener(
+        () -> {
+          if (result.isCancelled()) {
+            cancel(waiter);
+          }
+        },
+        MoreExecutors.directExecutor());
+    return result;
+  }
+
+  private <T> T run(Callable<T> callable) throws Exception {
+    try {
+      return callable.call();
+    } catch (HttpResponseException e) {
+      if (e.getStatusCode() == TOO_MANY_REQUESTS) {
+        backOff(retryAfterMs(e));
+      }
+      throw e;
+    } finally {
+      release();
+    }
+  }
+
+  /** Stops starting requests for delayMs, as asked by a 429 response of the Admin API. */
+  void backOff(long delayMs) {
+    synchronized (this) {
+      pausedUntilNanos =
+          Math.max(pausedUntilNanos, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs));
+      // Don't send a burst of requests when the backoff ends.
+      tokens = Math.min(tokens, 1);
+    }
+    logger.debug(String.format("Admin API quota exceeded, waiting %d ms", delayMs));
+    dispatch();
+  }
+
+  /** Returns the number of requests that wait for the governor. */
+  synchronized int getWaitingCount() {
+    return waiters.size();
+  }
+
+  /** Returns the number of requests that are running. */
+  synchronized int getActiveCount() {
+    return activeRequests;
+  }
+
+  private Waiter enqueue(long priority, Runnable start) {
+    Waiter waiter;
+    synchronized (this) {
+      waiter = new Waiter(priority, nextSequence++, start);
+      waiters.add(waiter);
+    }
+    dispatch();
+    return waiter;
+  }
+
+  /** Removes the waiter from the queue, returns false if it was already started. */
+  private synchronized boolean cancel(Waiter waiter) {
+    return waiters.remove(waiter);
+  }
+
+  private void release() {
+    synchronized (this) {
+      activeRequests--;
+    }
+    dispatch();
+  }
+
+  /** Starts the waiting requests that the limits allow, and schedules a wake up for the rest. */
+  private void dispatch() {
+    List<Runnable> starts = new ArrayList<>();
+    synchronized (this) {
+      long now = System.nanoTime();
+      refill(now);
+      while (!waiters.isEmpty()
+          && (maxConcurrentRequests <= 0 || activeRequests < maxConcurrentRequests)
+          && now - pausedUntilNanos >= 0
+          && (ratePerSecond <= 0 || tokens >= 1)) {
+        starts.add(waiters.poll().start);
+        activeRequests++;
+        tokens--;
+      }
+      if (!waiters.isEmpty()) {
+        scheduleWakeUp(now);
+      }
+    }
+    for (Runnable start : starts) {
+      start.run();
+    }
+  }
+
+  @GuardedBy("this")
+  private void refill(long now) {
+    if (ratePerSecond > 0) {
+      tokens = Math.min(burst, tokens + (now - refilledAtNanos) * ratePerSecond / 1e9);
+    }
+    refilledAtNanos = now;
+  }
+
+  @GuardedBy("this")
+  private void scheduleWakeUp(long now) {
+    long delayNanos = Math.max(0, pausedUntilNanos - now);
+    if (ratePerSecond > 0 && tokens < 1) {
+      delayNanos = Math.max(delayNanos, (long) ((1 - tokens) * 1e9 / ratePerSecond));
+    }
+    if (delayNanos == 0) {
+      // Waiting for a running request to finish.
+      return;
+    }
+    long wakeUpAt = now + delayNanos;
+    if (wakeUpAtNanos != Long.MAX_VALUE
+        && wakeUpAtNanos - now > 0
+        && wakeUpAtNanos - wakeUpAt <= 0) {
+      // An earlier wake up is already scheduled.
+      return;
+    }
+    wakeUpAtNanos = wakeUpAt;
+    timer.schedule(this::dispatch, delayNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /** Returns the delay that a 429 response asks for in its Retry-After header. */
+  static long retryAfterMs(HttpResponseException e) {
+    return retryAfterMs(e, Instant.now());
+  }
+
+  /**
+   * Returns the delay that a 429 response asks for in its Retry-After header, which is either a
+   * number of seconds or an HTTP date. A date in the past means no delay.
+   */
+  static long retryAfterMs(HttpResponseException e, Instant now) {
+    String retryAfter = e.getHeaders() != null ? e.getHeaders().getRetryAfter() : null;
+    if (retryAfter == null) {
+      return DEFAULT_BACKOFF_MS;
+    }
+    retryAfter = retryAfter.trim();
+    try {
+      return Math.max(0, TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter)));
+    } catch (NumberFormatException ex) {
+      // Not a number of seconds, try an HTTP date.
+    }
+    try {
+      Instant retryAt = ZonedDateTime.parse(retryAfter, RFC_1123_DATE_TIME).toInstant();
+      return Math.max(0, Duration.between(now, retryAt).toMillis());
+    } catch (DateTimeParseException ex) {
+      logger.debug(String.format("Ignoring malformed Retry-After header: %s", retryAfter));
+      return DEFAULT_BACKOFF_MS;
+    }
+  }
+
+  private static class Waiter implements Comparable<Waiter> {
+    private final long priority;
+    private final long sequence;
+    private final Runnable start;
+
+    Waiter(long priority, long sequence, Runnable start) {
+      this.priority = priority;
+      this.sequence = sequence;
+      this.start = start;
+    }
+
+    @Override
+    public int compareTo(Waiter o) {
+      int c = Long.compare(priority, o.priority);
+      return c != 0 ? c : Long.compare(sequence, o.sequence);
+    }
+  }
+
+  private static class Key {
+    private final double ratePerSecond;
+    private final int burst;
+    private final int maxConcurrentRequests;
+
+    Key(double ratePerSecond, int burst, int maxConcurrentRequests) {
+      this.ratePerSecond = ratePerSecond;
+      this.burst = burst;
+      this.maxConcurrentRequests = maxConcurrentRequests;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key that = (Key) o;
+      return ratePerSecond == that.ratePerSecond
+          && burst == that.burst
+          && maxConcurrentRequests == that.maxConcurrentRequests;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(ratePerSecond, burst, maxConcurrentRequests);
+    }
+  }
+}
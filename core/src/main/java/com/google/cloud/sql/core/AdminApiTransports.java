@@ -0,0 +1,131 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import com.google.api.client.http.HttpTransport;
+import com.google.auth.http.HttpTransportFactory;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * AdminApiTransports holds the HTTP transports of the Admin API clients, so that all the clients
+ * of the JVM share them. Creating the default transport loads the Google trust store, and each
+ * transport keeps its own pool of keep-alive connections to the Admin API. Sharing the transport
+ * saves both when a connector is created, and reuses the TLS connections of other connectors.
+ *
+ * <p>Clients configured with the same HttpTransportFactory share the transport that it creates.
+ * Other clients share the default transport. A transport is shut down when the last client that
+ * uses it is released.
+ */
+class AdminApiTransports {
+  private static final Logger logger = LoggerFactory.getLogger(AdminApiTransports.class);
+
+  private static final ConcurrentHashMap<HttpTransportFactory, Shared> transports =
+      new ConcurrentHashMap<>();
+
+  // Creates the default transport, a java.net transport trusting the Google trust store.
+  @SuppressWarnings("deprecation")
+  private static final HttpTransportFactory DEFAULT_FACTORY =
+      () -> {
+        try {
+          return com.google.api.client.googleapis.javanet.GoogleNetHttpTransport
+              .newTrustedTransport();
+        } catch (GeneralSecurityException | IOException err) {
+          throw new RuntimeException("Unable to initialize HTTP transport", err);
+        }
+      };
+
+  private AdminApiTransports() {}
+
+  /**
+   * Returns the transport shared by the Admin API clients that use factory. Each call must be
+   * matched by a call to release when the client is no longer used.
+   *
+   * @param factory creates the transport, or null for the default transport.
+   */
+  static HttpTransport get(HttpTransportFactory factory) {
+    Shared shared =
+        transports.compute(
+            factory != null ? factory : DEFAULT_FACTORY,
+            (f, s) -> {
+              Shared result = s != null ? s : new Shared(f.create());
+              result.clients.incrementAndGet();
+              return result;
+            });
+    logger.debug(
+        String.format("Admin API HTTP transport is shared by %d clients.", shared.clients.get()));
+    return shared.transport;
+  }
+
+  /**
+   * Releases the transport of factory for a client that no longer uses it. The transport is shut
+   * down when no client uses it.
+   *
+   * @param factory the factory passed to get.
+   */
+  static void release(HttpTransportFactory factory) {
+    Shared[] unused = new Shared[1];
+    Shared remaining =
+        transports.computeIfPresent(
+            factory != null ? factory : DEFAULT_FACTORY,
+            (f, s) -> {
+              if (s.clients.decrementAndGet() > 0) {
+                return s;
+              }
+              unused[0] = s;
+              return null;
+            });
+    if (unused[0] == null) {
+      if (remaining != null) {
+        logger.debug(
+            String.format(
+                "Admin API HTTP transport is shared by %d clients.", remaining.clients.get()));
+      }
+      return;
+    }
+    logger.debug("Admin API HTTP transport is no longer used, shutting it down.");
+    try {
+      unused[0].transport.shutdown();
+    } catch (IOException e) {
+      logger.debug("Unable to shut down the Admin API HTTP transport.", e);
+    }
+  }
+
+  /** Returns the number of transports in use. */
+  static int getTransportCount() {
+    return transports.size();
+  }
+
+  /** Returns the number of Admin API clients that use the transport of factory. */
+  static int getClientCount(HttpTransportFactory factory) {
+    Shared shared = transports.get(factory != null ? factory : DEFAULT_FACTORY);
+    return shared != null ? shared.clients.get() : 0;
+  }
+
+  private static class Shared {
+    private final HttpTransport transport;
+    private final AtomicInteger clients = new AtomicInteger();
+
+    Shared(HttpTransport transport) {
+      this.transport = transport;
+    }
+  }
+}
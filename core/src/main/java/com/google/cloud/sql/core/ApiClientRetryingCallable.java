@@ -17,15 +17,28 @@
 package com.google.cloud.sql.core;
 
 import com.google.api.client.http.HttpResponseException;
+import com.google.cloud.sql.RetryPolicy;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import java.io.IOException;
 import java.util.concurrent.Callable;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Extends RetryingCallable with logic to only retry on HTTP errors with error codes in the 5xx
- * range.
+ * range, network errors and timeouts.
+ *
+ * <p>When created with an AdminApiGovernor, each attempt waits for the governor, and 429 Too Many
+ * Requests responses are retried too, after the backoff of the governor.
  *
  * @param <T> the return value for Callable
  */
 class ApiClientRetryingCallable<T> extends RetryingCallable<T> {
+  private static final int TOO_MANY_REQUESTS = 429;
+
+  private final Callable<T> callable;
+  private final AdminApiGovernor governor;
+  private final long priority;
 
   /**
    * Construct a new RetryLogic.
@@ -33,23 +46,67 @@ class ApiClientRetryingCallable<T> extends RetryingCallable<T> {
    * @param callable the callable that should be retried
    */
   public ApiClientRetryingCallable(Callable<T> callable) {
-    super(callable);
+    this(callable, null, 0, null, null, null);
+  }
+
+  /**
+   * Construct a new RetryLogic that sends each attempt through the governor.
+   *
+   * @param callable the callable that should be retried
+   * @param governor the governor of the Admin API requests, or null
+   * @param priority the priority of the attempts in the governor, lower values start first
+   * @param policy the retry policy, or null for RetryPolicy.DEFAULT
+   * @param endpoint the name of the Admin API method, for the retry counters
+   * @param counters counts the retries, or null
+   */
+  ApiClientRetryingCallable(
+      Callable<T> callable,
+      AdminApiGovernor governor,
+      long priority,
+      RetryPolicy policy,
+      String endpoint,
+      RetryCounters counters) {
+    super(
+        governor != null ? governor.govern(callable, priority) : callable,
+        policy,
+        endpoint,
+        counters);
+    this.callable = callable;
+    this.governor = governor;
+    this.priority = priority;
+  }
+
+  @Override
+  protected ListenableFuture<T> submitAttempt(ListeningScheduledExecutorService executor) {
+    if (governor == null) {
+      return super.submitAttempt(executor);
+    }
+    return governor.submit(callable, priority, executor);
   }
 
   /**
    * Returns false indicating that there should be another attempt if the exception is an HTTP
-   * response with an error code in the 5xx range.
+   * response with an error code in the 5xx range, another I/O error such as a socket timeout, or
+   * the timeout of an attempt.
    *
    * @param e the exception
-   * @return false if this is a http response with a 5xx status code, otherwise true.
+   * @return false if this is a http response with a 5xx status code, a network error or a timeout,
+   *     otherwise true.
    */
   @Override
   protected boolean isFatalException(Exception e) {
     // Only retry if the error is an HTTP response with a 5xx error code.
     if (e instanceof HttpResponseException) {
       HttpResponseException re = (HttpResponseException) e;
+      if (governor != null && re.getStatusCode() == TOO_MANY_REQUESTS) {
+        return false;
+      }
       return re.getStatusCode() < 500;
     }
+    // Network errors, such as connection resets and socket timeouts, and attempt timeouts.
+    if (e instanceof IOException || e instanceof TimeoutException) {
+      return false;
+    }
     // Otherwise this is a fatal exception, no more tries.
     return true;
   }
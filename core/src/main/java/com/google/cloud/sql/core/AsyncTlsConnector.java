@@ -0,0 +1,444 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLEngineResult.HandshakeStatus;
+import javax.net.ssl.SSLException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * AsyncTlsConnector connects non-blocking SocketChannels and completes the TLS handshake with an
+ * SSLEngine. All socket I/O runs on a single selector thread, so many connections can be opened
+ * concurrently without a thread per connection. The CPU intensive parts of the handshake, the
+ * SSLEngine delegated tasks, run on the given executor.
+ */
+class AsyncTlsConnector {
+  private static final Logger logger = LoggerFactory.getLogger(AsyncTlsConnector.class);
+  private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+  private final Executor taskExecutor;
+  private final ScheduledExecutorService scheduler;
+  private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+  private final Selector selector;
+  private volatile boolean closed;
+
+  /**
+   * Creates a new AsyncTlsConnector and starts its selector thread.
+   *
+   * @param taskExecutor runs the SSLEngine delegated tasks.
+   * @param scheduler enforces the connect timeouts.
+   */
+  AsyncTlsConnector(Executor taskExecutor, ScheduledExecutorService scheduler) throws IOException {
+    this.taskExecutor = taskExecutor;
+    this.scheduler = scheduler;
+    this.selector = Selector.open();
+    Thread thread = new Thread(this::run, "CloudSqlAsyncConnector");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Connects to the first target that completes a TLS handshake, trying the targets in order.
+   *
+   * @param sslContext creates the SSLEngine for each attempt.
+   * @param targets the IP addresses, in order of preference.
+   * @param port the server port.
+   * @param timeoutMs the time allowed for all attempts.
+   * @param onHandshake called with the SSLEngine when a handshake completes.
+   * @param channelFactory creates the result from the connected attempt.
+   */
+  CompletableFuture<TlsSocketChannel> connect(
+      SSLContext sslContext,
+      List<String> targets,
+      int port,
+      long timeoutMs,
+      Consumer<SSLEngine> onHandshake,
+      ChannelFactory channelFactory) {
+    Dial dial = new Dial(sslContext, targets, port, onHandshake, channelFactory);
+    ScheduledFuture<?> timeout =
+        scheduler.schedule(() -> dial.timeout(timeoutMs), timeoutMs, TimeUnit.MILLISECONDS);
+    dial.result.whenComplete((c, e) -> timeout.cancel(false));
+    try {
+      submit(() -> dial.next(0, null));
+    } catch (RejectedExecutionException e) {
+      dial.result.completeExceptionally(e);
+    }
+    return dial.result;
+  }
+
+  /** Creates the TlsSocketChannel from an attempt with a completed handshake. */
+  interface ChannelFactory {
+    TlsSocketChannel create(
+        SocketChannel channel,
+        SSLEngine engine,
+        ByteBuffer netIn,
+        ByteBuffer appIn,
+        ByteBuffer netOut);
+  }
+
+  /** Tries the targets of a single call to connect() one after another. */
+  private class Dial {
+    private final SSLContext sslContext;
+    private final List<String> targets;
+    private final int port;
+    private final Consumer<SSLEngine> onHandshake;
+    private final ChannelFactory channelFactory;
+    private final CompletableFuture<TlsSocketChannel> result = new CompletableFuture<>();
+    // Written on the selector thread. Read by timeout() when the selector thread has stopped.
+    private volatile Attempt current;
+
+    Dial(
+        SSLContext sslContext,
+        List<String> targets,
+        int port,
+        Consumer<SSLEngine> onHandshake,
+        ChannelFactory channelFactory) {
+      this.sslContext = sslContext;
+      this.targets = targets;
+      this.port = port;
+      this.onHandshake = onHandshake;
+      this.channelFactory = channelFactory;
+    }
+
+    /** Starts the attempt for targets[index]. Runs on the selector thread. */
+    void next(int index, Throwable lastError) {
+      if (result.isDone()) {
+        return;
+      }
+      if (index >= targets.size()) {
+        result.completeExceptionally(
+            lastError != null ? lastError : new IOException("No IP address to connect to"));
+        return;
+      }
+      String targetIp = targets.get(index);
+      logger.debug(String.format("[%s] Connecting to instance.", targetIp));
+      CompletableFuture<TlsSocketChannel> attemptResult = new CompletableFuture<>();
+      attemptResult.whenComplete(
+          (channel, err) -> {
+            if (err == null) {
+              if (!result.complete(channel)) {
+                // The connect timed out while the handshake completed.
+                closeQuietly(channel);
+              }
+              return;
+            }
+            logger.debug(String.format("[%s] Connection failed: %s", targetIp, err.getMessage()));
+            try {
+              submit(() -> next(index + 1, err));
+            } catch (RejectedExecutionException e) {
+              result.completeExceptionally(err);
+            }
+          });
+      try {
+        SSLEngine engine = sslContext.createSSLEngine(targetIp, port);
+        engine.setUseClientMode(true);
+        current = new Attempt(engine, onHandshake, channelFactory, attemptResult);
+        current.start(new InetSocketAddress(targetIp, port));
+      } catch (IOException | RuntimeException e) {
+        attemptResult.completeExceptionally(e);
+      }
+    }
+
+    void timeout(long timeoutMs) {
+      TimeoutException e =
+          new TimeoutException(
+              String.format("Connection attempt timed out after %d ms", timeoutMs));
+      if (result.completeExceptionally(e)) {
+        try {
+          submit(
+              () -> {
+                if (current != null) {
+                  current.close();
+                }
+              });
+        } catch (RejectedExecutionException ex) {
+          // The selector thread has stopped. Closing the selector only deregisters the channels,
+          // so close the channel of the current attempt here.
+          Attempt attempt = current;
+          if (attempt != null) {
+            attempt.close();
+          }
+        }
+      }
+    }
+  }
+
+  /** Runs task on the selector thread. */
+  private void submit(Runnable task) {
+    if (closed) {
+      throw new RejectedExecutionException("AsyncTlsConnector is closed");
+    }
+    pending.add(task);
+    selector.wakeup();
+  }
+
+  private void run() {
+    while (!closed) {
+      try {
+        selector.select();
+        for (Runnable task = pending.poll(); task != null; task = pending.poll()) {
+          task.run();
+        }
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+          SelectionKey key = keys.next();
+          keys.remove();
+          if (key.isValid()) {
+            ((Attempt) key.attachment()).onReady(key);
+          }
+        }
+      } catch (ClosedSelectorException e) {
+        return;
+      } catch (IOException | RuntimeException e) {
+        logger.debug("Unexpected error in the async connector selector loop", e);
+      }
+    }
+  }
+
+  void close() {
+    closed = true;
+    try {
+      selector.close();
+    } catch (IOException e) {
+      // ignore
+    }
+  }
+
+  private static void closeQuietly(TlsSocketChannel channel) {
+    try {
+      channel.close();
+    } catch (IOException e) {
+      // ignore
+    }
+  }
+
+  /** The TCP connect and TLS handshake to a single IP address. */
+  private class Attempt {
+    private final SSLEngine engine;
+    private final Consumer<SSLEngine> onHandshake;
+    private final ChannelFactory channelFactory;
+    private final CompletableFuture<TlsSocketChannel> result;
+    private SocketChannel channel;
+    private SelectionKey key;
+    private ByteBuffer netIn;
+    private ByteBuffer appIn;
+    private final ByteBuffer netOut;
+
+    Attempt(
+        SSLEngine engine,
+        Consumer<SSLEngine> onHandshake,
+        ChannelFactory channelFactory,
+        CompletableFuture<TlsSocketChannel> result) {
+      this.engine = engine;
+      this.onHandshake = onHandshake;
+      this.channelFactory = channelFactory;
+      this.result = result;
+      int packetSize = engine.getSession().getPacketBufferSize();
+      this.netIn = ByteBuffer.allocateDirect(packetSize);
+      this.appIn = ByteBuffer.allocateDirect(engine.getSession().getApplicationBufferSize());
+      this.netOut = ByteBuffer.allocateDirect(packetSize);
+      this.netOut.flip();
+    }
+
+    void start(InetSocketAddress address) throws IOException {
+      channel = SocketChannel.open();
+      channel.configureBlocking(false);
+      channel.setOption(StandardSocketOptions.SO_KEEPALIVE, true);
+      channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+      key = channel.register(selector, 0, this);
+      if (channel.connect(address)) {
+        beginHandshake();
+      } else {
+        key.interestOps(SelectionKey.OP_CONNECT);
+      }
+    }
+
+    void onReady(SelectionKey key) {
+      try {
+        if (key.isConnectable()) {
+          channel.finishConnect();
+          beginHandshake();
+        } else {
+          handshake();
+        }
+      } catch (IOException | RuntimeException e) {
+        fail(e);
+      }
+    }
+
+    private void beginHandshake() throws IOException {
+      engine.beginHandshake();
+      handshake();
+    }
+
+    /** Advances the handshake until it completes or must wait for the channel. */
+    private void handshake() throws IOException {
+      while (true) {
+        if (netOut.hasRemaining()) {
+          channel.write(netOut);
+          if (netOut.hasRemaining()) {
+            key.interestOps(SelectionKey.OP_WRITE);
+            return;
+          }
+        }
+
+        HandshakeStatus status = engine.getHandshakeStatus();
+        switch (status) {
+          case NEED_WRAP:
+            netOut.clear();
+            SSLEngineResult wrapped;
+            try {
+              wrapped = engine.wrap(EMPTY, netOut);
+            } finally {
+              netOut.flip();
+            }
+            if (wrapped.getStatus() == SSLEngineResult.Status.CLOSED && !netOut.hasRemaining()) {
+              throw new SSLException("TLS handshake failed, the connection was closed");
+            }
+            break;
+          case NEED_UNWRAP:
+            netIn.flip();
+            SSLEngineResult unwrapped;
+            try {
+              unwrapped = engine.unwrap(netIn, appIn);
+            } finally {
+              netIn.compact();
+            }
+            switch (unwrapped.getStatus()) {
+              case BUFFER_UNDERFLOW:
+                if (netIn.remaining() == 0) {
+                  netIn = enlarge(netIn, engine.getSession().getPacketBufferSize());
+                }
+                int n = channel.read(netIn);
+                if (n < 0) {
+                  throw new EOFException("Connection closed during the TLS handshake");
+                }
+                if (n == 0) {
+                  key.interestOps(SelectionKey.OP_READ);
+                  return;
+                }
+                break;
+              case BUFFER_OVERFLOW:
+                appIn = enlarge(appIn, engine.getSession().getApplicationBufferSize());
+                break;
+              case CLOSED:
+                throw new SSLException("TLS handshake failed, the connection was closed");
+              default:
+                break;
+            }
+            break;
+          case NEED_TASK:
+            // Run the CPU intensive handshake steps off the selector thread.
+            key.interestOps(0);
+            try {
+              taskExecutor.execute(this::runDelegatedTasks);
+            } catch (RejectedExecutionException e) {
+              // The executor is shutting down, nothing would resume the handshake.
+              fail(e);
+            }
+            return;
+          case FINISHED:
+          case NOT_HANDSHAKING:
+            finish();
+            return;
+          default:
+            throw new SSLException("Unexpected TLS handshake status " + status);
+        }
+      }
+    }
+
+    /**
+     * Runs the delegated tasks of the engine, and resumes the handshake on the selector thread. Any
+     * error fails the attempt, as the channel waits for no event until the handshake resumes.
+     */
+    private void runDelegatedTasks() {
+      try {
+        Runnable task;
+        while ((task = engine.getDelegatedTask()) != null) {
+          task.run();
+        }
+        submit(
+            () -> {
+              try {
+                handshake();
+              } catch (IOException | RuntimeException e) {
+                fail(e);
+              }
+            });
+      } catch (RuntimeException e) {
+        fail(e);
+      }
+    }
+
+    private void finish() {
+      key.cancel();
+      onHandshake.accept(engine);
+      result.complete(channelFactory.create(channel, engine, netIn, appIn, netOut));
+    }
+
+    private void fail(Throwable e) {
+      close();
+      result.completeExceptionally(e);
+    }
+
+    void close() {
+      if (key != null) {
+        key.cancel();
+      }
+      if (channel != null) {
+        try {
+          channel.close();
+        } catch (IOException e) {
+          // ignore
+        }
+      }
+    }
+  }
+
+  /** Returns a larger copy of buf, which is in write mode. */
+  private static ByteBuffer enlarge(ByteBuffer buf, int minCapacity) {
+    ByteBuffer bigger = ByteBuffer.allocateDirect(Math.max(minCapacity, buf.capacity() * 2));
+    buf.flip();
+    bigger.put(buf);
+    return bigger;
+  }
+}
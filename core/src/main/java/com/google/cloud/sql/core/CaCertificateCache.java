@@ -0,0 +1,125 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.net.ssl.TrustManagerFactory;
+
+/**
+ * CaCertificateCache keeps the parsed server CA certificates, and the TrustManagerFactory that
+ * trusts them, by the fingerprint of the certificates. The server CA of an instance rarely
+ * changes, and instances that use a shared or CAS-managed CA have the same certificates, so a
+ * refresh usually finds both already built by an earlier refresh of any instance.
+ *
+ * <p>The cached TrustManagerFactory only checks the chain of trust. It is shared, and must not be
+ * initialized again. The instance-specific checks are added by InstanceCheckingTrustManagerFactory.
+ */
+class CaCertificateCache {
+  // Bounds the memory used when many distinct CAs are seen, such as when CAs are rotated.
+  static final int MAX_ENTRIES = 256;
+
+  private static final ConcurrentHashMap<String, List<Certificate>> certificates =
+      new ConcurrentHashMap<>();
+  private static final ConcurrentHashMap<String, TrustManagerFactory> trustManagerFactories =
+      new ConcurrentHashMap<>();
+
+  private CaCertificateCache() {}
+
+  /** Returns the certificates of the PEM encoded chain, parsing it only if it was not seen. */
+  static List<Certificate> parseCertificateChain(String pem) throws CertificateException {
+    String fingerprint = Hashing.sha256().hashString(pem, StandardCharsets.UTF_8).toString();
+    List<Certificate> chain = certificates.get(fingerprint);
+    if (chain != null) {
+      return chain;
+    }
+
+    CertificateFactory certificateFactory = CertificateFactory.getInstance("X.509");
+    ByteArrayInputStream certStream =
+        new ByteArrayInputStream(pem.getBytes(StandardCharsets.UTF_8));
+    List<Certificate> parsed = new ArrayList<>();
+    while (certStream.available() > 0) {
+      parsed.add(certificateFactory.generateCertificate(certStream));
+    }
+    chain = Collections.unmodifiableList(parsed);
+    put(certificates, fingerprint, chain);
+    return chain;
+  }
+
+  /**
+   * Returns a TrustManagerFactory initialized with a trust store that holds the CA certificates,
+   * building it only if no factory was built for the same certificates.
+   */
+  static TrustManagerFactory getTrustManagerFactory(List<Certificate> caCertificates)
+      throws GeneralSecurityException, IOException {
+    String fingerprint = fingerprint(caCertificates);
+    TrustManagerFactory tmf = trustManagerFactories.get(fingerprint);
+    if (tmf != null) {
+      return tmf;
+    }
+
+    KeyStore trustedKeyStore = KeyStore.getInstance(KeyStore.getDefaultType());
+    trustedKeyStore.load(null, null);
+    // Add all the certificates in the chain of trust to the trust keystore.
+    for (Certificate cert : caCertificates) {
+      trustedKeyStore.setCertificateEntry("ca" + cert.hashCode(), cert);
+    }
+    tmf = TrustManagerFactory.getInstance("X.509");
+    tmf.init(trustedKeyStore);
+    put(trustManagerFactories, fingerprint, tmf);
+    return tmf;
+  }
+
+  /** Returns the number of parsed chains and built factories, for tests. */
+  static int size() {
+    return certificates.size() + trustManagerFactories.size();
+  }
+
+  /** Removes all the entries, for tests. */
+  static void clear() {
+    certificates.clear();
+    trustManagerFactories.clear();
+  }
+
+  private static String fingerprint(List<Certificate> caCertificates)
+      throws CertificateException {
+    Hasher h = Hashing.sha256().newHasher();
+    for (Certificate c : caCertificates) {
+      h.putBytes(c.getEncoded()).putByte((byte) 0);
+    }
+    return h.hash().toString();
+  }
+
+  private static <V> void put(ConcurrentHashMap<String, V> cache, String fingerprint, V value) {
+    if (cache.size() >= MAX_ENTRIES) {
+      cache.clear();
+    }
+    cache.put(fingerprint, value);
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import com.google.common.base.Throwables;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * ConnectDeadline tracks the time left to establish a connection, so that a single timeout covers
+ * every phase of the connection: resolving the instance name of a domain name, waiting for the
+ * connection info, resolving the IP addresses of a domain name, the TCP connect, the TLS handshake,
+ * and the MDX exchange.
+ */
+class ConnectDeadline {
+  private final long timeoutMs;
+  private final long deadlineNanos;
+
+  ConnectDeadline(long timeoutMs) {
+    this.timeoutMs = timeoutMs;
+    this.deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+  }
+
+  /** Returns the timeout this deadline was created with. */
+  long getTimeoutMs() {
+    return timeoutMs;
+  }
+
+  /**
+   * Returns the milliseconds left before the deadline, for use as a socket timeout.
+   *
+   * @throws SocketTimeoutException if the deadline has passed.
+   */
+  int remainingMs() throws SocketTimeoutException {
+    long remaining = TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime());
+    if (remaining <= 0) {
+      throw new SocketTimeoutException(
+          String.format("Connection attempt timed out after %d ms", timeoutMs));
+    }
+    return (int) Math.min(remaining, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Waits for the result of future until the deadline. The future is not cancelled when the
+   * deadline passes, so that a lookup shared with other connections can still complete.
+   *
+   * @throws SocketTimeoutException if the deadline passes first.
+   */
+  <T> T await(Future<T> future) throws IOException {
+    try {
+      return future.get(remainingMs(), TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      throw new SocketTimeoutException(
+          String.format("Connection attempt timed out after %d ms", timeoutMs));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting to connect");
+    } catch (ExecutionException e) {
+      Throwables.throwIfInstanceOf(e.getCause(), IOException.class);
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new RuntimeException(e.getCause());
+    }
+  }
+
+  /**
+   * Returns the time allowed for the next of several connection attempts made one after another,
+   * sharing the time left equally among them.
+   *
+   * @param attemptsLeft the number of attempts left, including the next one.
+   * @throws SocketTimeoutException if the deadline has passed.
+   */
+  int attemptTimeoutMs(int attemptsLeft) throws SocketTimeoutException {
+    return Math.max(1, remainingMs() / Math.max(1, attemptsLeft));
+  }
+}
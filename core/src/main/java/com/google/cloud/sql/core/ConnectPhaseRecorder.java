@@ -0,0 +1,101 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import com.google.cloud.sql.ConnectorMetrics;
+import com.google.cloud.sql.ConnectorMetrics.ConnectPhase;
+import com.google.cloud.sql.ConnectorMetrics.EvictionCause;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * ConnectPhaseRecorder times the phases of a connection and reports them to the configured
+ * ConnectorMetrics. When no ConnectorMetrics is configured, it does not read the clock.
+ */
+class ConnectPhaseRecorder {
+  private static final Logger logger = LoggerFactory.getLogger(ConnectPhaseRecorder.class);
+
+  private final ConnectorMetrics metrics;
+
+  ConnectPhaseRecorder(ConnectorMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  boolean isEnabled() {
+    return metrics != null;
+  }
+
+  /** Returns the start time of a phase, to be passed to record(). */
+  long start() {
+    return metrics != null ? System.nanoTime() : 0L;
+  }
+
+  /**
+   * Reports the time since startNanos as the duration of a phase.
+   *
+   * @return the end time of the phase, which may be used as the start time of the next phase.
+   */
+  long record(String instanceName, ConnectPhase phase, long startNanos) {
+    if (metrics == null) {
+      return 0L;
+    }
+    long now = System.nanoTime();
+    try {
+      metrics.recordConnectPhase(instanceName, phase, now - startNanos);
+    } catch (RuntimeException e) {
+      logger.debug(
+          String.format("[%s] Failed to record the %s connect phase", instanceName, phase), e);
+    }
+    return now;
+  }
+
+  /** Reports that the connector evicted an instance. */
+  void recordInstanceEviction(String instanceName, EvictionCause cause) {
+    if (metrics == null) {
+      return;
+    }
+    try {
+      metrics.recordInstanceEviction(instanceName, cause);
+    } catch (RuntimeException e) {
+      logger.debug(String.format("[%s] Failed to record the instance eviction", instanceName), e);
+    }
+  }
+
+  /** Reports the time that a prewarmed instance took until its connection info was ready. */
+  void recordInstanceReady(String instanceName, long durationNanos) {
+    if (metrics == null) {
+      return;
+    }
+    try {
+      metrics.recordInstanceReady(instanceName, durationNanos);
+    } catch (RuntimeException e) {
+      logger.debug(String.format("[%s] Failed to record the instance readiness", instanceName), e);
+    }
+  }
+
+  /** Reports the time since startNanos as the time until the client key pair was available. */
+  void recordKeyPairReady(long startNanos) {
+    if (metrics == null) {
+      return;
+    }
+    try {
+      metrics.recordKeyPairReady(System.nanoTime() - startNanos);
+    } catch (RuntimeException e) {
+      logger.debug("Failed to record the key pair ready time", e);
+    }
+  }
+}
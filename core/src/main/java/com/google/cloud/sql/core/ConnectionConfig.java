@@ -21,6 +21,7 @@ import com.google.cloud.sql.ConnectorConfig;
 import com.google.cloud.sql.IpType;
 import com.google.cloud.sql.RefreshStrategy;
 import com.google.common.base.Splitter;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -55,6 +56,29 @@ public class ConnectionConfig {
       Arrays.asList(IpType.PUBLIC, IpType.PRIVATE);
   public static final String CLOUD_SQL_GOOGLE_CREDENTIALS_PATH = "cloudSqlGoogleCredentialsPath";
   public static final String MDX_CLIENT_PROTOCOL_TYPE = "mdxClientProtocolType";
+  public static final String CLOUD_SQL_CONNECT_ATTEMPT_DELAY_MS_PROPERTY =
+      "cloudSqlConnectAttemptDelayMs";
+  public static final String CLOUD_SQL_STANDBY_POOL_SIZE_PROPERTY = "cloudSqlStandbyPoolSize";
+  public static final String CLOUD_SQL_STANDBY_POOL_MAX_IDLE_MS_PROPERTY =
+      "cloudSqlStandbyPoolMaxIdleMs";
+  public static final String CLOUD_SQL_CONNECT_TIMEOUT_MS_PROPERTY = "cloudSqlConnectTimeoutMs";
+  public static final String CLOUD_SQL_MAX_CONCURRENT_HANDSHAKES_PROPERTY =
+      "cloudSqlMaxConcurrentHandshakes";
+  public static final String CLOUD_SQL_MAX_CONCURRENT_CONNECTOR_HANDSHAKES_PROPERTY =
+      "cloudSqlMaxConcurrentConnectorHandshakes";
+  public static final String CLOUD_SQL_CONNECTION_INFO_CACHE_DIRECTORY_PROPERTY =
+      "cloudSqlConnectionInfoCacheDirectory";
+  public static final String CLOUD_SQL_CONNECTION_INFO_CACHE_KEY_PROPERTY =
+      "cloudSqlConnectionInfoCacheKey";
+  public static final String CLOUD_SQL_METADATA_CACHE_TTL_MS_PROPERTY =
+      "cloudSqlMetadataCacheTtlMs";
+  public static final String CLOUD_SQL_INSTANCE_IDLE_TIMEOUT_MS_PROPERTY =
+      "cloudSqlInstanceIdleTimeoutMs";
+  public static final String CLOUD_SQL_MAX_INSTANCES_PROPERTY = "cloudSqlMaxInstances";
+  public static final String CLOUD_SQL_ADMIN_API_RATE_LIMIT_PROPERTY = "cloudSqlAdminApiRateLimit";
+  public static final String CLOUD_SQL_ADMIN_API_BURST_PROPERTY = "cloudSqlAdminApiBurst";
+  public static final String CLOUD_SQL_ADMIN_API_MAX_CONCURRENT_REQUESTS_PROPERTY =
+      "cloudSqlAdminApiMaxConcurrentRequests";
 
   private final ConnectorConfig connectorConfig;
   private final String cloudSqlInstance;
@@ -120,6 +144,66 @@ public class ConnectionConfig {
 
     final String mdxClientProtocolType =
         props.getProperty(ConnectionConfig.MDX_CLIENT_PROTOCOL_TYPE);
+    final Duration connectAttemptDelay =
+        parseMillis(
+            props.getProperty(ConnectionConfig.CLOUD_SQL_CONNECT_ATTEMPT_DELAY_MS_PROPERTY),
+            ConnectionConfig.CLOUD_SQL_CONNECT_ATTEMPT_DELAY_MS_PROPERTY);
+    final int standbyPoolSize =
+        parseInt(
+            props.getProperty(ConnectionConfig.CLOUD_SQL_STANDBY_POOL_SIZE_PROPERTY),
+            ConnectionConfig.CLOUD_SQL_STANDBY_POOL_SIZE_PROPERTY,
+            0);
+    final Duration standbyPoolMaxIdle =
+        parseMillis(
+            props.getProperty(ConnectionConfig.CLOUD_SQL_STANDBY_POOL_MAX_IDLE_MS_PROPERTY),
+            ConnectionConfig.CLOUD_SQL_STANDBY_POOL_MAX_IDLE_MS_PROPERTY);
+    final Duration connectTimeout =
+        parseMillis(
+            props.getProperty(ConnectionConfig.CLOUD_SQL_CONNECT_TIMEOUT_MS_PROPERTY),
+            ConnectionConfig.CLOUD_SQL_CONNECT_TIMEOUT_MS_PROPERTY);
+    final int maxConcurrentHandshakes =
+        parseInt(
+            props.getProperty(ConnectionConfig.CLOUD_SQL_MAX_CONCURRENT_HANDSHAKES_PROPERTY),
+            ConnectionConfig.CLOUD_SQL_MAX_CONCURRENT_HANDSHAKES_PROPERTY,
+            0);
+    final int maxConcurrentConnectorHandshakes =
+        parseInt(
+            props.getProperty(
+                ConnectionConfig.CLOUD_SQL_MAX_CONCURRENT_CONNECTOR_HANDSHAKES_PROPERTY),
+            ConnectionConfig.CLOUD_SQL_MAX_CONCURRENT_CONNECTOR_HANDSHAKES_PROPERTY,
+            0);
+    final String connectionInfoCacheDirectory =
+        props.getProperty(ConnectionConfig.CLOUD_SQL_CONNECTION_INFO_CACHE_DIRECTORY_PROPERTY);
+    final String connectionInfoCacheKey =
+        props.getProperty(ConnectionConfig.CLOUD_SQL_CONNECTION_INFO_CACHE_KEY_PROPERTY);
+    final Duration metadataCacheTtl =
+        parseMillis(
+            props.getProperty(ConnectionConfig.CLOUD_SQL_METADATA_CACHE_TTL_MS_PROPERTY),
+            ConnectionConfig.CLOUD_SQL_METADATA_CACHE_TTL_MS_PROPERTY);
+    final Duration instanceIdleTimeout =
+        parseMillis(
+            props.getProperty(ConnectionConfig.CLOUD_SQL_INSTANCE_IDLE_TIMEOUT_MS_PROPERTY),
+            ConnectionConfig.CLOUD_SQL_INSTANCE_IDLE_TIMEOUT_MS_PROPERTY);
+    final int maxInstances =
+        parseInt(
+            props.getProperty(ConnectionConfig.CLOUD_SQL_MAX_INSTANCES_PROPERTY),
+            ConnectionConfig.CLOUD_SQL_MAX_INSTANCES_PROPERTY,
+            0);
+    final double adminApiRateLimit =
+        parseDouble(
+            props.getProperty(ConnectionConfig.CLOUD_SQL_ADMIN_API_RATE_LIMIT_PROPERTY),
+            ConnectionConfig.CLOUD_SQL_ADMIN_API_RATE_LIMIT_PROPERTY);
+    final int adminApiBurst =
+        parseInt(
+            props.getProperty(ConnectionConfig.CLOUD_SQL_ADMIN_API_BURST_PROPERTY),
+            ConnectionConfig.CLOUD_SQL_ADMIN_API_BURST_PROPERTY,
+            0);
+    final int adminApiMaxConcurrentRequests =
+        parseInt(
+            props.getProperty(
+                ConnectionConfig.CLOUD_SQL_ADMIN_API_MAX_CONCURRENT_REQUESTS_PROPERTY),
+            ConnectionConfig.CLOUD_SQL_ADMIN_API_MAX_CONCURRENT_REQUESTS_PROPERTY,
+            0);
 
     return new ConnectionConfig(
         csqlInstanceName,
@@ -138,10 +222,66 @@ public class ConnectionConfig {
             .withAdminQuotaProject(adminQuotaProject)
             .withUniverseDomain(universeDomain)
             .withRefreshStrategy(refreshStrategy)
+            .withConnectAttemptDelay(connectAttemptDelay)
+            .withStandbyPoolSize(standbyPoolSize)
+            .withStandbyPoolMaxIdle(
+                standbyPoolMaxIdle != null
+                    ? standbyPoolMaxIdle
+                    : ConnectorConfig.DEFAULT_STANDBY_POOL_MAX_IDLE)
+            .withConnectTimeout(connectTimeout)
+            .withMaxConcurrentHandshakes(maxConcurrentHandshakes)
+            .withMaxConcurrentConnectorHandshakes(maxConcurrentConnectorHandshakes)
+            .withConnectionInfoCacheDirectory(connectionInfoCacheDirectory)
+            .withConnectionInfoCacheKey(connectionInfoCacheKey)
+            .withMetadataCacheTtl(metadataCacheTtl)
+            .withInstanceIdleTimeout(instanceIdleTimeout)
+            .withMaxInstances(maxInstances)
+            .withAdminApiRateLimit(adminApiRateLimit)
+            .withAdminApiBurst(adminApiBurst)
+            .withAdminApiMaxConcurrentRequests(adminApiMaxConcurrentRequests)
             .build(),
         mdxClientProtocolType);
   }
 
+  /** Parses a property holding a number of milliseconds. Returns null if the property is unset. */
+  private static Duration parseMillis(String value, String propertyName) {
+    if (value == null || value.trim().isEmpty()) {
+      return null;
+    }
+    try {
+      return Duration.ofMillis(Long.parseLong(value.trim()));
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException(
+          "Unsupported value: " + value + " found in " + propertyName + " parameter", e);
+    }
+  }
+
+  /** Parses a property holding an integer. Returns defaultValue if the property is unset. */
+  private static int parseInt(String value, String propertyName, int defaultValue) {
+    if (value == null || value.trim().isEmpty()) {
+      return defaultValue;
+    }
+    try {
+      return Integer.parseInt(value.trim());
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException(
+          "Unsupported value: " + value + " found in " + propertyName + " parameter", e);
+    }
+  }
+
+  /** Parses a property holding a decimal number. Returns 0 if the property is unset. */
+  private static double parseDouble(String value, String propertyName) {
+    if (value == null || value.trim().isEmpty()) {
+      return 0;
+    }
+    try {
+      return Double.parseDouble(value.trim());
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException(
+          "Unsupported value: " + value + " found in " + propertyName + " parameter", e);
+    }
+  }
+
   /**
    * Converts the string property of IP types to a list by splitting by commas, and upper-casing.
    */
@@ -17,6 +17,8 @@
 package com.google.cloud.sql.core;
 
 import com.google.cloud.sql.IpType;
+import java.security.KeyPair;
+import java.security.cert.Certificate;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
@@ -30,12 +32,26 @@ class ConnectionInfo {
   private final SSLContext sslContext;
   private final SslData sslData;
   private final Instant expiration;
+  // The key pair and ephemeral certificate in sslData, or null if unknown.
+  private final KeyPair keyPair;
+  private final Certificate ephemeralCertificate;
 
   ConnectionInfo(InstanceMetadata instanceMetadata, SslData sslData, Instant expiration) {
+    this(instanceMetadata, sslData, expiration, null, null);
+  }
+
+  ConnectionInfo(
+      InstanceMetadata instanceMetadata,
+      SslData sslData,
+      Instant expiration,
+      KeyPair keyPair,
+      Certificate ephemeralCertificate) {
     this.instanceMetadata = instanceMetadata;
     this.sslData = sslData;
     this.sslContext = sslData.getSslContext();
     this.expiration = expiration;
+    this.keyPair = keyPair;
+    this.ephemeralCertificate = ephemeralCertificate;
   }
 
   public Instant getExpiration() {
@@ -54,6 +70,18 @@ class ConnectionInfo {
     return sslData;
   }
 
+  InstanceMetadata getInstanceMetadata() {
+    return instanceMetadata;
+  }
+
+  KeyPair getKeyPair() {
+    return keyPair;
+  }
+
+  Certificate getEphemeralCertificate() {
+    return ephemeralCertificate;
+  }
+
   ConnectionMetadata toConnectionMetadata(
       ConnectionConfig config, CloudSqlInstanceName instanceName) {
     List<String> preferredIps = null;
@@ -37,4 +37,10 @@ interface ConnectionInfoCache {
   boolean isClosed();
 
   ConnectionConfig getConfig();
+
+  /**
+   * Calls listener each time new connection info is available, and now if it is already
+   * available.
+   */
+  default void addRefreshListener(Runnable listener) {}
 }
@@ -0,0 +1,355 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import static com.google.cloud.sql.core.RefreshCalculator.DEFAULT_REFRESH_BUFFER;
+
+import com.google.auth.oauth2.ComputeEngineCredentials;
+import com.google.auth.oauth2.ExternalAccountCredentials;
+import com.google.auth.oauth2.GoogleCredentials;
+import com.google.auth.oauth2.ImpersonatedCredentials;
+import com.google.auth.oauth2.ServiceAccountCredentials;
+import com.google.auth.oauth2.UserCredentials;
+import com.google.cloud.sql.AuthType;
+import com.google.cloud.sql.ConnectorConfig;
+import com.google.cloud.sql.IpType;
+import com.google.common.hash.Hashing;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.SecureRandom;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateFactory;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * ConnectionInfoDiskCache saves the connection info of instances in a directory, so that a
+ * restarted process can connect to an instance before its first refresh completes.
+ *
+ * <p>Each file holds the key pair, ephemeral certificate and metadata of one instance, auth type
+ * and credential identity, encrypted with AES-GCM. The connection name, auth type and credential
+ * identity are authenticated with the file, so a file cannot be used for another instance, or by
+ * a connector that authenticates as another principal. With IAM authentication the ephemeral
+ * certificate is bound to the principal that requested it. Files that cannot be read, or whose
+ * certificate expires within the refresh buffer, are ignored. Errors are logged and never fail a
+ * connection.
+ */
+class ConnectionInfoDiskCache {
+  private static final Logger logger = LoggerFactory.getLogger(ConnectionInfoDiskCache.class);
+
+  private static final int FORMAT_VERSION = 1;
+  private static final int IV_LENGTH = 12;
+  private static final int TAG_LENGTH_BITS = 128;
+
+  private final Path directory;
+  private final SecretKey key;
+  private final String credentialIdentity;
+  private final SecureRandom random = new SecureRandom();
+
+  /**
+   * Creates a new ConnectionInfoDiskCache.
+   *
+   * @param directory the directory holding the files. It is created when the first file is saved.
+   * @param base64Key the base64 encoded AES key.
+   * @param credentialIdentity identifies the principal of the connector, see credentialIdentity().
+   */
+  ConnectionInfoDiskCache(String directory, String base64Key, String credentialIdentity) {
+    this.directory = Paths.get(directory);
+    this.key = new SecretKeySpec(Base64.getDecoder().decode(base64Key), "AES");
+    this.credentialIdentity = credentialIdentity;
+  }
+
+  /**
+   * Returns a string that identifies the principal that the connector authenticates as, or null
+   * when the type of credentials does not tell the principal without a network request.
+   *
+   * @param credentials the credentials of the connector.
+   * @param config the configuration of the connector, for the impersonation chain.
+   */
+  static String credentialIdentity(GoogleCredentials credentials, ConnectorConfig config) {
+    String principal;
+    if (credentials instanceof ServiceAccountCredentials) {
+      principal = "serviceAccount:" + ((ServiceAccountCredentials) credentials).getClientEmail();
+    } else if (credentials instanceof ImpersonatedCredentials) {
+      principal = "impersonated:" + ((ImpersonatedCredentials) credentials).getAccount();
+    } else if (credentials instanceof UserCredentials) {
+      UserCredentials user = (UserCredentials) credentials;
+      principal =
+          "user:"
+              + user.getClientId()
+              + ":"
+              + Hashing.sha256()
+                  .hashString(String.valueOf(user.getRefreshToken()), StandardCharsets.UTF_8);
+    } else if (credentials instanceof ExternalAccountCredentials) {
+      ExternalAccountCredentials external = (ExternalAccountCredentials) credentials;
+      principal = "external:" + external.getAudience() + ":" + external.getServiceAccountEmail();
+    } else if (credentials instanceof ComputeEngineCredentials) {
+      // The default service account of the VM, the same for all connectors of the process.
+      principal = "computeEngine";
+    } else {
+      return null;
+    }
+    return principal
+        + "|"
+        + config.getTargetPrincipal()
+        + "|"
+        + (config.getDelegates() != null ? String.join(",", config.getDelegates()) : "");
+  }
+
+  /**
+   * Returns the saved connection info of the instance, or null if there is none that is still
+   * valid.
+   */
+  ConnectionInfo load(CloudSqlInstanceName instanceName, AuthType authType) {
+    Path file = fileFor(instanceName, authType);
+    if (!Files.exists(file)) {
+      return null;
+    }
+    try {
+      ConnectionInfo info =
+          decode(instanceName, authType, decrypt(instanceName, authType, file));
+      if (info.getExpiration().minus(DEFAULT_REFRESH_BUFFER).isBefore(Instant.now())) {
+        logger.debug(
+            String.format("[%s] Saved connection info has expired, ignoring it.", instanceName));
+        return null;
+      }
+      logger.debug(
+          String.format(
+              "[%s] Loaded saved connection info, certificate expiration at %s.",
+              instanceName, info.getExpiration()));
+      return info;
+    } catch (IOException | GeneralSecurityException | RuntimeException e) {
+      logger.debug(
+          String.format("[%s] Unable to load saved connection info, ignoring it.", instanceName),
+          e);
+      return null;
+    }
+  }
+
+  /**
+   * Saves the connection info of the instance, replacing the file atomically. Connection info that
+   * does not hold its key pair and ephemeral certificate is not saved.
+   */
+  void save(CloudSqlInstanceName instanceName, AuthType authType, ConnectionInfo info) {
+    if (info.getKeyPair() == null || info.getEphemeralCertificate() == null) {
+      return;
+    }
+    try {
+      Files.createDirectories(directory);
+      Path file = fileFor(instanceName, authType);
+      Path tmp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+      try {
+        Files.write(tmp, encrypt(instanceName, authType, encode(info)));
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(tmp);
+      }
+    } catch (IOException | GeneralSecurityException | RuntimeException e) {
+      logger.debug(String.format("[%s] Unable to save connection info.", instanceName), e);
+    }
+  }
+
+  private Path fileFor(CloudSqlInstanceName instanceName, AuthType authType) {
+    String name = Hashing.sha256().hashBytes(associatedData(instanceName, authType)).toString();
+    return directory.resolve(name + ".bin");
+  }
+
+  /** Returns the data that a file is bound to: the instance, auth type and credential identity. */
+  private byte[] associatedData(CloudSqlInstanceName instanceName, AuthType authType) {
+    return (instanceName.getConnectionName() + "/" + authType + "/" + credentialIdentity)
+        .getBytes(StandardCharsets.UTF_8);
+  }
+
+  private byte[] encrypt(CloudSqlInstanceName instanceName, AuthType authType, byte[] plaintext)
+      throws GeneralSecurityException {
+    byte[] iv = new byte[IV_LENGTH];
+    random.nextBytes(iv);
+    Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+    cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH_BITS, iv));
+    cipher.updateAAD(associatedData(instanceName, authType));
+    byte[] ciphertext = cipher.doFinal(plaintext);
+
+    byte[] out = new byte[IV_LENGTH + ciphertext.length];
+    System.arraycopy(iv, 0, out, 0, IV_LENGTH);
+    System.arraycopy(ciphertext, 0, out, IV_LENGTH, ciphertext.length);
+    return out;
+  }
+
+  private byte[] decrypt(CloudSqlInstanceName instanceName, AuthType authType, Path file)
+      throws IOException, GeneralSecurityException {
+    byte[] in = Files.readAllBytes(file);
+    if (in.length <= IV_LENGTH) {
+      throw new IOException("File is too short: " + file);
+    }
+    Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+    cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH_BITS, in, 0, IV_LENGTH));
+    cipher.updateAAD(associatedData(instanceName, authType));
+    return cipher.doFinal(in, IV_LENGTH, in.length - IV_LENGTH);
+  }
+
+  private static byte[] encode(ConnectionInfo info) throws IOException, GeneralSecurityException {
+    InstanceMetadata metadata = info.getInstanceMetadata();
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+
+    out.writeInt(FORMAT_VERSION);
+    out.writeLong(info.getExpiration().toEpochMilli());
+    out.writeUTF(info.getKeyPair().getPublic().getAlgorithm());
+    writeBytes(out, info.getKeyPair().getPublic().getEncoded());
+    writeBytes(out, info.getKeyPair().getPrivate().getEncoded());
+    writeBytes(out, info.getEphemeralCertificate().getEncoded());
+
+    out.writeInt(metadata.getIpAddrs().size());
+    for (Map.Entry<IpType, List<String>> e : metadata.getIpAddrs().entrySet()) {
+      out.writeUTF(e.getKey().name());
+      writeStrings(out, e.getValue());
+    }
+    out.writeInt(metadata.getInstanceCaCertificates().size());
+    for (Certificate c : metadata.getInstanceCaCertificates()) {
+      writeBytes(out, c.getEncoded());
+    }
+    out.writeBoolean(metadata.isCasManagedCertificate());
+    writeString(out, metadata.getDnsName());
+    out.writeBoolean(metadata.isPscEnabled());
+    writeStrings(out, metadata.getMdxProtocolSupport());
+
+    out.flush();
+    return bytes.toByteArray();
+  }
+
+  private static ConnectionInfo decode(
+      CloudSqlInstanceName instanceName, AuthType authType, byte[] data)
+      throws IOException, GeneralSecurityException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+
+    int version = in.readInt();
+    if (version != FORMAT_VERSION) {
+      throw new IOException("Unsupported format version " + version);
+    }
+    Instant expiration = Instant.ofEpochMilli(in.readLong());
+    KeyFactory keyFactory = KeyFactory.getInstance(in.readUTF());
+    KeyPair keyPair =
+        new KeyPair(
+            keyFactory.generatePublic(new X509EncodedKeySpec(readBytes(in))),
+            keyFactory.generatePrivate(new PKCS8EncodedKeySpec(readBytes(in))));
+    CertificateFactory certificateFactory = CertificateFactory.getInstance("X.509");
+    Certificate ephemeralCertificate =
+        certificateFactory.generateCertificate(new ByteArrayInputStream(readBytes(in)));
+
+    Map<IpType, List<String>> ipAddrs = new HashMap<>();
+    int ipTypeCount = in.readInt();
+    for (int i = 0; i < ipTypeCount; i++) {
+      IpType ipType = IpType.valueOf(in.readUTF());
+      ipAddrs.put(ipType, readStrings(in));
+    }
+    List<Certificate> caCertificates = new ArrayList<>();
+    int caCount = in.readInt();
+    for (int i = 0; i < caCount; i++) {
+      caCertificates.add(
+          certificateFactory.generateCertificate(new ByteArrayInputStream(readBytes(in))));
+    }
+    boolean casManagedCertificate = in.readBoolean();
+    String dnsName = readString(in);
+    boolean pscEnabled = in.readBoolean();
+    List<String> mdxProtocolSupport = readStrings(in);
+
+    InstanceMetadata metadata =
+        new InstanceMetadata(
+            instanceName,
+            ipAddrs,
+            caCertificates,
+            casManagedCertificate,
+            dnsName,
+            pscEnabled,
+            mdxProtocolSupport);
+    SslData sslData =
+        DefaultConnectionInfoRepository.createSslData(
+            keyPair, metadata, ephemeralCertificate, instanceName, authType);
+    return new ConnectionInfo(metadata, sslData, expiration, keyPair, ephemeralCertificate);
+  }
+
+  private static void writeBytes(DataOutputStream out, byte[] value) throws IOException {
+    out.writeInt(value.length);
+    out.write(value);
+  }
+
+  private static byte[] readBytes(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length < 0 || length > in.available()) {
+      throw new IOException("Invalid length " + length);
+    }
+    byte[] value = new byte[length];
+    in.readFully(value);
+    return value;
+  }
+
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeUTF(value);
+    }
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+
+  private static void writeStrings(DataOutputStream out, List<String> values) throws IOException {
+    out.writeInt(values != null ? values.size() : -1);
+    if (values != null) {
+      for (String v : values) {
+        out.writeUTF(v);
+      }
+    }
+  }
+
+  private static List<String> readStrings(DataInputStream in) throws IOException {
+    int size = in.readInt();
+    if (size < 0) {
+      return null;
+    }
+    List<String> values = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      values.add(in.readUTF());
+    }
+    return Collections.unmodifiableList(values);
+  }
+}
@@ -38,4 +38,19 @@ interface ConnectionInfoRepository {
       KeyPair keyPair);
 
   String resolveConnectionName(String region, String dnsName);
+
+  /**
+   * Discards any metadata of the instance kept between refreshes, so that the next refresh fetches
+   * it from the API. Called when a connection to the instance fails.
+   */
+  default void invalidateMetadata(CloudSqlInstanceName instanceName) {}
+
+  /**
+   * Discards everything kept about the instance between refreshes. Called when the connection info
+   * cache of the instance is closed, such as when the connector evicts an idle instance.
+   */
+  default void removeInstance(CloudSqlInstanceName instanceName) {}
+
+  /** Releases the resources used to call the API. Called when the connector is closed. */
+  default void close() {}
 }
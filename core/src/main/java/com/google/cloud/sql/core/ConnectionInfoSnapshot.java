@@ -0,0 +1,46 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import java.time.Duration;
+
+/**
+ * ConnectionInfoSnapshot is an immutable pair of connection info and the time until which it may be
+ * used. The refresh strategies publish it in a volatile field, so that a new connection can read
+ * valid connection info without taking a lock.
+ */
+final class ConnectionInfoSnapshot {
+  private final ConnectionInfo info;
+  private final long validUntilMillis;
+
+  /**
+   * Creates a snapshot that is valid until the client certificate of info expires, less
+   * refreshBuffer.
+   */
+  ConnectionInfoSnapshot(ConnectionInfo info, Duration refreshBuffer) {
+    this.info = info;
+    this.validUntilMillis = info.getExpiration().toEpochMilli() - refreshBuffer.toMillis();
+  }
+
+  ConnectionInfo getInfo() {
+    return info;
+  }
+
+  boolean isValid() {
+    return System.currentTimeMillis() < validUntilMillis;
+  }
+}
@@ -16,12 +16,17 @@
 
 package com.google.cloud.sql.core;
 
+import com.google.cloud.sql.AuthType;
 import com.google.cloud.sql.ConnectorConfig;
+import com.google.cloud.sql.ConnectorMetrics.ConnectPhase;
+import com.google.cloud.sql.ConnectorMetrics.EvictionCause;
 import com.google.cloud.sql.CredentialFactory;
 import com.google.cloud.sql.RefreshStrategy;
 import com.google.common.base.Strings;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
 import java.io.File;
 import java.io.IOException;
 import java.net.InetAddress;
@@ -29,12 +34,27 @@ import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.UnknownHostException;
 import java.security.KeyPair;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
+import java.util.function.Supplier;
+import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLSocket;
 import jnr.unixsocket.UnixSocketAddress;
 import jnr.unixsocket.UnixSocketChannel;
@@ -43,22 +63,50 @@ import org.slf4j.LoggerFactory;
 
 class Connector {
   private static final Logger logger = LoggerFactory.getLogger(Connector.class);
+  // Standby sockets are opened in the background, so their connect phases are not recorded.
+  private static final ConnectPhaseRecorder NO_PHASES = new ConnectPhaseRecorder(null);
+  // The number of instances using the lazy refresh strategy that are prewarmed at the same time.
+  private static final int PREWARM_THREADS = 4;
 
   private final ConnectionInfoRepository adminApi;
   private final CredentialFactory instanceCredentialFactory;
+  // Saves the connection info of instances on disk, or null when not configured.
+  private final ConnectionInfoDiskCache diskCache;
   private final ListeningScheduledExecutorService executor;
   private final ListenableFuture<KeyPair> localKeyPair;
   private final long minRefreshDelayMs;
 
   private final ConcurrentHashMap<ConnectionConfig, MonitoredCache> instances =
       new ConcurrentHashMap<>();
+  // The number of instances evicted because they were idle, or because of maxInstances.
+  private final AtomicLong idleEvictionCount = new AtomicLong();
+  private final AtomicLong sizeEvictionCount = new AtomicLong();
   private final int serverProxyPort;
   private final ConnectorConfig config;
 
   private final InstanceConnectionNameResolver instanceNameResolver;
-  private final DnsResolver dnsResolver;
+  private final InstanceNameCache instanceNameCache;
+  private final HostResolutionCache hostResolutionCache;
   private final Timer instanceNameResolverTimer;
   private final ProtocolHandler mdxProtocolHandler;
+  private final StaggeredDialer dialer;
+  private final ExecutorService standbyExecutor;
+  private final ConnectPhaseRecorder phaseRecorder;
+  // Limits the handshakes to all instances, or null when not limited.
+  private final HandshakeLimiter handshakeLimiter;
+  // The connect timeout for standby sockets, which are not opened by a call to connect().
+  private final long connectTimeoutMs;
+
+  @GuardedBy("this")
+  private AsyncTlsConnector asyncConnector;
+
+  // The IAM login token shared by all instances that use IAM authentication, and by the other
+  // connectors that authenticate as the same principal. Created when first needed.
+  @GuardedBy("this")
+  private DownscopedTokenCache iamTokenCache;
+
+  @GuardedBy("this")
+  private ExecutorService prewarmExecutor;
 
   Connector(
       ConnectorConfig config,
@@ -75,14 +123,96 @@ class Connector {
     this.adminApi =
         connectionInfoRepositoryFactory.create(instanceCredentialFactory.create(), config);
     this.instanceNameResolver = new DnsInstanceConnectionNameResolver(dnsResolver, this.adminApi);
+    this.instanceNameCache = new InstanceNameCache(this::resolveDomain, executor);
     this.instanceCredentialFactory = instanceCredentialFactory;
+    this.diskCache = newDiskCache(config, instanceCredentialFactory);
     this.executor = executor;
-    this.localKeyPair = localKeyPair;
+    this.localKeyPair =
+        config.getKeyPairSupplier() != null
+            ? executor.submit(() -> supplyKeyPair(config.getKeyPairSupplier()))
+            : localKeyPair;
     this.minRefreshDelayMs = minRefreshDelayMs;
     this.serverProxyPort = serverProxyPort;
-    this.dnsResolver = dnsResolver;
+    this.hostResolutionCache =
+        new HostResolutionCache(dnsResolver, executor, config.getConnectorMetrics());
     this.instanceNameResolverTimer = new Timer("InstanceNameResolverTimer", true);
+    if (config.getInstanceIdleTimeout() != null) {
+      // Check for idle instances at least once a minute, on the timer of this connector.
+      long period = Math.max(1, Math.min(config.getInstanceIdleTimeout().toMillis(), 60000));
+      instanceNameResolverTimer.schedule(
+          new TimerTask() {
+            @Override
+            public void run() {
+              evictIdleInstances();
+            }
+          },
+          period,
+          period);
+    }
     this.mdxProtocolHandler = mdxProtocolHandler;
+    this.dialer =
+        config.getConnectAttemptDelay() != null
+            ? new StaggeredDialer(config.getConnectAttemptDelay())
+            : null;
+    this.standbyExecutor =
+        config.getStandbyPoolSize() > 0
+            ? Executors.newCachedThreadPool(
+                r -> {
+                  Thread t = new Thread(r, "CloudSqlStandbyPool");
+                  t.setDaemon(true);
+                  return t;
+                })
+            : null;
+    this.phaseRecorder = new ConnectPhaseRecorder(config.getConnectorMetrics());
+    if (phaseRecorder.isEnabled()) {
+      long start = phaseRecorder.start();
+      this.localKeyPair.addListener(
+          () -> phaseRecorder.recordKeyPairReady(start), MoreExecutors.directExecutor());
+    }
+    this.handshakeLimiter =
+        config.getMaxConcurrentConnectorHandshakes() > 0
+            ? new HandshakeLimiter(config.getMaxConcurrentConnectorHandshakes())
+            : null;
+    this.connectTimeoutMs =
+        config.getConnectTimeout() != null
+            ? config.getConnectTimeout().toMillis()
+            : InternalConnectorRegistry.DEFAULT_CONNECT_TIMEOUT_MS;
+  }
+
+  /**
+   * Returns the disk cache of the connection info, or null when it is not configured, or when the
+   * principal of the credentials is unknown, so that a saved file cannot be used by a connector
+   * that authenticates as another principal.
+   */
+  private static ConnectionInfoDiskCache newDiskCache(
+      ConnectorConfig config, CredentialFactory credentialFactory) {
+    if (config.getConnectionInfoCacheDirectory() == null) {
+      return null;
+    }
+    String credentialIdentity = credentialIdentity(config, credentialFactory);
+    if (credentialIdentity == null) {
+      logger.debug(
+          "The principal of the credentials is unknown, not using the connection info cache.");
+      return null;
+    }
+    return new ConnectionInfoDiskCache(
+        config.getConnectionInfoCacheDirectory(),
+        config.getConnectionInfoCacheKey(),
+        credentialIdentity);
+  }
+
+  /**
+   * Returns the principal of the credentials, see ConnectionInfoDiskCache.credentialIdentity(), or
+   * null when it is unknown.
+   */
+  private static String credentialIdentity(
+      ConnectorConfig config, CredentialFactory credentialFactory) {
+    try {
+      return ConnectionInfoDiskCache.credentialIdentity(credentialFactory.getCredentials(), config);
+    } catch (RuntimeException e) {
+      logger.debug("Unable to identify the credentials.", e);
+      return null;
+    }
   }
 
   public ConnectorConfig getConfig() {
@@ -126,115 +256,430 @@ class Connector {
       return UnixSocketChannel.open(socketAddress).socket();
     }
 
-    MonitoredCache instance = getConnection(config);
+    ConnectDeadline deadline = new ConnectDeadline(timeoutMs);
+    MonitoredCache instance = getConnection(config, deadline);
+    try {
+      long start = phaseRecorder.start();
+      ConnectionMetadata metadata = instance.getConnectionMetadata(deadline.remainingMs());
+      phaseRecorder.record(
+          instance.getConfig().getCloudSqlInstance(), ConnectPhase.METADATA_WAIT, start);
+      SSLSocket socket = instance.pollStandbySocket(metadata);
+      if (socket != null) {
+        logger.debug(
+            String.format("[%s] Using a standby socket.", config.getCloudSqlInstance()));
+      } else {
+        socket = openSocket(config, instance, metadata, deadline, false);
+      }
+      instance.addSocket(socket);
+
+      return socket;
+    } catch (HandshakeLimiter.QueueTimeoutException e) {
+      // The instance was not contacted, so there is no reason to refresh its connection info.
+      throw e;
+    } catch (IOException e) {
+      logger.debug(
+          String.format(
+              "[%s] Socket connection failed! Trigger a refresh.", config.getCloudSqlInstance()));
+      instance.forceRefresh();
+      throw e;
+    }
+  }
+
+  /**
+   * Connects to a Cloud SQL instance without blocking on socket I/O. The TCP connect and TLS
+   * handshake run on a selector thread shared by all connection attempts of this connector. The
+   * lookup of the connection info runs on the calling thread, and only blocks while no connection
+   * info is available yet for the instance.
+   *
+   * @param config the connection configuration.
+   * @param timeoutMs the time allowed to wait for the connection info, and for the TCP connect and
+   *     TLS handshake.
+   * @return a future of the connected channel.
+   */
+  CompletableFuture<TlsSocketChannel> connectAsync(ConnectionConfig config, long timeoutMs) {
+    CompletableFuture<TlsSocketChannel> f = new CompletableFuture<>();
+    if (getUnixSocketArg(config) != null) {
+      f.completeExceptionally(
+          new IllegalArgumentException("Asynchronous connections do not support Unix sockets"));
+      return f;
+    }
+
+    ConnectDeadline deadline = new ConnectDeadline(timeoutMs);
+    MonitoredCache instance;
     try {
-      ConnectionMetadata metadata = instance.getConnectionMetadata(timeoutMs);
-      List<String> preferredIps = metadata.getPreferredIpAddresses();
-      List<String> targets = new ArrayList<>();
-
-      // If a domain name was used to connect, resolve it to an IP address
-      if (!Strings.isNullOrEmpty(instance.getConfig().getDomainName())) {
-        try {
-          List<InetAddress> addrs = dnsResolver.resolveHost(instance.getConfig().getDomainName());
-          if (addrs != null && !addrs.isEmpty()) {
+      instance = getConnection(config, deadline);
+    } catch (IOException | RuntimeException e) {
+      f.completeExceptionally(e);
+      return f;
+    }
+
+    try {
+      long start = phaseRecorder.start();
+      ConnectionMetadata metadata = instance.getConnectionMetadata(deadline.remainingMs());
+      phaseRecorder.record(
+          instance.getConfig().getCloudSqlInstance(), ConnectPhase.METADATA_WAIT, start);
+      List<String> targets = resolveTargets(instance, metadata, deadline, phaseRecorder);
+      byte[] mdxRequest =
+          metadata.isMdxClientProtocolTypeSupport()
+                  && !Strings.isNullOrEmpty(config.getMdxClientProtocolType())
+              ? mdxProtocolHandler.mdxRequest(config.getMdxClientProtocolType())
+              : null;
+      f =
+          getAsyncConnector()
+              .connect(
+                  instance.getSslContext(metadata),
+                  targets,
+                  serverProxyPort,
+                  deadline.remainingMs(),
+                  instance::recordHandshake,
+                  (channel, engine, netIn, appIn, netOut) ->
+                      new TlsSocketChannel(
+                          channel, engine, netIn, appIn, netOut, mdxProtocolHandler, mdxRequest));
+    } catch (IOException | RuntimeException e) {
+      f.completeExceptionally(e);
+    }
+
+    return f.whenComplete(
+        (channel, e) -> {
+          if (e != null) {
             logger.debug(
                 String.format(
-                    "[%s] custom DNS name %s resolved to %s, using it to connect",
-                    instance.getConfig().getCloudSqlInstance(),
-                    instance.getConfig().getDomainName(),
-                    addrs.get(0).getHostAddress()));
-            for (InetAddress addr : addrs) {
-              targets.add(addr.getHostAddress());
-            }
+                    "[%s] Socket connection failed! Trigger a refresh.",
+                    config.getCloudSqlInstance()));
+            instance.forceRefresh();
           } else {
             logger.debug(
                 String.format(
-                    "[%s] custom DNS name %s resolved but returned no entries, using %s from"
-                        + " instance metadata",
-                    instance.getConfig().getCloudSqlInstance(),
-                    instance.getConfig().getDomainName(),
-                    preferredIps.get(0)));
-            targets.addAll(preferredIps);
+                    "[%s] Connected to instance successfully.", config.getCloudSqlInstance()));
+            instance.addSocket(channel.getSocketChannel().socket());
+          }
+        });
+  }
+
+  /**
+   * Starts the refresh of the connection info of each instance, so that the first connections to
+   * the instances do not wait for the Admin API.
+   *
+   * @param configs the connection configurations of the instances.
+   * @param timeoutMs the time allowed for the connection info of each instance to be ready.
+   * @return a future that completes when the connection info of all the instances is ready, with
+   *     the time that each instance took to be ready, by instance connection name. The future
+   *     fails if an instance is not ready within the timeout, or if its lazy refresh fails.
+   */
+  CompletableFuture<Map<String, Duration>> prewarm(
+      Collection<ConnectionConfig> configs, long timeoutMs) {
+    Map<String, Duration> readiness = new ConcurrentHashMap<>();
+    List<CompletableFuture<Void>> futures = new ArrayList<>();
+    for (ConnectionConfig config : configs) {
+      long start = System.nanoTime();
+      MonitoredCache instance;
+      try {
+        instance = getConnection(config);
+      } catch (RuntimeException e) {
+        CompletableFuture<Void> f = new CompletableFuture<>();
+        f.completeExceptionally(e);
+        futures.add(f);
+        continue;
+      }
+      futures.add(
+          whenReady(instance, start, timeoutMs)
+              .thenAccept(
+                  durationNanos -> {
+                    String instanceName = instance.getConfig().getCloudSqlInstance();
+                    readiness.put(instanceName, Duration.ofNanos(durationNanos));
+                    phaseRecorder.recordInstanceReady(instanceName, durationNanos);
+                    logger.debug(
+                        String.format(
+                            "[%s] Prewarmed in %d ms.",
+                            instanceName, TimeUnit.NANOSECONDS.toMillis(durationNanos)));
+                  }));
+    }
+    return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+        .thenApply(v -> readiness);
+  }
+
+  /**
+   * Returns a future of the time since start until the connection info of instance is ready. The
+   * future is completed by a refresh listener, so no thread waits for the refresh. An instance
+   * using the lazy refresh strategy only refreshes when its connection info is requested, so the
+   * request runs on a small pool of its own instead of holding the threads that run the refreshes.
+   */
+  private CompletableFuture<Long> whenReady(MonitoredCache instance, long start, long timeoutMs) {
+    CompletableFuture<Long> ready = new CompletableFuture<>();
+    String instanceName = instance.getConfig().getCloudSqlInstance();
+    try {
+      ScheduledFuture<?> timeout =
+          executor.schedule(
+              () ->
+                  ready.completeExceptionally(
+                      new RuntimeException(
+                          String.format(
+                              "[%s] Connection info was not ready within %d ms.",
+                              instanceName, timeoutMs))),
+              timeoutMs,
+              TimeUnit.MILLISECONDS);
+      ready.whenComplete((d, e) -> timeout.cancel(false));
+    } catch (RejectedExecutionException e) {
+      ready.completeExceptionally(e);
+      return ready;
+    }
+    instance.addRefreshListener(() -> ready.complete(System.nanoTime() - start));
+
+    if (instance.getConfig().getConnectorConfig().getRefreshStrategy() == RefreshStrategy.LAZY) {
+      try {
+        getPrewarmExecutor()
+            .execute(
+                () -> {
+                  try {
+                    instance.getConnectionMetadata(timeoutMs);
+                  } catch (RuntimeException e) {
+                    ready.completeExceptionally(e);
+                  }
+                });
+      } catch (RejectedExecutionException e) {
+        ready.completeExceptionally(e);
+      }
+    }
+    return ready;
+  }
+
+  private synchronized ExecutorService getPrewarmExecutor() {
+    if (prewarmExecutor == null) {
+      ThreadPoolExecutor pool =
+          new ThreadPoolExecutor(
+              PREWARM_THREADS,
+              PREWARM_THREADS,
+              60,
+              TimeUnit.SECONDS,
+              new LinkedBlockingQueue<>(),
+              r -> {
+                Thread t = new Thread(r, "CloudSqlPrewarm");
+                t.setDaemon(true);
+                return t;
+              });
+      pool.allowCoreThreadTimeOut(true);
+      prewarmExecutor = pool;
+    }
+    return prewarmExecutor;
+  }
+
+  private synchronized AsyncTlsConnector getAsyncConnector() throws IOException {
+    if (asyncConnector == null) {
+      asyncConnector = new AsyncTlsConnector(executor, executor);
+    }
+    return asyncConnector;
+  }
+
+  /**
+   * Connects a new socket to the instance, completing the TLS handshake. The DNS lookup of a
+   * domain name, the TCP connect and the TLS handshake must complete before the deadline. When the
+   * MDX exchange is enabled, the socket reads the MDX response within the time left.
+   *
+   * <p>When the number of concurrent handshakes is limited, each attempt to connect to an IP
+   * address takes its own permits, for the duration of its TCP connect and TLS handshake only.
+   *
+   * <p>A standby socket does not take handshake permits, as the size of the standby pool already
+   * bounds its concurrent handshakes, and its connect phases are not recorded, so that background
+   * connects do not skew the connect latency seen by callers.
+   */
+  private SSLSocket openSocket(
+      ConnectionConfig config,
+      MonitoredCache instance,
+      ConnectionMetadata metadata,
+      ConnectDeadline deadline,
+      boolean standby)
+      throws IOException {
+    String instanceName = instance.getConfig().getCloudSqlInstance();
+    ConnectPhaseRecorder recorder = standby ? NO_PHASES : phaseRecorder;
+    List<String> targets = resolveTargets(instance, metadata, deadline, recorder);
+    SSLContext sslContext = instance.getSslContext(metadata);
+    StaggeredDialer.SocketOpener opener =
+        new StaggeredDialer.SocketOpener() {
+          @Override
+          public SSLSocket create() throws IOException {
+            return createSocket(sslContext);
+          }
+
+          @Override
+          public void connect(SSLSocket s, String targetIp, int timeoutMs) throws IOException {
+            connectSocket(s, targetIp, instanceName, timeoutMs, recorder);
+            instance.recordHandshake(s);
+          }
+        };
+    if (!standby) {
+      opener =
+          new LimitedSocketOpener(
+              opener, instanceName, instance.getHandshakeLimiter(), handshakeLimiter, recorder);
+    }
+    SSLSocket socket;
+    if (dialer != null && targets.size() > 1) {
+      socket = dialer.dial(targets, opener, deadline);
+    } else {
+      socket = dialSequentially(targets, opener, deadline);
+    }
+    String successfulIp = socket.getInetAddress().getHostAddress();
+
+    if (metadata.isMdxClientProtocolTypeSupport()
+        && !Strings.isNullOrEmpty(config.getMdxClientProtocolType())) {
+      socket =
+          mdxProtocolHandler.connect(
+              socket,
+              config.getMdxClientProtocolType(),
+              recorder,
+              instanceName,
+              deadline.remainingMs());
+    }
+
+    logger.debug(String.format("[%s] Connected to instance successfully.", successfulIp));
+    return socket;
+  }
+
+  /**
+   * Returns the IP addresses to connect to, in order of preference. The DNS lookup of a domain name
+   * must complete before the deadline.
+   */
+  private List<String> resolveTargets(
+      MonitoredCache instance,
+      ConnectionMetadata metadata,
+      ConnectDeadline deadline,
+      ConnectPhaseRecorder recorder)
+      throws IOException {
+    List<String> preferredIps = metadata.getPreferredIpAddresses();
+    List<String> targets = new ArrayList<>();
+
+    // If a domain name was used to connect, resolve it to an IP address
+    if (!Strings.isNullOrEmpty(instance.getConfig().getDomainName())) {
+      long start = recorder.start();
+      try {
+        List<InetAddress> addrs =
+            hostResolutionCache.resolve(instance.getConfig().getDomainName(), deadline);
+        recorder.record(instance.getConfig().getCloudSqlInstance(), ConnectPhase.DNS, start);
+        if (addrs != null && !addrs.isEmpty()) {
+          logger.debug(
+              String.format(
+                  "[%s] custom DNS name %s resolved to %s, using it to connect",
+                  instance.getConfig().getCloudSqlInstance(),
+                  instance.getConfig().getDomainName(),
+                  addrs.get(0).getHostAddress()));
+          for (InetAddress addr : addrs) {
+            targets.add(addr.getHostAddress());
           }
-        } catch (UnknownHostException e) {
+        } else {
           logger.debug(
               String.format(
-                  "[%s] custom DNS name %s did not resolve to an IP address: %s, using %s from"
+                  "[%s] custom DNS name %s resolved but returned no entries, using %s from"
                       + " instance metadata",
                   instance.getConfig().getCloudSqlInstance(),
                   instance.getConfig().getDomainName(),
-                  e.getMessage(),
                   preferredIps.get(0)));
           targets.addAll(preferredIps);
         }
-      } else {
+      } catch (UnknownHostException e) {
+        logger.debug(
+            String.format(
+                "[%s] custom DNS name %s did not resolve to an IP address: %s, using %s from"
+                    + " instance metadata",
+                instance.getConfig().getCloudSqlInstance(),
+                instance.getConfig().getDomainName(),
+                e.getMessage(),
+                preferredIps.get(0)));
         targets.addAll(preferredIps);
       }
+    } else {
+      targets.addAll(preferredIps);
+    }
+    return targets;
+  }
 
-      IOException lastEx = null;
+  /**
+   * Tries each target in order, returning the first socket that completes the TLS handshake. The
+   * time left before the deadline is shared equally by the targets not yet tried, so that a target
+   * that does not respond leaves time for the next one.
+   */
+  private SSLSocket dialSequentially(
+      List<String> targets, StaggeredDialer.SocketOpener opener, ConnectDeadline deadline)
+      throws IOException {
+    IOException lastEx = null;
+    for (int i = 0; i < targets.size(); i++) {
+      String targetIp = targets.get(i);
+      int timeoutMs = deadline.attemptTimeoutMs(targets.size() - i);
+      logger.debug(String.format("[%s] Connecting to instance.", targetIp));
       SSLSocket socket = null;
-      String successfulIp = null;
-      for (String targetIp : targets) {
-        logger.debug(String.format("[%s] Connecting to instance.", targetIp));
-        try {
-          socket = (SSLSocket) metadata.getSslContext().getSocketFactory().createSocket();
-          socket.setKeepAlive(true);
-          socket.setTcpNoDelay(true);
-          socket.connect(new InetSocketAddress(targetIp, serverProxyPort));
-          socket.startHandshake();
-          successfulIp = targetIp;
-          lastEx = null; // success
-          break;
-        } catch (IOException e) {
-          logger.debug(String.format("[%s] Connection failed: %s", targetIp, e.getMessage()));
-          lastEx = e;
-          if (socket != null) {
-            try {
-              socket.close();
-            } catch (IOException ce) {
-              // ignore
-            }
+      try {
+        socket = opener.create();
+        opener.connect(socket, targetIp, timeoutMs);
+        return socket;
+      } catch (IOException e) {
+        logger.debug(String.format("[%s] Connection failed: %s", targetIp, e.getMessage()));
+        lastEx = e;
+        if (socket != null) {
+          try {
+            socket.close();
+          } catch (IOException ce) {
+            // ignore
           }
         }
       }
+    }
+    throw lastEx;
+  }
 
-      if (lastEx != null) {
-        throw lastEx;
-      }
-
-      if (metadata.isMdxClientProtocolTypeSupport()
-          && !Strings.isNullOrEmpty(config.getMdxClientProtocolType())) {
-        socket = mdxProtocolHandler.connect(socket, config.getMdxClientProtocolType());
-      }
-
-      logger.debug(String.format("[%s] Connected to instance successfully.", successfulIp));
-      instance.addSocket(socket);
+  private SSLSocket createSocket(SSLContext sslContext) throws IOException {
+    SSLSocket socket = (SSLSocket) sslContext.getSocketFactory().createSocket();
+    socket.setKeepAlive(true);
+    socket.setTcpNoDelay(true);
+    return socket;
+  }
 
-      return socket;
-    } catch (IOException e) {
-      logger.debug(
-          String.format(
-              "[%s] Socket connection failed! Trigger a refresh.", config.getCloudSqlInstance()));
-      instance.forceRefresh();
-      throw e;
-    }
+  private void connectSocket(
+      SSLSocket socket,
+      String targetIp,
+      String instanceName,
+      int timeoutMs,
+      ConnectPhaseRecorder recorder)
+      throws IOException {
+    ConnectDeadline attemptDeadline = new ConnectDeadline(timeoutMs);
+    long start = recorder.start();
+    socket.connect(new InetSocketAddress(targetIp, serverProxyPort), attemptDeadline.remainingMs());
+    start = recorder.record(instanceName, ConnectPhase.TCP_CONNECT, start);
+    // Bound the handshake reads by the time left, then restore the default of no read timeout.
+    socket.setSoTimeout(attemptDeadline.remainingMs());
+    socket.startHandshake();
+    socket.setSoTimeout(0);
+    recorder.record(instanceName, ConnectPhase.TLS_HANDSHAKE, start);
   }
 
   MonitoredCache getConnection(final ConnectionConfig config) {
-    final ConnectionConfig updatedConfig = resolveConnectionName(config);
+    return getResolvedConnection(resolveConnectionName(config));
+  }
 
+  /**
+   * Returns the cache of the instance, as getConnection(config) does, resolving the instance name
+   * of a domain name before the deadline.
+   */
+  private MonitoredCache getConnection(ConnectionConfig config, ConnectDeadline deadline)
+      throws IOException {
+    return getResolvedConnection(resolveConnectionName(config, deadline));
+  }
+
+  private MonitoredCache getResolvedConnection(ConnectionConfig updatedConfig) {
     // If the cache entry doesn't exist, or if the cache entry is closed,
-    // replace it.
-    MonitoredCache instance =
-        instances.compute(
-            updatedConfig,
-            (k, v) ->
-                v != null && !v.isClosed()
-                    ? v
-                    : new MonitoredCache(
-                        createConnectionInfo(updatedConfig),
-                        instanceNameResolverTimer,
-                        this::resolveDomain));
+    // replace it. Look it up first without compute(), which locks the entry.
+    MonitoredCache instance = instances.get(updatedConfig);
+    if (instance == null || instance.isClosed()) {
+      // Read the saved connection info before compute(), which locks the entry while it runs.
+      ConnectionInfo savedInfo = loadSavedConnectionInfo(updatedConfig);
+      instance =
+          instances.compute(
+              updatedConfig,
+              (k, v) ->
+                  v != null && !v.isClosed() ? v : newMonitoredCache(updatedConfig, savedInfo));
+      if (this.config.getMaxInstances() > 0
+          && instances.size() > this.config.getMaxInstances()) {
+        evictLeastRecentlyUsed(updatedConfig);
+      }
+    }
+    instance.markUsed();
 
     // If the client certificate has expired (as when the computer goes to
     // sleep, and the refresh cycle cannot run), force a refresh immediately.
@@ -246,6 +691,92 @@ class Connector {
     return instance;
   }
 
+  /** Evicts the instances that were not connected to within the instance idle timeout. */
+  private void evictIdleInstances() {
+    long now = System.nanoTime();
+    long idleNanos = config.getInstanceIdleTimeout().toNanos();
+    instances.forEach(
+        (key, instance) -> {
+          if (now - instance.getLastUsedNanos() >= idleNanos) {
+            evict(key, instance, EvictionCause.IDLE);
+          }
+        });
+  }
+
+  /** Evicts the least recently used instances, other than keep, down to maxInstances. */
+  private void evictLeastRecentlyUsed(ConnectionConfig keep) {
+    while (instances.size() > config.getMaxInstances()) {
+      Map.Entry<ConnectionConfig, MonitoredCache> lru = null;
+      for (Map.Entry<ConnectionConfig, MonitoredCache> e : instances.entrySet()) {
+        if (!e.getKey().equals(keep)
+            && (lru == null
+                || e.getValue().getLastUsedNanos() - lru.getValue().getLastUsedNanos() < 0)) {
+          lru = e;
+        }
+      }
+      if (lru == null) {
+        return;
+      }
+      evict(lru.getKey(), lru.getValue(), EvictionCause.SIZE);
+    }
+  }
+
+  private void evict(ConnectionConfig key, MonitoredCache instance, EvictionCause cause) {
+    if (!instances.remove(key, instance)) {
+      return;
+    }
+    instance.evict();
+    if (cause == EvictionCause.IDLE) {
+      idleEvictionCount.incrementAndGet();
+    } else {
+      sizeEvictionCount.incrementAndGet();
+    }
+    logger.debug(
+        String.format("[%s] Evicted instance, cause: %s.", key.getCloudSqlInstance(), cause));
+    phaseRecorder.recordInstanceEviction(key.getCloudSqlInstance(), cause);
+  }
+
+  /** Returns the number of instances evicted for the cause. */
+  long getEvictionCount(EvictionCause cause) {
+    return cause == EvictionCause.IDLE ? idleEvictionCount.get() : sizeEvictionCount.get();
+  }
+
+  /** Returns the number of instances the connector refreshes. */
+  int getInstanceCount() {
+    return instances.size();
+  }
+
+  /** Returns the connection info of the instance saved in the disk cache, or null. */
+  private ConnectionInfo loadSavedConnectionInfo(ConnectionConfig config) {
+    if (diskCache == null) {
+      return null;
+    }
+    return diskCache.load(
+        new CloudSqlInstanceName(config.getCloudSqlInstance(), config.getDomainName()),
+        config.getAuthType());
+  }
+
+  private MonitoredCache newMonitoredCache(ConnectionConfig config, ConnectionInfo savedInfo) {
+    MonitoredCache instance =
+        new MonitoredCache(
+            createConnectionInfo(config, savedInfo),
+            instanceNameResolverTimer,
+            instanceNameCache::refresh);
+    if (standbyExecutor != null) {
+      instance.startStandbyPool(
+          new StandbySocketPool(
+              config.getCloudSqlInstance(),
+              config.getConnectorConfig().getStandbyPoolSize(),
+              config.getConnectorConfig().getStandbyPoolMaxIdle(),
+              standbyExecutor,
+              executor,
+              metadata ->
+                  openSocket(
+                      config, instance, metadata, new ConnectDeadline(connectTimeoutMs), true)));
+    }
+    return instance;
+  }
+
   /**
    * Updates the ConnectionConfig to ensure that the cloudSqlInstance field is set, resolving the
    * domainName using the InstanceNameResolver.
@@ -265,16 +796,44 @@ class Connector {
       return config.withDomainName(null);
     }
 
-    // If only domainName is set, resolve the domain name.
+    // If only domainName is set, resolve the domain name. The cached name is kept up to date by
+    // the MonitoredCache of the domain name.
+    try {
+      long start = phaseRecorder.start();
+      final CloudSqlInstanceName name = instanceNameCache.get(config);
+      phaseRecorder.record(name.getConnectionName(), ConnectPhase.DNS, start);
+      return config.withCloudSqlInstance(name.getConnectionName());
+    } catch (IllegalArgumentException e) {
+      throw invalidDomainName(config, e);
+    }
+  }
+
+  /**
+   * Updates the ConnectionConfig as resolveConnectionName(config) does, waiting for the lookup of
+   * the domain name only until the deadline.
+   */
+  private ConnectionConfig resolveConnectionName(ConnectionConfig config, ConnectDeadline deadline)
+      throws IOException {
+    if (Strings.isNullOrEmpty(config.getDomainName())
+        || !Strings.isNullOrEmpty(config.getCloudSqlInstance())) {
+      return resolveConnectionName(config);
+    }
     try {
-      final CloudSqlInstanceName name = resolveDomain(config);
+      long start = phaseRecorder.start();
+      final CloudSqlInstanceName name = instanceNameCache.get(config, deadline);
+      phaseRecorder.record(name.getConnectionName(), ConnectPhase.DNS, start);
       return config.withCloudSqlInstance(name.getConnectionName());
     } catch (IllegalArgumentException e) {
-      throw new IllegalArgumentException(
-          String.format("Cloud SQL connection name is invalid: \"%s\"", config.getDomainName()), e);
+      throw invalidDomainName(config, e);
     }
   }
 
+  private static IllegalArgumentException invalidDomainName(
+      ConnectionConfig config, IllegalArgumentException e) {
+    return new IllegalArgumentException(
+        String.format("Cloud SQL connection name is invalid: \"%s\"", config.getDomainName()), e);
+  }
+
   private CloudSqlInstanceName resolveDomain(ConnectionConfig config) {
     final String unresolvedName = config.getDomainName();
     final CloudSqlInstanceName name;
@@ -287,30 +846,92 @@ class Connector {
     return name;
   }
 
-  private ConnectionInfoCache createConnectionInfo(ConnectionConfig config) {
+  private ConnectionInfoCache createConnectionInfo(
+      ConnectionConfig config, ConnectionInfo savedInfo) {
     logger.debug(
         String.format("[%s] Connection info added to cache.", config.getCloudSqlInstance()));
     if (config.getConnectorConfig().getRefreshStrategy() == RefreshStrategy.LAZY) {
-      // Resolve the key operation immediately.
-      KeyPair keyPair = null;
-      try {
-        keyPair = localKeyPair.get();
-      } catch (InterruptedException | ExecutionException e) {
-        throw new RuntimeException(e);
-      }
+      // The key pair is awaited by the first refresh, which is not needed when the connection
+      // info saved on disk is valid.
       return new LazyRefreshConnectionInfoCache(
-          config, adminApi, instanceCredentialFactory, keyPair);
+          config, adminApi, accessTokenSupplier(config), localKeyPair, diskCache, savedInfo);
 
     } else {
       return new RefreshAheadConnectionInfoCache(
-          config, adminApi, instanceCredentialFactory, executor, localKeyPair, minRefreshDelayMs);
+          config,
+          adminApi,
+          accessTokenSupplier(config),
+          executor,
+          localKeyPair,
+          minRefreshDelayMs,
+          diskCache,
+          savedInfo);
+    }
+  }
+
+  /** Calls the configured key pair supplier, on an executor thread. */
+  private static KeyPair supplyKeyPair(Supplier<KeyPair> supplier) {
+    long start = System.nanoTime();
+    KeyPair keyPair = supplier.get();
+    if (keyPair == null) {
+      throw new IllegalStateException("The configured key pair supplier returned null.");
     }
+    logger.debug(
+        String.format(
+            "Supplied %s key pair in %d ms.",
+            keyPair.getPublic().getAlgorithm(),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+    return keyPair;
+  }
+
+  private AccessTokenSupplier accessTokenSupplier(ConnectionConfig config) {
+    if (config.getAuthType() == AuthType.IAM) {
+      return getIamTokenCache();
+    }
+    return Optional::empty;
+  }
+
+  private synchronized DownscopedTokenCache getIamTokenCache() {
+    if (iamTokenCache == null) {
+      iamTokenCache =
+          DownscopedTokenCache.acquire(
+              credentialIdentity(config, instanceCredentialFactory),
+              () ->
+                  new DownscopedTokenCache(
+                      new DefaultAccessTokenSupplier(
+                          instanceCredentialFactory,
+                          config.getRetryPolicy(),
+                          new RetryCounters(config.getConnectorMetrics())),
+                      executor,
+                      config.getConnectorMetrics()));
+    }
+    return iamTokenCache;
   }
 
   public void close() {
     logger.debug("Close all connections and remove them from cache.");
     this.instanceNameResolverTimer.cancel();
+    if (this.dialer != null) {
+      this.dialer.close();
+    }
     this.instances.forEach((key, c) -> c.close());
     this.instances.clear();
+    this.adminApi.close();
+    this.instanceNameCache.clear();
+    if (this.standbyExecutor != null) {
+      this.standbyExecutor.shutdownNow();
+    }
+    synchronized (this) {
+      if (this.asyncConnector != null) {
+        this.asyncConnector.close();
+      }
+      if (this.prewarmExecutor != null) {
+        this.prewarmExecutor.shutdownNow();
+      }
+      if (this.iamTokenCache != null) {
+        this.iamTokenCache.release();
+        this.iamTokenCache = null;
+      }
+    }
   }
 }
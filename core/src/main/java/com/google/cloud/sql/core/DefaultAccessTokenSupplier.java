@@ -21,7 +21,12 @@ import static com.google.cloud.sql.core.RefreshCalculator.DEFAULT_REFRESH_BUFFER
 import com.google.auth.oauth2.AccessToken;
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.cloud.sql.AuthType;
+import com.google.cloud.sql.ConnectorConfig;
 import com.google.cloud.sql.CredentialFactory;
+import com.google.cloud.sql.RetryPolicy;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
 import java.io.IOException;
 import java.time.Instant;
 import java.time.ZoneId;
@@ -41,11 +46,20 @@ class DefaultAccessTokenSupplier implements AccessTokenSupplier {
 
   private static final String SQL_LOGIN_SCOPE = "https://www.googleapis.com/auth/sqlservice.login";
 
+  // The name of the access token refresh, for the retry counters.
+  static final String ACCESS_TOKEN = "accessToken";
+
   private final CredentialFactory credentialFactory;
+  private final RetryPolicy retryPolicy;
+  private final RetryCounters retryCounters;
 
-  static AccessTokenSupplier newInstance(AuthType authType, CredentialFactory tokenSourceFactory) {
+  static AccessTokenSupplier newInstance(
+      AuthType authType, CredentialFactory tokenSourceFactory, ConnectorConfig connectorConfig) {
     if (authType == AuthType.IAM) {
-      return new DefaultAccessTokenSupplier(tokenSourceFactory);
+      return new DefaultAccessTokenSupplier(
+          tokenSourceFactory,
+          connectorConfig.getRetryPolicy(),
+          new RetryCounters(connectorConfig.getConnectorMetrics()));
     } else {
       return Optional::empty;
     }
@@ -57,7 +71,21 @@ class DefaultAccessTokenSupplier implements AccessTokenSupplier {
    * @param tokenSource the token source
    */
   DefaultAccessTokenSupplier(CredentialFactory tokenSource) {
+    this(tokenSource, null, null);
+  }
+
+  /**
+   * Creates an instance that retries according to a RetryPolicy.
+   *
+   * @param tokenSource the token source
+   * @param retryPolicy the retry policy, or null for RetryPolicy.DEFAULT
+   * @param retryCounters counts the retries, or null
+   */
+  DefaultAccessTokenSupplier(
+      CredentialFactory tokenSource, RetryPolicy retryPolicy, RetryCounters retryCounters) {
     this.credentialFactory = tokenSource;
+    this.retryPolicy = retryPolicy;
+    this.retryCounters = retryCounters;
   }
 
   /**
@@ -73,61 +101,8 @@ class DefaultAccessTokenSupplier implements AccessTokenSupplier {
       return Optional.empty();
     }
 
-    RetryingCallable<Optional<AccessToken>> retries =
-        new RetryingCallable<>(
-            () -> {
-              final GoogleCredentials credentials = credentialFactory.getCredentials();
-              try {
-                refreshIfRequired(credentials);
-              } catch (IllegalStateException e) {
-                throw new IllegalStateException("Error refreshing credentials " + credentials, e);
-              }
-
-              if (isAccessTokenEmpty(credentials)) {
-
-                String errorMessage = "Access Token has length of zero";
-                logger.debug(errorMessage);
-
-                throw new IllegalStateException(errorMessage);
-              }
-
-              validateAccessTokenExpiration(credentials.getAccessToken());
-
-              // Now, attempt to down-scope and refresh credentials
-              GoogleCredentials downscoped = getDownscopedCredentials(credentials);
-
-              // For some implementations of GoogleCredentials, particularly
-              // ImpersonatedCredentials, down-scoped credentials are not
-              // initialized with a token and need to be explicitly refreshed.
-              if (isAccessTokenEmpty(downscoped)) {
-                try {
-                  downscoped.refresh();
-                } catch (Exception e) {
-                  throw new IllegalStateException(
-                      "Error refreshing downscoped credentials " + credentials, e);
-                }
-
-                // After attempting to refresh once, if the downscoped credentials do not have
-                // an access token after attempting to refresh, then throw an IllegalStateException
-                if (isAccessTokenEmpty(downscoped)) {
-                  String errorMessage = "Downscoped access token has length of zero";
-                  logger.debug(errorMessage);
-
-                  throw new IllegalStateException(
-                      errorMessage
-                          + ": "
-                          + downscoped.getClass().getName()
-                          + " from "
-                          + credentials.getClass().getName());
-                }
-                validateAccessTokenExpiration(downscoped.getAccessToken());
-              }
-
-              return Optional.of(downscoped.getAccessToken());
-            });
-
     try {
-      return retries.call();
+      return newRetryingCallable().call();
     } catch (IOException | RuntimeException e) {
       throw e;
     } catch (Exception e) {
@@ -135,6 +110,77 @@ class DefaultAccessTokenSupplier implements AccessTokenSupplier {
     }
   }
 
+  /**
+   * Returns a future of the access token. Each attempt runs on a thread of the executor, and blocks
+   * it while the credentials are refreshed. Failed attempts are retried on a schedule, so that no
+   * thread of the executor waits between attempts.
+   */
+  @Override
+  public ListenableFuture<Optional<AccessToken>> getAsync(
+      ListeningScheduledExecutorService executor) {
+    if (credentialFactory == null) {
+      return Futures.immediateFuture(Optional.empty());
+    }
+    return newRetryingCallable().callAsync(executor);
+  }
+
+  private RetryingCallable<Optional<AccessToken>> newRetryingCallable() {
+    return new RetryingCallable<>(
+        () -> {
+          final GoogleCredentials credentials = credentialFactory.getCredentials();
+          try {
+            refreshIfRequired(credentials);
+          } catch (IllegalStateException e) {
+            throw new IllegalStateException("Error refreshing credentials " + credentials, e);
+          }
+
+          if (isAccessTokenEmpty(credentials)) {
+
+            String errorMessage = "Access Token has length of zero";
+            logger.debug(errorMessage);
+
+            throw new IllegalStateException(errorMessage);
+          }
+
+          validateAccessTokenExpiration(credentials.getAccessToken());
+
+          // Now, attempt to down-scope and refresh credentials
+          GoogleCredentials downscoped = getDownscopedCredentials(credentials);
+
+          // For some implementations of GoogleCredentials, particularly
+          // ImpersonatedCredentials, down-scoped credentials are not
+          // initialized with a token and need to be explicitly refreshed.
+          if (isAccessTokenEmpty(downscoped)) {
+            try {
+              downscoped.refresh();
+            } catch (Exception e) {
+              throw new IllegalStateException(
+                  "Error refreshing downscoped credentials " + credentials, e);
+            }
+
+            // After attempting to refresh once, if the downscoped credentials do not have
+            // an access token after attempting to refresh, then throw an IllegalStateException
+            if (isAccessTokenEmpty(downscoped)) {
+              String errorMessage = "Downscoped access token has length of zero";
+              logger.debug(errorMessage);
+
+              throw new IllegalStateException(
+                  errorMessage
+                      + ": "
+                      + downscoped.getClass().getName()
+                      + " from "
+                      + credentials.getClass().getName());
+            }
+            validateAccessTokenExpiration(downscoped.getAccessToken());
+          }
+
+          return Optional.of(downscoped.getAccessToken());
+        },
+        retryPolicy,
+        ACCESS_TOKEN,
+        retryCounters);
+  }
+
   private static boolean isAccessTokenEmpty(GoogleCredentials credentials) {
     return credentials.getAccessToken() == null
         || "".equals(credentials.getAccessToken().getTokenValue());
@@ -23,13 +23,17 @@ import com.google.api.services.sqladmin.model.DnsNameMapping;
 import com.google.api.services.sqladmin.model.GenerateEphemeralCertRequest;
 import com.google.api.services.sqladmin.model.GenerateEphemeralCertResponse;
 import com.google.api.services.sqladmin.model.IpMapping;
+import com.google.auth.http.HttpTransportFactory;
 import com.google.auth.oauth2.AccessToken;
 import com.google.cloud.sql.AuthType;
+import com.google.cloud.sql.ConnectorConfig;
 import com.google.cloud.sql.IpType;
+import com.google.cloud.sql.RetryPolicy;
 import com.google.common.io.BaseEncoding;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.net.UnknownHostException;
@@ -45,6 +49,7 @@ import java.security.cert.Certificate;
 import java.security.cert.CertificateException;
 import java.security.cert.CertificateFactory;
 import java.security.cert.X509Certificate;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -54,6 +59,9 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import javax.net.ssl.KeyManagerFactory;
@@ -69,10 +77,63 @@ class DefaultConnectionInfoRepository implements ConnectionInfoRepository {
   private static final Logger logger =
       LoggerFactory.getLogger(DefaultConnectionInfoRepository.class);
   private final SQLAdmin apiClient;
+  // The names of the Admin API methods, for the retry counters.
+  static final String CONNECT_SETTINGS = "connect.get";
+  static final String GENERATE_EPHEMERAL_CERT = "connect.generateEphemeralCert";
+  static final String RESOLVE = "connect.resolve";
   private static final List<Integer> TERMINAL_STATUS_CODES = Arrays.asList(400, 401, 403, 404);
+  // Reuses the metadata of instances between refreshes, or null when each refresh fetches it.
+  private final InstanceMetadataCache metadataCache;
+  // Limits the requests to the Admin API, or null when they are not limited.
+  private final AdminApiGovernor governor;
+  // The expiration of the latest client certificate of each instance, in epoch milliseconds. The
+  // governor sends the requests of the instances that expire soonest first.
+  private final ConcurrentHashMap<String, Long> certificateExpirations = new ConcurrentHashMap<>();
+
+  private final RetryPolicy retryPolicy;
+  private final RetryCounters retryCounters;
+  // Whether apiClient uses the transport shared by the clients of transportFactory, which is
+  // released when the repository is closed.
+  private final boolean sharedTransport;
+  private final HttpTransportFactory transportFactory;
+  private final AtomicBoolean closed = new AtomicBoolean();
 
   DefaultConnectionInfoRepository(SQLAdmin apiClient) {
+    this(apiClient, new ConnectorConfig.Builder().build());
+  }
+
+  /**
+   * Creates a new DefaultConnectionInfoRepository.
+   *
+   * @param apiClient the Admin API client.
+   * @param config the configuration of the connector: the metadata cache TTL, the Admin API limits
+   *     and the retry policy.
+   */
+  DefaultConnectionInfoRepository(SQLAdmin apiClient, ConnectorConfig config) {
+    this(apiClient, config, false);
+  }
+
+  /**
+   * Creates a new DefaultConnectionInfoRepository.
+   *
+   * @param apiClient the Admin API client.
+   * @param config the configuration of the connector.
+   * @param sharedTransport true when apiClient uses the transport that AdminApiTransports returns
+   *     for the HttpTransportFactory of config, which is released when the repository is closed.
+   */
+  DefaultConnectionInfoRepository(
+      SQLAdmin apiClient, ConnectorConfig config, boolean sharedTransport) {
     this.apiClient = apiClient;
+    this.sharedTransport = sharedTransport;
+    this.transportFactory = config.getHttpTransportFactory();
+    this.governor = AdminApiGovernor.forConfig(config);
+    this.retryPolicy = config.getRetryPolicy();
+    this.retryCounters = new RetryCounters(config.getConnectorMetrics());
+    Duration metadataCacheTtl = config.getMetadataCacheTtl();
+    this.metadataCache =
+        metadataCacheTtl != null && !metadataCacheTtl.isZero()
+            ? new InstanceMetadataCache(metadataCacheTtl)
+            : null;
   }
 
   private void checkDatabaseCompatibility(
@@ -125,8 +186,10 @@ class DefaultConnectionInfoRepository implements ConnectionInfoRepository {
     SslData sslContext =
         createSslData(keyPair, metadata, ephemeralCertificate, instanceName, authType);
 
-    return createConnectionInfo(
-        instanceName, authType, token, metadata, ephemeralCertificate, sslContext);
+    return recordExpiration(
+        instanceName,
+        createConnectionInfo(
+            instanceName, authType, token, keyPair, metadata, ephemeralCertificate, sslContext));
   }
 
   /** Internal Use Only: Gets the instance data for the CloudSqlInstance from the API. */
@@ -138,19 +201,24 @@ class DefaultConnectionInfoRepository implements ConnectionInfoRepository {
       ListeningScheduledExecutorService executor,
       ListenableFuture<KeyPair> keyPair) {
 
-    ListenableFuture<Optional<AccessToken>> token = executor.submit(accessTokenSupplier::get);
+    // Fetches the token without holding a thread of the executor between retries.
+    ListenableFuture<Optional<AccessToken>> token = accessTokenSupplier.getAsync(executor);
 
     // Fetch the metadata
     ListenableFuture<InstanceMetadata> metadataFuture =
-        executor.submit(() -> fetchMetadata(instanceName, authType));
+        fetchMetadataAsync(instanceName, authType, executor);
 
     // Fetch the ephemeral certificates
     ListenableFuture<Certificate> ephemeralCertificateFuture =
         Futures.whenAllComplete(keyPair, token)
-            .call(
+            .callAsync(
                 () ->
-                    fetchEphemeralCertificate(
-                        Futures.getDone(keyPair), instanceName, Futures.getDone(token), authType),
+                    fetchEphemeralCertificateAsync(
+                        Futures.getDone(keyPair),
+                        instanceName,
+                        Futures.getDone(token),
+                        authType,
+                        executor),
                 executor);
 
     // Once the API calls are complete, construct the SSLContext for the sockets
@@ -171,13 +239,16 @@ class DefaultConnectionInfoRepository implements ConnectionInfoRepository {
         Futures.whenAllComplete(metadataFuture, ephemeralCertificateFuture, sslContextFuture)
             .call(
                 () ->
-                    createConnectionInfo(
+                    recordExpiration(
                         instanceName,
-                        authType,
-                        Futures.getDone(token),
-                        Futures.getDone(metadataFuture),
-                        Futures.getDone(ephemeralCertificateFuture),
-                        Futures.getDone(sslContextFuture)),
+                        createConnectionInfo(
+                            instanceName,
+                            authType,
+                            Futures.getDone(token),
+                            Futures.getDone(keyPair),
+                            Futures.getDone(metadataFuture),
+                            Futures.getDone(ephemeralCertificateFuture),
+                            Futures.getDone(sslContextFuture))),
                 executor);
 
     done.addListener(
@@ -185,10 +256,33 @@ class DefaultConnectionInfoRepository implements ConnectionInfoRepository {
     return done;
   }
 
+  private ConnectionInfo recordExpiration(CloudSqlInstanceName instanceName, ConnectionInfo info) {
+    if (governor != null) {
+      certificateExpirations.put(
+          instanceName.getConnectionName(), info.getExpiration().toEpochMilli());
+    }
+    return info;
+  }
+
+  /**
+   * Returns a callable that retries the request to the Admin API, through the governor if there is
+   * one. The requests of an instance without a client certificate have the highest priority.
+   */
+  private <T> ApiClientRetryingCallable<T> adminApiCall(
+      String endpoint, Callable<T> request, CloudSqlInstanceName instanceName) {
+    long priority =
+        instanceName != null
+            ? certificateExpirations.getOrDefault(instanceName.getConnectionName(), 0L)
+            : 0L;
+    return new ApiClientRetryingCallable<>(
+        request, governor, priority, retryPolicy, endpoint, retryCounters);
+  }
+
   private static ConnectionInfo createConnectionInfo(
       CloudSqlInstanceName instanceName,
       AuthType authType,
       Optional<AccessToken> token,
+      KeyPair keyPair,
       InstanceMetadata metadata,
       Certificate ephemeralCertificate,
       SslData sslContext) {
@@ -215,7 +309,7 @@ class DefaultConnectionInfoRepository implements ConnectionInfoRepository {
             .map(time -> time.toInstant().toString())
             .orElse("(none)"));
 
-    return new ConnectionInfo(metadata, sslContext, expiration);
+    return new ConnectionInfo(metadata, sslContext, expiration, keyPair, ephemeralCertificate);
   }
 
   String getApplicationName() {
@@ -244,138 +338,228 @@ class DefaultConnectionInfoRepository implements ConnectionInfoRepository {
 
   /** Fetches the latest version of the instance's metadata using the Cloud SQL Admin API. */
   private InstanceMetadata fetchMetadata(CloudSqlInstanceName instanceName, AuthType authType) {
+    InstanceMetadata cached = getCachedMetadata(instanceName, authType);
+    if (cached != null) {
+      return cached;
+    }
     try {
-      ConnectSettings instanceMetadata =
-          new ApiClientRetryingCallable<>(
-                  () ->
-                      apiClient
-                          .connect()
-                          .get(instanceName.getProjectId(), instanceName.getInstanceId())
-                          .execute())
-              .call();
+      return cacheMetadata(
+          parseMetadata(
+              adminApiCall(CONNECT_SETTINGS, getConnectSettings(instanceName), instanceName).call(),
+              instanceName,
+              authType),
+          instanceName,
+          authType);
+    } catch (Exception ex) {
+      throw metadataException(ex, instanceName);
+    }
+  }
 
-      // Validate the instance will support the authenticated connection.
-      if (!instanceMetadata.getRegion().equals(instanceName.getRegionId())) {
-        throw new TerminalException(
-            String.format(
-                "[%s] The region specified for the Cloud SQL instance is"
-                    + " incorrect. Please verify the instance connection name.",
-                instanceName.getConnectionName()));
-      }
-      if (!instanceMetadata.getBackendType().equals("SECOND_GEN")) {
-        throw new TerminalException(
-            String.format(
-                "[%s] Connections to Cloud SQL instance not supported - not a Second Generation "
-                    + "instance.",
-                instanceName.getConnectionName()));
-      }
+  /**
+   * Fetches the latest version of the instance's metadata using the Cloud SQL Admin API. Failed
+   * requests are retried on the executor without holding a thread between attempts.
+   */
+  private ListenableFuture<InstanceMetadata> fetchMetadataAsync(
+      CloudSqlInstanceName instanceName,
+      AuthType authType,
+      ListeningScheduledExecutorService executor) {
+    InstanceMetadata cached = getCachedMetadata(instanceName, authType);
+    if (cached != null) {
+      return Futures.immediateFuture(cached);
+    }
+    ListenableFuture<InstanceMetadata> metadata =
+        Futures.transform(
+            adminApiCall(CONNECT_SETTINGS, getConnectSettings(instanceName), instanceName)
+                .callAsync(executor),
+            instanceMetadata ->
+                cacheMetadata(
+                    parseMetadata(instanceMetadata, instanceName, authType),
+                    instanceName,
+                    authType),
+            executor);
+    return Futures.catching(
+        metadata,
+        Exception.class,
+        ex -> {
+          throw metadataException(ex, instanceName);
+        },
+        MoreExecutors.directExecutor());
+  }
 
-      checkDatabaseCompatibility(instanceMetadata, authType, instanceName.getConnectionName());
+  private InstanceMetadata getCachedMetadata(
+      CloudSqlInstanceName instanceName, AuthType authType) {
+    return metadataCache != null ? metadataCache.get(instanceName, authType) : null;
+  }
 
-      Map<IpType, List<String>> ipAddrs = new HashMap<>();
-      if (instanceMetadata.getIpAddresses() != null) {
-        // Update the IP addresses and types need to connect with the instance.
-        for (IpMapping addr : instanceMetadata.getIpAddresses()) {
-          if ("PRIVATE".equals(addr.getType())) {
-            ipAddrs.put(IpType.PRIVATE, Collections.singletonList(addr.getIpAddress()));
-          } else if ("PRIMARY".equals(addr.getType())) {
-            ipAddrs.put(IpType.PUBLIC, Collections.singletonList(addr.getIpAddress()));
-          }
-          // otherwise, we don't know how to handle this type, ignore it.
-        }
-      }
+  private InstanceMetadata cacheMetadata(
+      InstanceMetadata metadata, CloudSqlInstanceName instanceName, AuthType authType) {
+    return metadataCache != null ? metadataCache.put(instanceName, authType, metadata) : metadata;
+  }
 
-      // If PSC is enabled, resolve DnsName into IP address for PSC
-      boolean pscEnabled =
-          instanceMetadata.getPscEnabled() != null
-              && instanceMetadata.getPscEnabled().booleanValue();
-
-      if (pscEnabled) {
-        // Search the dns_names field for the PSC DNS Name.
-        List<String> pscDnsNames = new ArrayList<>();
-        if (instanceMetadata.getDnsNames() != null) {
-          for (DnsNameMapping dnm : instanceMetadata.getDnsNames()) {
-            if ("PRIVATE_SERVICE_CONNECT".equals(dnm.getConnectionType())
-                && "INSTANCE".equals(dnm.getDnsScope())) {
-              pscDnsNames.add(dnm.getName());
-            }
-          }
-        }
+  /** Returns the number of retries of the Admin API method. */
+  long getRetryCount(String endpoint) {
+    return retryCounters.getRetryCount(endpoint);
+  }
 
-        // If the psc dns name was not found, use the legacy dns_name field
-        if (pscDnsNames.isEmpty()
-            && instanceMetadata.getDnsName() != null
-            && !instanceMetadata.getDnsName().isEmpty()) {
-          pscDnsNames.add(instanceMetadata.getDnsName());
-        }
+  @Override
+  public void invalidateMetadata(CloudSqlInstanceName instanceName) {
+    if (metadataCache != null) {
+      metadataCache.invalidate(instanceName);
+    }
+  }
+
+  @Override
+  public void removeInstance(CloudSqlInstanceName instanceName) {
+    certificateExpirations.remove(instanceName.getConnectionName());
+    invalidateMetadata(instanceName);
+  }
+
+  @Override
+  public void close() {
+    if (sharedTransport && closed.compareAndSet(false, true)) {
+      AdminApiTransports.release(transportFactory);
+    }
+  }
+
+  /** Returns the number of instances whose certificate expiration is kept for the governor. */
+  int getCertificateExpirationCount() {
+    return certificateExpirations.size();
+  }
 
-        // If the psc dns name was found, add it to the ipaddrs map.
-        if (!pscDnsNames.isEmpty()) {
-          pscDnsNames.sort(
-              (addr1, addr2) -> {
-                boolean addr1IsPsc = addr1.endsWith(".sql-psc.goog");
-                boolean addr2IsPsc = addr2.endsWith(".sql-psc.goog");
-                if (addr1IsPsc && !addr2IsPsc) {
-                  return -1; // addr1 comes first
-                }
-                if (!addr1IsPsc && addr2IsPsc) {
-                  return 1; // addr2 comes first
-                }
-                return 0;
-              });
-          ipAddrs.put(IpType.PSC, pscDnsNames);
+  private Callable<ConnectSettings> getConnectSettings(CloudSqlInstanceName instanceName) {
+    return () ->
+        apiClient
+            .connect()
+            .get(instanceName.getProjectId(), instanceName.getInstanceId())
+            .execute();
+  }
+
+  private RuntimeException metadataException(Exception ex, CloudSqlInstanceName instanceName) {
+    return addExceptionContext(
+        ex,
+        String.format(
+            "[%s] Failed to update metadata for Cloud SQL instance.",
+            instanceName.getConnectionName()),
+        instanceName);
+  }
+
+  /** Validates the instance's metadata, and converts it to InstanceMetadata. */
+  private InstanceMetadata parseMetadata(
+      ConnectSettings instanceMetadata, CloudSqlInstanceName instanceName, AuthType authType) {
+    // Validate the instance will support the authenticated connection.
+    if (!instanceMetadata.getRegion().equals(instanceName.getRegionId())) {
+      throw new TerminalException(
+          String.format(
+              "[%s] The region specified for the Cloud SQL instance is"
+                  + " incorrect. Please verify the instance connection name.",
+              instanceName.getConnectionName()));
+    }
+    if (!instanceMetadata.getBackendType().equals("SECOND_GEN")) {
+      throw new TerminalException(
+          String.format(
+              "[%s] Connections to Cloud SQL instance not supported - not a Second Generation "
+                  + "instance.",
+              instanceName.getConnectionName()));
+    }
+
+    checkDatabaseCompatibility(instanceMetadata, authType, instanceName.getConnectionName());
+
+    Map<IpType, List<String>> ipAddrs = new HashMap<>();
+    if (instanceMetadata.getIpAddresses() != null) {
+      // Update the IP addresses and types need to connect with the instance.
+      for (IpMapping addr : instanceMetadata.getIpAddresses()) {
+        if ("PRIVATE".equals(addr.getType())) {
+          ipAddrs.put(IpType.PRIVATE, Collections.singletonList(addr.getIpAddress()));
+        } else if ("PRIMARY".equals(addr.getType())) {
+          ipAddrs.put(IpType.PUBLIC, Collections.singletonList(addr.getIpAddress()));
         }
+        // otherwise, we don't know how to handle this type, ignore it.
       }
+    }
 
-      // Verify the instance has at least one IP type assigned that can be used to connect.
-      if (ipAddrs.isEmpty()) {
-        throw new TerminalException(
-            String.format(
-                "[%s] Unable to connect to Cloud SQL instance: instance does not have an assigned "
-                    + "IP address.",
-                instanceName.getConnectionName()));
+    // If PSC is enabled, resolve DnsName into IP address for PSC
+    boolean pscEnabled =
+        instanceMetadata.getPscEnabled() != null
+            && instanceMetadata.getPscEnabled().booleanValue();
+
+    if (pscEnabled) {
+      // Search the dns_names field for the PSC DNS Name.
+      List<String> pscDnsNames = new ArrayList<>();
+      if (instanceMetadata.getDnsNames() != null) {
+        for (DnsNameMapping dnm : instanceMetadata.getDnsNames()) {
+          if ("PRIVATE_SERVICE_CONNECT".equals(dnm.getConnectionType())
+              && "INSTANCE".equals(dnm.getDnsScope())) {
+            pscDnsNames.add(dnm.getName());
+          }
+        }
       }
 
-      // Find a DNS name to use to validate the certificate from the dns_names field. Any
-      // name in the list may be used to validate the server TLS certificate.
-      // Fall back to legacy dns_name field if necessary.
-      String serverName = null;
-      if (instanceMetadata.getDnsNames() != null && !instanceMetadata.getDnsNames().isEmpty()) {
-        serverName = instanceMetadata.getDnsNames().get(0).getName();
-      }
-      if (serverName == null) {
-        serverName = instanceMetadata.getDnsName();
+      // If the psc dns name was not found, use the legacy dns_name field
+      if (pscDnsNames.isEmpty()
+          && instanceMetadata.getDnsName() != null
+          && !instanceMetadata.getDnsName().isEmpty()) {
+        pscDnsNames.add(instanceMetadata.getDnsName());
       }
 
-      // Update the Server CA certificate used to create the SSL connection with the instance.
-      try {
-        List<Certificate> instanceCaCertificates =
-            parseCertificateChain(instanceMetadata.getServerCaCert().getCert());
-
-        logger.debug(String.format("[%s] METADATA DONE", instanceName));
-
-        return new InstanceMetadata(
-            instanceName,
-            ipAddrs,
-            instanceCaCertificates,
-            isCasManagedCertificate(instanceMetadata.getServerCaMode()),
-            serverName,
-            pscEnabled,
-            instanceMetadata.getMdxProtocolSupport());
-      } catch (CertificateException ex) {
-        throw new RuntimeException(
-            String.format(
-                "[%s] Unable to parse the server CA certificate for the Cloud SQL instance.",
-                instanceName.getConnectionName()),
-            ex);
+      // If the psc dns name was found, add it to the ipaddrs map.
+      if (!pscDnsNames.isEmpty()) {
+        pscDnsNames.sort(
+            (addr1, addr2) -> {
+              boolean addr1IsPsc = addr1.endsWith(".sql-psc.goog");
+              boolean addr2IsPsc = addr2.endsWith(".sql-psc.goog");
+              if (addr1IsPsc && !addr2IsPsc) {
+                return -1; // addr1 comes first
+              }
+              if (!addr1IsPsc && addr2IsPsc) {
+                return 1; // addr2 comes first
+              }
+              return 0;
+            });
+        ipAddrs.put(IpType.PSC, pscDnsNames);
       }
-    } catch (Exception ex) {
-      throw addExceptionContext(
-          ex,
+    }
+
+    // Verify the instance has at least one IP type assigned that can be used to connect.
+    if (ipAddrs.isEmpty()) {
+      throw new TerminalException(
           String.format(
-              "[%s] Failed to update metadata for Cloud SQL instance.",
+              "[%s] Unable to connect to Cloud SQL instance: instance does not have an assigned "
+                  + "IP address.",
+              instanceName.getConnectionName()));
+    }
+
+    // Find a DNS name to use to validate the certificate from the dns_names field. Any
+    // name in the list may be used to validate the server TLS certificate.
+    // Fall back to legacy dns_name field if necessary.
+    String serverName = null;
+    if (instanceMetadata.getDnsNames() != null && !instanceMetadata.getDnsNames().isEmpty()) {
+      serverName = instanceMetadata.getDnsNames().get(0).getName();
+    }
+    if (serverName == null) {
+      serverName = instanceMetadata.getDnsName();
+    }
+
+    // Update the Server CA certificate used to create the SSL connection with the instance.
+    try {
+      List<Certificate> instanceCaCertificates =
+          CaCertificateCache.parseCertificateChain(instanceMetadata.getServerCaCert().getCert());
+
+      logger.debug(String.format("[%s] METADATA DONE", instanceName));
+
+      return new InstanceMetadata(
+          instanceName,
+          ipAddrs,
+          instanceCaCertificates,
+          isCasManagedCertificate(instanceMetadata.getServerCaMode()),
+          serverName,
+          pscEnabled,
+          instanceMetadata.getMdxProtocolSupport());
+    } catch (CertificateException ex) {
+      throw new RuntimeException(
+          String.format(
+              "[%s] Unable to parse the server CA certificate for the Cloud SQL instance.",
               instanceName.getConnectionName()),
-          instanceName);
+          ex);
     }
   }
 
@@ -404,6 +588,51 @@ class DefaultConnectionInfoRepository implements ConnectionInfoRepository {
       CloudSqlInstanceName instanceName,
       Optional<AccessToken> accessTokenOptional,
       AuthType authType) {
+    GenerateEphemeralCertResponse response;
+    try {
+      response =
+          adminApiCall(
+                  GENERATE_EPHEMERAL_CERT,
+                  generateEphemeralCert(keyPair, instanceName, accessTokenOptional, authType),
+                  instanceName)
+              .call();
+    } catch (Exception ex) {
+      throw ephemeralCertificateException(ex, instanceName);
+    }
+    return parseEphemeralCertificate(response, instanceName);
+  }
+
+  /**
+   * Uses the Cloud SQL Admin API to create an ephemeral SSL certificate that is authenticated to
+   * connect the Cloud SQL instance for up to 60 minutes. Failed requests are retried on the
+   * executor without holding a thread between attempts.
+   */
+  private ListenableFuture<Certificate> fetchEphemeralCertificateAsync(
+      KeyPair keyPair,
+      CloudSqlInstanceName instanceName,
+      Optional<AccessToken> accessTokenOptional,
+      AuthType authType,
+      ListeningScheduledExecutorService executor) {
+    ListenableFuture<GenerateEphemeralCertResponse> response =
+        Futures.catching(
+            adminApiCall(
+                    GENERATE_EPHEMERAL_CERT,
+                    generateEphemeralCert(keyPair, instanceName, accessTokenOptional, authType),
+                    instanceName)
+                .callAsync(executor),
+            Exception.class,
+            ex -> {
+              throw ephemeralCertificateException(ex, instanceName);
+            },
+            MoreExecutors.directExecutor());
+    return Futures.transform(response, r -> parseEphemeralCertificate(r, instanceName), executor);
+  }
+
+  private Callable<GenerateEphemeralCertResponse> generateEphemeralCert(
+      KeyPair keyPair,
+      CloudSqlInstanceName instanceName,
+      Optional<AccessToken> accessTokenOptional,
+      AuthType authType) {
 
     // Use the SQL Admin API to create a new ephemeral certificate.
     GenerateEphemeralCertRequest request =
@@ -415,26 +644,26 @@ class DefaultConnectionInfoRepository implements ConnectionInfoRepository {
       String token = accessToken.getTokenValue();
       request.setAccessToken(token);
     }
-    GenerateEphemeralCertResponse response;
-    try {
-      response =
-          new ApiClientRetryingCallable<>(
-                  () ->
-                      apiClient
-                          .connect()
-                          .generateEphemeralCert(
-                              instanceName.getProjectId(), instanceName.getInstanceId(), request)
-                          .execute())
-              .call();
-    } catch (Exception ex) {
-      throw addExceptionContext(
-          ex,
-          String.format(
-              "[%s] Failed to create ephemeral certificate for the Cloud SQL instance.",
-              instanceName.getConnectionName()),
-          instanceName);
-    }
+    return () ->
+        apiClient
+            .connect()
+            .generateEphemeralCert(
+                instanceName.getProjectId(), instanceName.getInstanceId(), request)
+            .execute();
+  }
+
+  private RuntimeException ephemeralCertificateException(
+      Exception ex, CloudSqlInstanceName instanceName) {
+    return addExceptionContext(
+        ex,
+        String.format(
+            "[%s] Failed to create ephemeral certificate for the Cloud SQL instance.",
+            instanceName.getConnectionName()),
+        instanceName);
+  }
 
+  private Certificate parseEphemeralCertificate(
+      GenerateEphemeralCertResponse response, CloudSqlInstanceName instanceName) {
     // Parse the certificate from the response.
     Certificate ephemeralCertificate;
     try {
@@ -460,7 +689,7 @@ class DefaultConnectionInfoRepository implements ConnectionInfoRepository {
    * a KeyManagerFactory and a TrustManagerFactory that can be used by drivers to establish an SSL
    * tunnel.
    */
-  private SslData createSslData(
+  static SslData createSslData(
       KeyPair keyPair,
       InstanceMetadata instanceMetadata,
       Certificate ephemeralCertificate,
@@ -561,8 +790,8 @@ class DefaultConnectionInfoRepository implements ConnectionInfoRepository {
   public String resolveConnectionName(String region, String dnsName) {
     try {
       ConnectSettings settings =
-          new ApiClientRetryingCallable<>(
-                  () -> apiClient.connect().resolve(region, dnsName).execute())
+          adminApiCall(
+                  RESOLVE, () -> apiClient.connect().resolve(region, dnsName).execute(), null)
               .call();
       return settings.getConnectionName();
     } catch (Exception ex) {
@@ -24,8 +24,6 @@ import com.google.api.client.json.JsonFactory;
 import com.google.api.client.json.gson.GsonFactory;
 import com.google.api.services.sqladmin.SQLAdmin;
 import com.google.cloud.sql.ConnectorConfig;
-import java.io.IOException;
-import java.security.GeneralSecurityException;
 
 /** Factory for creating a SQLAdmin client that interacts with the real SQL Admin API. */
 public class DefaultConnectionInfoRepositoryFactory implements ConnectionInfoRepositoryFactory {
@@ -44,7 +42,7 @@ public class DefaultConnectionInfoRepositoryFactory implements ConnectionInfoRep
   public DefaultConnectionInfoRepository create(
       HttpRequestInitializer requestInitializer, ConnectorConfig config) {
     SQLAdmin adminApiBuilder = getApiBuilder(requestInitializer, config);
-    return new DefaultConnectionInfoRepository(adminApiBuilder);
+    return new DefaultConnectionInfoRepository(adminApiBuilder, config, true);
   }
 
   @Override
@@ -52,16 +50,11 @@ public class DefaultConnectionInfoRepositoryFactory implements ConnectionInfoRep
     return this.userAgents;
   }
 
-  @SuppressWarnings("deprecation")
   private SQLAdmin getApiBuilder(
       HttpRequestInitializer requestInitializer, ConnectorConfig config) {
-    HttpTransport httpTransport;
-    try {
-      httpTransport =
-          com.google.api.client.googleapis.javanet.GoogleNetHttpTransport.newTrustedTransport();
-    } catch (GeneralSecurityException | IOException err) {
-      throw new RuntimeException("Unable to initialize HTTP transport", err);
-    }
+    // The client holds the credentials of the connector, but shares the transport and its
+    // connections with the other connectors. The repository releases it when it is closed.
+    HttpTransport httpTransport = AdminApiTransports.get(config.getHttpTransportFactory());
 
     JsonFactory jsonFactory = GsonFactory.getDefaultInstance();
     SQLAdmin.Builder adminApiBuilder =
@@ -18,6 +18,7 @@ package com.google.cloud.sql.core;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -120,6 +121,18 @@ public class DnsJavaResolver implements DnsResolver {
    */
   @Override
   public List<InetAddress> resolveHost(String hostName) throws UnknownHostException {
+    return resolveHostWithTtl(hostName).getAddresses();
+  }
+
+  /**
+   * Resolve an A record, returning the lowest TTL of the records as the TTL of the result.
+   *
+   * @param hostName the hostname to look up
+   * @return the resolved IP addresses and their TTL
+   * @throws UnknownHostException if no records are found.
+   */
+  @Override
+  public ResolvedHost resolveHostWithTtl(String hostName) throws UnknownHostException {
     try {
       Lookup lookup = new Lookup(hostName, Type.A);
       if (this.resolver != null) {
@@ -138,13 +151,16 @@ public class DnsJavaResolver implements DnsResolver {
 
       Record[] records = lookup.getAnswers();
       if (records == null || records.length == 0) {
-        return Collections.emptyList();
+        return new ResolvedHost(Collections.emptyList(), Duration.ZERO);
       }
 
-      return Arrays.stream(records)
-          .map(r -> (ARecord) r)
-          .map(ARecord::getAddress)
-          .collect(Collectors.toList());
+      List<InetAddress> addresses =
+          Arrays.stream(records)
+              .map(r -> (ARecord) r)
+              .map(ARecord::getAddress)
+              .collect(Collectors.toList());
+      long ttlSeconds = Arrays.stream(records).mapToLong(Record::getTTL).min().getAsLong();
+      return new ResolvedHost(addresses, Duration.ofSeconds(ttlSeconds));
 
     } catch (TextParseException e) {
       throw new UnknownHostException("Invalid domain name format: " + hostName);
@@ -18,6 +18,7 @@ package com.google.cloud.sql.core;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.List;
 import javax.naming.NameNotFoundException;
@@ -28,5 +29,33 @@ interface DnsResolver {
 
   List<InetAddress> resolveHost(String hostName) throws UnknownHostException;
 
+  /**
+   * Resolves an A record like {@link #resolveHost(String)}, also returning how long the result may
+   * be cached. Resolvers that do not know the TTL of the records return a TTL of 0, so that the
+   * result is not cached.
+   */
+  default ResolvedHost resolveHostWithTtl(String hostName) throws UnknownHostException {
+    return new ResolvedHost(resolveHost(hostName), Duration.ZERO);
+  }
+
   String resolveCname(String domainName) throws NameNotFoundException;
+
+  /** The addresses of a host name, and the TTL of the DNS records they were read from. */
+  final class ResolvedHost {
+    private final List<InetAddress> addresses;
+    private final Duration ttl;
+
+    ResolvedHost(List<InetAddress> addresses, Duration ttl) {
+      this.addresses = addresses;
+      this.ttl = ttl;
+    }
+
+    List<InetAddress> getAddresses() {
+      return addresses;
+    }
+
+    Duration getTtl() {
+      return ttl;
+    }
+  }
 }
@@ -0,0 +1,367 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import static com.google.cloud.sql.core.RefreshCalculator.DEFAULT_REFRESH_BUFFER;
+
+import com.google.auth.oauth2.AccessToken;
+import com.google.cloud.sql.ConnectorMetrics;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * DownscopedTokenCache holds the downscoped IAM login token of a credential, so that the refreshes
+ * of all instances that use IAM authentication share one token instead of each requesting a new
+ * token from the token endpoint. The connectors that authenticate as the same principal share one
+ * cache, see acquire().
+ *
+ * <p>A token is replaced once half of its remaining lifetime at the time it was fetched has passed,
+ * and never later than the refresh buffer before it expires. Connection info built from a cached
+ * token is therefore always valid for a good part of the token lifetime. When the cached token must
+ * be replaced, one caller fetches a new token, and the other callers share the future of that
+ * fetch. When a scheduler is configured, the token is also replaced ahead of time, when it must
+ * be replaced, so that refreshes seldom wait for the token endpoint.
+ *
+ * <p>The monitor of this cache guards the cached token and the fetch in flight. It is held only to
+ * read or replace them, never while a token is fetched. When no fetch is in flight, get() fetches
+ * the token on the calling thread, and otherwise waits for the fetch in flight. getAsync() does
+ * not block the calling thread: the fetch runs on the executor, and its request to the token
+ * endpoint holds a thread of the executor while it runs.
+ */
+class DownscopedTokenCache implements AccessTokenSupplier {
+  private static final Logger logger = LoggerFactory.getLogger(DownscopedTokenCache.class);
+
+  // The caches shared by connectors, by credential identity.
+  private static final ConcurrentHashMap<String, DownscopedTokenCache> shared =
+      new ConcurrentHashMap<>();
+
+  private final AccessTokenSupplier tokenSupplier;
+  // Replaces the token ahead of time, or null.
+  private final ListeningScheduledExecutorService scheduler;
+  // Receives the requests to the token endpoint, or null.
+  private final ConnectorMetrics metrics;
+  private final AtomicLong fetchCount = new AtomicLong();
+  private final AtomicLong hitCount = new AtomicLong();
+
+  // The credential identity of a shared cache, or null.
+  @GuardedBy("shared")
+  private String identity;
+
+  // The number of connectors that use this cache.
+  @GuardedBy("shared")
+  private int users;
+
+  // Written while holding this, read without it by the callers that find a fresh token.
+  @GuardedBy("this")
+  private volatile CachedToken cached;
+
+  // The fetch of a new token in progress, or null.
+  @GuardedBy("this")
+  private ListenableFuture<Optional<AccessToken>> inflight;
+
+  // The scheduled replacement of the cached token, or null.
+  @GuardedBy("this")
+  private ScheduledFuture<?> nextRefresh;
+
+  @GuardedBy("this")
+  private boolean closed;
+
+  /**
+   * Creates a new DownscopedTokenCache that fetches a token only when a caller needs one.
+   *
+   * @param tokenSupplier fetches a new downscoped token from the token endpoint.
+   */
+  DownscopedTokenCache(AccessTokenSupplier tokenSupplier) {
+    this(tokenSupplier, null, null);
+  }
+
+  /**
+   * Creates a new DownscopedTokenCache.
+   *
+   * @param tokenSupplier fetches a new downscoped token from the token endpoint.
+   * @param scheduler replaces the token ahead of time, or null to replace it only when a caller
+   *     needs a token.
+   * @param metrics receives the requests to the token endpoint, or null.
+   */
+  DownscopedTokenCache(
+      AccessTokenSupplier tokenSupplier,
+      ListeningScheduledExecutorService scheduler,
+      ConnectorMetrics metrics) {
+    this.tokenSupplier = tokenSupplier;
+    this.scheduler = scheduler;
+    this.metrics = metrics;
+  }
+
+  /**
+   * Returns the cache shared by the connectors that authenticate as credentialIdentity, creating
+   * it with factory if needed. Each call must be matched by a call to release() when the connector
+   * is closed.
+   *
+   * @param credentialIdentity identifies the principal of the connector, see
+   *     ConnectionInfoDiskCache.credentialIdentity(), or null when it is unknown. A cache of an
+   *     unknown principal is not shared.
+   * @param factory creates a new cache.
+   */
+  static DownscopedTokenCache acquire(
+      String credentialIdentity, Supplier<DownscopedTokenCache> factory) {
+    if (credentialIdentity == null) {
+      DownscopedTokenCache cache = factory.get();
+      synchronized (shared) {
+        cache.users = 1;
+      }
+      return cache;
+    }
+    synchronized (shared) {
+      DownscopedTokenCache cache = shared.get(credentialIdentity);
+      if (cache == null) {
+        cache = factory.get();
+        cache.identity = credentialIdentity;
+        shared.put(credentialIdentity, cache);
+      }
+      cache.users++;
+      return cache;
+    }
+  }
+
+  /** Releases this cache for a connector that is closed. The last release closes the cache. */
+  void release() {
+    synchronized (shared) {
+      if (--users > 0) {
+        return;
+      }
+      if (identity != null) {
+        shared.remove(identity, this);
+      }
+    }
+    close();
+  }
+
+  /** Stops replacing the token ahead of time. */
+  synchronized void close() {
+    closed = true;
+    if (nextRefresh != null) {
+      nextRefresh.cancel(false);
+      nextRefresh = null;
+    }
+  }
+
+  @Override
+  public Optional<AccessToken> get() throws IOException {
+    CachedToken c = cached;
+    if (c != null && c.isFresh()) {
+      hitCount.incrementAndGet();
+      return c.token;
+    }
+
+    SettableFuture<Optional<AccessToken>> fetch = null;
+    ListenableFuture<Optional<AccessToken>> f;
+    synchronized (this) {
+      // Another caller may have fetched a token since.
+      c = cached;
+      if (c != null && c.isFresh()) {
+        hitCount.incrementAndGet();
+        return c.token;
+      }
+      if (inflight == null) {
+        fetch = SettableFuture.create();
+        f = startFetch(fetch);
+      } else {
+        f = inflight;
+      }
+    }
+
+    if (fetch != null) {
+      // No fetch was in flight. Fetch the token on this thread, outside of the monitor, and share
+      // it with the callers that wait for it.
+      try {
+        Optional<AccessToken> token = tokenSupplier.get();
+        fetch.set(token);
+        return token;
+      } catch (IOException | RuntimeException | Error e) {
+        fetch.setException(e);
+        throw e;
+      }
+    }
+
+    // Another caller is fetching a token, wait for it.
+    try {
+      return Uninterruptibles.getUninterruptibly(f);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IOException("Unable to fetch the IAM login token", cause);
+    }
+  }
+
+  @Override
+  public ListenableFuture<Optional<AccessToken>> getAsync(
+      ListeningScheduledExecutorService executor) {
+    CachedToken c = cached;
+    if (c != null && c.isFresh()) {
+      hitCount.incrementAndGet();
+      return Futures.immediateFuture(c.token);
+    }
+
+    ListenableFuture<Optional<AccessToken>> f;
+    synchronized (this) {
+      c = cached;
+      if (c != null && c.isFresh()) {
+        hitCount.incrementAndGet();
+        return Futures.immediateFuture(c.token);
+      }
+      // The fetch may be done already, and no longer be in flight.
+      f = inflight != null ? inflight : startFetch(tokenSupplier.getAsync(executor));
+    }
+    // A caller that cancels its future must not cancel the fetch shared with the other callers.
+    return Futures.nonCancellationPropagating(f);
+  }
+
+  @GuardedBy("this")
+  private ListenableFuture<Optional<AccessToken>> startFetch(
+      ListenableFuture<Optional<AccessToken>> fetch) {
+    inflight = fetch;
+    long start = System.nanoTime();
+    fetch.addListener(() -> fetchDone(fetch, start), MoreExecutors.directExecutor());
+    return fetch;
+  }
+
+  private void fetchDone(ListenableFuture<Optional<AccessToken>> fetch, long startNanos) {
+    Optional<AccessToken> token;
+    try {
+      token = Futures.getDone(fetch);
+    } catch (ExecutionException | CancellationException e) {
+      token = null;
+    }
+    recordFetch(System.nanoTime() - startNanos, token != null);
+    synchronized (this) {
+      if (inflight == fetch) {
+        inflight = null;
+      }
+      if (token != null) {
+        cached = CachedToken.of(token);
+        scheduleRefresh(cached);
+      }
+    }
+    if (token != null) {
+      fetchCount.incrementAndGet();
+      logger.debug(
+          String.format(
+              "Fetched downscoped IAM login token, %d tokens fetched, %d cache hits.",
+              fetchCount.get(), hitCount.get()));
+    }
+  }
+
+  /**
+   * Schedules the replacement of the token when it must be replaced. When the scheduled fetch
+   * fails, the token is replaced by the next caller that needs one.
+   */
+  @GuardedBy("this")
+  private void scheduleRefresh(CachedToken c) {
+    if (scheduler == null || closed || c == null || !c.isFresh()) {
+      return;
+    }
+    if (nextRefresh != null) {
+      nextRefresh.cancel(false);
+    }
+    long delayMs = c.refreshAtMillis - System.currentTimeMillis();
+    try {
+      nextRefresh = scheduler.schedule(this::refreshAhead, delayMs, TimeUnit.MILLISECONDS);
+    } catch (RejectedExecutionException e) {
+      // The connector is shutting down.
+      nextRefresh = null;
+    }
+  }
+
+  private synchronized void refreshAhead() {
+    nextRefresh = null;
+    if (closed || inflight != null) {
+      return;
+    }
+    logger.debug("Replacing the downscoped IAM login token ahead of time.");
+    startFetch(tokenSupplier.getAsync(scheduler));
+  }
+
+  private void recordFetch(long durationNanos, boolean success) {
+    if (metrics == null) {
+      return;
+    }
+    try {
+      metrics.recordTokenFetch(durationNanos, success);
+    } catch (RuntimeException e) {
+      logger.debug("Failed to record the IAM login token fetch", e);
+    }
+  }
+
+  /** Returns the number of tokens fetched from the token endpoint. */
+  long getFetchCount() {
+    return fetchCount.get();
+  }
+
+  /** Returns the number of calls to get() that returned the cached token. */
+  long getHitCount() {
+    return hitCount.get();
+  }
+
+  private static class CachedToken {
+    private final Optional<AccessToken> token;
+    private final long refreshAtMillis;
+
+    private CachedToken(Optional<AccessToken> token, long refreshAtMillis) {
+      this.token = token;
+      this.refreshAtMillis = refreshAtMillis;
+    }
+
+    /** Returns the cached token, or null if the token must not be cached. */
+    static CachedToken of(Optional<AccessToken> token) {
+      if (!token.isPresent() || token.get().getExpirationTime() == null) {
+        // Without an expiration time there is no way to tell when the token must be replaced.
+        return null;
+      }
+      long now = System.currentTimeMillis();
+      long expiresAt = token.get().getExpirationTime().getTime();
+      long refreshAt =
+          Math.min(now + (expiresAt - now) / 2, expiresAt - DEFAULT_REFRESH_BUFFER.toMillis());
+      return new CachedToken(token, refreshAt);
+    }
+
+    boolean isFresh() {
+      return System.currentTimeMillis() < refreshAtMillis;
+    }
+  }
+}
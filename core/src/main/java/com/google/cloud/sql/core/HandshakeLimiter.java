@@ -0,0 +1,91 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HandshakeLimiter limits the number of TCP connects and TLS handshakes in progress at the same
+ * time. Callers wait for a permit in the order they arrived, so that a burst of connection attempts
+ * reaches the server at a steady rate instead of all at once.
+ */
+class HandshakeLimiter {
+  private final int maxConcurrent;
+  private final Semaphore permits;
+
+  /**
+   * Creates a new HandshakeLimiter.
+   *
+   * @param maxConcurrent the number of handshakes that may be in progress at the same time.
+   */
+  HandshakeLimiter(int maxConcurrent) {
+    this.maxConcurrent = maxConcurrent;
+    this.permits = new Semaphore(maxConcurrent, true);
+  }
+
+  /**
+   * Waits until a handshake may start. Each successful call must be followed by a call to
+   * release().
+   *
+   * @throws QueueTimeoutException if no handshake could start before the deadline.
+   */
+  void acquire(ConnectDeadline deadline) throws IOException {
+    try {
+      if (!permits.tryAcquire(deadline.remainingMs(), TimeUnit.MILLISECONDS)) {
+        throw new QueueTimeoutException(
+            String.format(
+                "Connection attempt timed out after %d ms waiting for one of %d handshakes to"
+                    + " complete",
+                deadline.getTimeoutMs(), maxConcurrent));
+      }
+    } catch (SocketTimeoutException e) {
+      // The deadline passed before waiting.
+      throw new QueueTimeoutException(e.getMessage());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting to start a handshake");
+    }
+  }
+
+  void release() {
+    permits.release();
+  }
+
+  /** Returns the number of callers waiting for a handshake to start. */
+  int getQueueLength() {
+    return permits.getQueueLength();
+  }
+
+  /** Returns the number of handshakes in progress. */
+  int getActiveCount() {
+    return maxConcurrent - permits.availablePermits();
+  }
+
+  /**
+   * Thrown when a connection attempt times out before its handshake could start. The instance was
+   * not contacted, so this does not indicate a problem with the connection info.
+   */
+  static class QueueTimeoutException extends SocketTimeoutException {
+    QueueTimeoutException(String message) {
+      super(message);
+    }
+  }
+}
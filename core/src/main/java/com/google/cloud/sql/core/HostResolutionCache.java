@@ -0,0 +1,288 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import com.google.cloud.sql.ConnectorMetrics;
+import com.google.cloud.sql.core.DnsResolver.ResolvedHost;
+import com.google.common.base.Throwables;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * HostResolutionCache caches the A records of custom domain names, so that opening a socket does
+ * not wait for a DNS lookup.
+ *
+ * <p>Entries are kept for the TTL of the DNS records, up to MAX_TTL. When an entry is used after
+ * most of its TTL has passed, it is refreshed in the background so that it does not expire while
+ * in use. Failed and empty lookups are cached for NEGATIVE_TTL. Concurrent lookups of the same
+ * name wait for a single DNS query. Connections wait for the query only until their deadline.
+ */
+class HostResolutionCache {
+  private static final Logger logger = LoggerFactory.getLogger(HostResolutionCache.class);
+
+  static final Duration MAX_TTL = Duration.ofMinutes(5);
+  static final Duration NEGATIVE_TTL = Duration.ofSeconds(10);
+
+  // Refresh an entry once this fraction of its TTL has passed.
+  private static final double REFRESH_AT = 0.8;
+
+  private final DnsResolver resolver;
+  private final Executor executor;
+  // Receives each lookup, or null.
+  private final ConnectorMetrics metrics;
+
+  private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, CompletableFuture<Entry>> lookups =
+      new ConcurrentHashMap<>();
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+
+  /**
+   * Creates a new HostResolutionCache.
+   *
+   * @param resolver performs the DNS lookups.
+   * @param executor runs the background refreshes.
+   */
+  HostResolutionCache(DnsResolver resolver, Executor executor) {
+    this(resolver, executor, null);
+  }
+
+  /**
+   * Creates a new HostResolutionCache.
+   *
+   * @param resolver performs the DNS lookups.
+   * @param executor runs the background refreshes.
+   * @param metrics receives the hit or miss of each lookup, or null.
+   */
+  HostResolutionCache(DnsResolver resolver, Executor executor, ConnectorMetrics metrics) {
+    this.resolver = resolver;
+    this.executor = executor;
+    this.metrics = metrics;
+  }
+
+  /**
+   * Returns the addresses of hostName, from the cache when possible.
+   *
+   * @throws UnknownHostException if the name does not resolve.
+   */
+  List<InetAddress> resolve(String hostName) throws UnknownHostException {
+    Entry entry = cached(hostName);
+    if (entry != null) {
+      return entry.get();
+    }
+    CompletableFuture<Entry> lookup = new CompletableFuture<>();
+    CompletableFuture<Entry> running = lookups.putIfAbsent(hostName, lookup);
+    if (running == null) {
+      runLookup(hostName, lookup);
+      running = lookup;
+    }
+    return await(running).get();
+  }
+
+  /**
+   * Returns the addresses of hostName, from the cache when possible. A DNS query runs on the
+   * executor, and is waited for until the deadline. When the deadline passes, the query continues
+   * and its result is cached for the next connection.
+   *
+   * @throws UnknownHostException if the name does not resolve.
+   * @throws java.net.SocketTimeoutException if the deadline passes before the query completes.
+   */
+  List<InetAddress> resolve(String hostName, ConnectDeadline deadline) throws IOException {
+    Entry entry = cached(hostName);
+    if (entry != null) {
+      return entry.get();
+    }
+    CompletableFuture<Entry> lookup = new CompletableFuture<>();
+    CompletableFuture<Entry> running = lookups.putIfAbsent(hostName, lookup);
+    if (running == null) {
+      try {
+        executor.execute(() -> runLookup(hostName, lookup));
+      } catch (RejectedExecutionException e) {
+        // The connector is closing, look up the name on this thread.
+        runLookup(hostName, lookup);
+      }
+      running = lookup;
+    }
+    return deadline.await(running).get();
+  }
+
+  /** Returns the unexpired entry of hostName, or null, and counts the hit or miss. */
+  private Entry cached(String hostName) {
+    long now = System.nanoTime();
+    Entry entry = entries.get(hostName);
+    if (entry != null && !entry.isExpired(now)) {
+      hitCount.incrementAndGet();
+      recordLookup(hostName, true);
+      if (entry.shouldRefresh(now)) {
+        refreshInBackground(hostName, entry);
+      }
+      return entry;
+    }
+    missCount.incrementAndGet();
+    recordLookup(hostName, false);
+    return null;
+  }
+
+  private void recordLookup(String hostName, boolean hit) {
+    if (metrics == null) {
+      return;
+    }
+    try {
+      metrics.recordDnsLookup(hostName, hit);
+    } catch (RuntimeException e) {
+      logger.debug(String.format("[%s] Failed to record the DNS lookup", hostName), e);
+    }
+  }
+
+  /** Looks up hostName, caches the result, and completes lookup with it. */
+  private void runLookup(String hostName, CompletableFuture<Entry> lookup) {
+    try {
+      Entry entry = lookup(hostName);
+      store(hostName, entry);
+      lookup.complete(entry);
+    } catch (RuntimeException e) {
+      lookup.completeExceptionally(e);
+    } finally {
+      lookups.remove(hostName, lookup);
+    }
+  }
+
+  long getHitCount() {
+    return hitCount.get();
+  }
+
+  long getMissCount() {
+    return missCount.get();
+  }
+
+  private void refreshInBackground(String hostName, Entry entry) {
+    if (!entry.refreshing.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      executor.execute(
+          () -> {
+            try {
+              Entry refreshed = lookup(hostName);
+              if (refreshed.error != null) {
+                // Keep the current entry until it expires, the failure may be temporary.
+                logger.debug(
+                    String.format(
+                        "[%s] Background DNS refresh failed: %s",
+                        hostName, refreshed.error.getMessage()));
+                return;
+              }
+              store(hostName, refreshed);
+            } catch (RuntimeException e) {
+              logger.debug(String.format("[%s] Background DNS refresh failed", hostName), e);
+            }
+          });
+    } catch (RejectedExecutionException e) {
+      // The connector is closing.
+    }
+  }
+
+  private Entry lookup(String hostName) {
+    long now = System.nanoTime();
+    try {
+      ResolvedHost host = resolver.resolveHostWithTtl(hostName);
+      if (host.getAddresses() == null || host.getAddresses().isEmpty()) {
+        return new Entry(Collections.emptyList(), null, now, NEGATIVE_TTL.toNanos());
+      }
+      Duration ttl = host.getTtl().compareTo(MAX_TTL) > 0 ? MAX_TTL : host.getTtl();
+      return new Entry(host.getAddresses(), null, now, ttl.toNanos());
+    } catch (UnknownHostException e) {
+      return new Entry(null, e, now, NEGATIVE_TTL.toNanos());
+    }
+  }
+
+  private void store(String hostName, Entry entry) {
+    if (entry.ttlNanos > 0) {
+      entries.put(hostName, entry);
+    } else {
+      entries.remove(hostName);
+    }
+  }
+
+  private static Entry await(CompletableFuture<Entry> lookup) {
+    boolean interrupted = false;
+    try {
+      while (true) {
+        try {
+          return lookup.get();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        } catch (ExecutionException e) {
+          Throwables.throwIfUnchecked(e.getCause());
+          throw new RuntimeException(e.getCause());
+        }
+      }
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private static class Entry {
+    private final List<InetAddress> addresses;
+    private final UnknownHostException error;
+    private final long createdNanos;
+    private final long ttlNanos;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    Entry(List<InetAddress> addresses, UnknownHostException error, long createdNanos, long ttl) {
+      this.addresses = addresses;
+      this.error = error;
+      this.createdNanos = createdNanos;
+      this.ttlNanos = ttl;
+    }
+
+    boolean isExpired(long now) {
+      return now - createdNanos >= ttlNanos;
+    }
+
+    boolean shouldRefresh(long now) {
+      return error == null
+          && !addresses.isEmpty()
+          && now - createdNanos >= (long) (ttlNanos * REFRESH_AT);
+    }
+
+    List<InetAddress> get() throws UnknownHostException {
+      if (error != null) {
+        // Throw a new exception, so that the stack trace shows the caller.
+        UnknownHostException e = new UnknownHostException(error.getMessage());
+        e.initCause(error);
+        throw e;
+      }
+      return addresses;
+    }
+  }
+}
@@ -17,11 +17,7 @@
 package com.google.cloud.sql.core;
 
 import java.io.IOException;
-import java.security.KeyStore;
-import java.security.KeyStoreException;
-import java.security.NoSuchAlgorithmException;
-import java.security.cert.Certificate;
-import java.security.cert.CertificateException;
+import java.security.GeneralSecurityException;
 import javax.net.ssl.TrustManagerFactory;
 
 /**
@@ -45,25 +41,15 @@ import javax.net.ssl.TrustManagerFactory;
 class InstanceCheckingTrustManagerFactory extends TrustManagerFactory {
 
   static InstanceCheckingTrustManagerFactory newInstance(InstanceMetadata instanceMetadata)
-      throws NoSuchAlgorithmException, KeyStoreException, CertificateException, IOException {
+      throws GeneralSecurityException, IOException {
 
-    TrustManagerFactory delegate = TrustManagerFactory.getInstance("X.509");
-    KeyStore trustedKeyStore = KeyStore.getInstance(KeyStore.getDefaultType());
-    trustedKeyStore.load(null, null);
-
-    // Add all the certificates in the chain of trust to the trust keystore.
-    for (Certificate cert : instanceMetadata.getInstanceCaCertificates()) {
-      trustedKeyStore.setCertificateEntry("ca" + cert.hashCode(), cert);
-    }
-
-    // Use a custom trust manager factory that checks the CN against the instance name
     // The delegate TrustManagerFactory will check the certificate chain, but will not do
-    // hostname checking.
-    InstanceCheckingTrustManagerFactory tmf =
-        new InstanceCheckingTrustManagerFactory(instanceMetadata, delegate);
-    tmf.init(trustedKeyStore);
+    // hostname checking. It is shared by the instances that have the same CA certificates.
+    TrustManagerFactory delegate =
+        CaCertificateCache.getTrustManagerFactory(instanceMetadata.getInstanceCaCertificates());
 
-    return tmf;
+    // Use a custom trust manager factory that checks the CN against the instance name
+    return new InstanceCheckingTrustManagerFactory(instanceMetadata, delegate);
   }
 
   private InstanceCheckingTrustManagerFactory(
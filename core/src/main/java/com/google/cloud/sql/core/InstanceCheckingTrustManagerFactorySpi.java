@@ -16,9 +16,7 @@
 
 package com.google.cloud.sql.core;
 
-import java.security.InvalidAlgorithmParameterException;
 import java.security.KeyStore;
-import java.security.KeyStoreException;
 import javax.net.ssl.ManagerFactoryParameters;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.TrustManagerFactory;
@@ -39,16 +37,13 @@ class InstanceCheckingTrustManagerFactorySpi extends TrustManagerFactorySpi {
     this.delegate = delegate;
   }
 
+  // The delegate is initialized with the instance's CA certificates, and may be shared with other
+  // instances, so it is never initialized again.
   @Override
-  protected void engineInit(KeyStore ks) throws KeyStoreException {
-    delegate.init(ks);
-  }
+  protected void engineInit(KeyStore ks) {}
 
   @Override
-  protected void engineInit(ManagerFactoryParameters spec)
-      throws InvalidAlgorithmParameterException {
-    delegate.init(spec);
-  }
+  protected void engineInit(ManagerFactoryParameters spec) {}
 
   @Override
   protected TrustManager[] engineGetTrustManagers() {
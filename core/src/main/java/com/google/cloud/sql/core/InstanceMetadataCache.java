@@ -0,0 +1,136 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import com.google.cloud.sql.AuthType;
+import com.google.cloud.sql.IpType;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.nio.charset.StandardCharsets;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateEncodingException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * InstanceMetadataCache holds the metadata of instances between refreshes of their client
+ * certificates. The metadata of an instance rarely changes, so a refresh may reuse it for the
+ * configured time instead of fetching it again from the Admin API.
+ *
+ * <p>Each entry keeps a fingerprint of its content. When the metadata is fetched again and has not
+ * changed, the cache keeps the existing InstanceMetadata, so that objects derived from it may be
+ * reused.
+ */
+class InstanceMetadataCache {
+  private static final Logger logger = LoggerFactory.getLogger(InstanceMetadataCache.class);
+
+  private final long ttlMillis;
+  private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+  InstanceMetadataCache(Duration ttl) {
+    this.ttlMillis = ttl.toMillis();
+  }
+
+  /** Returns the metadata of the instance if it was fetched within the TTL, or null. */
+  InstanceMetadata get(CloudSqlInstanceName instanceName, AuthType authType) {
+    Entry e = entries.get(key(instanceName, authType));
+    if (e == null || System.currentTimeMillis() - e.fetchedAtMillis >= ttlMillis) {
+      return null;
+    }
+    logger.debug(String.format("[%s] Reusing cached instance metadata.", instanceName));
+    return e.metadata;
+  }
+
+  /**
+   * Saves newly fetched metadata of the instance.
+   *
+   * @return the metadata to use: the cached metadata when its content did not change, or metadata.
+   */
+  InstanceMetadata put(
+      CloudSqlInstanceName instanceName, AuthType authType, InstanceMetadata metadata) {
+    String fingerprint = fingerprint(metadata);
+    long now = System.currentTimeMillis();
+    Entry e =
+        entries.compute(
+            key(instanceName, authType),
+            (k, old) -> {
+              if (old != null && old.fingerprint.equals(fingerprint)) {
+                return new Entry(old.metadata, fingerprint, now);
+              }
+              if (old != null) {
+                logger.debug(String.format("[%s] Instance metadata has changed.", instanceName));
+              }
+              return new Entry(metadata, fingerprint, now);
+            });
+    return e.metadata;
+  }
+
+  /** Removes the metadata of the instance, so that the next refresh fetches it again. */
+  void invalidate(CloudSqlInstanceName instanceName) {
+    for (AuthType authType : AuthType.values()) {
+      entries.remove(key(instanceName, authType));
+    }
+  }
+
+  private static String key(CloudSqlInstanceName instanceName, AuthType authType) {
+    return instanceName.getConnectionName() + "/" + authType;
+  }
+
+  /** Returns a hash of the content of the metadata. */
+  static String fingerprint(InstanceMetadata metadata) {
+    Hasher h = Hashing.sha256().newHasher();
+    for (Map.Entry<IpType, List<String>> ip : new TreeMap<>(metadata.getIpAddrs()).entrySet()) {
+      h.putString(ip.getKey().name(), StandardCharsets.UTF_8).putByte((byte) 0);
+      for (String addr : ip.getValue()) {
+        h.putString(addr, StandardCharsets.UTF_8).putByte((byte) 0);
+      }
+    }
+    h.putByte((byte) 1);
+    for (Certificate c : metadata.getInstanceCaCertificates()) {
+      try {
+        h.putBytes(c.getEncoded());
+      } catch (CertificateEncodingException ex) {
+        // Matches no other fingerprint, so that the metadata is always replaced.
+        return UUID.randomUUID().toString();
+      }
+    }
+    h.putByte((byte) 1);
+    h.putBoolean(metadata.isCasManagedCertificate());
+    h.putBoolean(metadata.isPscEnabled());
+    h.putString(String.valueOf(metadata.getDnsName()), StandardCharsets.UTF_8).putByte((byte) 0);
+    h.putString(String.valueOf(metadata.getMdxProtocolSupport()), StandardCharsets.UTF_8);
+    return h.hash().toString();
+  }
+
+  private static class Entry {
+    private final InstanceMetadata metadata;
+    private final String fingerprint;
+    private final long fetchedAtMillis;
+
+    Entry(InstanceMetadata metadata, String fingerprint, long fetchedAtMillis) {
+      this.metadata = metadata;
+      this.fingerprint = fingerprint;
+      this.fetchedAtMillis = fetchedAtMillis;
+    }
+  }
+}
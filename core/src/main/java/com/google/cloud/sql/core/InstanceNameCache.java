@@ -0,0 +1,134 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+/**
+ * InstanceNameCache holds the instance names that domain names resolved to, so that connecting
+ * with a domain name does not need DNS lookups or Admin API calls.
+ *
+ * <p>The MonitoredCache of a domain name calls refresh() every failover period, which keeps its
+ * entry current. An entry that was not refreshed for two failover periods, for example because the
+ * lookups failed, expires and the next connection resolves the domain name again.
+ */
+class InstanceNameCache {
+  private final Function<ConnectionConfig, CloudSqlInstanceName> resolve;
+  private final Executor executor;
+  private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, CompletableFuture<CloudSqlInstanceName>> lookups =
+      new ConcurrentHashMap<>();
+
+  /**
+   * Creates a new InstanceNameCache that resolves domain names on the calling thread.
+   *
+   * @param resolve resolves the domain name of a ConnectionConfig to an instance name.
+   */
+  InstanceNameCache(Function<ConnectionConfig, CloudSqlInstanceName> resolve) {
+    this(resolve, MoreExecutors.directExecutor());
+  }
+
+  /**
+   * Creates a new InstanceNameCache.
+   *
+   * @param resolve resolves the domain name of a ConnectionConfig to an instance name.
+   * @param executor runs the lookups that connections wait for until their deadline.
+   */
+  InstanceNameCache(Function<ConnectionConfig, CloudSqlInstanceName> resolve, Executor executor) {
+    this.resolve = resolve;
+    this.executor = executor;
+  }
+
+  /** Returns the instance name of the domain name in config, resolving it if not cached. */
+  CloudSqlInstanceName get(ConnectionConfig config) {
+    CloudSqlInstanceName name = cached(config);
+    return name != null ? name : refresh(config);
+  }
+
+  /**
+   * Returns the instance name of the domain name in config, resolving it on the executor if not
+   * cached. Concurrent lookups of the same domain name wait for a single lookup, until their
+   * deadline. When the deadline passes, the lookup continues and its result is cached.
+   *
+   * @throws java.net.SocketTimeoutException if the deadline passes before the lookup completes.
+   */
+  CloudSqlInstanceName get(ConnectionConfig config, ConnectDeadline deadline) throws IOException {
+    CloudSqlInstanceName name = cached(config);
+    if (name != null) {
+      return name;
+    }
+    CompletableFuture<CloudSqlInstanceName> lookup = new CompletableFuture<>();
+    CompletableFuture<CloudSqlInstanceName> running =
+        lookups.putIfAbsent(config.getDomainName(), lookup);
+    if (running == null) {
+      try {
+        executor.execute(() -> runLookup(config, lookup));
+      } catch (RejectedExecutionException e) {
+        // The connector is closing, resolve the name on this thread.
+        runLookup(config, lookup);
+      }
+      running = lookup;
+    }
+    return deadline.await(running);
+  }
+
+  /** Resolves the domain name in config again, and caches the result. */
+  CloudSqlInstanceName refresh(ConnectionConfig config) {
+    CloudSqlInstanceName name = resolve.apply(config);
+    long ttlNanos = config.getConnectorConfig().getFailoverPeriod().toNanos() * 2;
+    entries.put(config.getDomainName(), new Entry(name, System.nanoTime() + ttlNanos));
+    return name;
+  }
+
+  private CloudSqlInstanceName cached(ConnectionConfig config) {
+    Entry entry = entries.get(config.getDomainName());
+    if (entry != null && System.nanoTime() - entry.expiresAtNanos < 0) {
+      return entry.name;
+    }
+    return null;
+  }
+
+  private void runLookup(ConnectionConfig config, CompletableFuture<CloudSqlInstanceName> lookup) {
+    try {
+      lookup.complete(refresh(config));
+    } catch (RuntimeException e) {
+      lookup.completeExceptionally(e);
+    } finally {
+      lookups.remove(config.getDomainName(), lookup);
+    }
+  }
+
+  void clear() {
+    entries.clear();
+  }
+
+  private static class Entry {
+    private final CloudSqlInstanceName name;
+    private final long expiresAtNanos;
+
+    Entry(CloudSqlInstanceName name, long expiresAtNanos) {
+      this.name = name;
+      this.expiresAtNanos = expiresAtNanos;
+    }
+  }
+}
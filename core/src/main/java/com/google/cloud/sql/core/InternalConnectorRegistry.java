@@ -29,11 +29,17 @@ import java.net.Socket;
 import java.security.KeyPair;
 import java.security.KeyPairGenerator;
 import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -74,6 +80,12 @@ public final class InternalConnectorRegistry {
    */
   @Deprecated static final String USER_TOKEN_PROPERTY_NAME = "_CLOUD_SQL_USER_TOKEN";
 
+  /**
+   * System property that lists the instances to prewarm when the registry is created, as
+   * comma-separated instance connection names in the form "project:region:instance".
+   */
+  public static final String PREWARM_INSTANCES_PROPERTY = "cloudSql.prewarmInstances";
+
   @VisibleForTesting
   InternalConnectorRegistry(
       ListenableFuture<KeyPair> localKeyPair,
@@ -112,6 +124,8 @@ public final class InternalConnectorRegistry {
               DEFAULT_SERVER_PROXY_PORT,
               DEFAULT_CONNECT_TIMEOUT_MS,
               executor);
+      // Creating the connector loads the credentials, don't hold the lock while it runs.
+      executor.execute(internalConnectorRegistry::prewarmFromSystemProperty);
     }
     return internalConnectorRegistry;
   }
@@ -143,10 +157,12 @@ public final class InternalConnectorRegistry {
   // Returns a listenable, scheduled executor that exits upon shutdown.
   static ListeningScheduledExecutorService getDefaultExecutor() {
 
-    // During refresh, each instance consumes 2 threads from the thread pool. By using 8 threads,
-    // there should be enough free threads so that there will not be a deadlock. Most users
-    // configure 3 or fewer instances, requiring 6 threads during refresh. By setting
-    // this to 8, it's enough threads for most users, plus a safety factor of 2.
+    // A refresh never waits on the thread pool for another task to complete: each stage is
+    // scheduled when the stages it depends on are done, failed Admin API requests and token
+    // refreshes are retried on a schedule instead of sleeping, and the refreshes that need a new
+    // IAM login token share the future of one fetch. A thread is held only while an Admin API
+    // request or a token request is in progress, so a small fixed pool serves any number of
+    // instances.
 
     return MoreExecutors.listeningDecorator(
         Executors.newScheduledThreadPool(
@@ -170,7 +186,33 @@ public final class InternalConnectorRegistry {
   public Socket connect(ConnectionConfig config) throws IOException, InterruptedException {
     if (config.getNamedConnector() != null) {
       Connector connector = getNamedConnector(config.getNamedConnector());
-      return connector.connect(config.withConnectorConfig(connector.getConfig()), connectTimeoutMs);
+      ConnectionConfig namedConfig = config.withConnectorConfig(connector.getConfig());
+      return connector.connect(namedConfig, getConnectTimeoutMs(namedConfig));
+    }
+
+    // Validate parameters
+    Preconditions.checkArgument(
+        config.getCloudSqlInstance() != null || config.getDomainName() != null,
+        "cloudSqlInstance property or hostname was not set. Please specify"
+            + " either cloudSqlInstance or the database hostname in the JDBC URL or the "
+            + "connection Properties. cloudSqlInstance should contain a value in "
+            + "form \"project:region:instance\"");
+
+    return getConnector(config).connect(config, getConnectTimeoutMs(config));
+  }
+
+  /**
+   * Internal use only: Connects to a Cloud SQL instance without blocking a thread on the TCP
+   * connect and TLS handshake.
+   *
+   * @param config used to configure the connection.
+   * @return a future of the connected channel, with the TLS handshake completed.
+   */
+  public CompletableFuture<TlsSocketChannel> connectAsync(ConnectionConfig config) {
+    if (config.getNamedConnector() != null) {
+      Connector connector = getNamedConnector(config.getNamedConnector());
+      ConnectionConfig namedConfig = config.withConnectorConfig(connector.getConfig());
+      return connector.connectAsync(namedConfig, getConnectTimeoutMs(namedConfig));
     }
 
     // Validate parameters
@@ -181,19 +223,94 @@ public final class InternalConnectorRegistry {
             + "connection Properties. cloudSqlInstance should contain a value in "
             + "form \"project:region:instance\"");
 
-    return getConnector(config).connect(config, connectTimeoutMs);
+    return getConnector(config).connectAsync(config, getConnectTimeoutMs(config));
   }
 
   /** Internal use only: Returns ConnectionMetadata for a connection. */
   public ConnectionMetadata getConnectionMetadata(ConnectionConfig config) {
     if (config.getNamedConnector() != null) {
       Connector connector = getNamedConnector(config.getNamedConnector());
+      ConnectionConfig namedConfig = config.withConnectorConfig(connector.getConfig());
       return connector
-          .getConnection(config.withConnectorConfig(connector.getConfig()))
-          .getConnectionMetadata(connectTimeoutMs);
+          .getConnection(namedConfig)
+          .getConnectionMetadata(getConnectTimeoutMs(namedConfig));
+    }
+
+    return getConnector(config)
+        .getConnection(config)
+        .getConnectionMetadata(getConnectTimeoutMs(config));
+  }
+
+  /**
+   * Internal use only: Starts the refresh of the connection info of the instances in parallel.
+   *
+   * @param configs the connection configurations of the instances.
+   * @return a future that completes when the connection info of all the instances is ready, with
+   *     the time that each instance took to be ready, by instance connection name.
+   */
+  public CompletableFuture<Map<String, Duration>> prewarm(Collection<ConnectionConfig> configs) {
+    Map<Connector, List<ConnectionConfig>> byConnector = new LinkedHashMap<>();
+    for (ConnectionConfig config : configs) {
+      Connector connector;
+      ConnectionConfig connectorConfig = config;
+      if (config.getNamedConnector() != null) {
+        connector = getNamedConnector(config.getNamedConnector());
+        connectorConfig = config.withConnectorConfig(connector.getConfig());
+      } else {
+        Preconditions.checkArgument(
+            config.getCloudSqlInstance() != null || config.getDomainName() != null,
+            "cloudSqlInstance property or hostname was not set. Please specify"
+                + " either cloudSqlInstance or the database hostname in the JDBC URL or the "
+                + "connection Properties. cloudSqlInstance should contain a value in "
+                + "form \"project:region:instance\"");
+        connector = getConnector(config);
+      }
+      byConnector.computeIfAbsent(connector, k -> new ArrayList<>()).add(connectorConfig);
+    }
+
+    Map<String, Duration> readiness = new ConcurrentHashMap<>();
+    List<CompletableFuture<Void>> futures = new ArrayList<>();
+    byConnector.forEach(
+        (connector, connectorConfigs) ->
+            futures.add(
+                connector
+                    .prewarm(connectorConfigs, getConnectTimeoutMs(connectorConfigs.get(0)))
+                    .thenAccept(readiness::putAll)));
+    return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+        .thenApply(v -> readiness);
+  }
+
+  /** Prewarms the instances listed in the PREWARM_INSTANCES_PROPERTY system property. */
+  private void prewarmFromSystemProperty() {
+    String instances = System.getProperty(PREWARM_INSTANCES_PROPERTY);
+    if (Strings.isNullOrEmpty(instances)) {
+      return;
     }
+    List<ConnectionConfig> configs = new ArrayList<>();
+    for (String instance : instances.split(",")) {
+      if (!instance.trim().isEmpty()) {
+        configs.add(new ConnectionConfig.Builder().withCloudSqlInstance(instance.trim()).build());
+      }
+    }
+    try {
+      prewarm(configs)
+          .whenComplete(
+              (readiness, err) -> {
+                if (err != null) {
+                  logger.debug("Failed to prewarm the instances of " + instances, err);
+                } else {
+                  logger.debug(String.format("Prewarmed %d instances.", readiness.size()));
+                }
+              });
+    } catch (RuntimeException e) {
+      logger.debug("Failed to prewarm the instances of " + instances, e);
+    }
+  }
 
-    return getConnector(config).getConnection(config).getConnectionMetadata(connectTimeoutMs);
+  /** Returns the connect timeout configured for the connector, or the registry's default. */
+  private long getConnectTimeoutMs(ConnectionConfig config) {
+    Duration connectTimeout = config.getConnectorConfig().getConnectTimeout();
+    return connectTimeout != null ? connectTimeout.toMillis() : connectTimeoutMs;
   }
 
   /** Internal use only: Force refresh the connection info. */
@@ -216,7 +333,13 @@ public final class InternalConnectorRegistry {
               + "available.");
     }
     generator.initialize(RSA_KEY_SIZE);
-    return generator.generateKeyPair();
+    long start = System.nanoTime();
+    KeyPair keyPair = generator.generateKeyPair();
+    logger.debug(
+        String.format(
+            "Generated RSA key pair in %d ms.",
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+    return keyPair;
   }
 
   private static String getVersion() {
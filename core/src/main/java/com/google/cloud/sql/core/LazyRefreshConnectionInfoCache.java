@@ -19,7 +19,10 @@ package com.google.cloud.sql.core;
 import static com.google.cloud.sql.core.RefreshCalculator.DEFAULT_REFRESH_BUFFER;
 
 import com.google.cloud.sql.CredentialFactory;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import java.security.KeyPair;
+import java.util.function.Supplier;
 
 /**
  * Implements the lazy refresh cache strategy, which loads the new certificate as needed during a
@@ -28,6 +31,7 @@ import java.security.KeyPair;
 class LazyRefreshConnectionInfoCache implements ConnectionInfoCache {
   private final ConnectionConfig config;
   private final CloudSqlInstanceName instanceName;
+  private final ConnectionInfoRepository connectionInfoRepository;
 
   private final LazyRefreshStrategy refreshStrategy;
 
@@ -44,23 +48,65 @@ class LazyRefreshConnectionInfoCache implements ConnectionInfoCache {
       ConnectionInfoRepository connectionInfoRepository,
       CredentialFactory tokenSourceFactory,
       KeyPair keyPair) {
+    this(
+        config,
+        connectionInfoRepository,
+        DefaultAccessTokenSupplier.newInstance(
+            config.getAuthType(), tokenSourceFactory, config.getConnectorConfig()),
+        Futures.immediateFuture(keyPair),
+        null,
+        null);
+  }
+
+  /**
+   * Initializes a new Cloud SQL instance based on the given connection name using the lazy refresh
+   * strategy.
+   *
+   * @param config instance connection name in the format "PROJECT_ID:REGION_ID:INSTANCE_ID"
+   * @param connectionInfoRepository Service class for interacting with the Cloud SQL Admin API
+   * @param accessTokenSupplier supplies the IAM login token, shared with other instances
+   * @param keyPair public/private key pair used to authenticate connections, awaited by the first
+   *     refresh
+   * @param diskCache saves the connection info after each refresh, or null
+   * @param savedInfo the connection info loaded from the disk cache, used until it expires, or null
+   */
+  LazyRefreshConnectionInfoCache(
+      ConnectionConfig config,
+      ConnectionInfoRepository connectionInfoRepository,
+      AccessTokenSupplier accessTokenSupplier,
+      ListenableFuture<KeyPair> keyPair,
+      ConnectionInfoDiskCache diskCache,
+      ConnectionInfo savedInfo) {
 
     CloudSqlInstanceName instanceName =
         new CloudSqlInstanceName(config.getCloudSqlInstance(), config.getDomainName());
 
     this.config = config;
     this.instanceName = instanceName;
-
-    AccessTokenSupplier accessTokenSupplier =
-        DefaultAccessTokenSupplier.newInstance(config.getAuthType(), tokenSourceFactory);
+    this.connectionInfoRepository = connectionInfoRepository;
+
+    Supplier<ConnectionInfo> refreshOperation =
+        () -> {
+          ConnectionInfo info =
+              connectionInfoRepository.getConnectionInfoSync(
+                  instanceName,
+                  accessTokenSupplier,
+                  config.getAuthType(),
+                  Futures.getUnchecked(keyPair));
+          if (diskCache != null) {
+            diskCache.save(instanceName, config.getAuthType(), info);
+          }
+          return info;
+        };
 
     this.refreshStrategy =
         new LazyRefreshStrategy(
             config.getCloudSqlInstance(),
-            () ->
-                connectionInfoRepository.getConnectionInfoSync(
-                    instanceName, accessTokenSupplier, config.getAuthType(), keyPair),
-            DEFAULT_REFRESH_BUFFER);
+            refreshOperation,
+            DEFAULT_REFRESH_BUFFER,
+            savedInfo,
+            new AdaptiveRefreshBuffer(
+                config.getCloudSqlInstance(), config.getConnectorConfig().getConnectorMetrics()));
   }
 
   @Override
@@ -70,6 +116,7 @@ class LazyRefreshConnectionInfoCache implements ConnectionInfoCache {
 
   @Override
   public void forceRefresh() {
+    connectionInfoRepository.invalidateMetadata(instanceName);
     refreshStrategy.forceRefresh();
   }
 
@@ -81,6 +128,7 @@ class LazyRefreshConnectionInfoCache implements ConnectionInfoCache {
   @Override
   public void close() {
     refreshStrategy.close();
+    connectionInfoRepository.removeInstance(instanceName);
   }
 
   @Override
@@ -88,6 +136,11 @@ class LazyRefreshConnectionInfoCache implements ConnectionInfoCache {
     return refreshStrategy.isClosed();
   }
 
+  @Override
+  public void addRefreshListener(Runnable listener) {
+    refreshStrategy.addRefreshListener(listener);
+  }
+
   @Override
   public ConnectionConfig getConfig() {
     return config;
@@ -19,6 +19,10 @@ package com.google.cloud.sql.core;
 import com.google.errorprone.annotations.concurrent.GuardedBy;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Supplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,115 +31,335 @@ import org.slf4j.LoggerFactory;
 public class LazyRefreshStrategy implements RefreshStrategy {
   private final Logger logger = LoggerFactory.getLogger(LazyRefreshStrategy.class);
 
+  // How long callers keep using the current certificate after a failed refresh before trying
+  // again. The delay doubles with each consecutive failure, up to MAX_RETRY_DELAY.
+  private static final Duration MIN_RETRY_DELAY = Duration.ofSeconds(1);
+  private static final Duration MAX_RETRY_DELAY = Duration.ofSeconds(30);
+
   private final String name;
   private final Supplier<ConnectionInfo> refreshOperation;
   private final Duration refreshBuffer;
+  // Sizes the refresh buffer from recent refreshes, or null to use refreshBuffer.
+  private final AdaptiveRefreshBuffer adaptiveBuffer;
+
+  private final ReentrantLock connectionInfoLock = new ReentrantLock();
 
-  private final Object connectionInfoGuard = new Object();
+  // Held while a refresh operation runs, so that only one thread refreshes at a time.
+  private final ReentrantLock refreshLock = new ReentrantLock();
 
-  @GuardedBy("connectionInfoGuard")
+  @GuardedBy("connectionInfoLock")
   private ConnectionInfo connectionInfo;
 
-  @GuardedBy("connectionInfoGuard")
-  private boolean closed;
+  // The connection info while it does not need a refresh, or null. Read without a lock by new
+  // connections, so that they do not contend on connectionInfoLock.
+  private volatile ConnectionInfoSnapshot snapshot;
+
+  // Written while holding connectionInfoLock, read without it.
+  private volatile boolean closed;
+
+  // The number of refreshes that failed in a row.
+  @GuardedBy("refreshLock")
+  private int failureCount;
+
+  // After a failed refresh, the time before which the current certificate is used without
+  // refreshing again, or null.
+  private volatile Instant nextAttempt;
+
+  // Called after each successful refresh.
+  private final List<Runnable> refreshListeners = new CopyOnWriteArrayList<>();
 
   /** Creates a new LazyRefreshStrategy instance. */
   public LazyRefreshStrategy(
       String name, Supplier<ConnectionInfo> refreshOperation, Duration refreshDuration) {
+    this(name, refreshOperation, refreshDuration, null);
+  }
+
+  /**
+   * Creates a new LazyRefreshStrategy instance that uses initialInfo, if not null, until it needs
+   * a refresh.
+   */
+  LazyRefreshStrategy(
+      String name,
+      Supplier<ConnectionInfo> refreshOperation,
+      Duration refreshDuration,
+      ConnectionInfo initialInfo) {
+    this(name, refreshOperation, refreshDuration, initialInfo, null);
+  }
+
+  /**
+   * Creates a new LazyRefreshStrategy instance that uses initialInfo, if not null, until it needs
+   * a refresh. When adaptiveBuffer is not null, it sizes the refresh buffer instead of
+   * refreshDuration.
+   */
+  LazyRefreshStrategy(
+      String name,
+      Supplier<ConnectionInfo> refreshOperation,
+      Duration refreshDuration,
+      ConnectionInfo initialInfo,
+      AdaptiveRefreshBuffer adaptiveBuffer) {
     this.name = name;
     this.refreshOperation = refreshOperation;
     this.refreshBuffer = refreshDuration;
+    this.adaptiveBuffer = adaptiveBuffer;
+    if (initialInfo != null) {
+      connectionInfoLock.lock();
+      try {
+        this.connectionInfo = initialInfo;
+        this.snapshot = new ConnectionInfoSnapshot(initialInfo, getRefreshBuffer());
+      } finally {
+        connectionInfoLock.unlock();
+      }
+    }
   }
 
+  /**
+   * Returns valid connection info, refreshing it on the calling thread when it is missing or about
+   * to expire. Only one thread refreshes at a time. While it does, other threads keep using the
+   * current connection info until its client certificate expires, and then wait up to timeoutMs
+   * for the refresh to complete. The refresh operation itself is bounded by the timeouts of the
+   * Admin API client. After a failed refresh, the current connection info is used without another
+   * refresh until a backoff delay passes or its client certificate expires.
+   */
   @Override
   public ConnectionInfo getConnectionInfo(long timeoutMs) {
-    synchronized (connectionInfoGuard) {
-      if (closed) {
-        throw new IllegalStateException(
-            String.format("[%s] Lazy Refresh: Named connection closed.", name));
+    ConnectionInfo info = getValidConnectionInfo();
+    if (info == null) {
+      info = getBackoffConnectionInfo();
+    }
+    if (info != null) {
+      return info;
+    }
+
+    if (!refreshLock.tryLock()) {
+      // Another thread is refreshing. Do not wait for it while the certificate is still valid.
+      info = getUnexpiredConnectionInfo();
+      if (info != null) {
+        return info;
+      }
+      lockRefresh(timeoutMs);
+    }
+    try {
+      // Another thread may have completed or failed a refresh while this one waited.
+      info = getValidConnectionInfo();
+      if (info == null) {
+        info = getBackoffConnectionInfo();
+      }
+      if (info != null) {
+        return info;
       }
+      try {
+        info = fetchConnectionInfo();
+        failureCount = 0;
+        nextAttempt = null;
+        return info;
+      } catch (TerminalException e) {
+        throw e;
+      } catch (RuntimeException e) {
+        failureCount++;
+        info = getUnexpiredConnectionInfo();
+        if (info == null) {
+          throw e;
+        }
+        Duration delay = getRetryDelay(failureCount);
+        nextAttempt = Instant.now().plus(delay);
+        logger.debug(
+            String.format(
+                "[%s] Lazy Refresh Operation: Refresh failed, using the current certificate "
+                    + "for %d ms before the next attempt, or until it expires at %s.",
+                name, delay.toMillis(), info.getExpiration()),
+            e);
+        return info;
+      }
+    } finally {
+      refreshLock.unlock();
+    }
+  }
 
+  private void lockRefresh(long timeoutMs) {
+    try {
+      if (!refreshLock.tryLock(timeoutMs, TimeUnit.MILLISECONDS)) {
+        throw new RuntimeException(
+            String.format(
+                "[%s] Lazy Refresh: Unable to get valid instance data within %d ms.",
+                name, timeoutMs));
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(
+          String.format("[%s] Lazy Refresh: Interrupted while waiting for instance data.", name),
+          e);
+    }
+  }
+
+  /** Returns the connection info, or null if it is missing or must be refreshed. */
+  private ConnectionInfo getValidConnectionInfo() {
+    if (closed) {
+      throw new IllegalStateException(
+          String.format("[%s] Lazy Refresh: Named connection closed.", name));
+    }
+    ConnectionInfoSnapshot s = snapshot;
+    return s != null && s.isValid() ? s.getInfo() : null;
+  }
+
+  /**
+   * Returns the unexpired connection info while waiting to retry a failed refresh, or null when a
+   * refresh should be attempted.
+   */
+  private ConnectionInfo getBackoffConnectionInfo() {
+    Instant next = nextAttempt;
+    if (next == null || !Instant.now().isBefore(next)) {
+      return null;
+    }
+    return getUnexpiredConnectionInfo();
+  }
+
+  /** Returns how long to wait before retrying after failures consecutive failed refreshes. */
+  static Duration getRetryDelay(int failures) {
+    int shift = Math.min(failures - 1, 5);
+    Duration delay = MIN_RETRY_DELAY.multipliedBy(1L << shift);
+    return delay.compareTo(MAX_RETRY_DELAY) < 0 ? delay : MAX_RETRY_DELAY;
+  }
+
+  /**
+   * Returns the connection info while its client certificate has not expired, even if it must be
+   * refreshed, or null.
+   */
+  private ConnectionInfo getUnexpiredConnectionInfo() {
+    ConnectionInfoSnapshot s = snapshot;
+    if (s == null || !s.getInfo().getExpiration().isAfter(Instant.now())) {
+      return null;
+    }
+    return s.getInfo();
+  }
+
+  private ConnectionInfo fetchConnectionInfo() {
+    connectionInfoLock.lock();
+    try {
       if (connectionInfo == null) {
         logger.debug(
             String.format(
                 "[%s] Lazy Refresh Operation: No client certificate. Starting next refresh "
                     + "operation immediately.",
                 name));
-        fetchConnectionInfo();
-      }
-      if (Instant.now().isAfter(connectionInfo.getExpiration().minus(refreshBuffer))) {
+      } else {
         logger.debug(
             String.format(
                 "[%s] Lazy Refresh Operation: Client certificate has expired. Starting next "
                     + "refresh operation immediately.",
                 name));
-        fetchConnectionInfo();
       }
-      return connectionInfo;
+    } finally {
+      connectionInfoLock.unlock();
+    }
+    logger.debug(String.format("[%s] Lazy Refresh Operation: Starting refresh operation.", name));
+    ConnectionInfo info;
+    long start = System.nanoTime();
+    try {
+      info = this.refreshOperation.get();
+    } catch (TerminalException e) {
+      logger.debug(String.format("[%s] Lazy Refresh Operation: Failed! No retry.", name), e);
+      throw e;
+    } catch (Exception e) {
+      if (adaptiveBuffer != null) {
+        adaptiveBuffer.recordFailure(System.nanoTime() - start);
+      }
+      throw new RuntimeException(String.format("[%s] Refresh Operation: Failed!", name), e);
+    }
+    if (adaptiveBuffer != null) {
+      adaptiveBuffer.recordSuccess(System.nanoTime() - start);
+    }
+    logger.debug(
+        String.format(
+            "[%s] Lazy Refresh Operation: Completed refresh with new certificate "
+                + "expiration at %s.",
+            name, info.getExpiration().toString()));
+    connectionInfoLock.lock();
+    try {
+      this.connectionInfo = info;
+      this.snapshot = new ConnectionInfoSnapshot(info, getRefreshBuffer());
+    } finally {
+      connectionInfoLock.unlock();
     }
+    notifyRefreshListeners();
+    return info;
   }
 
-  private void fetchConnectionInfo() {
-    synchronized (connectionInfoGuard) {
-      logger.debug(String.format("[%s] Lazy Refresh Operation: Starting refresh operation.", name));
-      try {
-        this.connectionInfo = this.refreshOperation.get();
-        logger.debug(
-            String.format(
-                "[%s] Lazy Refresh Operation: Completed refresh with new certificate "
-                    + "expiration at %s.",
-                name, connectionInfo.getExpiration().toString()));
+  /**
+   * Calls listener each time a refresh completes. When valid connection info is already available,
+   * listener is also called now.
+   */
+  void addRefreshListener(Runnable listener) {
+    refreshListeners.add(listener);
+    ConnectionInfoSnapshot s = snapshot;
+    if (s != null && s.isValid()) {
+      listener.run();
+    }
+  }
 
-      } catch (TerminalException e) {
-        logger.debug(String.format("[%s] Lazy Refresh Operation: Failed! No retry.", name), e);
-        throw e;
-      } catch (Exception e) {
-        throw new RuntimeException(String.format("[%s] Refresh Operation: Failed!", name), e);
+  private void notifyRefreshListeners() {
+    if (closed) {
+      return;
+    }
+    for (Runnable listener : refreshListeners) {
+      try {
+        listener.run();
+      } catch (RuntimeException e) {
+        logger.debug(String.format("[%s] Refresh listener failed", name), e);
       }
     }
   }
 
+  /** Returns how long before the client certificate expires it must be refreshed. */
+  Duration getRefreshBuffer() {
+    return adaptiveBuffer != null ? adaptiveBuffer.get() : refreshBuffer;
+  }
+
   /** Force a new refresh of the instance data if the client certificate has expired. */
   @Override
   public void forceRefresh() {
     // invalidate connectionInfo so that the next call to getConectionInfo() will
     // fetch new data.
-    synchronized (connectionInfoGuard) {
+    connectionInfoLock.lock();
+    try {
       if (closed) {
         throw new IllegalStateException(
             String.format("[%s] Lazy Refresh: Named connection closed.", name));
       }
       this.connectionInfo = null;
+      this.snapshot = null;
+      this.nextAttempt = null;
       logger.debug(String.format("[%s] Lazy Refresh Operation: Forced refresh.", name));
+    } finally {
+      connectionInfoLock.unlock();
     }
   }
 
   /** Force a new refresh of the instance data if the client certificate has expired. */
   @Override
   public void refreshIfExpired() {
-    synchronized (connectionInfoGuard) {
-      if (closed) {
-        throw new IllegalStateException(
-            String.format("[%s] Lazy Refresh: Named connection closed.", name));
-      }
+    if (closed) {
+      throw new IllegalStateException(
+          String.format("[%s] Lazy Refresh: Named connection closed.", name));
     }
   }
 
   @Override
   public void close() {
-    synchronized (connectionInfoGuard) {
+    connectionInfoLock.lock();
+    try {
       if (closed) {
         return;
       }
       closed = true;
+      snapshot = null;
       logger.debug(String.format("[%s] Lazy Refresh Operation: Connector closed.", name));
+    } finally {
+      connectionInfoLock.unlock();
     }
   }
 
   @Override
   public boolean isClosed() {
-    synchronized (connectionInfoGuard) {
-      return closed;
-    }
+    return closed;
   }
 }
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import com.google.cloud.sql.ConnectorMetrics.ConnectPhase;
+import java.io.IOException;
+import javax.net.ssl.SSLSocket;
+
+/**
+ * LimitedSocketOpener takes a handshake permit for each attempt to connect to an IP address, and
+ * holds it only while the TCP connect and TLS handshake of that attempt are in progress. When the
+ * StaggeredDialer races several attempts for one connection, each of them counts against the limit,
+ * and a losing attempt returns its permit as soon as it is aborted.
+ */
+class LimitedSocketOpener implements StaggeredDialer.SocketOpener {
+  private final StaggeredDialer.SocketOpener opener;
+  private final String instanceName;
+  private final HandshakeLimiter instanceLimiter;
+  private final HandshakeLimiter connectorLimiter;
+  private final ConnectPhaseRecorder recorder;
+
+  /**
+   * Creates a new LimitedSocketOpener.
+   *
+   * @param opener the opener that connects the socket.
+   * @param instanceName the instance, used to report the time spent waiting for a permit.
+   * @param instanceLimiter limits the handshakes to the instance, or null.
+   * @param connectorLimiter limits the handshakes of the connector, or null.
+   * @param recorder reports the time spent waiting for a permit.
+   */
+  LimitedSocketOpener(
+      StaggeredDialer.SocketOpener opener,
+      String instanceName,
+      HandshakeLimiter instanceLimiter,
+      HandshakeLimiter connectorLimiter,
+      ConnectPhaseRecorder recorder) {
+    this.opener = opener;
+    this.instanceName = instanceName;
+    this.instanceLimiter = instanceLimiter;
+    this.connectorLimiter = connectorLimiter;
+    this.recorder = recorder;
+  }
+
+  @Override
+  public SSLSocket create() throws IOException {
+    return opener.create();
+  }
+
+  /**
+   * Waits for the permits, then connects the socket. The wait counts against the timeout of the
+   * attempt, so an attempt that waits until its timeout passes fails with a QueueTimeoutException.
+   */
+  @Override
+  public void connect(SSLSocket socket, String targetIp, int timeoutMs) throws IOException {
+    ConnectDeadline attempt = new ConnectDeadline(timeoutMs);
+    acquire(attempt);
+    try {
+      opener.connect(socket, targetIp, attempt.remainingMs());
+    } finally {
+      if (connectorLimiter != null) {
+        connectorLimiter.release();
+      }
+      if (instanceLimiter != null) {
+        instanceLimiter.release();
+      }
+    }
+  }
+
+  /**
+   * Waits until a handshake to the instance may start. The permit of the instance is taken first,
+   * so that connections waiting for a busy instance do not hold up other instances.
+   */
+  private void acquire(ConnectDeadline deadline) throws IOException {
+    if (instanceLimiter == null && connectorLimiter == null) {
+      return;
+    }
+    long start = recorder.start();
+    if (instanceLimiter != null) {
+      instanceLimiter.acquire(deadline);
+    }
+    if (connectorLimiter != null) {
+      try {
+        connectorLimiter.acquire(deadline);
+      } catch (IOException e) {
+        if (instanceLimiter != null) {
+          instanceLimiter.release();
+        }
+        throw e;
+      }
+    }
+    recorder.record(instanceName, ConnectPhase.HANDSHAKE_QUEUE, start);
+  }
+}
@@ -16,6 +16,7 @@
 
 package com.google.cloud.sql.core;
 
+import com.google.cloud.sql.ConnectorMetrics.ConnectPhase;
 import com.google.cloud.sql.core.mdx.MetadataExchange;
 import java.io.BufferedInputStream;
 import java.io.IOException;
@@ -48,13 +49,24 @@ class MdxSocket extends SSLSocket {
   private final AtomicReference<MetadataExchange.MetadataExchangeResponse> response =
       new AtomicReference<>();
   private final MetadataExchange.MetadataExchangeRequest.ClientProtocolType clientProtocolType;
+  private final ConnectPhaseRecorder phaseRecorder;
+  private final String instanceName;
+  private final int timeoutMs;
+  // When the MDX request was sent, used to time the exchange.
+  private volatile long mdxSentNanos;
 
   MdxSocket(
       ProtocolHandler protocolHandler,
       SSLSocket delegate,
-      MetadataExchange.MetadataExchangeRequest.ClientProtocolType clientProtocolType)
+      MetadataExchange.MetadataExchangeRequest.ClientProtocolType clientProtocolType,
+      ConnectPhaseRecorder phaseRecorder,
+      String instanceName,
+      int timeoutMs)
       throws IOException {
     this.protocolHandler = protocolHandler;
+    this.phaseRecorder = phaseRecorder;
+    this.instanceName = instanceName;
+    this.timeoutMs = timeoutMs;
     this.delegate = delegate;
     this.in = new MdxInputStream(new BufferedInputStream(delegate.getInputStream()));
     this.out = new MdxOutputStream(delegate.getOutputStream());
@@ -67,14 +79,31 @@ class MdxSocket extends SSLSocket {
 
   void sendMdxIfFirstWrite() throws IOException {
     if (firstWriteAttempted.compareAndSet(false, true)) {
+      mdxSentNanos = phaseRecorder.start();
       protocolHandler.sendMdx(out, this.clientProtocolType);
     }
   }
 
   void readMdxIfFirstRead() throws IOException {
     if (firstReadAttempted.compareAndSet(false, true)) {
-      MetadataExchange.MetadataExchangeResponse res = protocolHandler.readMdxResponse(in);
+      // Bound the wait for the MDX response unless the socket has a shorter read timeout.
+      int soTimeout = delegate.getSoTimeout();
+      boolean bounded = timeoutMs > 0 && (soTimeout == 0 || soTimeout > timeoutMs);
+      if (bounded) {
+        delegate.setSoTimeout(timeoutMs);
+      }
+      MetadataExchange.MetadataExchangeResponse res;
+      try {
+        res = protocolHandler.readMdxResponse(in);
+      } finally {
+        if (bounded) {
+          delegate.setSoTimeout(soTimeout);
+        }
+      }
       response.set(res);
+      if (res != null && firstWriteAttempted.get()) {
+        phaseRecorder.record(instanceName, ConnectPhase.MDX, mdxSentNanos);
+      }
     }
   }
 
@@ -326,7 +355,9 @@ class MdxSocket extends SSLSocket {
   }
 
   @Override
-  public synchronized void close() throws IOException {
+  public void close() throws IOException {
+    // Not synchronized: closing the delegate may send a TLS alert, and a virtual thread blocked
+    // in a monitor pins its carrier thread. The delegate serializes close() itself.
     delegate.close();
   }
 
@@ -20,13 +20,18 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Strings;
 import java.io.IOException;
 import java.net.Socket;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
 import java.util.WeakHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
 import javax.net.ssl.SSLSocket;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -46,6 +51,14 @@ class MonitoredCache implements ConnectionInfoCache {
       Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
   private final Function<ConnectionConfig, CloudSqlInstanceName> resolve;
   private final TimerTask task;
+  private final TlsSessionCache tlsSessionCache;
+  private final HandshakeLimiter handshakeLimiter;
+  private volatile StandbySocketPool standbyPool;
+  // The System.nanoTime() of the last lookup of this instance by a connection.
+  private volatile long lastUsedNanos = System.nanoTime();
+  // Orders close() and addSocket(). A ReentrantLock rather than a monitor, so that a virtual
+  // thread blocked on it does not pin its carrier thread.
+  private final ReentrantLock lock = new ReentrantLock();
 
   MonitoredCache(
       ConnectionInfoCache cache,
@@ -53,6 +66,12 @@ class MonitoredCache implements ConnectionInfoCache {
       Function<ConnectionConfig, CloudSqlInstanceName> resolve) {
     this.cache = cache;
     this.resolve = resolve;
+    this.tlsSessionCache =
+        new TlsSessionCache(
+            cache.getConfig().getCloudSqlInstance(),
+            cache.getConfig().getConnectorConfig().getConnectorMetrics());
+    int maxHandshakes = cache.getConfig().getConnectorConfig().getMaxConcurrentHandshakes();
+    this.handshakeLimiter = maxHandshakes > 0 ? new HandshakeLimiter(maxHandshakes) : null;
 
     // If this was configured with a domain name, start the domain name check
     // and socket cleanup periodic task.
@@ -118,6 +137,10 @@ class MonitoredCache implements ConnectionInfoCache {
 
   @Override
   public void forceRefresh() {
+    StandbySocketPool pool = standbyPool;
+    if (pool != null) {
+      pool.clear();
+    }
     cache.forceRefresh();
   }
 
@@ -126,25 +149,60 @@ class MonitoredCache implements ConnectionInfoCache {
     cache.refreshIfExpired();
   }
 
+  /** Records that a connection looked up this instance. */
+  void markUsed() {
+    lastUsedNanos = System.nanoTime();
+  }
+
+  /** Returns the System.nanoTime() of the last lookup of this instance by a connection. */
+  long getLastUsedNanos() {
+    return lastUsedNanos;
+  }
+
   @Override
-  public synchronized void close() {
-    if (cache.isClosed()) {
-      return;
-    }
+  public void close() {
+    close(true);
+  }
+
+  /**
+   * Stops refreshing the connection info of an instance that the connector no longer tracks. Unlike
+   * close(), the open sockets are left to the application.
+   */
+  void evict() {
+    close(false);
+  }
+
+  private void close(boolean closeSockets) {
+    List<Socket> openSockets;
+    lock.lock();
+    try {
+      if (cache.isClosed()) {
+        return;
+      }
 
-    cache.close();
-    if (task != null) {
-      task.cancel();
+      cache.close();
+      if (task != null) {
+        task.cancel();
+      }
+      StandbySocketPool pool = standbyPool;
+      if (pool != null) {
+        pool.close();
+      }
+      // Copy the sockets, so that they are not closed while holding the monitor of the set.
+      synchronized (sockets) {
+        openSockets = closeSockets ? new ArrayList<>(sockets) : Collections.emptyList();
+      }
+    } finally {
+      lock.unlock();
     }
+
     // If this was opened using a domain name, close remaining open sockets.
-    synchronized (sockets) {
-      for (Socket socket : sockets) {
-        if (!socket.isClosed()) {
-          try {
-            socket.close();
-          } catch (IOException e) {
-            logger.debug("Exception closing socket after cache closed", e);
-          }
+    for (Socket socket : openSockets) {
+      if (!socket.isClosed()) {
+        try {
+          socket.close();
+        } catch (IOException e) {
+          logger.debug("Exception closing socket after cache closed", e);
         }
       }
     }
@@ -156,15 +214,94 @@ class MonitoredCache implements ConnectionInfoCache {
   }
 
   @Override
-  public synchronized boolean isClosed() {
+  public boolean isClosed() {
+    // The refresh strategies read their closed state without a lock.
     return cache.isClosed();
   }
 
-  synchronized void addSocket(SSLSocket socket) {
+  @Override
+  public void addRefreshListener(Runnable listener) {
+    cache.addRefreshListener(listener);
+  }
+
+  /**
+   * Returns the SSLContext used to create sockets for this instance. It keeps the TLS session
+   * cache across certificate refreshes so that new sockets can resume an earlier session.
+   */
+  SSLContext getSslContext(ConnectionMetadata metadata) {
+    return tlsSessionCache.getSslContext(metadata);
+  }
+
+  void recordHandshake(SSLSocket socket) {
+    tlsSessionCache.recordHandshake(socket);
+  }
+
+  void recordHandshake(SSLEngine engine) {
+    tlsSessionCache.recordHandshake(engine);
+  }
+
+  long getResumedHandshakeCount() {
+    return tlsSessionCache.getResumedHandshakeCount();
+  }
+
+  long getFullHandshakeCount() {
+    return tlsSessionCache.getFullHandshakeCount();
+  }
+
+  /**
+   * Returns the limiter of concurrent handshakes to this instance, or null if the number of
+   * handshakes is not limited.
+   */
+  HandshakeLimiter getHandshakeLimiter() {
+    return handshakeLimiter;
+  }
+
+  /**
+   * Keeps connected sockets ready for this instance using pool. The pool is filled once the
+   * connection info is available, and again after each refresh.
+   */
+  void startStandbyPool(StandbySocketPool pool) {
+    this.standbyPool = pool;
+    cache.addRefreshListener(this::refillStandbyPool);
+  }
+
+  /** Starts connecting standby sockets with the current connection info. */
+  private void refillStandbyPool() {
+    StandbySocketPool pool = standbyPool;
+    if (pool == null || cache.isClosed()) {
+      return;
+    }
+    try {
+      // Called when valid connection info is available, so this does not wait.
+      pool.refill(cache.getConnectionMetadata(0));
+    } catch (RuntimeException e) {
+      logger.debug(
+          String.format(
+              "[%s] Unable to refill the standby pool: %s",
+              cache.getConfig().getCloudSqlInstance(), e.getMessage()));
+    }
+  }
+
+  /**
+   * Returns a standby socket connected using the current connection info, or null if the standby
+   * pool is disabled or empty.
+   */
+  SSLSocket pollStandbySocket(ConnectionMetadata metadata) {
+    StandbySocketPool pool = standbyPool;
+    return pool != null ? pool.poll(metadata) : null;
+  }
+
+  void addSocket(Socket socket) {
     // Only add the socket if this was configured using a domain name,
     // and therefore the background socket cleanup task is running.
-    if (!Strings.isNullOrEmpty(cache.getConfig().getDomainName())) {
+    if (Strings.isNullOrEmpty(cache.getConfig().getDomainName())) {
+      return;
+    }
+    lock.lock();
+    try {
       sockets.add(socket);
+    } finally {
+      lock.unlock();
     }
   }
 }
@@ -17,11 +17,13 @@
 package com.google.cloud.sql.core;
 
 import com.google.cloud.sql.core.mdx.MetadataExchange;
+import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
 import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import javax.net.ssl.SSLSocket;
@@ -49,7 +51,35 @@ class ProtocolHandler {
    * @throws IOException if there is an exception.
    */
   MdxSocket connect(SSLSocket socket, String mdxProtocolType) throws IOException {
-    return new MdxSocket(this, socket, convertClientProtocolType(mdxProtocolType));
+    return connect(socket, mdxProtocolType, new ConnectPhaseRecorder(null), null, 0);
+  }
+
+  /**
+   * Create a socket wrapper like {@link #connect(SSLSocket, String)}, which also reports the time
+   * from sending the MDX request to reading the MDX response.
+   *
+   * @param socket the socket to wrap
+   * @param mdxProtocolType the client protocol type
+   * @param phaseRecorder records the duration of the exchange
+   * @param instanceName the instance name to report the duration for
+   * @param timeoutMs the read timeout for the MDX response, or 0 to use the socket's timeout
+   * @return The wrapped socket
+   * @throws IOException if there is an exception.
+   */
+  MdxSocket connect(
+      SSLSocket socket,
+      String mdxProtocolType,
+      ConnectPhaseRecorder phaseRecorder,
+      String instanceName,
+      int timeoutMs)
+      throws IOException {
+    return new MdxSocket(
+        this,
+        socket,
+        convertClientProtocolType(mdxProtocolType),
+        phaseRecorder,
+        instanceName,
+        timeoutMs);
   }
 
   void sendMdx(
@@ -75,6 +105,44 @@ class ProtocolHandler {
     out.flush();
   }
 
+  /** Returns the bytes of an MDX request, as written by sendMdx(). */
+  byte[] mdxRequest(String mdxProtocolType) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    sendMdx(out, convertClientProtocolType(mdxProtocolType));
+    return out.toByteArray();
+  }
+
+  /**
+   * Checks whether buf, positioned at the first byte received from the server, starts with an MDX
+   * response. Does not modify buf.
+   *
+   * @return the length of the MDX response including its header, 0 if buf does not start with an
+   *     MDX response, or -1 if more bytes are needed to decide.
+   * @throws IOException if the MDX response size is invalid.
+   */
+  int mdxResponseLength(ByteBuffer buf) throws IOException {
+    int n = Math.min(buf.remaining(), SIGNATURE.length);
+    for (int i = 0; i < n; i++) {
+      if (buf.get(buf.position() + i) != SIGNATURE[i]) {
+        return 0;
+      }
+    }
+    if (buf.remaining() < SIGNATURE.length + 4) {
+      return -1;
+    }
+    int size = buf.getInt(buf.position() + SIGNATURE.length);
+    if (size <= 0 || size > MAX_MDX_RESPONSE_SIZE) {
+      throw new IOException(
+          "Invalid MDX response size: "
+              + size
+              + " (must be in (0, "
+              + MAX_MDX_RESPONSE_SIZE
+              + "]).");
+    }
+    int length = SIGNATURE.length + 4 + size;
+    return buf.remaining() < length ? -1 : length;
+  }
+
   private static MetadataExchange.MetadataExchangeRequest.ClientProtocolType
       convertClientProtocolType(String mdxClientProtocolType) {
     MetadataExchange.MetadataExchangeRequest.ClientProtocolType clientProtocolType;
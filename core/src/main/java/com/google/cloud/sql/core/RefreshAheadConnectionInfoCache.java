@@ -17,9 +17,12 @@
 package com.google.cloud.sql.core;
 
 import com.google.cloud.sql.CredentialFactory;
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningScheduledExecutorService;
 import java.security.KeyPair;
+import java.time.Instant;
+import java.util.function.Supplier;
 
 /**
  * Implements the refresh ahead cache strategy, which will load the new ConnectionInfo using a
@@ -29,6 +32,7 @@ class RefreshAheadConnectionInfoCache implements ConnectionInfoCache {
 
   private final ConnectionConfig config;
   private final CloudSqlInstanceName instanceName;
+  private final ConnectionInfoRepository connectionInfoRepository;
   private final RefreshAheadStrategy refreshStrategy;
 
   /**
@@ -48,24 +52,77 @@ class RefreshAheadConnectionInfoCache implements ConnectionInfoCache {
       ListeningScheduledExecutorService executor,
       ListenableFuture<KeyPair> keyPair,
       long minRefreshDelayMs) {
+    this(
+        config,
+        connectionInfoRepository,
+        DefaultAccessTokenSupplier.newInstance(
+            config.getAuthType(), tokenSourceFactory, config.getConnectorConfig()),
+        executor,
+        keyPair,
+        minRefreshDelayMs,
+        null,
+        null);
+  }
+
+  /**
+   * Initializes a new Cloud SQL instance based on the given connection name using the background
+   * refresh strategy.
+   *
+   * @param config instance connection name in the format "PROJECT_ID:REGION_ID:INSTANCE_ID"
+   * @param connectionInfoRepository Service class for interacting with the Cloud SQL Admin API
+   * @param accessTokenSupplier supplies the IAM login token, shared with other instances
+   * @param executor executor used to schedule asynchronous tasks
+   * @param keyPair public/private key pair used to authenticate connections
+   * @param diskCache saves the connection info after each refresh, or null
+   * @param savedInfo the connection info loaded from the disk cache, used while the first refresh
+   *     runs, or null
+   */
+  RefreshAheadConnectionInfoCache(
+      ConnectionConfig config,
+      ConnectionInfoRepository connectionInfoRepository,
+      AccessTokenSupplier accessTokenSupplier,
+      ListeningScheduledExecutorService executor,
+      ListenableFuture<KeyPair> keyPair,
+      long minRefreshDelayMs,
+      ConnectionInfoDiskCache diskCache,
+      ConnectionInfo savedInfo) {
 
     CloudSqlInstanceName instanceName =
         new CloudSqlInstanceName(config.getCloudSqlInstance(), config.getDomainName());
 
     this.config = config;
     this.instanceName = instanceName;
-
-    AccessTokenSupplier accessTokenSupplier =
-        DefaultAccessTokenSupplier.newInstance(config.getAuthType(), tokenSourceFactory);
+    this.connectionInfoRepository = connectionInfoRepository;
+
+    Supplier<ListenableFuture<ConnectionInfo>> refreshOperation =
+        () ->
+            connectionInfoRepository.getConnectionInfo(
+                instanceName, accessTokenSupplier, config.getAuthType(), executor, keyPair);
+    if (diskCache != null) {
+      Supplier<ListenableFuture<ConnectionInfo>> fetch = refreshOperation;
+      refreshOperation =
+          () ->
+              Futures.transform(
+                  fetch.get(),
+                  info -> {
+                    diskCache.save(instanceName, config.getAuthType(), info);
+                    return info;
+                  },
+                  executor);
+    }
 
     this.refreshStrategy =
         new RefreshAheadStrategy(
             config.getCloudSqlInstance(),
             executor,
-            () ->
-                connectionInfoRepository.getConnectionInfo(
-                    instanceName, accessTokenSupplier, config.getAuthType(), executor, keyPair),
-            new AsyncRateLimiter(minRefreshDelayMs));
+            refreshOperation,
+            new AsyncRateLimiter(minRefreshDelayMs),
+            true,
+            // Connect with the saved connection info while the first refresh runs.
+            savedInfo,
+            new AdaptiveRefreshBuffer(
+                config.getCloudSqlInstance(), config.getConnectorConfig().getConnectorMetrics()),
+            config.getConnectorConfig().getConnectorMetrics());
   }
 
   @Override
@@ -75,6 +132,7 @@ class RefreshAheadConnectionInfoCache implements ConnectionInfoCache {
 
   @Override
   public void forceRefresh() {
+    connectionInfoRepository.invalidateMetadata(instanceName);
     refreshStrategy.forceRefresh();
   }
 
@@ -86,6 +144,12 @@ class RefreshAheadConnectionInfoCache implements ConnectionInfoCache {
   @Override
   public void close() {
     refreshStrategy.close();
+    connectionInfoRepository.removeInstance(instanceName);
+  }
+
+  /** Returns the time of the next scheduled refresh, or null when none is scheduled. */
+  Instant getNextRefreshTime() {
+    return refreshStrategy.getNextRefreshTime();
   }
 
   @Override
@@ -93,6 +157,11 @@ class RefreshAheadConnectionInfoCache implements ConnectionInfoCache {
     return refreshStrategy.isClosed();
   }
 
+  @Override
+  public void addRefreshListener(Runnable listener) {
+    refreshStrategy.addRefreshListener(listener);
+  }
+
   public RefreshAheadStrategy getRefreshStrategy() {
     return refreshStrategy;
   }
@@ -16,16 +16,23 @@
 
 package com.google.cloud.sql.core;
 
+import static com.google.cloud.sql.core.RefreshCalculator.DEFAULT_REFRESH_BUFFER;
+
+import com.google.cloud.sql.ConnectorMetrics;
 import com.google.common.base.Throwables;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningScheduledExecutorService;
 import com.google.errorprone.annotations.concurrent.GuardedBy;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Supplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,35 +40,51 @@ import org.slf4j.LoggerFactory;
 /** Handles periodic refresh operations for an instance. */
 class RefreshAheadStrategy implements RefreshStrategy {
   private static final Logger logger = LoggerFactory.getLogger(RefreshAheadStrategy.class);
-  private static final long DEFAULT_CONNECT_TIMEOUT_MS = 45000;
 
   private final ListeningScheduledExecutorService executor;
 
-  private final Object connectionInfoGuard = new Object();
+  private final ReentrantLock connectionInfoLock = new ReentrantLock();
   private final AsyncRateLimiter rateLimiter;
 
-  private final RefreshCalculator refreshCalculator = new RefreshCalculator();
+  private final RefreshCalculator refreshCalculator;
+  // Sizes the refresh buffer from recent refreshes, or null to use DEFAULT_REFRESH_BUFFER.
+  private final AdaptiveRefreshBuffer refreshBuffer;
+  // Receives the time of each scheduled refresh, or null.
+  private final ConnectorMetrics metrics;
   private final Supplier<ListenableFuture<ConnectionInfo>> refreshOperation;
   private final String name;
 
-  @GuardedBy("connectionInfoGuard")
+  @GuardedBy("connectionInfoLock")
   private ListenableFuture<ConnectionInfo> current;
 
-  @GuardedBy("connectionInfoGuard")
+  @GuardedBy("connectionInfoLock")
   private ListenableFuture<ConnectionInfo> next;
 
-  @GuardedBy("connectionInfoGuard")
+  @GuardedBy("connectionInfoLock")
   private boolean refreshRunning;
 
-  @GuardedBy("connectionInfoGuard")
+  @GuardedBy("connectionInfoLock")
   private Throwable currentRefreshFailure;
 
-  @GuardedBy("connectionInfoGuard")
-  private boolean closed;
+  // Written while holding connectionInfoLock, read without it.
+  private volatile boolean closed;
+
+  // The connection info of current while it is valid, or null. Read without a lock by new
+  // connections, so that they do not contend on connectionInfoLock.
+  private volatile ConnectionInfoSnapshot snapshot;
 
-  @GuardedBy("connectionInfoGuard")
+  @GuardedBy("connectionInfoLock")
   private boolean triggerNextRefresh = true;
 
+  // The time of the next scheduled refresh, or null when none is scheduled.
+  private volatile Instant nextRefreshTime;
+
+  // When the running refresh operation started. Only one refresh operation runs at a time.
+  private volatile long refreshStartNanos;
+
+  // Called after each successful refresh.
+  private final List<Runnable> refreshListeners = new CopyOnWriteArrayList<>();
+
   /**
    * Create a new refresher.
    *
@@ -93,14 +116,101 @@ class RefreshAheadStrategy implements RefreshStrategy {
       Supplier<ListenableFuture<ConnectionInfo>> refreshOperation,
       AsyncRateLimiter rateLimiter,
       boolean triggerNextRefresh) {
+    this(name, executor, refreshOperation, rateLimiter, triggerNextRefresh, null);
+  }
+
+  /**
+   * Create a new refresher.
+   *
+   * @param name the name of what is being refreshed, for logging.
+   * @param executor the executor to schedule refresh tasks.
+   * @param refreshOperation The supplier that refreshes the data.
+   * @param rateLimiter The rate limiter.
+   * @param triggerNextRefresh The next refresh operation should be triggered.
+   * @param initialInfo valid connection info to use until the first refresh completes, or null.
+   */
+  RefreshAheadStrategy(
+      String name,
+      ListeningScheduledExecutorService executor,
+      Supplier<ListenableFuture<ConnectionInfo>> refreshOperation,
+      AsyncRateLimiter rateLimiter,
+      boolean triggerNextRefresh,
+      ConnectionInfo initialInfo) {
+    this(name, executor, refreshOperation, rateLimiter, triggerNextRefresh, initialInfo, null);
+  }
+
+  /**
+   * Create a new refresher.
+   *
+   * @param name the name of what is being refreshed, for logging.
+   * @param executor the executor to schedule refresh tasks.
+   * @param refreshOperation The supplier that refreshes the data.
+   * @param rateLimiter The rate limiter.
+   * @param triggerNextRefresh The next refresh operation should be triggered.
+   * @param initialInfo valid connection info to use until the first refresh completes, or null.
+   * @param refreshBuffer sizes the refresh buffer from recent refreshes, or null to use
+   *     DEFAULT_REFRESH_BUFFER.
+   */
+  RefreshAheadStrategy(
+      String name,
+      ListeningScheduledExecutorService executor,
+      Supplier<ListenableFuture<ConnectionInfo>> refreshOperation,
+      AsyncRateLimiter rateLimiter,
+      boolean triggerNextRefresh,
+      ConnectionInfo initialInfo,
+      AdaptiveRefreshBuffer refreshBuffer) {
+    this(
+        name,
+        executor,
+        refreshOperation,
+        rateLimiter,
+        triggerNextRefresh,
+        initialInfo,
+        refreshBuffer,
+        null);
+  }
+
+  /**
+   * Create a new refresher.
+   *
+   * @param name the name of what is being refreshed, for logging and metrics.
+   * @param executor the executor to schedule refresh tasks.
+   * @param refreshOperation The supplier that refreshes the data.
+   * @param rateLimiter The rate limiter.
+   * @param triggerNextRefresh The next refresh operation should be triggered.
+   * @param initialInfo valid connection info to use until the first refresh completes, or null.
+   * @param refreshBuffer sizes the refresh buffer from recent refreshes, or null to use
+   *     DEFAULT_REFRESH_BUFFER.
+   * @param metrics receives the time of each scheduled refresh, or null.
+   */
+  RefreshAheadStrategy(
+      String name,
+      ListeningScheduledExecutorService executor,
+      Supplier<ListenableFuture<ConnectionInfo>> refreshOperation,
+      AsyncRateLimiter rateLimiter,
+      boolean triggerNextRefresh,
+      ConnectionInfo initialInfo,
+      AdaptiveRefreshBuffer refreshBuffer,
+      ConnectorMetrics metrics) {
     this.name = name;
+    this.metrics = metrics;
     this.executor = executor;
     this.refreshOperation = refreshOperation;
     this.rateLimiter = rateLimiter;
     this.triggerNextRefresh = triggerNextRefresh;
-    synchronized (connectionInfoGuard) {
+    this.refreshCalculator = RefreshCalculator.withJitter(name);
+    this.refreshBuffer = refreshBuffer;
+    connectionInfoLock.lock();
+    try {
       forceRefresh();
-      this.current = this.next;
+      if (initialInfo != null) {
+        this.current = Futures.immediateFuture(initialInfo);
+        this.snapshot = new ConnectionInfoSnapshot(initialInfo, Duration.ZERO);
+      } else {
+        this.current = this.next;
+      }
+    } finally {
+      connectionInfoLock.unlock();
     }
   }
 
@@ -114,21 +224,32 @@ class RefreshAheadStrategy implements RefreshStrategy {
    * timeoutMs milliseconds. If a refresh attempt succeeds, returns immediately at the end of that
    * successful attempt. If no attempts succeed within the timeout, throws a RuntimeException with
    * the exception from the last failed refresh attempt as the cause.
+   *
+   * <p>While the current connection info is valid, it is returned without taking a lock.
    */
   @Override
   public ConnectionInfo getConnectionInfo(long timeoutMs) {
+    ConnectionInfoSnapshot s = snapshot;
+    if (s != null && s.isValid()) {
+      return s.getInfo();
+    }
+
     ListenableFuture<ConnectionInfo> f;
-    synchronized (connectionInfoGuard) {
+    connectionInfoLock.lock();
+    try {
       if (closed) {
         throw new IllegalStateException("Named connection closed");
       }
       f = current;
+    } finally {
+      connectionInfoLock.unlock();
     }
 
     try {
       return f.get(timeoutMs, TimeUnit.MILLISECONDS);
     } catch (TimeoutException e) {
-      synchronized (connectionInfoGuard) {
+      connectionInfoLock.lock();
+      try {
         if (currentRefreshFailure != null) {
           throw new RuntimeException(
               String.format(
@@ -138,6 +259,8 @@ class RefreshAheadStrategy implements RefreshStrategy {
                   + currentRefreshFailure.getMessage(),
               currentRefreshFailure);
         }
+      } finally {
+        connectionInfoLock.unlock();
       }
       throw new RuntimeException(
           String.format(
@@ -158,7 +281,8 @@ class RefreshAheadStrategy implements RefreshStrategy {
    */
   @Override
   public void forceRefresh() {
-    synchronized (connectionInfoGuard) {
+    connectionInfoLock.lock();
+    try {
       if (closed) {
         throw new IllegalStateException("Named connection closed");
       }
@@ -178,13 +302,43 @@ class RefreshAheadStrategy implements RefreshStrategy {
                   + " Scheduling new refresh operation immediately.",
               name));
       next = this.startRefreshAttempt();
+    } finally {
+      connectionInfoLock.unlock();
     }
   }
 
-  /** Force a new refresh of the instance data if the client certificate has expired. */
+  /**
+   * Force a new refresh of the instance data if the client certificate has expired. This does not
+   * wait for a refresh in progress, so that the caller's connect timeout applies when it then waits
+   * in {@link #getConnectionInfo(long)}.
+   */
   @Override
   public void refreshIfExpired() {
-    ConnectionInfo info = getConnectionInfo(DEFAULT_CONNECT_TIMEOUT_MS);
+    ConnectionInfoSnapshot s = snapshot;
+    if (s != null && s.isValid()) {
+      return;
+    }
+
+    ListenableFuture<ConnectionInfo> f;
+    connectionInfoLock.lock();
+    try {
+      if (closed) {
+        throw new IllegalStateException("Named connection closed");
+      }
+      f = current;
+    } finally {
+      connectionInfoLock.unlock();
+    }
+    if (!f.isDone() || f.isCancelled()) {
+      return;
+    }
+    ConnectionInfo info;
+    try {
+      info = Futures.getDone(f);
+    } catch (ExecutionException e) {
+      // The failed refresh is reported by getConnectionInfo().
+      return;
+    }
     logger.debug(
         String.format(
             "[%s] Now = %s, Current client certificate expiration = %s",
@@ -210,8 +364,12 @@ class RefreshAheadStrategy implements RefreshStrategy {
   private ListenableFuture<ConnectionInfo> startRefreshAttempt() {
     // As soon as we begin submitting refresh attempts to the executor, mark a refresh
     // as "in-progress" so that subsequent forceRefresh() calls balk until this one completes.
-    synchronized (connectionInfoGuard) {
+    connectionInfoLock.lock();
+    try {
       refreshRunning = true;
+      nextRefreshTime = null;
+    } finally {
+      connectionInfoLock.unlock();
     }
 
     logger.debug(String.format("[%s] Refresh Operation: Acquiring rate limiter permit.", name));
@@ -224,7 +382,13 @@ class RefreshAheadStrategy implements RefreshStrategy {
 
     // Once rate limiter is done, attempt to getInstanceData.
     ListenableFuture<ConnectionInfo> f =
-        Futures.whenAllComplete(delay).callAsync(refreshOperation::get, executor);
+        Futures.whenAllComplete(delay)
+            .callAsync(
+                () -> {
+                  refreshStartNanos = System.nanoTime();
+                  return refreshOperation.get();
+                },
+                executor);
 
     // Finally, reschedule refresh after getInstanceData is complete.
     return Futures.whenAllComplete(f).callAsync(() -> handleRefreshResult(f), executor);
@@ -241,34 +405,54 @@ class RefreshAheadStrategy implements RefreshStrategy {
           String.format(
               "[%s] Refresh Operation: Completed refresh with new certificate expiration at %s.",
               name, info.getExpiration().toString()));
+      Duration buffer = DEFAULT_REFRESH_BUFFER;
+      if (refreshBuffer != null) {
+        refreshBuffer.recordSuccess(System.nanoTime() - refreshStartNanos);
+        buffer = refreshBuffer.get();
+      }
       long secondsToRefresh =
-          refreshCalculator.calculateSecondsUntilNextRefresh(Instant.now(), info.getExpiration());
+          refreshCalculator.calculateSecondsUntilNextRefresh(
+              Instant.now(), info.getExpiration(), buffer);
 
-      synchronized (connectionInfoGuard) {
+      ListenableFuture<ConnectionInfo> result;
+      Instant scheduled = null;
+      connectionInfoLock.lock();
+      try {
         // Refresh completed successfully, reset forceRefreshRunning.
         refreshRunning = false;
         currentRefreshFailure = null;
         current = Futures.immediateFuture(info);
+        if (!closed) {
+          snapshot = new ConnectionInfoSnapshot(info, Duration.ZERO);
+        }
 
         // Now update nextInstanceData to perform a refresh after the
         // scheduled delay
         if (!closed && triggerNextRefresh) {
+          nextRefreshTime =
+              Instant.now()
+                  .plus(secondsToRefresh, ChronoUnit.SECONDS)
+                  .truncatedTo(ChronoUnit.SECONDS);
+          scheduled = nextRefreshTime;
           logger.debug(
               String.format(
                   "[%s] Refresh Operation: Next operation scheduled at %s.",
-                  name,
-                  Instant.now()
-                      .plus(secondsToRefresh, ChronoUnit.SECONDS)
-                      .truncatedTo(ChronoUnit.SECONDS)
-                      .toString()));
+                  name, nextRefreshTime.toString()));
 
           next =
               Futures.scheduleAsync(
                   this::startRefreshAttempt, secondsToRefresh, TimeUnit.SECONDS, executor);
         }
         // Resolves to an T immediately
-        return current;
+        result = current;
+      } finally {
+        connectionInfoLock.unlock();
       }
+      if (scheduled != null) {
+        recordNextRefresh(scheduled);
+      }
+      notifyRefreshListeners();
+      return result;
 
     } catch (ExecutionException | InterruptedException e) {
 
@@ -276,8 +460,11 @@ class RefreshAheadStrategy implements RefreshStrategy {
       final Throwable cause = e.getCause();
       if (cause instanceof TerminalException) {
         logger.debug(String.format("[%s] Refresh Operation: Failed! No retry.", name), e);
-        synchronized (connectionInfoGuard) {
+        connectionInfoLock.lock();
+        try {
           refreshRunning = false;
+        } finally {
+          connectionInfoLock.unlock();
         }
         throw (TerminalException) cause;
       }
@@ -286,20 +473,27 @@ class RefreshAheadStrategy implements RefreshStrategy {
           String.format(
               "[%s] Refresh Operation: Failed! Starting next refresh operation immediately.", name),
           e);
-      synchronized (connectionInfoGuard) {
+      if (refreshBuffer != null) {
+        refreshBuffer.recordFailure(System.nanoTime() - refreshStartNanos);
+      }
+      connectionInfoLock.lock();
+      try {
         currentRefreshFailure = e;
         if (!closed) {
           next = this.startRefreshAttempt();
         }
         // Resolves after the next successful refresh attempt.
         return next;
+      } finally {
+        connectionInfoLock.unlock();
       }
     }
   }
 
   @Override
   public void close() {
-    synchronized (connectionInfoGuard) {
+    connectionInfoLock.lock();
+    try {
       if (closed) {
         return;
       }
@@ -314,27 +508,79 @@ class RefreshAheadStrategy implements RefreshStrategy {
 
       this.current =
           Futures.immediateFailedFuture(new RuntimeException("Named connection is closed."));
+      this.snapshot = null;
+      this.nextRefreshTime = null;
 
       this.closed = true;
+    } finally {
+      connectionInfoLock.unlock();
     }
   }
 
   @Override
   public boolean isClosed() {
-    synchronized (connectionInfoGuard) {
-      return closed;
+    return closed;
+  }
+
+  private void recordNextRefresh(Instant nextRefresh) {
+    if (metrics == null) {
+      return;
+    }
+    try {
+      metrics.recordNextRefresh(name, nextRefresh);
+    } catch (RuntimeException e) {
+      logger.debug(String.format("[%s] Failed to record the next refresh", name), e);
     }
   }
 
+  /**
+   * Calls listener each time a refresh completes. When valid connection info is already available,
+   * listener is also called now.
+   */
+  void addRefreshListener(Runnable listener) {
+    refreshListeners.add(listener);
+    ConnectionInfoSnapshot s = snapshot;
+    if (s != null && s.isValid()) {
+      listener.run();
+    }
+  }
+
+  private void notifyRefreshListeners() {
+    if (closed) {
+      return;
+    }
+    for (Runnable listener : refreshListeners) {
+      try {
+        listener.run();
+      } catch (RuntimeException e) {
+        logger.debug(String.format("[%s] Refresh listener failed", name), e);
+      }
+    }
+  }
+
+  /**
+   * Returns the time of the next scheduled refresh, or null while a refresh is in progress or after
+   * close().
+   */
+  Instant getNextRefreshTime() {
+    return nextRefreshTime;
+  }
+
   ListenableFuture<ConnectionInfo> getNext() {
-    synchronized (connectionInfoGuard) {
+    connectionInfoLock.lock();
+    try {
       return this.next;
+    } finally {
+      connectionInfoLock.unlock();
     }
   }
 
   ListenableFuture<ConnectionInfo> getCurrent() {
-    synchronized (connectionInfoGuard) {
+    connectionInfoLock.lock();
+    try {
       return this.current;
+    } finally {
+      connectionInfoLock.unlock();
     }
   }
 }
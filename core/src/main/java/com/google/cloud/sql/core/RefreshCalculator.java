@@ -18,10 +18,18 @@ package com.google.cloud.sql.core;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Random;
+import java.util.UUID;
 
 /**
  * RefreshCalculator determines the number of seconds until the next refresh operation using the
  * same algorithm used by the other Connectors.
+ *
+ * <p>A calculator created by {@link #withJitter(String)} moves each refresh earlier by a fixed
+ * fraction of the refresh interval, up to MAX_JITTER. The fraction is derived from the identity of
+ * this process and the instance, so processes started at the same time refresh an instance at
+ * different moments, while each process keeps a stable schedule. Refreshes are only ever moved
+ * earlier, so the refresh buffer is preserved.
  */
 class RefreshCalculator {
 
@@ -30,20 +38,72 @@ class RefreshCalculator {
   // time to complete.
   static final Duration DEFAULT_REFRESH_BUFFER = Duration.ofMinutes(4);
 
+  // The largest fraction of the refresh interval by which a refresh is moved earlier.
+  static final double MAX_JITTER = 0.1;
+
+  // Identifies this process. In Kubernetes, HOSTNAME is the pod name.
+  private static final String PROCESS_ID =
+      System.getenv("HOSTNAME") != null ? System.getenv("HOSTNAME") : UUID.randomUUID().toString();
+
+  private final double jitter;
+
+  /** Creates a calculator without jitter. */
+  RefreshCalculator() {
+    this(0);
+  }
+
+  private RefreshCalculator(double jitter) {
+    this.jitter = jitter;
+  }
+
+  /**
+   * Creates a calculator with a jitter fraction in [0, MAX_JITTER) that is stable for this process
+   * and instance.
+   *
+   * @param instanceName the instance connection name.
+   */
+  static RefreshCalculator withJitter(String instanceName) {
+    return withJitter(PROCESS_ID, instanceName);
+  }
+
+  static RefreshCalculator withJitter(String processId, String instanceName) {
+    long seed = (processId + "/" + instanceName).hashCode();
+    return new RefreshCalculator(new Random(seed).nextDouble() * MAX_JITTER);
+  }
+
+  /** Returns the fraction of the refresh interval by which refreshes are moved earlier. */
+  double getJitter() {
+    return jitter;
+  }
+
+  long calculateSecondsUntilNextRefresh(Instant now, Instant expiration) {
+    return calculateSecondsUntilNextRefresh(now, expiration, DEFAULT_REFRESH_BUFFER);
+  }
+
+  /**
+   * Returns the number of seconds until the next refresh, which must leave at least refreshBuffer
+   * before the certificate expires.
+   */
+  long calculateSecondsUntilNextRefresh(Instant now, Instant expiration, Duration refreshBuffer) {
+    long seconds = calculateSecondsWithoutJitter(now, expiration, refreshBuffer);
+    return seconds - (long) (seconds * jitter);
+  }
+
   // Suppressing the warning for toSeconds. getSeconds is in JDK 8. toSeconds was only introduced in
   // Jdk 1.9
   @SuppressWarnings("JavaDurationGetSecondsToToSeconds")
-  long calculateSecondsUntilNextRefresh(Instant now, Instant expiration) {
+  private static long calculateSecondsWithoutJitter(
+      Instant now, Instant expiration, Duration refreshBuffer) {
     Duration timeUntilExp = Duration.between(now, expiration);
 
     if (timeUntilExp.compareTo(Duration.ofHours(1)) < 0) {
-      if (timeUntilExp.compareTo(DEFAULT_REFRESH_BUFFER) < 0) {
+      if (timeUntilExp.compareTo(refreshBuffer) < 0) {
         // If the time until the certificate expires is less the refresh buffer, schedule the
         // refresh immediately
         return 0;
       }
       // Otherwise schedule a refresh in (timeUntilExp - buffer) seconds
-      return timeUntilExp.minus(DEFAULT_REFRESH_BUFFER).getSeconds();
+      return timeUntilExp.minus(refreshBuffer).getSeconds();
     }
 
     // If the time until the certificate expires is longer than an hour, return timeUntilExp//2
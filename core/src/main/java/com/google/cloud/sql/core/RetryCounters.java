@@ -0,0 +1,58 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import com.google.cloud.sql.ConnectorMetrics;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/** RetryCounters counts the retries of each endpoint, and reports them to ConnectorMetrics. */
+class RetryCounters {
+  private static final Logger logger = LoggerFactory.getLogger(RetryCounters.class);
+
+  private final ConnectorMetrics metrics;
+  private final ConcurrentHashMap<String, AtomicLong> retries = new ConcurrentHashMap<>();
+
+  /**
+   * Creates a new RetryCounters.
+   *
+   * @param metrics receives each retry, or null.
+   */
+  RetryCounters(ConnectorMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  /** Records a retry of a failed request to endpoint. */
+  void recordRetry(String endpoint) {
+    retries.computeIfAbsent(endpoint, k -> new AtomicLong()).incrementAndGet();
+    if (metrics != null) {
+      try {
+        metrics.recordRetry(endpoint);
+      } catch (RuntimeException e) {
+        logger.debug(String.format("Failed to record the retry of %s", endpoint), e);
+      }
+    }
+  }
+
+  /** Returns the number of retries of endpoint. */
+  long getRetryCount(String endpoint) {
+    AtomicLong count = retries.get(endpoint);
+    return count != null ? count.get() : 0;
+  }
+}
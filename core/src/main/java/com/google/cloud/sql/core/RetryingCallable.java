@@ -16,20 +16,30 @@
 
 package com.google.cloud.sql.core;
 
+import com.google.cloud.sql.RetryPolicy;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
 import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 /**
- * RetryingCallable attempts to call a Callable multiple times, sleeping between failed attempts.
- * The sleep duration is chosen randomly in the range [sleepDuration, sleepDuration * 2] to avoid
- * causing a thundering herd of requests on failure.
+ * RetryingCallable attempts to call a Callable multiple times, waiting between failed attempts.
+ * call() sleeps on the calling thread while it waits, and callAsync() schedules the next attempt.
+ * The attempts, the backoff between them and the retryable exceptions are configured by a
+ * RetryPolicy.
  *
  * <p>exponentialBackoff calculates a duration based on the attempt i.
  *
- * <p>The formula is: base * multi^(attempt + 1 + random)
+ * <p>The formula is: base * multi^(attempt + jitter * random)
  *
- * <p>With base = 200ms and multi = 1.618, and random = [0.0, 1.0), the backoff values would fall
- * between the following low and high ends:
+ * <p>With the default RetryPolicy, base = 324ms, multi = 1.618, jitter = 1 and random = [0.0,
+ * 1.0), the backoff values would fall between the following low and high ends:
  *
  * <p>Attempt Low (ms) High (ms)
  *
@@ -40,41 +50,64 @@ import java.util.concurrent.ThreadLocalRandom;
  *
  * <p>This backoff strategy matches the behavior of the Cloud SQL Proxy v1.
  *
+ * <p>callAsync() uses the same backoff, but schedules each retry on an executor instead of
+ * sleeping, so that no thread is held while waiting to retry. The attempt timeout of the policy
+ * only applies to callAsync().
+ *
  * @param <T> the result type of the Callable.
  */
 class RetryingCallable<T> implements Callable<T> {
-  private static final int RETRY_COUNT = 5;
 
   /** The callable that should be retried. */
   private final Callable<T> callable;
 
+  private final RetryPolicy policy;
+  private final String endpoint;
+  private final RetryCounters counters;
+
   /**
    * Construct a new RetryLogic.
    *
    * @param callable the callable that should be retried
    */
   public RetryingCallable(Callable<T> callable) {
+    this(callable, null, null, null);
+  }
+
+  /**
+   * Construct a new RetryLogic that follows a RetryPolicy.
+   *
+   * @param callable the callable that should be retried
+   * @param policy the retry policy, or null for RetryPolicy.DEFAULT
+   * @param endpoint the name of the request, for the retry counters
+   * @param counters counts the retries, or null
+   */
+  RetryingCallable(
+      Callable<T> callable, RetryPolicy policy, String endpoint, RetryCounters counters) {
     if (callable == null) {
       throw new IllegalArgumentException("call must not be null");
     }
     this.callable = callable;
+    this.policy = policy != null ? policy : RetryPolicy.DEFAULT;
+    this.endpoint = endpoint;
+    this.counters = counters;
   }
 
   @Override
   public T call() throws Exception {
-
-    for (int attempt = 0; attempt < RETRY_COUNT; attempt++) {
+    long startNanos = System.nanoTime();
+    for (int attempt = 0; attempt < policy.getMaxAttempts(); attempt++) {
       // Attempt to call the Callable.
       try {
         return callable.call();
       } catch (Exception e) {
         // If this is the last retry attempt, or if the exception is fatal
         // then exit immediately.
-        if (attempt == (RETRY_COUNT - 1) || isFatalException(e)) {
+        long sleep = exponentialBackoffMs(attempt);
+        if (!shouldRetry(e, attempt, startNanos, sleep)) {
           throw e;
         }
         // Else, sleep a random amount of time, then retry
-        long sleep = exponentialBackoffMs(attempt);
         try {
           Thread.sleep(sleep);
         } catch (InterruptedException ie) {
@@ -88,14 +121,109 @@ class RetryingCallable<T> implements Callable<T> {
     throw new RuntimeException("call was never called.");
   }
 
+  /**
+   * Calls the Callable on the executor, scheduling another attempt on the executor after each
+   * failed attempt.
+   *
+   * @param executor the executor that runs the attempts.
+   * @return a future with the result of the first successful attempt, or the exception of the last
+   *     failed attempt.
+   */
+  ListenableFuture<T> callAsync(ListeningScheduledExecutorService executor) {
+    SettableFuture<T> result = SettableFuture.create();
+    attemptAsync(executor, 0, 0, System.nanoTime(), result);
+    return result;
+  }
+
+  private void attemptAsync(
+      ListeningScheduledExecutorService executor,
+      int attempt,
+      long delayMs,
+      long startNanos,
+      SettableFuture<T> result) {
+    if (result.isDone()) {
+      // The caller cancelled the result, don't try again.
+      return;
+    }
+    ListenableFuture<T> f;
+    try {
+      f =
+          delayMs == 0
+              ? submitAttempt(executor)
+              : Futures.scheduleAsync(
+                  () -> submitAttempt(executor), delayMs, TimeUnit.MILLISECONDS, executor);
+      if (policy.getAttemptTimeout() != null) {
+        // A scheduled attempt starts after delayMs.
+        f =
+            Futures.withTimeout(
+                f,
+                policy.getAttemptTimeout().toMillis() + delayMs,
+                TimeUnit.MILLISECONDS,
+                executor);
+      }
+    } catch (RejectedExecutionException e) {
+      result.setException(e);
+      return;
+    }
+
+    Futures.addCallback(
+        f,
+        new FutureCallback<T>() {
+          @Override
+          public void onSuccess(T value) {
+            result.set(value);
+          }
+
+          @Override
+          public void onFailure(Throwable t) {
+            // If this is the last retry attempt, or if the exception is fatal
+            // then exit immediately.
+            long nextDelayMs = exponentialBackoffMs(attempt);
+            if (!(t instanceof Exception)
+                || !shouldRetry((Exception) t, attempt, startNanos, nextDelayMs)) {
+              result.setException(t);
+              return;
+            }
+            // Else, schedule the next attempt after a random amount of time
+            attemptAsync(executor, attempt + 1, nextDelayMs, startNanos, result);
+          }
+        },
+        MoreExecutors.directExecutor());
+  }
+
+  /** Submits an attempt to call the Callable to the executor. */
+  protected ListenableFuture<T> submitAttempt(ListeningScheduledExecutorService executor) {
+    return executor.submit(callable);
+  }
+
+  /** Returns true if the failed attempt should be retried after delayMs, and counts the retry. */
+  private boolean shouldRetry(Exception e, int attempt, long startNanos, long delayMs) {
+    if (attempt >= policy.getMaxAttempts() - 1) {
+      return false;
+    }
+    boolean retryable =
+        policy.getRetryable() != null ? policy.getRetryable().test(e) : !isFatalException(e);
+    if (!retryable) {
+      return false;
+    }
+    if (policy.getTotalTimeout() != null
+        && TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos) + delayMs
+            > policy.getTotalTimeout().toMillis()) {
+      return false;
+    }
+    if (counters != null) {
+      counters.recordRetry(endpoint);
+    }
+    return true;
+  }
+
   protected boolean isFatalException(Exception e) {
     return false;
   }
 
   private long exponentialBackoffMs(int attempt) {
-    long baseMs = 200;
-    double multi = 1.618;
-    double exp = attempt + 1.0 + ThreadLocalRandom.current().nextDouble();
-    return (long) (baseMs * Math.pow(multi, exp));
+    double exp = attempt + policy.getJitter() * ThreadLocalRandom.current().nextDouble();
+    return (long)
+        (policy.getInitialBackoff().toMillis() * Math.pow(policy.getBackoffMultiplier(), exp));
   }
 }
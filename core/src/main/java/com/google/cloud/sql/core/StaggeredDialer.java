@@ -0,0 +1,260 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.net.ssl.SSLSocket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * StaggeredDialer races connection attempts to the IP addresses of an instance, in the style of
+ * RFC 8305 "Happy Eyeballs". The first attempt starts immediately. The next attempt starts when
+ * the previous attempt fails, or when the attempt delay elapses without any attempt completing.
+ * The first socket to complete the TCP connect and TLS handshake is returned, and all other
+ * attempts are closed.
+ */
+class StaggeredDialer {
+  private static final Logger logger = LoggerFactory.getLogger(StaggeredDialer.class);
+
+  /** Opens a socket to a single IP address. */
+  interface SocketOpener {
+    /** Creates a new unconnected socket. */
+    SSLSocket create() throws IOException;
+
+    /** Connects the socket and completes the TLS handshake within timeoutMs. */
+    void connect(SSLSocket socket, String targetIp, int timeoutMs) throws IOException;
+  }
+
+  private final long attemptDelayMs;
+  private final ExecutorService executor;
+
+  /**
+   * Creates a new StaggeredDialer that runs connection attempts on its own daemon threads.
+   *
+   * @param attemptDelay the delay before starting an attempt to the next IP address.
+   */
+  StaggeredDialer(Duration attemptDelay) {
+    this(
+        attemptDelay,
+        Executors.newCachedThreadPool(
+            r -> {
+              Thread t = new Thread(r, "CloudSqlStaggeredDialer");
+              t.setDaemon(true);
+              return t;
+            }));
+  }
+
+  StaggeredDialer(Duration attemptDelay, ExecutorService executor) {
+    this.attemptDelayMs = attemptDelay.toMillis();
+    this.executor = executor;
+  }
+
+  /**
+   * Connects to the first IP address in targets that completes a TLS handshake.
+   *
+   * @param targets the IP addresses, in order of preference.
+   * @param opener creates and connects the sockets.
+   * @param deadline the deadline for all attempts. Since attempts overlap, each attempt may use
+   *     all the time left when it starts.
+   * @return the connected socket.
+   * @throws IOException the exception from the last failed attempt if no attempt succeeds, or a
+   *     SocketTimeoutException if the deadline passes.
+   */
+  SSLSocket dial(List<String> targets, SocketOpener opener, ConnectDeadline deadline)
+      throws IOException {
+    Race race = new Race(opener, deadline);
+    ExecutorCompletionService<SSLSocket> completion = new ExecutorCompletionService<>(executor);
+    List<Future<SSLSocket>> attempts = new ArrayList<>(targets.size());
+    IOException lastEx = null;
+    int started = 0;
+    int running = 0;
+
+    try {
+      attempts.add(completion.submit(race.attempt(targets.get(started++))));
+      running++;
+
+      while (running > 0) {
+        Future<SSLSocket> done;
+        if (started < targets.size()) {
+          done =
+              completion.poll(
+                  Math.min(attemptDelayMs, deadline.remainingMs()), TimeUnit.MILLISECONDS);
+        } else {
+          done = completion.poll(deadline.remainingMs(), TimeUnit.MILLISECONDS);
+          if (done == null) {
+            // deadline.remainingMs() throws once the deadline has passed.
+            continue;
+          }
+        }
+
+        if (done == null) {
+          // The delay elapsed without a result, start the next attempt alongside the others.
+          logger.debug(
+              String.format(
+                  "[%s] No connection after %d ms, starting next attempt.",
+                  targets.get(started), attemptDelayMs));
+          attempts.add(completion.submit(race.attempt(targets.get(started++))));
+          running++;
+          continue;
+        }
+
+        running--;
+        try {
+          return race.win(done.get());
+        } catch (ExecutionException e) {
+          lastEx = toIoException(e.getCause());
+          if (started < targets.size()) {
+            // The attempt failed, start the next attempt immediately.
+            attempts.add(completion.submit(race.attempt(targets.get(started++))));
+            running++;
+          }
+        }
+      }
+      throw lastEx;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while connecting to instance");
+    } finally {
+      race.finish();
+      for (Future<SSLSocket> f : attempts) {
+        f.cancel(true);
+      }
+    }
+  }
+
+  void close() {
+    executor.shutdownNow();
+  }
+
+  private static IOException toIoException(Throwable cause) {
+    if (cause instanceof IOException) {
+      return (IOException) cause;
+    }
+    return new IOException(cause);
+  }
+
+  /** Tracks the sockets opened for a single call to dial() so the losers can be closed. */
+  private static class Race {
+    private final SocketOpener opener;
+    private final ConnectDeadline deadline;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @GuardedBy("lock")
+    private final List<SSLSocket> sockets = new ArrayList<>();
+
+    @GuardedBy("lock")
+    private SSLSocket winner;
+
+    @GuardedBy("lock")
+    private boolean finished;
+
+    Race(SocketOpener opener, ConnectDeadline deadline) {
+      this.opener = opener;
+      this.deadline = deadline;
+    }
+
+    SocketAttempt attempt(String targetIp) {
+      return new SocketAttempt(this, targetIp);
+    }
+
+    private void register(SSLSocket socket) throws IOException {
+      lock.lock();
+      try {
+        if (finished) {
+          closeQuietly(socket);
+          throw new IOException("Connection attempt cancelled");
+        }
+        sockets.add(socket);
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    SSLSocket win(SSLSocket socket) {
+      lock.lock();
+      try {
+        winner = socket;
+      } finally {
+        lock.unlock();
+      }
+      return socket;
+    }
+
+    /** Closes every socket except the winner, aborting attempts that are still in progress. */
+    void finish() {
+      lock.lock();
+      try {
+        finished = true;
+        for (SSLSocket socket : sockets) {
+          if (socket != winner) {
+            closeQuietly(socket);
+          }
+        }
+        sockets.clear();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  private static class SocketAttempt implements Callable<SSLSocket> {
+    private final Race race;
+    private final String targetIp;
+
+    SocketAttempt(Race race, String targetIp) {
+      this.race = race;
+      this.targetIp = targetIp;
+    }
+
+    @Override
+    public SSLSocket call() throws IOException {
+      SSLSocket socket = race.opener.create();
+      race.register(socket);
+      logger.debug(String.format("[%s] Connecting to instance.", targetIp));
+      try {
+        race.opener.connect(socket, targetIp, race.deadline.remainingMs());
+      } catch (IOException e) {
+        logger.debug(String.format("[%s] Connection failed: %s", targetIp, e.getMessage()));
+        closeQuietly(socket);
+        throw e;
+      }
+      return socket;
+    }
+  }
+
+  private static void closeQuietly(SSLSocket socket) {
+    try {
+      socket.close();
+    } catch (IOException e) {
+      // ignore
+    }
+  }
+}
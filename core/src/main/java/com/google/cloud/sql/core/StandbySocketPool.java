@@ -0,0 +1,209 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * StandbySocketPool keeps a small number of sockets to a Cloud SQL instance connected and TLS
+ * handshaked ahead of time, so that a connection request can be served without waiting for the
+ * TCP connect and TLS handshake.
+ *
+ * <p>The pool is filled in the background once the connection info of the instance is available,
+ * after each refresh of the connection info, and each time a socket is taken from it. Standby
+ * sockets are discarded when they have been idle longer than maxIdle, when the connection info of
+ * the instance is refreshed, and when the pool is cleared or closed.
+ */
+class StandbySocketPool {
+  private static final Logger logger = LoggerFactory.getLogger(StandbySocketPool.class);
+
+  /** Opens a new socket using the connection info in metadata. */
+  interface Opener {
+    SSLSocket open(ConnectionMetadata metadata) throws IOException;
+  }
+
+  private final String instanceName;
+  private final int size;
+  private final long maxIdleNanos;
+  private final Executor executor;
+  private final ScheduledExecutorService scheduler;
+  private final Opener opener;
+
+  private final ConcurrentLinkedDeque<Standby> sockets = new ConcurrentLinkedDeque<>();
+  private final AtomicInteger pending = new AtomicInteger();
+  private volatile boolean closed;
+
+  /**
+   * Creates a new StandbySocketPool.
+   *
+   * @param instanceName the instance name, used in log messages.
+   * @param size the maximum number of standby sockets.
+   * @param maxIdle how long a standby socket may wait to be used.
+   * @param executor runs the blocking socket connects.
+   * @param scheduler closes standby sockets once they have been idle for too long.
+   * @param opener connects new sockets.
+   */
+  StandbySocketPool(
+      String instanceName,
+      int size,
+      Duration maxIdle,
+      Executor executor,
+      ScheduledExecutorService scheduler,
+      Opener opener) {
+    this.instanceName = instanceName;
+    this.size = size;
+    this.maxIdleNanos = maxIdle.toNanos();
+    this.executor = executor;
+    this.scheduler = scheduler;
+    this.opener = opener;
+  }
+
+  /**
+   * Takes a standby socket created with the current connection info, and starts refilling the pool
+   * in the background.
+   *
+   * @param metadata the current connection info of the instance.
+   * @return a connected socket, or null if no standby socket is available.
+   */
+  SSLSocket poll(ConnectionMetadata metadata) {
+    SSLSocket socket = null;
+    long now = System.nanoTime();
+    for (Standby s = sockets.pollFirst(); s != null; s = sockets.pollFirst()) {
+      if (s.isUsable(metadata.getSslContext(), now)) {
+        socket = s.socket;
+        break;
+      }
+      closeQuietly(s.socket);
+    }
+    refill(metadata);
+    return socket;
+  }
+
+  /**
+   * Discards the standby sockets connected with earlier connection info, and starts background
+   * connects until the pool holds size sockets.
+   *
+   * @param metadata the current connection info of the instance.
+   */
+  void refill(ConnectionMetadata metadata) {
+    long now = System.nanoTime();
+    for (Standby s : sockets) {
+      if (!s.isUsable(metadata.getSslContext(), now) && sockets.remove(s)) {
+        closeQuietly(s.socket);
+      }
+    }
+    while (!closed) {
+      int p = pending.get();
+      if (p + sockets.size() >= size) {
+        return;
+      }
+      if (pending.compareAndSet(p, p + 1)) {
+        try {
+          executor.execute(() -> open(metadata));
+        } catch (RejectedExecutionException e) {
+          pending.decrementAndGet();
+          return;
+        }
+      }
+    }
+  }
+
+  private void open(ConnectionMetadata metadata) {
+    try {
+      SSLSocket socket = opener.open(metadata);
+      Standby standby = new Standby(socket, metadata.getSslContext(), System.nanoTime());
+      sockets.addLast(standby);
+      if (closed) {
+        // close() may have run before this socket was added.
+        clear();
+        return;
+      }
+      try {
+        scheduler.schedule(() -> expire(standby), maxIdleNanos, TimeUnit.NANOSECONDS);
+      } catch (RejectedExecutionException e) {
+        // The connector is shutting down, the socket is closed when the pool is closed.
+      }
+    } catch (IOException | RuntimeException e) {
+      logger.debug(
+          String.format(
+              "[%s] Failed to connect a standby socket: %s", instanceName, e.getMessage()));
+    } finally {
+      pending.decrementAndGet();
+    }
+  }
+
+  private void expire(Standby standby) {
+    if (sockets.remove(standby)) {
+      closeQuietly(standby.socket);
+    }
+  }
+
+  /** Closes all standby sockets, as when the connection info is refreshed or failed over. */
+  void clear() {
+    for (Standby s = sockets.pollFirst(); s != null; s = sockets.pollFirst()) {
+      closeQuietly(s.socket);
+    }
+  }
+
+  /** Closes all standby sockets and stops refilling the pool. */
+  void close() {
+    closed = true;
+    clear();
+  }
+
+  @VisibleForTesting
+  int getStandbyCount() {
+    return sockets.size();
+  }
+
+  private static void closeQuietly(SSLSocket socket) {
+    try {
+      socket.close();
+    } catch (IOException e) {
+      // ignore
+    }
+  }
+
+  private class Standby {
+    private final SSLSocket socket;
+    // The SSLContext of the connection info that was current when the socket was connected.
+    private final SSLContext generation;
+    private final long createdNanos;
+
+    Standby(SSLSocket socket, SSLContext generation, long createdNanos) {
+      this.socket = socket;
+      this.generation = generation;
+      this.createdNanos = createdNanos;
+    }
+
+    boolean isUsable(SSLContext current, long now) {
+      return generation == current && now - createdNanos < maxIdleNanos && !socket.isClosed();
+    }
+  }
+}
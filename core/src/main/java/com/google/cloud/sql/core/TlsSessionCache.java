@@ -0,0 +1,416 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import com.google.cloud.sql.ConnectorMetrics;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import java.net.Socket;
+import java.security.GeneralSecurityException;
+import java.security.Principal;
+import java.security.PrivateKey;
+import java.security.SecureRandom;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import javax.net.ssl.KeyManager;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLSession;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509ExtendedKeyManager;
+import javax.net.ssl.X509ExtendedTrustManager;
+import javax.net.ssl.X509KeyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * TlsSessionCache holds a single SSLContext for a Cloud SQL instance so that the client TLS session
+ * cache survives certificate refreshes. The SSLContext delegates to the key and trust managers of
+ * the most recent ConnectionMetadata, so new handshakes always use the current client certificate.
+ *
+ * <p>A session may only be resumed while the client certificate it was established with is still
+ * valid. Sessions are invalidated once their client certificate expires, and the whole session
+ * cache is discarded when the server CA certificates of the instance change.
+ */
+class TlsSessionCache {
+  private static final Logger logger = LoggerFactory.getLogger(TlsSessionCache.class);
+  private static final String[] KEY_TYPES = {"RSA", "EC"};
+
+  private final String instanceName;
+  // Receives each handshake, or null.
+  private final ConnectorMetrics metrics;
+  private final AtomicLong resumedHandshakes = new AtomicLong();
+  private final AtomicLong fullHandshakes = new AtomicLong();
+  // Sockets and engines that verified the server certificate since their handshake started.
+  private final Set<Object> verified =
+      Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+  private final ReentrantLock lock = new ReentrantLock();
+
+  @GuardedBy("lock")
+  private SSLContext currentMetadataContext;
+
+  @GuardedBy("lock")
+  private SSLContext sslContext;
+
+  @GuardedBy("lock")
+  private DelegatingKeyManager keyManager;
+
+  @GuardedBy("lock")
+  private DelegatingTrustManager trustManager;
+
+  @GuardedBy("lock")
+  private Instant pruneAt = Instant.MAX;
+
+  // The result of the last call to getSslContext(), so that later calls with the same metadata
+  // do not take the lock until sessions must be pruned.
+  private volatile Published published;
+
+  TlsSessionCache(String instanceName) {
+    this(instanceName, null);
+  }
+
+  /**
+   * Creates a new TlsSessionCache.
+   *
+   * @param instanceName the instance connection name, for logging and metrics.
+   * @param metrics receives each handshake, or null.
+   */
+  TlsSessionCache(String instanceName, ConnectorMetrics metrics) {
+    this.instanceName = instanceName;
+    this.metrics = metrics;
+  }
+
+  /**
+   * Returns the long-lived SSLContext for this instance, updated to use the key and trust managers
+   * from metadata.
+   */
+  SSLContext getSslContext(ConnectionMetadata metadata) {
+    Published p = published;
+    if (p != null
+        && p.metadataContext == metadata.getSslContext()
+        && System.currentTimeMillis() < p.pruneAtMillis) {
+      return p.sslContext;
+    }
+
+    lock.lock();
+    try {
+      // ConnectionMetadata contains a new SSLContext each time the certificate is refreshed.
+      if (metadata.getSslContext() != currentMetadataContext) {
+        update(metadata);
+      }
+      if (!Instant.now().isBefore(pruneAt)) {
+        pruneExpiredSessions();
+      }
+      published =
+          new Published(
+              currentMetadataContext,
+              sslContext,
+              pruneAt.equals(Instant.MAX) ? Long.MAX_VALUE : pruneAt.toEpochMilli());
+      return sslContext;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @GuardedBy("lock")
+  private void update(ConnectionMetadata metadata) {
+    X509KeyManager km = findKeyManager(metadata.getKeyManagerFactory().getKeyManagers());
+    X509ExtendedTrustManager tm =
+        findTrustManager(metadata.getTrustManagerFactory().getTrustManagers());
+
+    if (sslContext != null
+        && Arrays.equals(tm.getAcceptedIssuers(), trustManager.delegate.getAcceptedIssuers())) {
+      // The CA is unchanged. Keep the session cache and switch to the new client certificate.
+      // Sessions established with the previous certificate may be resumed until it expires.
+      Instant previousExpiration = expiration(keyManager.delegate);
+      keyManager.delegate = km;
+      trustManager.delegate = tm;
+      if (previousExpiration.isBefore(pruneAt)) {
+        pruneAt = previousExpiration;
+      }
+      currentMetadataContext = metadata.getSslContext();
+      logger.debug(
+          String.format(
+              "[%s] Client certificate refreshed, keeping the TLS session cache.", instanceName));
+      return;
+    }
+
+    if (sslContext != null) {
+      logger.debug(
+          String.format(
+              "[%s] Server CA certificates changed, discarding the TLS session cache.",
+              instanceName));
+    }
+
+    try {
+      SSLContext base = metadata.getSslContext();
+      SSLContext ctx = SSLContext.getInstance(base.getProtocol(), base.getProvider());
+      DelegatingKeyManager newKm = new DelegatingKeyManager(km);
+      DelegatingTrustManager newTm = new DelegatingTrustManager(tm, verified);
+      ctx.init(new KeyManager[] {newKm}, new TrustManager[] {newTm}, new SecureRandom());
+      this.sslContext = ctx;
+      this.keyManager = newKm;
+      this.trustManager = newTm;
+      this.pruneAt = expiration(km);
+      this.currentMetadataContext = base;
+    } catch (GeneralSecurityException e) {
+      throw new RuntimeException(
+          String.format(
+              "[%s] Unable to create a SSLContext for the Cloud SQL instance.", instanceName),
+          e);
+    }
+  }
+
+  /** Invalidates the cached sessions that were established with an expired client certificate. */
+  @GuardedBy("lock")
+  private void pruneExpiredSessions() {
+    Instant now = Instant.now();
+    Instant nextPrune = Instant.MAX;
+    SSLSessionContext sessions = sslContext.getClientSessionContext();
+    for (Enumeration<byte[]> ids = sessions.getIds(); ids.hasMoreElements(); ) {
+      SSLSession session = sessions.getSession(ids.nextElement());
+      if (session == null) {
+        continue;
+      }
+      Instant notAfter = expiration(session.getLocalCertificates());
+      if (!now.isBefore(notAfter)) {
+        session.invalidate();
+      } else if (notAfter.isBefore(nextPrune)) {
+        nextPrune = notAfter;
+      }
+    }
+    // The current certificate will expire as well, check again when it does.
+    Instant current = expiration(keyManager.delegate);
+    if (current.isBefore(nextPrune)) {
+      nextPrune = current;
+    }
+    pruneAt = nextPrune;
+  }
+
+  /**
+   * Records whether the completed handshake on a socket or engine resumed a cached session. A full
+   * handshake verifies the server certificate chain, a resumed handshake does not.
+   *
+   * @param connection the SSLSocket or SSLEngine after the handshake completed.
+   */
+  void recordHandshake(Object connection) {
+    boolean resumed = !verified.remove(connection);
+    if (resumed) {
+      resumedHandshakes.incrementAndGet();
+    } else {
+      fullHandshakes.incrementAndGet();
+    }
+    if (metrics != null) {
+      try {
+        metrics.recordHandshake(instanceName, resumed);
+      } catch (RuntimeException e) {
+        logger.debug(String.format("[%s] Failed to record the handshake", instanceName), e);
+      }
+    }
+  }
+
+  long getResumedHandshakeCount() {
+    return resumedHandshakes.get();
+  }
+
+  long getFullHandshakeCount() {
+    return fullHandshakes.get();
+  }
+
+  @VisibleForTesting
+  int getCachedSessionCount() {
+    lock.lock();
+    try {
+      if (sslContext == null) {
+        return 0;
+      }
+      return Collections.list(sslContext.getClientSessionContext().getIds()).size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private static class Published {
+    private final SSLContext metadataContext;
+    private final SSLContext sslContext;
+    private final long pruneAtMillis;
+
+    Published(SSLContext metadataContext, SSLContext sslContext, long pruneAtMillis) {
+      this.metadataContext = metadataContext;
+      this.sslContext = sslContext;
+      this.pruneAtMillis = pruneAtMillis;
+    }
+  }
+
+  private static X509KeyManager findKeyManager(KeyManager[] managers) {
+    for (KeyManager km : managers) {
+      if (km instanceof X509KeyManager) {
+        return (X509KeyManager) km;
+      }
+    }
+    throw new IllegalStateException("No X509KeyManager found");
+  }
+
+  private static X509ExtendedTrustManager findTrustManager(TrustManager[] managers) {
+    for (TrustManager tm : managers) {
+      if (tm instanceof X509ExtendedTrustManager) {
+        return (X509ExtendedTrustManager) tm;
+      }
+    }
+    throw new IllegalStateException("No X509ExtendedTrustManager found");
+  }
+
+  /** Returns the earliest expiration of the client certificates held by the key manager. */
+  private static Instant expiration(X509KeyManager km) {
+    Instant earliest = Instant.MAX;
+    for (String keyType : KEY_TYPES) {
+      String[] aliases = km.getClientAliases(keyType, null);
+      if (aliases == null) {
+        continue;
+      }
+      for (String alias : aliases) {
+        Instant notAfter = expiration(km.getCertificateChain(alias));
+        if (notAfter.isBefore(earliest)) {
+          earliest = notAfter;
+        }
+      }
+    }
+    return earliest;
+  }
+
+  private static Instant expiration(Certificate[] chain) {
+    if (chain == null || chain.length == 0 || !(chain[0] instanceof X509Certificate)) {
+      // A session without a client certificate is never resumed past a refresh.
+      return Instant.MIN;
+    }
+    return ((X509Certificate) chain[0]).getNotAfter().toInstant();
+  }
+
+  /** Delegates to the key manager of the most recent certificate refresh. */
+  private static class DelegatingKeyManager extends X509ExtendedKeyManager {
+    private volatile X509KeyManager delegate;
+
+    DelegatingKeyManager(X509KeyManager delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public String[] getClientAliases(String keyType, Principal[] issuers) {
+      return delegate.getClientAliases(keyType, issuers);
+    }
+
+    @Override
+    public String chooseClientAlias(String[] keyType, Principal[] issuers, Socket socket) {
+      return delegate.chooseClientAlias(keyType, issuers, socket);
+    }
+
+    @Override
+    public String chooseEngineClientAlias(
+        String[] keyType, Principal[] issuers, SSLEngine engine) {
+      X509KeyManager km = delegate;
+      if (km instanceof X509ExtendedKeyManager) {
+        return ((X509ExtendedKeyManager) km).chooseEngineClientAlias(keyType, issuers, engine);
+      }
+      return km.chooseClientAlias(keyType, issuers, null);
+    }
+
+    @Override
+    public String[] getServerAliases(String keyType, Principal[] issuers) {
+      return delegate.getServerAliases(keyType, issuers);
+    }
+
+    @Override
+    public String chooseServerAlias(String keyType, Principal[] issuers, Socket socket) {
+      return delegate.chooseServerAlias(keyType, issuers, socket);
+    }
+
+    @Override
+    public X509Certificate[] getCertificateChain(String alias) {
+      return delegate.getCertificateChain(alias);
+    }
+
+    @Override
+    public PrivateKey getPrivateKey(String alias) {
+      return delegate.getPrivateKey(alias);
+    }
+  }
+
+  /** Delegates to the trust manager of the most recent certificate refresh. */
+  private static class DelegatingTrustManager extends X509ExtendedTrustManager {
+    private volatile X509ExtendedTrustManager delegate;
+    private final Set<Object> verified;
+
+    DelegatingTrustManager(X509ExtendedTrustManager delegate, Set<Object> verified) {
+      this.delegate = delegate;
+      this.verified = verified;
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType, Socket socket)
+        throws CertificateException {
+      delegate.checkClientTrusted(chain, authType, socket);
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType, Socket socket)
+        throws CertificateException {
+      delegate.checkServerTrusted(chain, authType, socket);
+      verified.add(socket);
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType, SSLEngine engine)
+        throws CertificateException {
+      delegate.checkClientTrusted(chain, authType, engine);
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType, SSLEngine engine)
+        throws CertificateException {
+      delegate.checkServerTrusted(chain, authType, engine);
+      verified.add(engine);
+    }
+
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType)
+        throws CertificateException {
+      delegate.checkClientTrusted(chain, authType);
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType)
+        throws CertificateException {
+      delegate.checkServerTrusted(chain, authType);
+    }
+
+    @Override
+    public X509Certificate[] getAcceptedIssuers() {
+      return delegate.getAcceptedIssuers();
+    }
+  }
+}
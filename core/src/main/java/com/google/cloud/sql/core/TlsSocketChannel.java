@@ -0,0 +1,328 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import com.google.cloud.sql.core.mdx.MetadataExchange;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.nio.channels.SocketChannel;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLSession;
+
+/**
+ * TlsSocketChannel is a non-blocking, TLS encrypted connection to a Cloud SQL instance. It is
+ * returned by {@code connectAsync()} with the TLS handshake already complete.
+ *
+ * <p>The underlying SocketChannel is in non-blocking mode and may be registered with a Selector.
+ * Because TLS records are decrypted as a whole, read() may buffer more plaintext than fits into the
+ * destination buffer, so callers should keep reading until read() returns 0 before waiting for the
+ * channel to become readable. When write() cannot send all encrypted bytes, the remainder is kept
+ * until the next call to write() or flush(). So is a reply to a post-handshake message, such as a
+ * TLS 1.3 key update, that read() cannot send because earlier bytes are still unsent.
+ *
+ * <p>WARNING: This is an internal class. The API is subject to change without notice.
+ */
+public class TlsSocketChannel implements ByteChannel {
+  private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+  private final SocketChannel channel;
+  private final SSLEngine engine;
+  private final ProtocolHandler protocolHandler;
+  private final Object readLock = new Object();
+  private final Object writeLock = new Object();
+
+  // Encrypted bytes read from the channel, in write mode.
+  private ByteBuffer netIn;
+  // Decrypted bytes not yet returned by read(), in write mode.
+  private ByteBuffer appIn;
+  // Encrypted bytes not yet written to the channel, in read mode.
+  private final ByteBuffer netOut;
+
+  // Whether the engine has a post-handshake reply to send, such as a key update, that could not be
+  // wrapped yet because netOut still held encrypted bytes.
+  @GuardedBy("writeLock")
+  private boolean replyPending;
+
+  // The MDX request to send before the first write, or null.
+  private byte[] mdxRequest;
+  // Whether the first bytes from the server may hold an MDX response.
+  private boolean mdxResponsePending;
+  private volatile MetadataExchange.MetadataExchangeResponse mdxResponse;
+
+  TlsSocketChannel(
+      SocketChannel channel,
+      SSLEngine engine,
+      ByteBuffer netIn,
+      ByteBuffer appIn,
+      ByteBuffer netOut,
+      ProtocolHandler protocolHandler,
+      byte[] mdxRequest) {
+    this.channel = channel;
+    this.engine = engine;
+    this.netIn = netIn;
+    this.appIn = appIn;
+    this.netOut = netOut;
+    this.protocolHandler = protocolHandler;
+    this.mdxRequest = mdxRequest;
+    this.mdxResponsePending = mdxRequest != null;
+  }
+
+  /** Returns the underlying non-blocking SocketChannel, for use with a Selector. */
+  public SocketChannel getSocketChannel() {
+    return channel;
+  }
+
+  /** Returns the TLS session of this connection. */
+  public SSLSession getSession() {
+    return engine.getSession();
+  }
+
+  MetadataExchange.MetadataExchangeResponse getMdxResponse() {
+    return mdxResponse;
+  }
+
+  /**
+   * Reads decrypted bytes into dst.
+   *
+   * @return the number of bytes read, 0 if no bytes are available yet, or -1 at the end of stream.
+   */
+  @Override
+  public int read(ByteBuffer dst) throws IOException {
+    synchronized (readLock) {
+      while (true) {
+        if (mdxResponsePending && appIn.position() > 0) {
+          readMdxResponse(false);
+        }
+        if (appIn.position() > 0 && !mdxResponsePending) {
+          return transfer(dst);
+        }
+
+        netIn.flip();
+        SSLEngineResult result;
+        try {
+          result = engine.unwrap(netIn, appIn);
+        } finally {
+          netIn.compact();
+        }
+        runDelegatedTasks();
+
+        switch (result.getStatus()) {
+          case OK:
+            if (result.getHandshakeStatus() == SSLEngineResult.HandshakeStatus.NEED_WRAP) {
+              // Post-handshake messages, like a key update, may need a reply.
+              synchronized (writeLock) {
+                replyPending = true;
+                flushPending();
+              }
+            }
+            break;
+          case BUFFER_UNDERFLOW:
+            if (netIn.remaining() == 0) {
+              netIn = enlarge(netIn, engine.getSession().getPacketBufferSize());
+            }
+            int n = channel.read(netIn);
+            if (n < 0) {
+              if (mdxResponsePending) {
+                readMdxResponse(true);
+                continue;
+              }
+              return appIn.position() > 0 ? transfer(dst) : -1;
+            }
+            if (n == 0) {
+              return 0;
+            }
+            break;
+          case BUFFER_OVERFLOW:
+            appIn = enlarge(appIn, engine.getSession().getApplicationBufferSize());
+            break;
+          case CLOSED:
+          default:
+            if (mdxResponsePending) {
+              readMdxResponse(true);
+              continue;
+            }
+            return appIn.position() > 0 ? transfer(dst) : -1;
+        }
+      }
+    }
+  }
+
+  /**
+   * Encrypts bytes from src and writes them to the channel.
+   *
+   * @return the number of bytes consumed from src, which may be 0 if earlier bytes could not yet be
+   *     written to the channel.
+   */
+  @Override
+  public int write(ByteBuffer src) throws IOException {
+    synchronized (writeLock) {
+      if (!flushPending()) {
+        return 0;
+      }
+      if (mdxRequest != null) {
+        ByteBuffer req = ByteBuffer.wrap(mdxRequest);
+        mdxRequest = null;
+        wrap(req);
+        if (!flushNetOut()) {
+          return 0;
+        }
+      }
+      int consumed = wrap(src);
+      flushNetOut();
+      return consumed;
+    }
+  }
+
+  /**
+   * Writes encrypted bytes left over from earlier calls to write().
+   *
+   * @return true if all bytes have been written to the channel.
+   */
+  public boolean flush() throws IOException {
+    synchronized (writeLock) {
+      return flushPending();
+    }
+  }
+
+  @Override
+  public boolean isOpen() {
+    return channel.isOpen();
+  }
+
+  /** Sends the TLS close_notify alert if possible, and closes the channel. */
+  @Override
+  public void close() throws IOException {
+    try {
+      synchronized (writeLock) {
+        engine.closeOutbound();
+        if (flushNetOut()) {
+          wrap(EMPTY);
+          flushNetOut();
+        }
+      }
+    } catch (IOException e) {
+      // The channel is closed below.
+    } finally {
+      channel.close();
+    }
+  }
+
+  /** Moves bytes from appIn to dst. */
+  private int transfer(ByteBuffer dst) {
+    appIn.flip();
+    int n = Math.min(appIn.remaining(), dst.remaining());
+    ByteBuffer slice = appIn.duplicate();
+    slice.limit(slice.position() + n);
+    dst.put(slice);
+    appIn.position(appIn.position() + n);
+    appIn.compact();
+    return n;
+  }
+
+  /** Consumes the MDX response at the start of appIn, if there is one. */
+  private void readMdxResponse(boolean endOfStream) throws IOException {
+    appIn.flip();
+    try {
+      int length = protocolHandler.mdxResponseLength(appIn);
+      if (length < 0 && !endOfStream) {
+        // Wait for more bytes.
+        return;
+      }
+      mdxResponsePending = false;
+      if (length > 0) {
+        byte[] response = new byte[length];
+        appIn.get(response);
+        mdxResponse = protocolHandler.readMdxResponse(new ByteArrayInputStream(response));
+      }
+    } finally {
+      appIn.compact();
+    }
+  }
+
+  /** Encrypts src into netOut, which must be empty. Returns the number of bytes consumed. */
+  private int wrap(ByteBuffer src) throws IOException {
+    int consumed = 0;
+    netOut.clear();
+    try {
+      do {
+        SSLEngineResult result = engine.wrap(src, netOut);
+        consumed += result.bytesConsumed();
+        if (result.getStatus() == SSLEngineResult.Status.CLOSED) {
+          if (consumed == 0 && src.hasRemaining()) {
+            throw new SSLException("TLS connection is closed");
+          }
+          break;
+        }
+        if (result.getStatus() != SSLEngineResult.Status.OK || result.bytesProduced() == 0) {
+          // netOut is full, the rest of src is written on the next call.
+          break;
+        }
+      } while (src.hasRemaining());
+    } finally {
+      netOut.flip();
+    }
+    return consumed;
+  }
+
+  /**
+   * Writes the encrypted bytes left in netOut, and then the pending post-handshake reply. The
+   * reply is only wrapped once netOut is empty, as wrap() reuses netOut.
+   *
+   * @return true if all bytes have been written to the channel.
+   */
+  @GuardedBy("writeLock")
+  private boolean flushPending() throws IOException {
+    if (!flushNetOut()) {
+      return false;
+    }
+    if (replyPending) {
+      replyPending = false;
+      wrap(EMPTY);
+      return flushNetOut();
+    }
+    return true;
+  }
+
+  private boolean flushNetOut() throws IOException {
+    while (netOut.hasRemaining()) {
+      if (channel.write(netOut) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void runDelegatedTasks() {
+    Runnable task;
+    while ((task = engine.getDelegatedTask()) != null) {
+      task.run();
+    }
+  }
+
+  /** Returns a larger copy of buf, which is in write mode. */
+  private static ByteBuffer enlarge(ByteBuffer buf, int minCapacity) {
+    ByteBuffer bigger = ByteBuffer.allocateDirect(Math.max(minCapacity, buf.capacity() * 2));
+    buf.flip();
+    bigger.put(buf);
+    return bigger;
+  }
+}
@@ -22,8 +22,10 @@ import static org.junit.Assert.assertThrows;
 import com.google.auth.oauth2.AccessToken;
 import com.google.auth.oauth2.GoogleCredentials;
 import com.google.common.base.Objects;
+import java.security.KeyPair;
 import java.time.Duration;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.Collections;
 import java.util.List;
 import java.util.function.Supplier;
@@ -422,6 +424,217 @@ public class ConnectorConfigTest {
     assertThat(k1.hashCode()).isEqualTo(k2.hashCode());
   }
 
+  @Test
+  public void testNotEqual_withConnectAttemptDelay() {
+    ConnectorConfig k1 =
+        new ConnectorConfig.Builder().withConnectAttemptDelay(Duration.ofMillis(250)).build();
+    ConnectorConfig k2 =
+        new ConnectorConfig.Builder().withConnectAttemptDelay(Duration.ofMillis(300)).build();
+
+    assertThat(k1).isNotEqualTo(k2);
+    assertThat(k1.hashCode()).isNotEqualTo(k2.hashCode());
+  }
+
+  @Test
+  public void testEqual_withConnectAttemptDelay() {
+    ConnectorConfig k1 =
+        new ConnectorConfig.Builder().withConnectAttemptDelay(Duration.ofMillis(250)).build();
+    ConnectorConfig k2 =
+        new ConnectorConfig.Builder().withConnectAttemptDelay(Duration.ofMillis(250)).build();
+
+    assertThat(k1).isEqualTo(k2);
+    assertThat(k1.hashCode()).isEqualTo(k2.hashCode());
+  }
+
+  @Test
+  public void testBuild_failsWhenConnectAttemptDelayIsNegative() {
+    ConnectorConfig.Builder builder =
+        new ConnectorConfig.Builder().withConnectAttemptDelay(Duration.ofMillis(-1));
+
+    IllegalStateException ex = assertThrows(IllegalStateException.class, builder::build);
+
+    assertThat(ex).hasMessageThat().contains("connectAttemptDelay");
+  }
+
+  @Test
+  public void testNotEqual_withStandbyPoolSize() {
+    ConnectorConfig k1 = new ConnectorConfig.Builder().withStandbyPoolSize(2).build();
+    ConnectorConfig k2 = new ConnectorConfig.Builder().withStandbyPoolSize(4).build();
+
+    assertThat(k1).isNotEqualTo(k2);
+    assertThat(k1.hashCode()).isNotEqualTo(k2.hashCode());
+  }
+
+  @Test
+  public void testNotEqual_withStandbyPoolMaxIdle() {
+    ConnectorConfig k1 =
+        new ConnectorConfig.Builder().withStandbyPoolMaxIdle(Duration.ofSeconds(2)).build();
+    ConnectorConfig k2 =
+        new ConnectorConfig.Builder().withStandbyPoolMaxIdle(Duration.ofSeconds(3)).build();
+
+    assertThat(k1).isNotEqualTo(k2);
+    assertThat(k1.hashCode()).isNotEqualTo(k2.hashCode());
+  }
+
+  @Test
+  public void testBuild_failsWhenStandbyPoolSizeIsNegative() {
+    ConnectorConfig.Builder builder = new ConnectorConfig.Builder().withStandbyPoolSize(-1);
+
+    IllegalStateException ex = assertThrows(IllegalStateException.class, builder::build);
+
+    assertThat(ex).hasMessageThat().contains("standbyPoolSize");
+  }
+
+  @Test
+  public void testBuild_failsWhenStandbyPoolMaxIdleIsZero() {
+    ConnectorConfig.Builder builder =
+        new ConnectorConfig.Builder().withStandbyPoolMaxIdle(Duration.ZERO);
+
+    IllegalStateException ex = assertThrows(IllegalStateException.class, builder::build);
+
+    assertThat(ex).hasMessageThat().contains("standbyPoolMaxIdle");
+  }
+
+  @Test
+  public void testNotEqual_withConnectorMetrics() {
+    ConnectorMetrics metrics = (instanceName, phase, durationNanos) -> {};
+    ConnectorConfig k1 = new ConnectorConfig.Builder().withConnectorMetrics(metrics).build();
+    ConnectorConfig k2 = new ConnectorConfig.Builder().build();
+
+    assertThat(k1).isNotEqualTo(k2);
+    assertThat(k1.hashCode()).isNotEqualTo(k2.hashCode());
+    assertThat(k1.getConnectorMetrics()).isSameInstanceAs(metrics);
+  }
+
+  @Test
+  public void testNotEqual_withConnectTimeout() {
+    ConnectorConfig k1 =
+        new ConnectorConfig.Builder().withConnectTimeout(Duration.ofSeconds(5)).build();
+    ConnectorConfig k2 =
+        new ConnectorConfig.Builder().withConnectTimeout(Duration.ofSeconds(10)).build();
+
+    assertThat(k1).isNotEqualTo(k2);
+    assertThat(k1.hashCode()).isNotEqualTo(k2.hashCode());
+  }
+
+  @Test
+  public void testBuild_failsWhenConnectTimeoutIsZero() {
+    ConnectorConfig.Builder builder =
+        new ConnectorConfig.Builder().withConnectTimeout(Duration.ZERO);
+
+    IllegalStateException ex = assertThrows(IllegalStateException.class, builder::build);
+
+    assertThat(ex).hasMessageThat().contains("connectTimeout");
+  }
+
+  @Test
+  public void testNotEqual_withMaxConcurrentHandshakes() {
+    ConnectorConfig k1 = new ConnectorConfig.Builder().withMaxConcurrentHandshakes(5).build();
+    ConnectorConfig k2 = new ConnectorConfig.Builder().withMaxConcurrentHandshakes(10).build();
+    ConnectorConfig k3 =
+        new ConnectorConfig.Builder().withMaxConcurrentConnectorHandshakes(5).build();
+
+    assertThat(k1).isNotEqualTo(k2);
+    assertThat(k1.hashCode()).isNotEqualTo(k2.hashCode());
+    assertThat(k1).isNotEqualTo(k3);
+    assertThat(k1.hashCode()).isNotEqualTo(k3.hashCode());
+  }
+
+  @Test
+  public void testBuild_failsWhenConnectionInfoCacheKeyIsInvalid() {
+    ConnectorConfig.Builder missingKey =
+        new ConnectorConfig.Builder().withConnectionInfoCacheDirectory("/tmp/cloudsql");
+    ConnectorConfig.Builder shortKey =
+        new ConnectorConfig.Builder()
+            .withConnectionInfoCacheDirectory("/tmp/cloudsql")
+            .withConnectionInfoCacheKey(Base64.getEncoder().encodeToString(new byte[8]));
+
+    IllegalStateException ex1 = assertThrows(IllegalStateException.class, missingKey::build);
+    IllegalStateException ex2 = assertThrows(IllegalStateException.class, shortKey::build);
+
+    assertThat(ex1).hasMessageThat().contains("set together");
+    assertThat(ex2).hasMessageThat().contains("connectionInfoCacheKey");
+  }
+
+  @Test
+  public void testNotEqual_withKeyPairSupplier() {
+    Supplier<KeyPair> supplier = () -> null;
+    ConnectorConfig k1 = new ConnectorConfig.Builder().withKeyPairSupplier(supplier).build();
+    ConnectorConfig k2 = new ConnectorConfig.Builder().build();
+
+    assertThat(k1).isNotEqualTo(k2);
+    assertThat(k1.hashCode()).isNotEqualTo(k2.hashCode());
+    assertThat(k1.getKeyPairSupplier()).isSameInstanceAs(supplier);
+  }
+
+  @Test
+  public void testBuild_failsWhenMetadataCacheTtlIsNegative() {
+    ConnectorConfig.Builder builder =
+        new ConnectorConfig.Builder().withMetadataCacheTtl(Duration.ofSeconds(-1));
+
+    IllegalStateException ex = assertThrows(IllegalStateException.class, builder::build);
+
+    assertThat(ex).hasMessageThat().contains("metadataCacheTtl");
+  }
+
+  @Test
+  public void testBuild_failsWhenInstanceCacheBoundsAreInvalid() {
+    ConnectorConfig.Builder idle =
+        new ConnectorConfig.Builder().withInstanceIdleTimeout(Duration.ZERO);
+    ConnectorConfig.Builder max = new ConnectorConfig.Builder().withMaxInstances(-1);
+
+    assertThat(assertThrows(IllegalStateException.class, idle::build))
+        .hasMessageThat()
+        .contains("instanceIdleTimeout");
+    assertThat(assertThrows(IllegalStateException.class, max::build))
+        .hasMessageThat()
+        .contains("maxInstances");
+  }
+
+  @Test
+  public void testBuild_failsWhenAdminApiLimitIsNegative() {
+    ConnectorConfig.Builder builder = new ConnectorConfig.Builder().withAdminApiRateLimit(-1);
+
+    IllegalStateException ex = assertThrows(IllegalStateException.class, builder::build);
+
+    assertThat(ex).hasMessageThat().contains("adminApiRateLimit");
+  }
+
+  @Test
+  public void testNotEqual_withRetryPolicy() {
+    RetryPolicy policy = new RetryPolicy.Builder().withMaxAttempts(3).build();
+    ConnectorConfig k1 = new ConnectorConfig.Builder().withRetryPolicy(policy).build();
+    ConnectorConfig k2 = new ConnectorConfig.Builder().build();
+
+    assertThat(k1).isNotEqualTo(k2);
+    assertThat(k1.getRetryPolicy()).isEqualTo(new RetryPolicy.Builder().withMaxAttempts(3).build());
+  }
+
+  @Test
+  public void testRetryPolicyBuild_failsWhenInvalid() {
+    assertThat(
+            assertThrows(
+                IllegalStateException.class,
+                () -> new RetryPolicy.Builder().withMaxAttempts(0).build()))
+        .hasMessageThat()
+        .contains("maxAttempts");
+    assertThat(
+            assertThrows(
+                IllegalStateException.class,
+                () -> new RetryPolicy.Builder().withTotalTimeout(Duration.ZERO).build()))
+        .hasMessageThat()
+        .contains("totalTimeout");
+  }
+
+  @Test
+  public void testBuild_failsWhenMaxConcurrentHandshakesIsNegative() {
+    ConnectorConfig.Builder builder = new ConnectorConfig.Builder().withMaxConcurrentHandshakes(-1);
+
+    IllegalStateException ex = assertThrows(IllegalStateException.class, builder::build);
+
+    assertThat(ex).hasMessageThat().contains("maxConcurrentHandshakes");
+  }
+
   @Test
   public void testHashCode() {
     final String wantTargetPrincipal = "test@example.com";
@@ -456,6 +669,24 @@ public class ConnectorConfigTest {
                 null, // universeDomain
                 wantRefreshStrategy, // refreshStrategy
                 null, // instanceNameResolver
-                ConnectorConfig.DEFAULT_FAILOVER_PERIOD));
+                ConnectorConfig.DEFAULT_FAILOVER_PERIOD,
+                null, // connectAttemptDelay
+                0, // standbyPoolSize
+                ConnectorConfig.DEFAULT_STANDBY_POOL_MAX_IDLE,
+                null, // connectorMetrics
+                null, // connectTimeout
+                0, // maxConcurrentHandshakes
+                0, // maxConcurrentConnectorHandshakes
+                null, // connectionInfoCacheDirectory
+                null, // connectionInfoCacheKey
+                null, // keyPairSupplier
+                null, // metadataCacheTtl
+                null, // instanceIdleTimeout
+                0, // maxInstances
+                0.0, // adminApiRateLimit
+                0, // adminApiBurst
+                0, // adminApiMaxConcurrentRequests
+                null, // retryPolicy
+                null)); // httpTransportFactory
   }
 }
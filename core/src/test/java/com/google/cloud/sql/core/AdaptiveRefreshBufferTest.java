@@ -0,0 +1,114 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import static com.google.cloud.sql.core.AdaptiveRefreshBuffer.MAX_REFRESH_BUFFER;
+import static com.google.cloud.sql.core.AdaptiveRefreshBuffer.MIN_REFRESH_BUFFER;
+import static com.google.cloud.sql.core.RefreshCalculator.DEFAULT_REFRESH_BUFFER;
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.cloud.sql.ConnectorMetrics;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class AdaptiveRefreshBufferTest {
+  private static final long FAST = Duration.ofMillis(200).toNanos();
+  private static final long SLOW = Duration.ofSeconds(40).toNanos();
+
+  @Test
+  public void testGet_isDefaultBeforeFirstRefresh() {
+    assertThat(new AdaptiveRefreshBuffer("p:r:i", null).get()).isEqualTo(DEFAULT_REFRESH_BUFFER);
+  }
+
+  @Test
+  public void testGet_growsWithRefreshDuration() {
+    AdaptiveRefreshBuffer fast = new AdaptiveRefreshBuffer("p:r:i", null);
+    fast.recordSuccess(FAST);
+    AdaptiveRefreshBuffer slow = new AdaptiveRefreshBuffer("p:r:i", null);
+    slow.recordSuccess(SLOW);
+
+    assertThat(fast.get()).isLessThan(DEFAULT_REFRESH_BUFFER);
+    assertThat(fast.get()).isAtLeast(MIN_REFRESH_BUFFER);
+    assertThat(slow.get()).isGreaterThan(DEFAULT_REFRESH_BUFFER);
+  }
+
+  @Test
+  public void testGet_growsWithFailuresAndRecovers() {
+    AdaptiveRefreshBuffer b = new AdaptiveRefreshBuffer("p:r:i", null);
+    b.recordSuccess(FAST);
+    Duration healthy = b.get();
+
+    b.recordFailure(FAST);
+    b.recordFailure(FAST);
+    Duration failing = b.get();
+    assertThat(failing).isGreaterThan(healthy.plusMinutes(3));
+
+    for (int i = 0; i < 10; i++) {
+      b.recordSuccess(FAST);
+    }
+    assertThat(b.get()).isLessThan(failing);
+    assertThat(b.get()).isLessThan(DEFAULT_REFRESH_BUFFER);
+
+    for (int i = 0; i < 20; i++) {
+      b.recordFailure(SLOW);
+    }
+    assertThat(b.get()).isEqualTo(MAX_REFRESH_BUFFER);
+  }
+
+  @Test
+  public void testRecord_reportsBufferToMetrics() {
+    List<Long> buffers = new ArrayList<>();
+    AdaptiveRefreshBuffer b =
+        new AdaptiveRefreshBuffer(
+            "p:r:i",
+            new ConnectorMetrics() {
+              @Override
+              public void recordConnectPhase(
+                  String instanceName, ConnectPhase phase, long durationNanos) {}
+
+              @Override
+              public void recordRefreshBuffer(String instanceName, long bufferNanos) {
+                assertThat(instanceName).isEqualTo("p:r:i");
+                buffers.add(bufferNanos);
+              }
+            });
+
+    b.recordSuccess(FAST);
+    b.recordFailure(FAST);
+
+    assertThat(buffers).hasSize(2);
+    assertThat(buffers.get(1)).isEqualTo(b.get().toNanos());
+  }
+
+  @Test
+  public void testRefreshCalculator_usesRefreshBuffer() {
+    Instant now = Instant.now();
+    Instant expiration = now.plus(Duration.ofMinutes(50));
+    RefreshCalculator calculator = new RefreshCalculator();
+
+    assertThat(calculator.calculateSecondsUntilNextRefresh(now, expiration, MIN_REFRESH_BUFFER))
+        .isEqualTo(Duration.ofMinutes(48).getSeconds());
+    assertThat(calculator.calculateSecondsUntilNextRefresh(now, expiration, MAX_REFRESH_BUFFER))
+        .isEqualTo(Duration.ofMinutes(35).getSeconds());
+  }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.api.client.http.HttpHeaders;
+import com.google.api.client.http.HttpResponseException;
+import com.google.cloud.sql.ConnectorConfig;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class AdminApiGovernorTest {
+  private ListeningScheduledExecutorService executor;
+
+  @Before
+  public void setUp() {
+    executor = MoreExecutors.listeningDecorator(Executors.newScheduledThreadPool(4));
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testGovern_limitsRate() throws Exception {
+    AdminApiGovernor governor = new AdminApiGovernor(20, 1, 0);
+
+    long start = System.nanoTime();
+    for (int i = 0; i < 5; i++) {
+      governor.govern(() -> null, 0).call();
+    }
+
+    // The first request uses the burst, the next 4 wait 50ms each.
+    assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isAtLeast(180L);
+  }
+
+  @Test
+  public void testSubmit_limitsConcurrencyAndStartsLowestPriorityFirst() throws Exception {
+    AdminApiGovernor governor = new AdminApiGovernor(0, 1, 1);
+    CountDownLatch release = new CountDownLatch(1);
+    List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+
+    ListenableFuture<Object> first =
+        governor.submit(
+            () -> {
+              release.await();
+              return null;
+            },
+            0,
+            executor);
+    ListenableFuture<Object> later = governor.submit(() -> order.add(5), 5, executor);
+    ListenableFuture<Object> sooner = governor.submit(() -> order.add(1), 1, executor);
+
+    assertThat(governor.getWaitingCount()).isEqualTo(2);
+    assertThat(governor.getActiveCount()).isEqualTo(1);
+
+    release.countDown();
+    first.get(5, TimeUnit.SECONDS);
+    later.get(5, TimeUnit.SECONDS);
+    sooner.get(5, TimeUnit.SECONDS);
+
+    assertThat(order).containsExactly(1, 5).inOrder();
+    assertThat(governor.getActiveCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void testSubmit_skipsCancelledRequests() throws Exception {
+    AdminApiGovernor governor = new AdminApiGovernor(0, 1, 1);
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger cancelledCalls = new AtomicInteger();
+
+    ListenableFuture<Object> first =
+        governor.submit(
+            () -> {
+              release.await();
+              return null;
+            },
+            0,
+            executor);
+    ListenableFuture<Object> cancelled =
+        governor.submit(
+            () -> {
+              cancelledCalls.incrementAndGet();
+              return null;
+            },
+            0,
+            executor);
+    assertThat(governor.getWaitingCount()).isEqualTo(1);
+
+    cancelled.cancel(false);
+    assertThat(governor.getWaitingCount()).isEqualTo(0);
+
+    release.countDown();
+    first.get();
+    governor.submit(() -> null, 0, executor).get(5, TimeUnit.SECONDS);
+
+    assertThat(cancelledCalls.get()).isEqualTo(0);
+    assertThat(governor.getActiveCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void testGovern_backsOffAfterTooManyRequests() throws Exception {
+    AdminApiGovernor governor = new AdminApiGovernor(100, 10, 0);
+    HttpResponseException tooManyRequests = newException(429, null);
+
+    long start = System.nanoTime();
+    try {
+      governor
+          .govern(
+              () -> {
+                throw tooManyRequests;
+              },
+              0)
+          .call();
+    } catch (HttpResponseException e) {
+      assertThat(e.getStatusCode()).isEqualTo(429);
+    }
+    governor.govern(() -> null, 0).call();
+
+    assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start))
+        .isAtLeast(AdminApiGovernor.DEFAULT_BACKOFF_MS);
+  }
+
+  @Test
+  public void testRetryAfterMs_readsRetryAfterHeader() {
+    assertThat(AdminApiGovernor.retryAfterMs(newException(429, "7"))).isEqualTo(7000L);
+    assertThat(AdminApiGovernor.retryAfterMs(newException(429, "-7"))).isEqualTo(0L);
+    assertThat(AdminApiGovernor.retryAfterMs(newException(429, "soon")))
+        .isEqualTo(AdminApiGovernor.DEFAULT_BACKOFF_MS);
+    assertThat(AdminApiGovernor.retryAfterMs(newException(429, null)))
+        .isEqualTo(AdminApiGovernor.DEFAULT_BACKOFF_MS);
+  }
+
+  @Test
+  public void testRetryAfterMs_readsHttpDate() {
+    Instant now = Instant.parse("2026-10-21T07:27:30Z");
+
+    assertThat(
+            AdminApiGovernor.retryAfterMs(newException(429, "Wed, 21 Oct 2026 07:28:00 GMT"), now))
+        .isEqualTo(30000L);
+    // A date in the past asks for no delay.
+    assertThat(
+            AdminApiGovernor.retryAfterMs(newException(429, "Wed, 21 Oct 2026 07:27:00 GMT"), now))
+        .isEqualTo(0L);
+  }
+
+  @Test
+  public void testApiClientRetryingCallable_retriesTooManyRequestsWhenGoverned()
+      throws Exception {
+    AtomicInteger calls = new AtomicInteger();
+    AdminApiGovernor governor = new AdminApiGovernor(100, 10, 0);
+
+    String result =
+        new ApiClientRetryingCallable<>(
+                () -> {
+                  if (calls.incrementAndGet() == 1) {
+                    throw newException(429, "0");
+                  }
+                  return "ok";
+                },
+                governor,
+                0,
+                null,
+                DefaultConnectionInfoRepository.CONNECT_SETTINGS,
+                null)
+            .callAsync(executor)
+            .get(10, TimeUnit.SECONDS);
+
+    assertThat(result).isEqualTo("ok");
+    assertThat(calls.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void testForConfig_sharesGovernorOfSameLimits() {
+    ConnectorConfig unlimited = new ConnectorConfig.Builder().build();
+    ConnectorConfig limited =
+        new ConnectorConfig.Builder()
+            .withAdminApiRateLimit(5)
+            .withAdminApiMaxConcurrentRequests(2)
+            .build();
+    ConnectorConfig sameLimits =
+        new ConnectorConfig.Builder()
+            .withAdminApiRateLimit(5)
+            .withAdminApiMaxConcurrentRequests(2)
+            .withAdminQuotaProject("other-project")
+            .build();
+
+    assertThat(AdminApiGovernor.forConfig(unlimited)).isNull();
+    assertThat(AdminApiGovernor.forConfig(limited))
+        .isSameInstanceAs(AdminApiGovernor.forConfig(sameLimits));
+  }
+
+  private static HttpResponseException newException(int statusCode, String retryAfter) {
+    return new HttpResponseException.Builder(
+            statusCode, "Too Many Requests", new HttpHeaders().setRetryAfter(retryAfter))
+        .build();
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.api.client.http.HttpTransport;
+import com.google.api.client.testing.http.MockHttpTransport;
+import com.google.auth.http.HttpTransportFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class AdminApiTransportsTest {
+
+  @Test
+  public void testGet_sharesTransportOfFactory() {
+    AtomicInteger created = new AtomicInteger();
+    HttpTransportFactory factory =
+        () -> {
+          created.incrementAndGet();
+          return new MockHttpTransport();
+        };
+
+    HttpTransport first = AdminApiTransports.get(factory);
+    HttpTransport second = AdminApiTransports.get(factory);
+
+    assertThat(second).isSameInstanceAs(first);
+    assertThat(created.get()).isEqualTo(1);
+    assertThat(AdminApiTransports.getClientCount(factory)).isEqualTo(2);
+  }
+
+  @Test
+  public void testRelease_shutsDownTransportOfLastClient() {
+    AtomicInteger shutdowns = new AtomicInteger();
+    HttpTransportFactory factory =
+        () ->
+            new MockHttpTransport() {
+              @Override
+              public void shutdown() {
+                shutdowns.incrementAndGet();
+              }
+            };
+
+    HttpTransport first = AdminApiTransports.get(factory);
+    AdminApiTransports.get(factory);
+
+    AdminApiTransports.release(factory);
+    assertThat(AdminApiTransports.getClientCount(factory)).isEqualTo(1);
+    assertThat(shutdowns.get()).isEqualTo(0);
+
+    AdminApiTransports.release(factory);
+    assertThat(AdminApiTransports.getClientCount(factory)).isEqualTo(0);
+    assertThat(shutdowns.get()).isEqualTo(1);
+
+    assertThat(AdminApiTransports.get(factory)).isNotSameInstanceAs(first);
+    AdminApiTransports.release(factory);
+  }
+
+  @Test
+  public void testGet_createsTransportOfEachFactory() {
+    HttpTransportFactory factory = MockHttpTransport::new;
+    HttpTransportFactory otherFactory = MockHttpTransport::new;
+
+    assertThat(AdminApiTransports.get(factory))
+        .isNotSameInstanceAs(AdminApiTransports.get(otherFactory));
+  }
+}
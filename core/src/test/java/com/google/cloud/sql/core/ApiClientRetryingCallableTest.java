@@ -20,6 +20,7 @@ import static com.google.common.truth.Truth.assertThat;
 
 import com.google.api.client.http.HttpHeaders;
 import com.google.api.client.http.HttpResponseException;
+import java.net.SocketTimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Assert;
 import org.junit.Test;
@@ -91,4 +92,22 @@ public class ApiClientRetryingCallableTest {
     }
     assertThat(counter.get()).isEqualTo(1);
   }
+
+  @Test
+  public void testApiClientRetriesOnSocketTimeoutAndSucceeds() throws Exception {
+    AtomicInteger counter = new AtomicInteger(0);
+    ApiClientRetryingCallable<Integer> c =
+        new ApiClientRetryingCallable<>(
+            () -> {
+              int attempt = counter.incrementAndGet();
+              if (attempt < 2) {
+                throw new SocketTimeoutException("Read timed out");
+              }
+              return attempt;
+            });
+
+    Integer v = c.call();
+    assertThat(counter.get()).isEqualTo(2);
+    assertThat(v).isEqualTo(2);
+  }
 }
@@ -0,0 +1,309 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.nio.ByteBuffer;
+import java.security.KeyStore;
+import java.security.KeyStore.PasswordProtection;
+import java.security.KeyStore.PrivateKeyEntry;
+import java.security.SecureRandom;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateFactory;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLServerSocket;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.TrustManagerFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class AsyncTlsConnectorTest {
+  private static final String IP = "127.0.0.1";
+
+  private ScheduledExecutorService executor;
+  private AsyncTlsConnector connector;
+
+  @Before
+  public void setUp() throws Exception {
+    executor = Executors.newScheduledThreadPool(2);
+    connector = new AsyncTlsConnector(executor, executor);
+  }
+
+  @After
+  public void tearDown() {
+    connector.close();
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testConnect_completesHandshakeAndReadsFromServer() throws Exception {
+    FakeSslServer server = new FakeSslServer();
+    int port = server.start(IP);
+    AtomicInteger handshakes = new AtomicInteger();
+    try {
+      TlsSocketChannel channel = connect(port, 10000, handshakes).get(10, TimeUnit.SECONDS);
+      try {
+        assertThat(handshakes.get()).isEqualTo(1);
+        assertThat(channel.getSocketChannel().isBlocking()).isFalse();
+        assertThat(readAll(channel)).isEqualTo(CloudSqlCoreTestingBase.SERVER_MESSAGE);
+      } finally {
+        channel.close();
+      }
+      assertThat(channel.isOpen()).isFalse();
+    } finally {
+      server.stop();
+    }
+  }
+
+  @Test
+  public void testConnect_failsWhenHandshakeTimesOut() throws Exception {
+    // The server accepts the TCP connection but never answers the TLS handshake.
+    try (ServerSocket server = new ServerSocket(0, 5, InetAddress.getByName(IP))) {
+      CompletableFuture<TlsSocketChannel> result =
+          connect(server.getLocalPort(), 200, new AtomicInteger());
+
+      ExecutionException ex =
+          assertThrows(ExecutionException.class, () -> result.get(10, TimeUnit.SECONDS));
+      assertThat(ex).hasCauseThat().isInstanceOf(TimeoutException.class);
+    }
+  }
+
+  @Test
+  public void testConnect_failsAfterClose() throws Exception {
+    connector.close();
+
+    CompletableFuture<TlsSocketChannel> result = connect(3307, 10000, new AtomicInteger());
+
+    assertThrows(ExecutionException.class, () -> result.get(10, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void testConnect_failsWhenHandshakeTaskIsRejected() throws Exception {
+    FakeSslServer server = new FakeSslServer();
+    int port = server.start(IP);
+    AsyncTlsConnector rejecting =
+        new AsyncTlsConnector(
+            task -> {
+              throw new RejectedExecutionException("Executor is shut down");
+            },
+            executor);
+    try {
+      CompletableFuture<TlsSocketChannel> result =
+          connect(rejecting, port, 60000, new AtomicInteger());
+
+      // Fails without waiting for the handshake timeout.
+      ExecutionException ex =
+          assertThrows(ExecutionException.class, () -> result.get(10, TimeUnit.SECONDS));
+      assertThat(ex).hasCauseThat().isInstanceOf(RejectedExecutionException.class);
+    } finally {
+      rejecting.close();
+      server.stop();
+    }
+  }
+
+  @Test
+  public void testWrite_keepsUnsentBytesWhenKeyUpdateArrives() throws Exception {
+    try (SSLServerSocket server =
+        (SSLServerSocket)
+            newServerSslContext()
+                .getServerSocketFactory()
+                .createServerSocket(0, 5, InetAddress.getByName(IP))) {
+      CountDownLatch clientBlocked = new CountDownLatch(1);
+      CompletableFuture<Long> received = new CompletableFuture<>();
+      Thread serverThread =
+          new Thread(
+              () -> {
+                try (SSLSocket socket = (SSLSocket) server.accept()) {
+                  socket.startHandshake();
+                  clientBlocked.await();
+                  // A TLS 1.3 handshake request on an established connection sends a KeyUpdate
+                  // that asks the client to update its keys too.
+                  socket.startHandshake();
+                  received.complete(readPattern(socket.getInputStream()));
+                } catch (Exception e) {
+                  received.completeExceptionally(e);
+                }
+              });
+      serverThread.start();
+
+      TlsSocketChannel channel =
+          connect(server.getLocalPort(), 10000, new AtomicInteger()).get(10, TimeUnit.SECONDS);
+      long sent = 0;
+      try {
+        // The server does not read yet, so the channel ends up with encrypted bytes it could not
+        // send.
+        int n;
+        while ((n = channel.write(pattern(sent, 16384))) > 0) {
+          sent += n;
+        }
+        clientBlocked.countDown();
+
+        // Reads the KeyUpdate while the encrypted bytes are still unsent.
+        ByteBuffer in = ByteBuffer.allocate(1024);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(1);
+        while (System.nanoTime() < deadline) {
+          assertThat(channel.read(in)).isEqualTo(0);
+          Thread.sleep(10);
+        }
+
+        ByteBuffer last = pattern(sent, 16384);
+        while (last.hasRemaining()) {
+          sent += channel.write(last);
+        }
+        while (!channel.flush()) {
+          Thread.sleep(10);
+        }
+      } finally {
+        channel.close();
+      }
+
+      assertThat(received.get(10, TimeUnit.SECONDS)).isEqualTo(sent);
+    }
+  }
+
+  /** Returns length bytes of the test pattern, starting at offset. */
+  private static ByteBuffer pattern(long offset, int length) {
+    ByteBuffer buf = ByteBuffer.allocate(length);
+    for (int i = 0; i < length; i++) {
+      buf.put((byte) ((offset + i) % 251));
+    }
+    buf.flip();
+    return buf;
+  }
+
+  /** Reads the test pattern until the end of stream, and returns the number of bytes read. */
+  private static long readPattern(InputStream in) throws IOException {
+    byte[] buf = new byte[16384];
+    long total = 0;
+    int n;
+    while ((n = in.read(buf)) >= 0) {
+      for (int i = 0; i < n; i++) {
+        if (buf[i] != (byte) ((total + i) % 251)) {
+          throw new IOException("Unexpected byte at offset " + (total + i));
+        }
+      }
+      total += n;
+    }
+    return total;
+  }
+
+  private CompletableFuture<TlsSocketChannel> connect(
+      int port, long timeoutMs, AtomicInteger handshakes) throws Exception {
+    return connect(connector, port, timeoutMs, handshakes);
+  }
+
+  private CompletableFuture<TlsSocketChannel> connect(
+      AsyncTlsConnector tlsConnector, int port, long timeoutMs, AtomicInteger handshakes)
+      throws Exception {
+    return tlsConnector.connect(
+        newSslContext(),
+        Collections.singletonList(IP),
+        port,
+        timeoutMs,
+        engine -> handshakes.incrementAndGet(),
+        (channel, engine, netIn, appIn, netOut) ->
+            new TlsSocketChannel(
+                channel, engine, netIn, appIn, netOut, new ProtocolHandler("test"), null));
+  }
+
+  /** Reads from the non-blocking channel until the server closes the connection. */
+  private static String readAll(TlsSocketChannel channel) throws Exception {
+    StringBuilder sb = new StringBuilder();
+    ByteBuffer buf = ByteBuffer.allocate(1024);
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (System.nanoTime() < deadline) {
+      buf.clear();
+      int n = channel.read(buf);
+      if (n < 0) {
+        break;
+      }
+      buf.flip();
+      sb.append(UTF_8.decode(buf));
+      if (n == 0) {
+        Thread.sleep(10);
+      }
+    }
+    return sb.toString();
+  }
+
+  private static SSLContext newServerSslContext() throws Exception {
+    KeyStore keyStore = KeyStore.getInstance(KeyStore.getDefaultType());
+    keyStore.load(null, null);
+    keyStore.setEntry(
+        "server",
+        new PrivateKeyEntry(
+            TestKeys.getServerKeyPair().getPrivate(), new Certificate[] {TestKeys.getServerCert()}),
+        new PasswordProtection(new char[0]));
+    KeyManagerFactory kmf = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+    kmf.init(keyStore, new char[0]);
+
+    SSLContext sslContext = SSLContext.getInstance("TLSv1.3");
+    sslContext.init(kmf.getKeyManagers(), null, new SecureRandom());
+    return sslContext;
+  }
+
+  private static SSLContext newSslContext() throws Exception {
+    Certificate clientCert =
+        CertificateFactory.getInstance("X.509")
+            .generateCertificate(
+                new ByteArrayInputStream(
+                    TestKeys.createEphemeralCert(Duration.ZERO).getBytes(UTF_8)));
+    KeyStore keyStore = KeyStore.getInstance(KeyStore.getDefaultType());
+    keyStore.load(null, null);
+    keyStore.setEntry(
+        "ephemeral",
+        new PrivateKeyEntry(
+            TestKeys.getClientKeyPair().getPrivate(), new Certificate[] {clientCert}),
+        new PasswordProtection(new char[0]));
+    KeyManagerFactory kmf = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+    kmf.init(keyStore, new char[0]);
+
+    KeyStore trustStore = KeyStore.getInstance(KeyStore.getDefaultType());
+    trustStore.load(null, null);
+    trustStore.setCertificateEntry("instance", TestKeys.getServerCert());
+    TrustManagerFactory tmf = TrustManagerFactory.getInstance("X.509");
+    tmf.init(trustStore);
+
+    SSLContext sslContext = SSLContext.getInstance("TLSv1.3");
+    sslContext.init(kmf.getKeyManagers(), tmf.getTrustManagers(), new SecureRandom());
+    return sslContext;
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.Collections;
+import java.util.List;
+import javax.net.ssl.TrustManagerFactory;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class CaCertificateCacheTest {
+
+  @Before
+  public void setUp() {
+    CaCertificateCache.clear();
+  }
+
+  @Test
+  public void testParseCertificateChain_reusesChainOfSamePem() throws Exception {
+    List<Certificate> chain = CaCertificateCache.parseCertificateChain(TestKeys.getServerCertPem());
+
+    assertThat(chain).containsExactly(TestKeys.getServerCert());
+    assertThat(CaCertificateCache.parseCertificateChain(TestKeys.getServerCertPem()))
+        .isSameInstanceAs(chain);
+    assertThat(CaCertificateCache.parseCertificateChain(TestKeys.getServerCert2Pem()))
+        .isNotSameInstanceAs(chain);
+  }
+
+  @Test
+  public void testGetTrustManagerFactory_sharesFactoryOfSameCertificates() throws Exception {
+    X509Certificate ca = TestKeys.getSigningCaCert();
+    TrustManagerFactory tmf =
+        CaCertificateCache.getTrustManagerFactory(Collections.singletonList(ca));
+
+    assertThat(CaCertificateCache.getTrustManagerFactory(Collections.singletonList(ca)))
+        .isSameInstanceAs(tmf);
+    assertThat(
+            CaCertificateCache.getTrustManagerFactory(
+                Collections.singletonList(TestKeys.getServerCert())))
+        .isNotSameInstanceAs(tmf);
+    assertThat(tmf.getTrustManagers()).isNotEmpty();
+  }
+
+  @Test
+  public void testInstanceCheckingTrustManagerFactory_keepsInstanceOfEachFactory()
+      throws Exception {
+    List<Certificate> cas = Collections.singletonList(TestKeys.getSigningCaCert());
+    InstanceMetadata first = newInstanceMetadata("myProject:myRegion:myInstance", cas);
+    InstanceMetadata second = newInstanceMetadata("myProject:myRegion:other", cas);
+
+    InstanceCheckingTrustManger firstTm =
+        (InstanceCheckingTrustManger)
+            InstanceCheckingTrustManagerFactory.newInstance(first).getTrustManagers()[0];
+    InstanceCheckingTrustManger secondTm =
+        (InstanceCheckingTrustManger)
+            InstanceCheckingTrustManagerFactory.newInstance(second).getTrustManagers()[0];
+
+    assertThat(firstTm).isNotSameInstanceAs(secondTm);
+    assertThat(CaCertificateCache.size()).isEqualTo(1);
+  }
+
+  private static InstanceMetadata newInstanceMetadata(
+      String instanceName, List<Certificate> caCertificates) {
+    return new InstanceMetadata(
+        new CloudSqlInstanceName(instanceName),
+        Collections.emptyMap(),
+        caCertificates,
+        false,
+        null,
+        false,
+        null);
+  }
+}
@@ -17,12 +17,15 @@
 package com.google.cloud.sql.core;
 
 import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
 
 import com.google.cloud.sql.AuthType;
 import com.google.cloud.sql.ConnectorConfig;
 import com.google.cloud.sql.IpType;
 import com.google.cloud.sql.RefreshStrategy;
+import java.time.Duration;
 import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
 import java.util.Properties;
 import java.util.stream.Collectors;
@@ -162,4 +165,139 @@ public class ConnectionConfigTest {
     assertThat(c1.getNamedConnector()).isEqualTo(wantNamedConnector);
     assertThat(c1.getConnectorConfig()).isSameInstanceAs(cc);
   }
+
+  @Test
+  public void testConfigFromProps_connectAttemptDelay() {
+    Properties props = new Properties();
+    props.setProperty(ConnectionConfig.CLOUD_SQL_INSTANCE_PROPERTY, "proj:region:inst");
+    props.setProperty(ConnectionConfig.CLOUD_SQL_CONNECT_ATTEMPT_DELAY_MS_PROPERTY, "250");
+
+    ConnectionConfig c = ConnectionConfig.fromConnectionProperties(props);
+
+    assertThat(c.getConnectorConfig().getConnectAttemptDelay()).isEqualTo(Duration.ofMillis(250));
+  }
+
+  @Test
+  public void testConfigFromProps_invalidConnectAttemptDelay() {
+    Properties props = new Properties();
+    props.setProperty(ConnectionConfig.CLOUD_SQL_INSTANCE_PROPERTY, "proj:region:inst");
+    props.setProperty(ConnectionConfig.CLOUD_SQL_CONNECT_ATTEMPT_DELAY_MS_PROPERTY, "soon");
+
+    assertThrows(
+        IllegalArgumentException.class, () -> ConnectionConfig.fromConnectionProperties(props));
+  }
+
+  @Test
+  public void testConfigFromProps_standbyPool() {
+    Properties props = new Properties();
+    props.setProperty(ConnectionConfig.CLOUD_SQL_INSTANCE_PROPERTY, "proj:region:inst");
+    props.setProperty(ConnectionConfig.CLOUD_SQL_STANDBY_POOL_SIZE_PROPERTY, "4");
+    props.setProperty(ConnectionConfig.CLOUD_SQL_STANDBY_POOL_MAX_IDLE_MS_PROPERTY, "2000");
+
+    ConnectionConfig c = ConnectionConfig.fromConnectionProperties(props);
+
+    assertThat(c.getConnectorConfig().getStandbyPoolSize()).isEqualTo(4);
+    assertThat(c.getConnectorConfig().getStandbyPoolMaxIdle()).isEqualTo(Duration.ofSeconds(2));
+  }
+
+  @Test
+  public void testConfigFromProps_standbyPoolDefaults() {
+    Properties props = new Properties();
+    props.setProperty(ConnectionConfig.CLOUD_SQL_INSTANCE_PROPERTY, "proj:region:inst");
+
+    ConnectionConfig c = ConnectionConfig.fromConnectionProperties(props);
+
+    assertThat(c.getConnectorConfig().getStandbyPoolSize()).isEqualTo(0);
+    assertThat(c.getConnectorConfig().getStandbyPoolMaxIdle())
+        .isEqualTo(ConnectorConfig.DEFAULT_STANDBY_POOL_MAX_IDLE);
+  }
+
+  @Test
+  public void testConfigFromProps_connectTimeout() {
+    Properties props = new Properties();
+    props.setProperty(ConnectionConfig.CLOUD_SQL_INSTANCE_PROPERTY, "proj:region:inst");
+    props.setProperty(ConnectionConfig.CLOUD_SQL_CONNECT_TIMEOUT_MS_PROPERTY, "5000");
+
+    ConnectionConfig c = ConnectionConfig.fromConnectionProperties(props);
+
+    assertThat(c.getConnectorConfig().getConnectTimeout()).isEqualTo(Duration.ofSeconds(5));
+  }
+
+  @Test
+  public void testConfigFromProps_connectTimeoutDefault() {
+    Properties props = new Properties();
+    props.setProperty(ConnectionConfig.CLOUD_SQL_INSTANCE_PROPERTY, "proj:region:inst");
+
+    ConnectionConfig c = ConnectionConfig.fromConnectionProperties(props);
+
+    assertThat(c.getConnectorConfig().getConnectTimeout()).isNull();
+  }
+
+  @Test
+  public void testConfigFromProps_maxConcurrentHandshakes() {
+    Properties props = new Properties();
+    props.setProperty(ConnectionConfig.CLOUD_SQL_INSTANCE_PROPERTY, "proj:region:inst");
+    props.setProperty(ConnectionConfig.CLOUD_SQL_MAX_CONCURRENT_HANDSHAKES_PROPERTY, "4");
+    props.setProperty(
+        ConnectionConfig.CLOUD_SQL_MAX_CONCURRENT_CONNECTOR_HANDSHAKES_PROPERTY, "16");
+
+    ConnectionConfig c = ConnectionConfig.fromConnectionProperties(props);
+
+    assertThat(c.getConnectorConfig().getMaxConcurrentHandshakes()).isEqualTo(4);
+    assertThat(c.getConnectorConfig().getMaxConcurrentConnectorHandshakes()).isEqualTo(16);
+  }
+
+  @Test
+  public void testConfigFromProps_connectionInfoCache() {
+    String key = Base64.getEncoder().encodeToString(new byte[32]);
+    Properties props = new Properties();
+    props.setProperty(ConnectionConfig.CLOUD_SQL_INSTANCE_PROPERTY, "proj:region:inst");
+    props.setProperty(
+        ConnectionConfig.CLOUD_SQL_CONNECTION_INFO_CACHE_DIRECTORY_PROPERTY, "/tmp/cloudsql");
+    props.setProperty(ConnectionConfig.CLOUD_SQL_CONNECTION_INFO_CACHE_KEY_PROPERTY, key);
+
+    ConnectionConfig c = ConnectionConfig.fromConnectionProperties(props);
+
+    assertThat(c.getConnectorConfig().getConnectionInfoCacheDirectory()).isEqualTo("/tmp/cloudsql");
+    assertThat(c.getConnectorConfig().getConnectionInfoCacheKey()).isEqualTo(key);
+  }
+
+  @Test
+  public void testConfigFromProps_metadataCacheTtl() {
+    Properties props = new Properties();
+    props.setProperty(ConnectionConfig.CLOUD_SQL_INSTANCE_PROPERTY, "proj:region:inst");
+    props.setProperty(ConnectionConfig.CLOUD_SQL_METADATA_CACHE_TTL_MS_PROPERTY, "7200000");
+
+    ConnectionConfig c = ConnectionConfig.fromConnectionProperties(props);
+
+    assertThat(c.getConnectorConfig().getMetadataCacheTtl()).isEqualTo(Duration.ofHours(2));
+  }
+
+  @Test
+  public void testConfigFromProps_instanceCacheBounds() {
+    Properties props = new Properties();
+    props.setProperty(ConnectionConfig.CLOUD_SQL_INSTANCE_PROPERTY, "proj:region:inst");
+    props.setProperty(ConnectionConfig.CLOUD_SQL_INSTANCE_IDLE_TIMEOUT_MS_PROPERTY, "600000");
+    props.setProperty(ConnectionConfig.CLOUD_SQL_MAX_INSTANCES_PROPERTY, "20");
+
+    ConnectionConfig c = ConnectionConfig.fromConnectionProperties(props);
+
+    assertThat(c.getConnectorConfig().getInstanceIdleTimeout()).isEqualTo(Duration.ofMinutes(10));
+    assertThat(c.getConnectorConfig().getMaxInstances()).isEqualTo(20);
+  }
+
+  @Test
+  public void testConfigFromProps_adminApiLimits() {
+    Properties props = new Properties();
+    props.setProperty(ConnectionConfig.CLOUD_SQL_INSTANCE_PROPERTY, "proj:region:inst");
+    props.setProperty(ConnectionConfig.CLOUD_SQL_ADMIN_API_RATE_LIMIT_PROPERTY, "2.5");
+    props.setProperty(ConnectionConfig.CLOUD_SQL_ADMIN_API_BURST_PROPERTY, "10");
+    props.setProperty(ConnectionConfig.CLOUD_SQL_ADMIN_API_MAX_CONCURRENT_REQUESTS_PROPERTY, "4");
+
+    ConnectionConfig c = ConnectionConfig.fromConnectionProperties(props);
+
+    assertThat(c.getConnectorConfig().getAdminApiRateLimit()).isEqualTo(2.5);
+    assertThat(c.getConnectorConfig().getAdminApiBurst()).isEqualTo(10);
+    assertThat(c.getConnectorConfig().getAdminApiMaxConcurrentRequests()).isEqualTo(4);
+  }
 }
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.auth.oauth2.GoogleCredentials;
+import com.google.auth.oauth2.ServiceAccountCredentials;
+import com.google.cloud.sql.AuthType;
+import com.google.cloud.sql.ConnectorConfig;
+import com.google.cloud.sql.IpType;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ConnectionInfoDiskCacheTest {
+  private static final String KEY = Base64.getEncoder().encodeToString(new byte[32]);
+  private static final CloudSqlInstanceName INSTANCE_NAME =
+      new CloudSqlInstanceName("project:region:instance");
+  private static final String PRINCIPAL = "serviceAccount:a@project.iam.gserviceaccount.com||";
+
+  private Path directory;
+
+  @Before
+  public void setUp() throws Exception {
+    directory = Files.createTempDirectory("connection-info");
+  }
+
+  @After
+  public void tearDown() {
+    File[] files = directory.toFile().listFiles();
+    if (files != null) {
+      for (File f : files) {
+        f.delete();
+      }
+    }
+    directory.toFile().delete();
+  }
+
+  @Test
+  public void testSaveAndLoad() throws Exception {
+    ConnectionInfoDiskCache cache =
+        new ConnectionInfoDiskCache(directory.toString(), KEY, PRINCIPAL);
+    ConnectionInfo info = newConnectionInfo(Duration.ZERO);
+
+    cache.save(INSTANCE_NAME, AuthType.PASSWORD, info);
+    ConnectionInfo loaded =
+        new ConnectionInfoDiskCache(directory.toString(), KEY, PRINCIPAL)
+            .load(INSTANCE_NAME, AuthType.PASSWORD);
+
+    assertThat(loaded).isNotNull();
+    assertThat(loaded.getExpiration()).isEqualTo(info.getExpiration());
+    assertThat(loaded.getIpAddrs()).isEqualTo(info.getIpAddrs());
+    assertThat(loaded.getEphemeralCertificate()).isEqualTo(info.getEphemeralCertificate());
+    assertThat(loaded.getKeyPair().getPrivate().getEncoded())
+        .isEqualTo(info.getKeyPair().getPrivate().getEncoded());
+    assertThat(loaded.getInstanceMetadata().getDnsName()).isEqualTo("db.example.com");
+    assertThat(loaded.getSslContext()).isNotNull();
+  }
+
+  @Test
+  public void testLoad_ignoresOtherAuthTypeAndWrongKey() throws Exception {
+    ConnectionInfoDiskCache cache =
+        new ConnectionInfoDiskCache(directory.toString(), KEY, PRINCIPAL);
+    cache.save(INSTANCE_NAME, AuthType.PASSWORD, newConnectionInfo(Duration.ZERO));
+
+    byte[] otherKey = new byte[32];
+    otherKey[0] = 1;
+    ConnectionInfoDiskCache otherCache =
+        new ConnectionInfoDiskCache(
+            directory.toString(), Base64.getEncoder().encodeToString(otherKey), PRINCIPAL);
+
+    assertThat(cache.load(INSTANCE_NAME, AuthType.IAM)).isNull();
+    assertThat(otherCache.load(INSTANCE_NAME, AuthType.PASSWORD)).isNull();
+  }
+
+  @Test
+  public void testLoad_ignoresConnectionInfoOfOtherPrincipal() throws Exception {
+    ConnectionInfoDiskCache cache =
+        new ConnectionInfoDiskCache(directory.toString(), KEY, PRINCIPAL);
+    cache.save(INSTANCE_NAME, AuthType.IAM, newConnectionInfo(Duration.ZERO));
+
+    ConnectionInfoDiskCache otherPrincipal =
+        new ConnectionInfoDiskCache(
+            directory.toString(), KEY, "serviceAccount:b@project.iam.gserviceaccount.com||");
+
+    assertThat(otherPrincipal.load(INSTANCE_NAME, AuthType.IAM)).isNull();
+    assertThat(cache.load(INSTANCE_NAME, AuthType.IAM)).isNotNull();
+  }
+
+  @Test
+  public void testCredentialIdentity_includesPrincipalAndImpersonationChain() throws Exception {
+    GoogleCredentials a = newServiceAccount("a@project.iam.gserviceaccount.com");
+    GoogleCredentials b = newServiceAccount("b@project.iam.gserviceaccount.com");
+    ConnectorConfig direct = new ConnectorConfig.Builder().build();
+    ConnectorConfig impersonating =
+        new ConnectorConfig.Builder()
+            .withTargetPrincipal("c@project.iam.gserviceaccount.com")
+            .withDelegates(Collections.singletonList("d@project.iam.gserviceaccount.com"))
+            .build();
+
+    String identity = ConnectionInfoDiskCache.credentialIdentity(a, direct);
+    assertThat(identity).isNotNull();
+    assertThat(ConnectionInfoDiskCache.credentialIdentity(a, direct)).isEqualTo(identity);
+    assertThat(ConnectionInfoDiskCache.credentialIdentity(b, direct)).isNotEqualTo(identity);
+    assertThat(ConnectionInfoDiskCache.credentialIdentity(a, impersonating))
+        .isNotEqualTo(identity);
+    // The principal of other credentials is unknown.
+    assertThat(ConnectionInfoDiskCache.credentialIdentity(GoogleCredentials.create(null), direct))
+        .isNull();
+  }
+
+  @Test
+  public void testLoad_ignoresConnectionInfoExpiringSoon() throws Exception {
+    ConnectionInfoDiskCache cache =
+        new ConnectionInfoDiskCache(directory.toString(), KEY, PRINCIPAL);
+    // The certificate is valid for one hour, and expires in 2 minutes.
+    cache.save(INSTANCE_NAME, AuthType.PASSWORD, newConnectionInfo(Duration.ofMinutes(58)));
+
+    assertThat(cache.load(INSTANCE_NAME, AuthType.PASSWORD)).isNull();
+  }
+
+  @Test
+  public void testSave_skipsConnectionInfoWithoutKeyPair() throws Exception {
+    ConnectionInfoDiskCache cache =
+        new ConnectionInfoDiskCache(directory.toString(), KEY, PRINCIPAL);
+    ConnectionInfo info = newConnectionInfo(Duration.ZERO);
+
+    cache.save(
+        INSTANCE_NAME,
+        AuthType.PASSWORD,
+        new ConnectionInfo(info.getInstanceMetadata(), info.getSslData(), info.getExpiration()));
+
+    assertThat(cache.load(INSTANCE_NAME, AuthType.PASSWORD)).isNull();
+  }
+
+  private static GoogleCredentials newServiceAccount(String email) throws Exception {
+    return ServiceAccountCredentials.newBuilder()
+        .setClientEmail(email)
+        .setPrivateKey(TestKeys.getClientKeyPair().getPrivate())
+        .build();
+  }
+
+  private static ConnectionInfo newConnectionInfo(Duration certAge) throws Exception {
+    KeyPair keyPair = TestKeys.getClientKeyPair();
+    X509Certificate ephemeralCert =
+        (X509Certificate)
+            CertificateFactory.getInstance("X.509")
+                .generateCertificate(
+                    new ByteArrayInputStream(
+                        TestKeys.createEphemeralCert(certAge).getBytes(StandardCharsets.UTF_8)));
+    Map<IpType, List<String>> ipAddrs = new HashMap<>();
+    ipAddrs.put(IpType.PUBLIC, Collections.singletonList("10.1.1.1"));
+    InstanceMetadata metadata =
+        new InstanceMetadata(
+            INSTANCE_NAME,
+            ipAddrs,
+            Collections.singletonList(TestKeys.getSigningCaCert()),
+            false,
+            "db.example.com",
+            false,
+            null);
+    SslData sslData =
+        DefaultConnectionInfoRepository.createSslData(
+            keyPair, metadata, ephemeralCert, INSTANCE_NAME, AuthType.PASSWORD);
+    return new ConnectionInfo(
+        metadata, sslData, ephemeralCert.getNotAfter().toInstant(), keyPair, ephemeralCert);
+  }
+}
@@ -23,28 +23,42 @@ import static org.junit.Assert.assertThrows;
 import com.google.api.client.http.BasicAuthentication;
 import com.google.api.client.http.HttpRequestInitializer;
 import com.google.api.services.sqladmin.model.DnsNameMapping;
+import com.google.auth.oauth2.AccessToken;
+import com.google.auth.oauth2.GoogleCredentials;
 import com.google.cloud.sql.AuthType;
 import com.google.cloud.sql.ConnectorConfig;
+import com.google.cloud.sql.ConnectorMetrics;
+import com.google.cloud.sql.ConnectorMetrics.ConnectPhase;
+import com.google.cloud.sql.ConnectorMetrics.EvictionCause;
 import com.google.cloud.sql.CredentialFactory;
 import com.google.cloud.sql.IpType;
+import com.google.cloud.sql.RefreshStrategy;
+import com.google.cloud.sql.RetryPolicy;
 import com.google.common.util.concurrent.ListeningScheduledExecutorService;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.InetAddress;
+import java.net.ServerSocket;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.security.PrivateKey;
 import java.security.cert.X509Certificate;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.naming.NameNotFoundException;
 import javax.net.ssl.SSLHandshakeException;
 import org.junit.After;
@@ -162,6 +176,236 @@ public class ConnectorTest extends CloudSqlCoreTestingBase {
     assertThat(readLine(socket)).isEqualTo(SERVER_MESSAGE);
   }
 
+  @Test
+  public void create_recordsConnectPhases() throws IOException, InterruptedException {
+    FakeSslServer sslServer = new FakeSslServer();
+    Map<ConnectPhase, String> phases = new ConcurrentHashMap<>();
+    ConnectionConfig config =
+        new ConnectionConfig.Builder()
+            .withCloudSqlInstance("myProject:myRegion:myInstance")
+            .withIpTypes("PRIMARY")
+            .withConnectorConfig(
+                new ConnectorConfig.Builder()
+                    .withConnectorMetrics(
+                        (instanceName, phase, durationNanos) -> phases.put(phase, instanceName))
+                    .build())
+            .build();
+
+    int port = sslServer.start(PUBLIC_IP);
+
+    Connector connector = newConnector(config.getConnectorConfig(), port, null, null, false);
+
+    Socket socket = connector.connect(config, TEST_MAX_REFRESH_MS);
+
+    assertThat(readLine(socket)).isEqualTo(SERVER_MESSAGE);
+    String instanceName = "myProject:myRegion:myInstance";
+    assertThat(phases)
+        .containsExactly(
+            ConnectPhase.METADATA_WAIT,
+            instanceName,
+            ConnectPhase.TCP_CONNECT,
+            instanceName,
+            ConnectPhase.TLS_HANDSHAKE,
+            instanceName);
+  }
+
+  @Test
+  public void create_usesKeyPairSupplier() throws Exception {
+    FakeSslServer sslServer = new FakeSslServer();
+    AtomicInteger supplierCalls = new AtomicInteger();
+    CountDownLatch keyPairReady = new CountDownLatch(1);
+    ConnectionConfig config =
+        new ConnectionConfig.Builder()
+            .withCloudSqlInstance("myProject:myRegion:myInstance")
+            .withIpTypes("PRIMARY")
+            .withConnectorConfig(
+                new ConnectorConfig.Builder()
+                    .withKeyPairSupplier(
+                        () -> {
+                          supplierCalls.incrementAndGet();
+                          return TestKeys.getClientKeyPair();
+                        })
+                    .withConnectorMetrics(
+                        new ConnectorMetrics() {
+                          @Override
+                          public void recordConnectPhase(
+                              String instanceName, ConnectPhase phase, long durationNanos) {}
+
+                          @Override
+                          public void recordKeyPairReady(long durationNanos) {
+                            keyPairReady.countDown();
+                          }
+                        })
+                    .build())
+            .build();
+
+    int port = sslServer.start(PUBLIC_IP);
+
+    Connector connector = newConnector(config.getConnectorConfig(), port, null, null, false);
+
+    Socket socket = connector.connect(config, TEST_MAX_REFRESH_MS);
+
+    assertThat(readLine(socket)).isEqualTo(SERVER_MESSAGE);
+    assertThat(supplierCalls.get()).isEqualTo(1);
+    assertThat(keyPairReady.await(TEST_MAX_REFRESH_MS, TimeUnit.MILLISECONDS)).isTrue();
+  }
+
+  @Test
+  public void getConnection_evictsLeastRecentlyUsedInstance() throws Exception {
+    ConnectorConfig connectorConfig = new ConnectorConfig.Builder().withMaxInstances(2).build();
+    Connector connector =
+        newConnector(connectorConfig, DEFAULT_SERVER_PROXY_PORT, null, null, false);
+    ConnectionConfig first = newConnectionConfig("myProject:myRegion:first", connectorConfig);
+    ConnectionConfig second = newConnectionConfig("myProject:myRegion:second", connectorConfig);
+    ConnectionConfig third = newConnectionConfig("myProject:myRegion:third", connectorConfig);
+
+    MonitoredCache firstInstance = connector.getConnection(first);
+    Thread.sleep(5);
+    MonitoredCache secondInstance = connector.getConnection(second);
+    Thread.sleep(5);
+    connector.getConnection(first);
+    Thread.sleep(5);
+    connector.getConnection(third);
+
+    assertThat(connector.getInstanceCount()).isEqualTo(2);
+    assertThat(connector.getEvictionCount(EvictionCause.SIZE)).isEqualTo(1);
+    assertThat(secondInstance.isClosed()).isTrue();
+    assertThat(firstInstance.isClosed()).isFalse();
+    assertThat(connector.getConnection(first)).isSameInstanceAs(firstInstance);
+    connector.close();
+  }
+
+  @Test
+  public void getConnection_evictsIdleInstances() throws Exception {
+    ConnectorConfig connectorConfig =
+        new ConnectorConfig.Builder().withInstanceIdleTimeout(Duration.ofMillis(50)).build();
+    Connector connector =
+        newConnector(connectorConfig, DEFAULT_SERVER_PROXY_PORT, null, null, false);
+    ConnectionConfig config = newConnectionConfig("myProject:myRegion:myInstance", connectorConfig);
+
+    MonitoredCache instance = connector.getConnection(config);
+
+    long deadline = System.currentTimeMillis() + TEST_MAX_REFRESH_MS;
+    while (connector.getInstanceCount() > 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertThat(connector.getInstanceCount()).isEqualTo(0);
+    assertThat(connector.getEvictionCount(EvictionCause.IDLE)).isEqualTo(1);
+    assertThat(instance.isClosed()).isTrue();
+    assertThat(connector.getConnection(config)).isNotSameInstanceAs(instance);
+    connector.close();
+  }
+
+  @Test
+  public void prewarm_reportsReadinessOfEachInstance() throws Exception {
+    ConnectorConfig connectorConfig = new ConnectorConfig.Builder().build();
+    Connector connector =
+        newConnector(connectorConfig, DEFAULT_SERVER_PROXY_PORT, null, null, false);
+    ConnectionConfig first = newConnectionConfig("myProject:myRegion:myInstance", connectorConfig);
+    ConnectionConfig second = newConnectionConfig("myProject:myRegion:other", connectorConfig);
+
+    Map<String, Duration> readiness =
+        connector
+            .prewarm(Arrays.asList(first, second), TEST_MAX_REFRESH_MS)
+            .get(TEST_MAX_REFRESH_MS, TimeUnit.MILLISECONDS);
+
+    assertThat(readiness.keySet())
+        .containsExactly("myProject:myRegion:myInstance", "myProject:myRegion:other");
+    assertThat(connector.getInstanceCount()).isEqualTo(2);
+    // The refresh ahead strategy completes the prewarm without a thread waiting for it.
+    for (Thread t : Thread.getAllStackTraces().keySet()) {
+      assertThat(t.getName()).isNotEqualTo("CloudSqlPrewarm");
+    }
+    connector.close();
+  }
+
+  @Test
+  public void prewarm_refreshesLazyInstances() throws Exception {
+    ConnectorConfig connectorConfig =
+        new ConnectorConfig.Builder().withRefreshStrategy(RefreshStrategy.LAZY).build();
+    Connector connector =
+        newConnector(connectorConfig, DEFAULT_SERVER_PROXY_PORT, null, null, false);
+    ConnectionConfig config = newConnectionConfig("myProject:myRegion:myInstance", connectorConfig);
+
+    Map<String, Duration> readiness =
+        connector
+            .prewarm(Collections.singletonList(config), TEST_MAX_REFRESH_MS)
+            .get(TEST_MAX_REFRESH_MS, TimeUnit.MILLISECONDS);
+
+    assertThat(readiness.keySet()).containsExactly("myProject:myRegion:myInstance");
+    connector.close();
+  }
+
+  private static ConnectionConfig newConnectionConfig(
+      String instanceName, ConnectorConfig connectorConfig) {
+    return new ConnectionConfig.Builder()
+        .withCloudSqlInstance(instanceName)
+        .withIpTypes("PRIMARY")
+        .withConnectorConfig(connectorConfig)
+        .build();
+  }
+
+  @Test
+  public void create_throwsTimeoutWhenHandshakeDoesNotComplete() throws IOException {
+    ConnectionConfig config =
+        new ConnectionConfig.Builder()
+            .withCloudSqlInstance("myProject:myRegion:myInstance")
+            .withIpTypes("PRIMARY")
+            .build();
+
+    // The server accepts the TCP connection but never answers the TLS handshake.
+    try (ServerSocket server = new ServerSocket(0, 5, InetAddress.getByName(PUBLIC_IP))) {
+      Connector connector =
+          newConnector(config.getConnectorConfig(), server.getLocalPort(), null, null, false);
+      // Wait for the connection info, so that the timeout below only covers the handshake.
+      connector.getConnection(config).getConnectionMetadata(TEST_MAX_REFRESH_MS);
+
+      long start = System.currentTimeMillis();
+      assertThrows(SocketTimeoutException.class, () -> connector.connect(config, 500));
+
+      assertThat(System.currentTimeMillis() - start).isLessThan(TEST_MAX_REFRESH_MS);
+    }
+  }
+
+  @Test
+  public void create_waitsForHandshakesToTheSameInstance() throws Exception {
+    ConnectionConfig config =
+        new ConnectionConfig.Builder()
+            .withCloudSqlInstance("myProject:myRegion:myInstance")
+            .withIpTypes("PRIMARY")
+            .withConnectorConfig(
+                new ConnectorConfig.Builder().withMaxConcurrentHandshakes(1).build())
+            .build();
+
+    // The server accepts the TCP connection but never answers the TLS handshake.
+    try (ServerSocket server = new ServerSocket(0, 5, InetAddress.getByName(PUBLIC_IP))) {
+      Connector connector =
+          newConnector(config.getConnectorConfig(), server.getLocalPort(), null, null, false);
+      MonitoredCache instance = connector.getConnection(config);
+      instance.getConnectionMetadata(TEST_MAX_REFRESH_MS);
+
+      Thread first =
+          new Thread(
+              () -> {
+                try {
+                  connector.connect(config, 2000);
+                } catch (IOException e) {
+                  // Expected, the handshake never completes.
+                }
+              });
+      first.start();
+      while (instance.getHandshakeLimiter().getActiveCount() == 0) {
+        Thread.sleep(10);
+      }
+
+      // The second connection waits for the first handshake, and times out first.
+      assertThrows(
+          HandshakeLimiter.QueueTimeoutException.class, () -> connector.connect(config, 200));
+      first.join();
+      assertThat(instance.getHandshakeLimiter().getActiveCount()).isEqualTo(0);
+    }
+  }
+
   @Test
   public void create_successfulPrivateConnection_UsesInstanceName_DomainNameIgnored()
       throws IOException, InterruptedException {
@@ -262,12 +506,15 @@ public class ConnectorTest extends CloudSqlCoreTestingBase {
     FakeSslServer myInstance =
         new FakeSslServer(
             TestKeys.getServerKeyPair().getPrivate(), TestKeys.getCasServerCertChain());
+    Duration testFailoverPeriod = Duration.ofSeconds(1);
 
     ConnectionConfig config =
         new ConnectionConfig.Builder()
             .withDomainName("db.example.com")
             .withIpTypes("PRIMARY")
             .withIpTypes(Collections.singletonList(IpType.PRIVATE))
+            .withConnectorConfig(
+                new ConnectorConfig.Builder().withFailoverPeriod(testFailoverPeriod).build())
             .build();
 
     int port = myInstance.start(PRIVATE_IP);
@@ -298,6 +545,9 @@ public class ConnectorTest extends CloudSqlCoreTestingBase {
     myInstance.stop();
     myInstance.start(PRIVATE_IP_2, port, TestKeys.getCasServerCertChain2());
 
+    // Wait for the resolved instance name to be refreshed in the background.
+    Thread.sleep(testFailoverPeriod.toMillis() * 2);
+
     // Attempt to connect to the new instance
     Socket socket2 = connector.connect(config, TEST_MAX_REFRESH_MS);
     assertThat(readLine(socket2)).isEqualTo(SERVER_MESSAGE);
@@ -987,6 +1237,85 @@ public class ConnectorTest extends CloudSqlCoreTestingBase {
     assertThat(readLine(socket)).isEqualTo(SERVER_MESSAGE);
   }
 
+  @Test
+  public void retriesAccessTokenWithConfiguredRetryPolicy() {
+    AtomicInteger attempts = new AtomicInteger();
+    AtomicInteger classified = new AtomicInteger();
+    AtomicInteger retries = new AtomicInteger();
+    CredentialFactory failingCredentialFactory =
+        new CredentialFactory() {
+          @Override
+          public HttpRequestInitializer create() {
+            return new StubCredentialFactory("foo", null).create();
+          }
+
+          @Override
+          public GoogleCredentials getCredentials() {
+            return new GoogleCredentials(GoogleCredentials.newBuilder()) {
+              @Override
+              public AccessToken refreshAccessToken() throws IOException {
+                attempts.incrementAndGet();
+                throw new IOException("token endpoint unavailable");
+              }
+            };
+          }
+        };
+    ConnectorConfig connectorConfig =
+        new ConnectorConfig.Builder()
+            .withRetryPolicy(
+                new RetryPolicy.Builder()
+                    .withMaxAttempts(3)
+                    .withInitialBackoff(Duration.ofMillis(1))
+                    .withRetryable(
+                        t -> {
+                          classified.incrementAndGet();
+                          return true;
+                        })
+                    .build())
+            .withConnectorMetrics(
+                new ConnectorMetrics() {
+                  @Override
+                  public void recordConnectPhase(
+                      String instanceName, ConnectPhase phase, long durationNanos) {}
+
+                  @Override
+                  public void recordRetry(String endpoint) {
+                    if (DefaultAccessTokenSupplier.ACCESS_TOKEN.equals(endpoint)) {
+                      retries.incrementAndGet();
+                    }
+                  }
+                })
+            .build();
+    ConnectionConfig config =
+        new ConnectionConfig.Builder()
+            .withCloudSqlInstance("myProject:myRegion:myInstance")
+            .withIpTypes("PRIMARY")
+            .withAuthType(AuthType.IAM)
+            .withConnectorConfig(connectorConfig)
+            .build();
+    Connector c =
+        new Connector(
+            connectorConfig,
+            new StubConnectionInfoRepositoryFactory(
+                fakeSuccessHttpTransport(Duration.ofSeconds(0))),
+            failingCredentialFactory,
+            defaultExecutor,
+            clientKeyPair,
+            10,
+            TEST_MAX_REFRESH_MS,
+            DEFAULT_SERVER_PROXY_PORT,
+            new MockDnsResolver(),
+            new ProtocolHandler("test"));
+
+    assertThrows(RuntimeException.class, () -> c.connect(config, TEST_MAX_REFRESH_MS));
+    c.close();
+
+    // Each refresh makes at most 3 attempts to get a token, and asks the policy about each failure.
+    assertThat(attempts.get()).isAtLeast(3);
+    assertThat(classified.get()).isAtLeast(2);
+    assertThat(retries.get()).isAtLeast(2);
+  }
+
   @Test
   public void doesNotSupportNonGoogleCredentialWithIAM() throws InterruptedException {
     class BasicAuthStubCredentialFactory implements CredentialFactory {
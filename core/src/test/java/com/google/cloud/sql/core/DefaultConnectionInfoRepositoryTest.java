@@ -19,7 +19,9 @@ package com.google.cloud.sql.core;
 import static com.google.common.truth.Truth.assertThat;
 import static org.junit.Assert.assertThrows;
 
+import com.google.api.client.testing.http.MockHttpTransport;
 import com.google.api.services.sqladmin.model.DnsNameMapping;
+import com.google.auth.http.HttpTransportFactory;
 import com.google.cloud.sql.AuthType;
 import com.google.cloud.sql.ConnectorConfig;
 import com.google.cloud.sql.IpType;
@@ -79,6 +81,93 @@ public class DefaultConnectionInfoRepositoryTest {
     assertThat(ipAddrs.get(IpType.PSC)).containsExactly(SAMPLE_PCS_DNS_NAME);
   }
 
+  @Test
+  public void testFetchInstanceData_reusesMetadataWithinCacheTtl()
+      throws ExecutionException, InterruptedException, GeneralSecurityException,
+          OperatorCreationException {
+    // Only one connect settings response is available, so a second metadata request would fail.
+    MockAdminApi mockAdminApi =
+        buildMockAdminApi(INSTANCE_CONNECTION_NAME, DATABASE_VERSION, DEFAULT_BASE_URL, false);
+    mockAdminApi.addGenerateEphemeralCertResponse(
+        INSTANCE_CONNECTION_NAME, Duration.ofHours(1), DEFAULT_BASE_URL);
+    ConnectorConfig config =
+        new ConnectorConfig.Builder().withMetadataCacheTtl(Duration.ofHours(2)).build();
+    ConnectionInfoRepository repo =
+        new StubConnectionInfoRepositoryFactory(mockAdminApi.getHttpTransport())
+            .create(new StubCredentialFactory().create(), config);
+    CloudSqlInstanceName instanceName = new CloudSqlInstanceName(INSTANCE_CONNECTION_NAME);
+    ListeningScheduledExecutorService executor = newTestExecutor();
+
+    ConnectionInfo first =
+        repo.getConnectionInfo(
+                instanceName,
+                () -> Optional.empty(),
+                AuthType.PASSWORD,
+                executor,
+                Futures.immediateFuture(mockAdminApi.getClientKeyPair()))
+            .get();
+    ConnectionInfo second =
+        repo.getConnectionInfo(
+                instanceName,
+                () -> Optional.empty(),
+                AuthType.PASSWORD,
+                executor,
+                Futures.immediateFuture(mockAdminApi.getClientKeyPair()))
+            .get();
+
+    assertThat(second.getInstanceMetadata()).isSameInstanceAs(first.getInstanceMetadata());
+    assertThat(second.getEphemeralCertificate())
+        .isNotSameInstanceAs(first.getEphemeralCertificate());
+  }
+
+  @Test
+  public void testClose_releasesSharedTransport() {
+    HttpTransportFactory transportFactory = MockHttpTransport::new;
+    ConnectorConfig config =
+        new ConnectorConfig.Builder().withHttpTransportFactory(transportFactory).build();
+    DefaultConnectionInfoRepositoryFactory factory =
+        new DefaultConnectionInfoRepositoryFactory("test-user-agent");
+
+    DefaultConnectionInfoRepository first =
+        factory.create(new StubCredentialFactory().create(), config);
+    DefaultConnectionInfoRepository second =
+        factory.create(new StubCredentialFactory().create(), config);
+    assertThat(AdminApiTransports.getClientCount(transportFactory)).isEqualTo(2);
+
+    first.close();
+    first.close();
+    assertThat(AdminApiTransports.getClientCount(transportFactory)).isEqualTo(1);
+
+    second.close();
+    assertThat(AdminApiTransports.getClientCount(transportFactory)).isEqualTo(0);
+  }
+
+  @Test
+  public void testRemoveInstance_forgetsCertificateExpiration()
+      throws ExecutionException, InterruptedException, GeneralSecurityException,
+          OperatorCreationException {
+    MockAdminApi mockAdminApi =
+        buildMockAdminApi(INSTANCE_CONNECTION_NAME, DATABASE_VERSION, DEFAULT_BASE_URL, false);
+    ConnectorConfig config = new ConnectorConfig.Builder().withAdminApiRateLimit(100).build();
+    DefaultConnectionInfoRepository repo =
+        (DefaultConnectionInfoRepository)
+            new StubConnectionInfoRepositoryFactory(mockAdminApi.getHttpTransport())
+                .create(new StubCredentialFactory().create(), config);
+    CloudSqlInstanceName instanceName = new CloudSqlInstanceName(INSTANCE_CONNECTION_NAME);
+
+    repo.getConnectionInfo(
+            instanceName,
+            () -> Optional.empty(),
+            AuthType.PASSWORD,
+            newTestExecutor(),
+            Futures.immediateFuture(mockAdminApi.getClientKeyPair()))
+        .get();
+    assertThat(repo.getCertificateExpirationCount()).isEqualTo(1);
+
+    repo.removeInstance(instanceName);
+    assertThat(repo.getCertificateExpirationCount()).isEqualTo(0);
+  }
+
   @Test
   public void testFetchInstanceData_returnsPscForNonIpDatabase()
       throws ExecutionException, InterruptedException, GeneralSecurityException,
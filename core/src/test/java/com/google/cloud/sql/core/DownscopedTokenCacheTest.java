@@ -0,0 +1,272 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import static com.google.cloud.sql.core.RefreshCalculator.DEFAULT_REFRESH_BUFFER;
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.auth.oauth2.AccessToken;
+import com.google.cloud.sql.ConnectorMetrics;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class DownscopedTokenCacheTest {
+
+  @Test
+  public void testGet_reusesTokenUntilHalfOfLifetime() throws Exception {
+    AtomicInteger fetches = new AtomicInteger();
+    DownscopedTokenCache cache =
+        new DownscopedTokenCache(
+            () -> Optional.of(newToken("token" + fetches.incrementAndGet(), Duration.ofHours(1))));
+
+    for (int i = 0; i < 10; i++) {
+      assertThat(cache.get().get().getTokenValue()).isEqualTo("token1");
+    }
+    assertThat(cache.getFetchCount()).isEqualTo(1);
+    assertThat(cache.getHitCount()).isEqualTo(9);
+  }
+
+  @Test
+  public void testGet_fetchesNewTokenWhenExpiringSoon() throws Exception {
+    AtomicInteger fetches = new AtomicInteger();
+    // The token expires within the refresh buffer, so it is never reused.
+    DownscopedTokenCache cache =
+        new DownscopedTokenCache(
+            () ->
+                Optional.of(newToken("token" + fetches.incrementAndGet(), Duration.ofMinutes(3))));
+
+    assertThat(cache.get().get().getTokenValue()).isEqualTo("token1");
+    assertThat(cache.get().get().getTokenValue()).isEqualTo("token2");
+    assertThat(cache.getFetchCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void testGet_doesNotCacheTokenWithoutExpiration() throws Exception {
+    AtomicInteger fetches = new AtomicInteger();
+    DownscopedTokenCache cache =
+        new DownscopedTokenCache(
+            () -> Optional.of(new AccessToken("token" + fetches.incrementAndGet(), null)));
+
+    cache.get();
+    cache.get();
+
+    assertThat(fetches.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void testGet_concurrentCallersShareOneFetch() throws Exception {
+    AtomicInteger fetches = new AtomicInteger();
+    DownscopedTokenCache cache =
+        new DownscopedTokenCache(
+            () -> {
+              fetches.incrementAndGet();
+              try {
+                Thread.sleep(100);
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+              return Optional.of(newToken("token", Duration.ofHours(1)));
+            });
+    ExecutorService threads = Executors.newFixedThreadPool(20);
+
+    try {
+      List<Future<Optional<AccessToken>>> results = new ArrayList<>();
+      for (int i = 0; i < 20; i++) {
+        results.add(threads.submit(cache::get));
+      }
+      for (Future<Optional<AccessToken>> f : results) {
+        assertThat(f.get(5, TimeUnit.SECONDS).get().getTokenValue()).isEqualTo("token");
+      }
+    } finally {
+      threads.shutdownNow();
+    }
+    assertThat(fetches.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void testGetAsync_callersShareOneFetchWithoutBlocking() throws Exception {
+    AtomicInteger fetches = new AtomicInteger();
+    SettableFuture<Optional<AccessToken>> fetch = SettableFuture.create();
+    DownscopedTokenCache cache =
+        new DownscopedTokenCache(
+            new AccessTokenSupplier() {
+              @Override
+              public Optional<AccessToken> get() {
+                throw new AssertionError("The token must be fetched asynchronously");
+              }
+
+              @Override
+              public ListenableFuture<Optional<AccessToken>> getAsync(
+                  ListeningScheduledExecutorService executor) {
+                fetches.incrementAndGet();
+                return fetch;
+              }
+            });
+
+    List<ListenableFuture<Optional<AccessToken>>> results = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      results.add(cache.getAsync(null));
+    }
+    // Cancelling one caller's future does not cancel the fetch shared with the others.
+    results.get(0).cancel(true);
+
+    assertThat(fetches.get()).isEqualTo(1);
+    assertThat(fetch.isCancelled()).isFalse();
+    fetch.set(Optional.of(newToken("token", Duration.ofHours(1))));
+    for (ListenableFuture<Optional<AccessToken>> f : results.subList(1, results.size())) {
+      assertThat(f.get(5, TimeUnit.SECONDS).get().getTokenValue()).isEqualTo("token");
+    }
+
+    assertThat(cache.getAsync(null).isDone()).isTrue();
+    assertThat(cache.get().get().getTokenValue()).isEqualTo("token");
+    assertThat(fetches.get()).isEqualTo(1);
+    assertThat(cache.getFetchCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testGetAsync_fetchesAgainAfterFailure() throws Exception {
+    AtomicInteger fetches = new AtomicInteger();
+    DownscopedTokenCache cache =
+        new DownscopedTokenCache(
+            new AccessTokenSupplier() {
+              @Override
+              public Optional<AccessToken> get() {
+                throw new AssertionError("The token must be fetched asynchronously");
+              }
+
+              @Override
+              public ListenableFuture<Optional<AccessToken>> getAsync(
+                  ListeningScheduledExecutorService executor) {
+                if (fetches.incrementAndGet() == 1) {
+                  return Futures.immediateFailedFuture(new IOException("unavailable"));
+                }
+                return Futures.immediateFuture(
+                    Optional.of(newToken("token", Duration.ofHours(1))));
+              }
+            });
+
+    assertThat(cache.getAsync(null).isDone()).isTrue();
+    assertThat(cache.getAsync(null).get().get().getTokenValue()).isEqualTo("token");
+    assertThat(fetches.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void testScheduler_replacesTokenBeforeItMustBeReplaced() throws Exception {
+    AtomicInteger fetches = new AtomicInteger();
+    List<Boolean> recorded = new ArrayList<>();
+    ConnectorMetrics metrics =
+        new ConnectorMetrics() {
+          @Override
+          public void recordConnectPhase(String instanceName, ConnectPhase phase, long nanos) {}
+
+          @Override
+          public synchronized void recordTokenFetch(long durationNanos, boolean success) {
+            recorded.add(success);
+          }
+        };
+    ListeningScheduledExecutorService scheduler =
+        MoreExecutors.listeningDecorator(Executors.newSingleThreadScheduledExecutor());
+    // The first token must be replaced 200 ms after it is fetched, the next one in 30 minutes.
+    DownscopedTokenCache cache =
+        new DownscopedTokenCache(
+            () -> {
+              int n = fetches.incrementAndGet();
+              Duration lifetime =
+                  n == 1 ? DEFAULT_REFRESH_BUFFER.plusMillis(200) : Duration.ofHours(1);
+              return Optional.of(newToken("token" + n, lifetime));
+            },
+            scheduler,
+            metrics);
+
+    try {
+      assertThat(cache.get().get().getTokenValue()).isEqualTo("token1");
+      for (int i = 0; i < 50 && fetches.get() < 2; i++) {
+        Thread.sleep(100);
+      }
+
+      // The token was replaced without a caller asking for it.
+      assertThat(cache.get().get().getTokenValue()).isEqualTo("token2");
+      assertThat(fetches.get()).isEqualTo(2);
+      synchronized (metrics) {
+        assertThat(recorded).containsExactly(true, true);
+      }
+    } finally {
+      cache.close();
+      scheduler.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testAcquire_sharesCacheByCredentialIdentity() {
+    AtomicInteger created = new AtomicInteger();
+    Supplier<DownscopedTokenCache> factory =
+        () -> {
+          created.incrementAndGet();
+          return new DownscopedTokenCache(Optional::empty);
+        };
+
+    DownscopedTokenCache first = DownscopedTokenCache.acquire("serviceAccount:a||", factory);
+    DownscopedTokenCache second = DownscopedTokenCache.acquire("serviceAccount:a||", factory);
+    DownscopedTokenCache other = DownscopedTokenCache.acquire("serviceAccount:b||", factory);
+    DownscopedTokenCache unknown = DownscopedTokenCache.acquire(null, factory);
+    DownscopedTokenCache unknown2 = DownscopedTokenCache.acquire(null, factory);
+
+    assertThat(second).isSameInstanceAs(first);
+    assertThat(other).isNotSameInstanceAs(first);
+    assertThat(unknown2).isNotSameInstanceAs(unknown);
+    assertThat(created.get()).isEqualTo(4);
+
+    // The cache is shared until the last connector releases it.
+    first.release();
+    assertThat(DownscopedTokenCache.acquire("serviceAccount:a||", factory))
+        .isSameInstanceAs(second);
+    second.release();
+    second.release();
+    DownscopedTokenCache third = DownscopedTokenCache.acquire("serviceAccount:a||", factory);
+    assertThat(third).isNotSameInstanceAs(second);
+    assertThat(created.get()).isEqualTo(5);
+
+    third.release();
+    other.release();
+    unknown.release();
+    unknown2.release();
+  }
+
+  private static AccessToken newToken(String value, Duration lifetime) {
+    return new AccessToken(value, Date.from(Instant.now().plus(lifetime)));
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class HandshakeLimiterTest {
+  private final ExecutorService threads = Executors.newCachedThreadPool();
+
+  @After
+  public void tearDown() {
+    threads.shutdownNow();
+  }
+
+  @Test
+  public void testAcquire_allowsUpToLimit() throws Exception {
+    HandshakeLimiter limiter = new HandshakeLimiter(2);
+
+    limiter.acquire(new ConnectDeadline(1000));
+    limiter.acquire(new ConnectDeadline(1000));
+
+    assertThat(limiter.getActiveCount()).isEqualTo(2);
+    limiter.release();
+    assertThat(limiter.getActiveCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testAcquire_timesOutWhenLimitReached() throws Exception {
+    HandshakeLimiter limiter = new HandshakeLimiter(1);
+    limiter.acquire(new ConnectDeadline(1000));
+
+    HandshakeLimiter.QueueTimeoutException ex =
+        assertThrows(
+            HandshakeLimiter.QueueTimeoutException.class,
+            () -> limiter.acquire(new ConnectDeadline(100)));
+
+    assertThat(ex).hasMessageThat().contains("timed out after 100 ms");
+    assertThat(limiter.getActiveCount()).isEqualTo(1);
+    assertThat(limiter.getQueueLength()).isEqualTo(0);
+  }
+
+  @Test
+  public void testAcquire_waitersProceedInArrivalOrder() throws Exception {
+    HandshakeLimiter limiter = new HandshakeLimiter(1);
+    limiter.acquire(new ConnectDeadline(1000));
+    List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+    List<Future<?>> waiters = new ArrayList<>();
+
+    for (int i = 0; i < 5; i++) {
+      final int n = i;
+      waiters.add(
+          threads.submit(
+              () -> {
+                limiter.acquire(new ConnectDeadline(10000));
+                order.add(n);
+                limiter.release();
+                return null;
+              }));
+      // Wait for the waiter to be queued before starting the next one.
+      waitForQueueLength(limiter, i + 1);
+    }
+    limiter.release();
+
+    for (Future<?> f : waiters) {
+      f.get(5, TimeUnit.SECONDS);
+    }
+    assertThat(order).containsExactly(0, 1, 2, 3, 4).inOrder();
+    assertThat(limiter.getActiveCount()).isEqualTo(0);
+  }
+
+  private static void waitForQueueLength(HandshakeLimiter limiter, int length)
+      throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (limiter.getQueueLength() < length && System.currentTimeMillis() < deadline) {
+      Thread.sleep(5);
+    }
+    assertThat(limiter.getQueueLength()).isEqualTo(length);
+  }
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.cloud.sql.ConnectorMetrics;
+import com.google.cloud.sql.core.DnsResolver.ResolvedHost;
+import java.net.InetAddress;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class HostResolutionCacheTest {
+  private static final String HOST = "db.example.com";
+
+  private final List<Runnable> backgroundTasks = new ArrayList<>();
+
+  @Test
+  public void testResolve_cachesAddressesForTtl() throws Exception {
+    FakeResolver resolver = new FakeResolver(Duration.ofMinutes(1), "10.1.1.1");
+    HostResolutionCache cache = new HostResolutionCache(resolver, backgroundTasks::add);
+
+    List<InetAddress> first = cache.resolve(HOST);
+    List<InetAddress> second = cache.resolve(HOST);
+
+    assertThat(first.get(0).getHostAddress()).isEqualTo("10.1.1.1");
+    assertThat(second).isSameInstanceAs(first);
+    assertThat(resolver.lookups.get()).isEqualTo(1);
+    assertThat(cache.getMissCount()).isEqualTo(1);
+    assertThat(cache.getHitCount()).isEqualTo(1);
+    assertThat(backgroundTasks).isEmpty();
+  }
+
+  @Test
+  public void testResolve_recordsHitsAndMisses() throws Exception {
+    FakeResolver resolver = new FakeResolver(Duration.ofMinutes(1), "10.1.1.1");
+    List<Boolean> recorded = new ArrayList<>();
+    ConnectorMetrics metrics =
+        new ConnectorMetrics() {
+          @Override
+          public void recordConnectPhase(String instanceName, ConnectPhase phase, long nanos) {}
+
+          @Override
+          public void recordDnsLookup(String hostName, boolean hit) {
+            assertThat(hostName).isEqualTo(HOST);
+            recorded.add(hit);
+          }
+        };
+    HostResolutionCache cache = new HostResolutionCache(resolver, backgroundTasks::add, metrics);
+
+    cache.resolve(HOST);
+    cache.resolve(HOST);
+    cache.resolve(HOST);
+
+    assertThat(recorded).containsExactly(false, true, true).inOrder();
+  }
+
+  @Test
+  public void testResolve_looksUpAgainAfterTtl() throws Exception {
+    FakeResolver resolver = new FakeResolver(Duration.ofMillis(50), "10.1.1.1");
+    HostResolutionCache cache = new HostResolutionCache(resolver, backgroundTasks::add);
+
+    cache.resolve(HOST);
+    Thread.sleep(100);
+    resolver.addresses = "10.2.2.2";
+    List<InetAddress> addrs = cache.resolve(HOST);
+
+    assertThat(addrs.get(0).getHostAddress()).isEqualTo("10.2.2.2");
+    assertThat(resolver.lookups.get()).isEqualTo(2);
+    assertThat(cache.getMissCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void testResolve_doesNotCacheWithoutTtl() throws Exception {
+    FakeResolver resolver = new FakeResolver(Duration.ZERO, "10.1.1.1");
+    HostResolutionCache cache = new HostResolutionCache(resolver, backgroundTasks::add);
+
+    cache.resolve(HOST);
+    cache.resolve(HOST);
+
+    assertThat(resolver.lookups.get()).isEqualTo(2);
+    assertThat(cache.getHitCount()).isEqualTo(0);
+  }
+
+  @Test
+  public void testResolve_cachesFailedLookups() throws Exception {
+    FakeResolver resolver = new FakeResolver(Duration.ofMinutes(1), "10.1.1.1");
+    resolver.fail = true;
+    HostResolutionCache cache = new HostResolutionCache(resolver, backgroundTasks::add);
+
+    assertThrows(UnknownHostException.class, () -> cache.resolve(HOST));
+    resolver.fail = false;
+    assertThrows(UnknownHostException.class, () -> cache.resolve(HOST));
+
+    assertThat(resolver.lookups.get()).isEqualTo(1);
+    assertThat(cache.getHitCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testResolve_cachesEmptyLookups() throws Exception {
+    FakeResolver resolver = new FakeResolver(Duration.ofMinutes(1));
+    HostResolutionCache cache = new HostResolutionCache(resolver, backgroundTasks::add);
+
+    assertThat(cache.resolve(HOST)).isEmpty();
+    assertThat(cache.resolve(HOST)).isEmpty();
+
+    assertThat(resolver.lookups.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void testResolve_refreshesInBackgroundBeforeExpiry() throws Exception {
+    FakeResolver resolver = new FakeResolver(Duration.ofMillis(500), "10.1.1.1");
+    HostResolutionCache cache = new HostResolutionCache(resolver, backgroundTasks::add);
+
+    cache.resolve(HOST);
+    Thread.sleep(420);
+    resolver.addresses = "10.2.2.2";
+
+    // The cached entry is still returned, and one refresh is started.
+    assertThat(cache.resolve(HOST).get(0).getHostAddress()).isEqualTo("10.1.1.1");
+    assertThat(cache.resolve(HOST).get(0).getHostAddress()).isEqualTo("10.1.1.1");
+    assertThat(backgroundTasks).hasSize(1);
+
+    backgroundTasks.get(0).run();
+
+    assertThat(cache.resolve(HOST).get(0).getHostAddress()).isEqualTo("10.2.2.2");
+    assertThat(resolver.lookups.get()).isEqualTo(2);
+    assertThat(cache.getMissCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testResolve_keepsEntryWhenBackgroundRefreshFails() throws Exception {
+    FakeResolver resolver = new FakeResolver(Duration.ofMillis(500), "10.1.1.1");
+    HostResolutionCache cache = new HostResolutionCache(resolver, backgroundTasks::add);
+
+    cache.resolve(HOST);
+    Thread.sleep(420);
+    resolver.fail = true;
+    cache.resolve(HOST);
+    backgroundTasks.get(0).run();
+
+    assertThat(cache.resolve(HOST).get(0).getHostAddress()).isEqualTo("10.1.1.1");
+  }
+
+  @Test
+  public void testResolve_concurrentMissesShareOneLookup() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    FakeResolver resolver = new FakeResolver(Duration.ofMinutes(1), "10.1.1.1");
+    resolver.release = release;
+    HostResolutionCache cache = new HostResolutionCache(resolver, backgroundTasks::add);
+    ExecutorService threads = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<List<InetAddress>>> results = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        results.add(threads.submit(() -> cache.resolve(HOST)));
+      }
+      // Let all threads reach the cache before the lookup completes.
+      Thread.sleep(200);
+      release.countDown();
+
+      for (Future<List<InetAddress>> result : results) {
+        assertThat(result.get(5, TimeUnit.SECONDS).get(0).getHostAddress()).isEqualTo("10.1.1.1");
+      }
+      assertThat(resolver.lookups.get()).isEqualTo(1);
+    } finally {
+      threads.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testResolve_waitsForLookupUntilDeadline() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    FakeResolver resolver = new FakeResolver(Duration.ofMinutes(1), "10.1.1.1");
+    resolver.release = release;
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      HostResolutionCache cache = new HostResolutionCache(resolver, executor);
+
+      assertThrows(
+          SocketTimeoutException.class, () -> cache.resolve(HOST, new ConnectDeadline(100)));
+
+      // The lookup continues after the deadline, and the next connection waits for it.
+      release.countDown();
+      List<InetAddress> addrs = cache.resolve(HOST, new ConnectDeadline(5000));
+      assertThat(addrs.get(0).getHostAddress()).isEqualTo("10.1.1.1");
+      assertThat(resolver.lookups.get()).isEqualTo(1);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static class FakeResolver implements DnsResolver {
+    private final Duration ttl;
+    private final AtomicInteger lookups = new AtomicInteger();
+    private volatile String addresses;
+    private volatile boolean fail;
+    private volatile CountDownLatch release;
+
+    FakeResolver(Duration ttl) {
+      this.ttl = ttl;
+    }
+
+    FakeResolver(Duration ttl, String addresses) {
+      this.ttl = ttl;
+      this.addresses = addresses;
+    }
+
+    @Override
+    public Collection<String> resolveTxt(String domainName) {
+      return Collections.emptyList();
+    }
+
+    @Override
+    public String resolveCname(String domainName) {
+      return null;
+    }
+
+    @Override
+    public List<InetAddress> resolveHost(String hostName) throws UnknownHostException {
+      return resolveHostWithTtl(hostName).getAddresses();
+    }
+
+    @Override
+    public ResolvedHost resolveHostWithTtl(String hostName) throws UnknownHostException {
+      lookups.incrementAndGet();
+      if (release != null) {
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      if (fail) {
+        throw new UnknownHostException(hostName);
+      }
+      if (addresses == null) {
+        return new ResolvedHost(Collections.emptyList(), ttl);
+      }
+      return new ResolvedHost(Collections.singletonList(InetAddress.getByName(addresses)), ttl);
+    }
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.cloud.sql.AuthType;
+import com.google.cloud.sql.IpType;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class InstanceMetadataCacheTest {
+  private static final CloudSqlInstanceName INSTANCE_NAME =
+      new CloudSqlInstanceName("project:region:instance");
+
+  @Test
+  public void testGet_returnsMetadataWithinTtl() {
+    InstanceMetadataCache cache = new InstanceMetadataCache(Duration.ofHours(1));
+    InstanceMetadata metadata = newMetadata("10.1.1.1");
+
+    assertThat(cache.get(INSTANCE_NAME, AuthType.PASSWORD)).isNull();
+    cache.put(INSTANCE_NAME, AuthType.PASSWORD, metadata);
+
+    assertThat(cache.get(INSTANCE_NAME, AuthType.PASSWORD)).isSameInstanceAs(metadata);
+    assertThat(cache.get(INSTANCE_NAME, AuthType.IAM)).isNull();
+  }
+
+  @Test
+  public void testGet_returnsNullAfterTtl() throws Exception {
+    InstanceMetadataCache cache = new InstanceMetadataCache(Duration.ofMillis(10));
+    cache.put(INSTANCE_NAME, AuthType.PASSWORD, newMetadata("10.1.1.1"));
+
+    Thread.sleep(20);
+
+    assertThat(cache.get(INSTANCE_NAME, AuthType.PASSWORD)).isNull();
+  }
+
+  @Test
+  public void testPut_keepsMetadataWhenContentIsUnchanged() {
+    InstanceMetadataCache cache = new InstanceMetadataCache(Duration.ofHours(1));
+    InstanceMetadata metadata = newMetadata("10.1.1.1");
+    cache.put(INSTANCE_NAME, AuthType.PASSWORD, metadata);
+
+    assertThat(cache.put(INSTANCE_NAME, AuthType.PASSWORD, newMetadata("10.1.1.1")))
+        .isSameInstanceAs(metadata);
+
+    InstanceMetadata changed = newMetadata("10.2.2.2");
+    assertThat(cache.put(INSTANCE_NAME, AuthType.PASSWORD, changed)).isSameInstanceAs(changed);
+    assertThat(cache.get(INSTANCE_NAME, AuthType.PASSWORD)).isSameInstanceAs(changed);
+  }
+
+  @Test
+  public void testInvalidate_removesMetadataOfAllAuthTypes() {
+    InstanceMetadataCache cache = new InstanceMetadataCache(Duration.ofHours(1));
+    cache.put(INSTANCE_NAME, AuthType.PASSWORD, newMetadata("10.1.1.1"));
+    cache.put(INSTANCE_NAME, AuthType.IAM, newMetadata("10.1.1.1"));
+
+    cache.invalidate(INSTANCE_NAME);
+
+    assertThat(cache.get(INSTANCE_NAME, AuthType.PASSWORD)).isNull();
+    assertThat(cache.get(INSTANCE_NAME, AuthType.IAM)).isNull();
+  }
+
+  private static InstanceMetadata newMetadata(String ip) {
+    Map<IpType, List<String>> ipAddrs = new HashMap<>();
+    ipAddrs.put(IpType.PUBLIC, Collections.singletonList(ip));
+    return new InstanceMetadata(
+        INSTANCE_NAME, ipAddrs, Collections.emptyList(), false, "db.example.com", false, null);
+  }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.cloud.sql.ConnectorConfig;
+import com.google.common.util.concurrent.Uninterruptibles;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class InstanceNameCacheTest {
+  private final AtomicInteger lookups = new AtomicInteger();
+  private final AtomicReference<String> instanceName =
+      new AtomicReference<>("myProject:myRegion:myInstance");
+  private final InstanceNameCache cache =
+      new InstanceNameCache(
+          config -> {
+            lookups.incrementAndGet();
+            return new CloudSqlInstanceName(instanceName.get(), config.getDomainName());
+          });
+
+  @Test
+  public void testGet_resolvesOnce() {
+    ConnectionConfig config = newConfig(Duration.ofMinutes(1));
+
+    assertThat(cache.get(config).getConnectionName()).isEqualTo("myProject:myRegion:myInstance");
+    assertThat(cache.get(config).getConnectionName()).isEqualTo("myProject:myRegion:myInstance");
+    assertThat(lookups.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void testRefresh_updatesCachedName() {
+    ConnectionConfig config = newConfig(Duration.ofMinutes(1));
+    cache.get(config);
+
+    instanceName.set("myProject:myRegion:myInstance2");
+    cache.refresh(config);
+
+    assertThat(cache.get(config).getConnectionName()).isEqualTo("myProject:myRegion:myInstance2");
+    assertThat(lookups.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void testGet_resolvesAgainAfterTwoFailoverPeriods() throws Exception {
+    ConnectionConfig config = newConfig(Duration.ofMillis(50));
+    cache.get(config);
+
+    Thread.sleep(150);
+    cache.get(config);
+
+    assertThat(lookups.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void testRefresh_keepsCachedNameWhenResolveFails() {
+    ConnectionConfig config = newConfig(Duration.ofMinutes(1));
+    cache.get(config);
+
+    instanceName.set("not-an-instance-name");
+    assertThrows(IllegalArgumentException.class, () -> cache.refresh(config));
+
+    assertThat(cache.get(config).getConnectionName()).isEqualTo("myProject:myRegion:myInstance");
+  }
+
+  @Test
+  public void testGet_waitsForLookupUntilDeadline() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      InstanceNameCache slowCache =
+          new InstanceNameCache(
+              config -> {
+                lookups.incrementAndGet();
+                Uninterruptibles.awaitUninterruptibly(release);
+                return new CloudSqlInstanceName(instanceName.get(), config.getDomainName());
+              },
+              executor);
+      ConnectionConfig config = newConfig(Duration.ofMinutes(1));
+
+      assertThrows(
+          SocketTimeoutException.class, () -> slowCache.get(config, new ConnectDeadline(100)));
+
+      // The lookup continues after the deadline, and the next connection waits for it.
+      release.countDown();
+      assertThat(slowCache.get(config, new ConnectDeadline(5000)).getConnectionName())
+          .isEqualTo("myProject:myRegion:myInstance");
+      assertThat(lookups.get()).isEqualTo(1);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static ConnectionConfig newConfig(Duration failoverPeriod) {
+    return new ConnectionConfig.Builder()
+        .withDomainName("db.example.com")
+        .withConnectorConfig(
+            new ConnectorConfig.Builder().withFailoverPeriod(failoverPeriod).build())
+        .build();
+  }
+}
@@ -22,6 +22,7 @@ import static org.junit.Assert.assertThrows;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -205,6 +206,191 @@ public class LazyRefreshStrategyTest {
     assertThat(r.getConnectionInfo(TEST_TIMEOUT_MS)).isSameInstanceAs(data);
   }
 
+  @Test
+  public void testGetConnectionInfo_timesOutWaitingForAnotherRefresh() throws Exception {
+    ExampleData data = new ExampleData(Instant.now().plus(1, ChronoUnit.HOURS));
+    CountDownLatch refreshStarted = new CountDownLatch(1);
+    CountDownLatch finishRefresh = new CountDownLatch(1);
+
+    LazyRefreshStrategy r =
+        new LazyRefreshStrategy(
+            "LazyRefresherTest.testGetConnectionInfo_timesOutWaitingForAnotherRefresh",
+            () -> {
+              refreshStarted.countDown();
+              try {
+                finishRefresh.await();
+              } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+              }
+              return data;
+            },
+            Duration.ZERO);
+
+    Thread t1 = new Thread(() -> r.getConnectionInfo(TEST_TIMEOUT_MS));
+    t1.start();
+    refreshStarted.await();
+
+    // A second caller gives up after its timeout while the first refresh is still running.
+    RuntimeException ex = assertThrows(RuntimeException.class, () -> r.getConnectionInfo(100));
+    assertThat(ex).hasMessageThat().contains("within 100 ms");
+
+    finishRefresh.countDown();
+    t1.join();
+    assertThat(r.getConnectionInfo(TEST_TIMEOUT_MS)).isSameInstanceAs(data);
+  }
+
+  @Test
+  public void testGetConnectionInfo_usesUnexpiredInfoWhileAnotherThreadRefreshes()
+      throws Exception {
+    // The certificate is valid, but within the refresh buffer.
+    ExampleData initialData = new ExampleData(Instant.now().plus(10, ChronoUnit.MINUTES));
+    ExampleData data = new ExampleData(Instant.now().plus(1, ChronoUnit.HOURS));
+    AtomicInteger refreshCount = new AtomicInteger();
+    CountDownLatch refreshStarted = new CountDownLatch(1);
+    CountDownLatch finishRefresh = new CountDownLatch(1);
+
+    LazyRefreshStrategy r =
+        new LazyRefreshStrategy(
+            "LazyRefresherTest.testGetConnectionInfo_usesUnexpiredInfoWhileAnotherThreadRefreshes",
+            () -> {
+              if (refreshCount.getAndIncrement() == 0) {
+                return initialData;
+              }
+              refreshStarted.countDown();
+              try {
+                finishRefresh.await();
+              } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+              }
+              return data;
+            },
+            Duration.ofMinutes(30));
+    assertThat(r.getConnectionInfo(TEST_TIMEOUT_MS)).isSameInstanceAs(initialData);
+
+    Thread t1 = new Thread(() -> r.getConnectionInfo(TEST_TIMEOUT_MS));
+    t1.start();
+    refreshStarted.await();
+
+    // Other callers do not wait for the refresh while the certificate is still valid.
+    assertThat(r.getConnectionInfo(100)).isSameInstanceAs(initialData);
+
+    finishRefresh.countDown();
+    t1.join();
+    assertThat(r.getConnectionInfo(TEST_TIMEOUT_MS)).isSameInstanceAs(data);
+    assertThat(refreshCount.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void testGetConnectionInfo_usesUnexpiredInfoWhenRefreshFails() {
+    ExampleData initialData = new ExampleData(Instant.now().plus(10, ChronoUnit.MINUTES));
+    AtomicInteger refreshCount = new AtomicInteger();
+
+    LazyRefreshStrategy r =
+        new LazyRefreshStrategy(
+            "LazyRefresherTest.testGetConnectionInfo_usesUnexpiredInfoWhenRefreshFails",
+            () -> {
+              if (refreshCount.getAndIncrement() == 0) {
+                return initialData;
+              }
+              throw new RuntimeException("always fails");
+            },
+            Duration.ofMinutes(30));
+    assertThat(r.getConnectionInfo(TEST_TIMEOUT_MS)).isSameInstanceAs(initialData);
+
+    assertThat(r.getConnectionInfo(TEST_TIMEOUT_MS)).isSameInstanceAs(initialData);
+    assertThat(refreshCount.get()).isEqualTo(2);
+
+    // A forced refresh discards the current certificate, so the failure is reported.
+    r.forceRefresh();
+    assertThrows(RuntimeException.class, () -> r.getConnectionInfo(TEST_TIMEOUT_MS));
+  }
+
+  @Test
+  public void testGetConnectionInfo_waitsBeforeRetryingFailedRefresh() {
+    ExampleData initialData = new ExampleData(Instant.now().plus(10, ChronoUnit.MINUTES));
+    AtomicInteger refreshCount = new AtomicInteger();
+
+    LazyRefreshStrategy r =
+        new LazyRefreshStrategy(
+            "LazyRefresherTest.testGetConnectionInfo_waitsBeforeRetryingFailedRefresh",
+            () -> {
+              if (refreshCount.getAndIncrement() == 0) {
+                return initialData;
+              }
+              throw new RuntimeException("always fails");
+            },
+            Duration.ofMinutes(30));
+    r.getConnectionInfo(TEST_TIMEOUT_MS);
+
+    for (int i = 0; i < 100; i++) {
+      assertThat(r.getConnectionInfo(TEST_TIMEOUT_MS)).isSameInstanceAs(initialData);
+    }
+
+    // Only the first call after the initial refresh tried again, the others used the certificate.
+    assertThat(refreshCount.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void testGetRetryDelay_doublesUpToMaximum() {
+    assertThat(LazyRefreshStrategy.getRetryDelay(1)).isEqualTo(Duration.ofSeconds(1));
+    assertThat(LazyRefreshStrategy.getRetryDelay(2)).isEqualTo(Duration.ofSeconds(2));
+    assertThat(LazyRefreshStrategy.getRetryDelay(5)).isEqualTo(Duration.ofSeconds(16));
+    assertThat(LazyRefreshStrategy.getRetryDelay(6)).isEqualTo(Duration.ofSeconds(30));
+    assertThat(LazyRefreshStrategy.getRetryDelay(100)).isEqualTo(Duration.ofSeconds(30));
+  }
+
+  @Test
+  public void testGetConnectionInfo_usesAdaptiveRefreshBuffer() {
+    // Valid for 3 minutes: within the default buffer, but not within the buffer of a fast refresh.
+    ExampleData data = new ExampleData(Instant.now().plus(3, ChronoUnit.MINUTES));
+    AtomicInteger refreshCount = new AtomicInteger();
+    AdaptiveRefreshBuffer buffer = new AdaptiveRefreshBuffer("p:r:i", null);
+
+    LazyRefreshStrategy r =
+        new LazyRefreshStrategy(
+            "LazyRefresherTest.testGetConnectionInfo_usesAdaptiveRefreshBuffer",
+            () -> {
+              refreshCount.incrementAndGet();
+              return data;
+            },
+            RefreshCalculator.DEFAULT_REFRESH_BUFFER,
+            null,
+            buffer);
+
+    assertThat(r.getConnectionInfo(TEST_TIMEOUT_MS)).isSameInstanceAs(data);
+    assertThat(r.getRefreshBuffer()).isEqualTo(buffer.get());
+    assertThat(r.getRefreshBuffer()).isLessThan(RefreshCalculator.DEFAULT_REFRESH_BUFFER);
+
+    assertThat(r.getConnectionInfo(TEST_TIMEOUT_MS)).isSameInstanceAs(data);
+    assertThat(refreshCount.get()).isEqualTo(1);
+  }
+
+  @Test
+  public void testAddRefreshListener_calledAfterEachRefresh() {
+    ExampleData data = new ExampleData(Instant.now().plus(1, ChronoUnit.HOURS));
+    LazyRefreshStrategy r =
+        new LazyRefreshStrategy(
+            "LazyRefresherTest.testAddRefreshListener_calledAfterEachRefresh",
+            () -> data,
+            Duration.ZERO);
+    AtomicInteger calls = new AtomicInteger();
+
+    r.addRefreshListener(calls::incrementAndGet);
+    assertThat(calls.get()).isEqualTo(0);
+
+    r.getConnectionInfo(TEST_TIMEOUT_MS);
+    assertThat(calls.get()).isEqualTo(1);
+
+    r.forceRefresh();
+    r.getConnectionInfo(TEST_TIMEOUT_MS);
+    assertThat(calls.get()).isEqualTo(2);
+
+    // A listener added once connection info is available is called right away.
+    AtomicInteger lateCalls = new AtomicInteger();
+    r.addRefreshListener(lateCalls::incrementAndGet);
+    assertThat(lateCalls.get()).isEqualTo(1);
+  }
+
   @Test
   public void testClosedCloudSqlInstanceDataThrowsException() {
     ExampleData data = new ExampleData(Instant.now().plus(1, ChronoUnit.HOURS));
@@ -219,6 +405,23 @@ public class LazyRefreshStrategyTest {
     assertThrows(IllegalStateException.class, () -> r.forceRefresh());
   }
 
+  @Test
+  public void testClosedCloudSqlInstanceDataThrowsExceptionAfterSuccessfulRefresh() {
+    ExampleData data = new ExampleData(Instant.now().plus(1, ChronoUnit.HOURS));
+    LazyRefreshStrategy r =
+        new LazyRefreshStrategy(
+            "RefresherTest.testClosedCloudSqlInstanceDataThrowsExceptionAfterSuccessfulRefresh",
+            () -> data,
+            Duration.ZERO);
+    assertThat(r.getConnectionInfo(TEST_TIMEOUT_MS)).isSameInstanceAs(data);
+
+    r.close();
+
+    assertThat(r.isClosed()).isTrue();
+    assertThrows(IllegalStateException.class, () -> r.getConnectionInfo(TEST_TIMEOUT_MS));
+    assertThrows(IllegalStateException.class, () -> r.refreshIfExpired());
+  }
+
   private static class ExampleData extends ConnectionInfo {
     ExampleData(Instant expiration) {
       super(
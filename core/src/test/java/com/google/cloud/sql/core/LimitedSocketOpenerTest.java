@@ -0,0 +1,154 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class LimitedSocketOpenerTest {
+  private static final String BLACKHOLE_IP = "10.0.0.1";
+  private static final String GOOD_IP = "10.0.0.3";
+  private static final String INSTANCE_NAME = "myProject:myRegion:myInstance";
+  private static final ConnectPhaseRecorder NO_PHASES = new ConnectPhaseRecorder(null);
+
+  private StaggeredDialer dialer;
+
+  @Before
+  public void setUp() {
+    dialer = new StaggeredDialer(Duration.ofMillis(100));
+  }
+
+  @After
+  public void tearDown() {
+    dialer.close();
+  }
+
+  @Test
+  public void testConnect_takesPermitForEachAttempt() throws Exception {
+    HandshakeLimiter instanceLimiter = new HandshakeLimiter(2);
+    HandshakeLimiter connectorLimiter = new HandshakeLimiter(2);
+    FakeOpener opener = new FakeOpener(instanceLimiter, connectorLimiter);
+    LimitedSocketOpener limited =
+        new LimitedSocketOpener(opener, INSTANCE_NAME, instanceLimiter, connectorLimiter, NO_PHASES);
+
+    SSLSocket socket =
+        dialer.dial(Arrays.asList(BLACKHOLE_IP, GOOD_IP), limited, new ConnectDeadline(10000));
+
+    assertThat(socket).isSameInstanceAs(opener.sockets.get(GOOD_IP));
+    // Both attempts of the race held permits while the second attempt connected.
+    assertThat(opener.activeInstanceHandshakes).isEqualTo(2);
+    assertThat(opener.activeConnectorHandshakes).isEqualTo(2);
+    // The losing attempt returns its permits once it is aborted.
+    waitForActiveCount(instanceLimiter, 0);
+    waitForActiveCount(connectorLimiter, 0);
+  }
+
+  @Test
+  public void testConnect_waitsForPermitOfEarlierAttempt() throws Exception {
+    HandshakeLimiter connectorLimiter = new HandshakeLimiter(1);
+    FakeOpener opener = new FakeOpener(null, connectorLimiter);
+    LimitedSocketOpener limited =
+        new LimitedSocketOpener(opener, INSTANCE_NAME, null, connectorLimiter, NO_PHASES);
+
+    // The first attempt holds the only permit until the deadline, so the second attempt never
+    // starts its handshake.
+    assertThrows(
+        SocketTimeoutException.class,
+        () -> dialer.dial(Arrays.asList(BLACKHOLE_IP, GOOD_IP), limited, new ConnectDeadline(500)));
+
+    assertThat(opener.sockets.containsKey(GOOD_IP)).isFalse();
+    waitForActiveCount(connectorLimiter, 0);
+  }
+
+  private static void waitForActiveCount(HandshakeLimiter limiter, int expected)
+      throws InterruptedException {
+    for (int i = 0; i < 500 && limiter.getActiveCount() != expected; i++) {
+      Thread.sleep(10);
+    }
+    assertThat(limiter.getActiveCount()).isEqualTo(expected);
+  }
+
+  /**
+   * Simulates a blackholed address and a healthy address, and records the handshakes in progress
+   * when the healthy address connects.
+   */
+  private static class FakeOpener implements StaggeredDialer.SocketOpener {
+    private final Map<String, SSLSocket> sockets = new ConcurrentHashMap<>();
+    private final HandshakeLimiter instanceLimiter;
+    private final HandshakeLimiter connectorLimiter;
+    private final CountDownLatch blackholeConnecting = new CountDownLatch(1);
+    private volatile int activeInstanceHandshakes;
+    private volatile int activeConnectorHandshakes;
+
+    FakeOpener(HandshakeLimiter instanceLimiter, HandshakeLimiter connectorLimiter) {
+      this.instanceLimiter = instanceLimiter;
+      this.connectorLimiter = connectorLimiter;
+    }
+
+    @Override
+    public SSLSocket create() throws IOException {
+      try {
+        return (SSLSocket) SSLContext.getDefault().getSocketFactory().createSocket();
+      } catch (Exception e) {
+        throw new IOException(e);
+      }
+    }
+
+    @Override
+    public void connect(SSLSocket socket, String targetIp, int timeoutMs) throws IOException {
+      sockets.put(targetIp, socket);
+      if (BLACKHOLE_IP.equals(targetIp)) {
+        blackholeConnecting.countDown();
+        while (!socket.isClosed()) {
+          try {
+            Thread.sleep(10);
+          } catch (InterruptedException e) {
+            // keep waiting until the socket is closed
+          }
+        }
+        throw new IOException("Socket closed");
+      }
+      try {
+        // Creating the first socket may outlast the attempt delay, so wait for the first attempt.
+        blackholeConnecting.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException(e);
+      }
+      if (instanceLimiter != null) {
+        activeInstanceHandshakes = instanceLimiter.getActiveCount();
+      }
+      activeConnectorHandshakes = connectorLimiter.getActiveCount();
+    }
+  }
+}
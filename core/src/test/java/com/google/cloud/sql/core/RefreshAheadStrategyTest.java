@@ -19,6 +19,7 @@ package com.google.cloud.sql.core;
 import static com.google.common.truth.Truth.assertThat;
 import static org.junit.Assert.assertThrows;
 
+import com.google.cloud.sql.ConnectorMetrics;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListeningScheduledExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
@@ -28,6 +29,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -67,6 +69,75 @@ public class RefreshAheadStrategyTest {
     assertThat(gotInfo).isSameInstanceAs(data);
   }
 
+  @Test
+  public void testNextRefreshTimeIncludesJitter() throws Exception {
+    String name = "RefresherTest.testNextRefreshTimeIncludesJitter";
+    ExampleData data = new ExampleData(Instant.now().plus(2, ChronoUnit.HOURS));
+    AtomicReference<Instant> recorded = new AtomicReference<>();
+    ConnectorMetrics metrics =
+        new ConnectorMetrics() {
+          @Override
+          public void recordConnectPhase(String instanceName, ConnectPhase phase, long nanos) {}
+
+          @Override
+          public void recordNextRefresh(String instanceName, Instant nextRefresh) {
+            assertThat(instanceName).isEqualTo(name);
+            recorded.set(nextRefresh);
+          }
+        };
+    RefreshAheadStrategy r =
+        new RefreshAheadStrategy(
+            name,
+            executorService,
+            () -> Futures.immediateFuture(data),
+            rateLimiter,
+            true,
+            null,
+            null,
+            metrics);
+    r.getConnectionInfo(TEST_TIMEOUT_MS);
+
+    long deadline = System.currentTimeMillis() + TEST_TIMEOUT_MS;
+    while (recorded.get() == null && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertThat(recorded.get()).isEqualTo(r.getNextRefreshTime());
+
+    // Half of the 2 hour lifetime, moved earlier by the jitter of this process and instance.
+    long wantSeconds = 3600 - (long) (3600 * RefreshCalculator.withJitter(name).getJitter());
+    long gotSeconds = Instant.now().until(r.getNextRefreshTime(), ChronoUnit.SECONDS);
+    assertThat(gotSeconds).isAtLeast(wantSeconds - 5);
+    assertThat(gotSeconds).isAtMost(wantSeconds);
+    r.close();
+    assertThat(r.getNextRefreshTime()).isNull();
+  }
+
+  @Test
+  public void testInitialInfoIsUsedWhileFirstRefreshRuns() throws Exception {
+    ExampleData saved = new ExampleData(Instant.now().plus(1, ChronoUnit.HOURS));
+    ExampleData refreshed = new ExampleData(Instant.now().plus(1, ChronoUnit.HOURS));
+    PauseCondition cond = new PauseCondition();
+    RefreshAheadStrategy r =
+        new RefreshAheadStrategy(
+            "RefresherTest.testInitialInfoIsUsedWhileFirstRefreshRuns",
+            executorService,
+            () -> {
+              cond.pause();
+              return Futures.immediateFuture(refreshed);
+            },
+            rateLimiter,
+            true,
+            saved);
+
+    assertThat(r.getConnectionInfo(TEST_TIMEOUT_MS)).isSameInstanceAs(saved);
+
+    cond.proceed();
+    cond.waitForCondition(
+        () -> r.getConnectionInfo(TEST_TIMEOUT_MS) == refreshed, TEST_TIMEOUT_MS);
+    assertThat(r.getConnectionInfo(TEST_TIMEOUT_MS)).isSameInstanceAs(refreshed);
+    r.close();
+  }
+
   @Test
   public void testInstanceFailsOnConnectionError() {
     RefreshAheadStrategy r =
@@ -413,6 +484,56 @@ public class RefreshAheadStrategyTest {
     assertThrows(IllegalStateException.class, () -> r.forceRefresh());
   }
 
+  @Test
+  public void testClosedCloudSqlInstanceDataThrowsExceptionAfterSuccessfulRefresh() {
+    ExampleData data = new ExampleData(Instant.now().plus(1, ChronoUnit.HOURS));
+    RefreshAheadStrategy r =
+        new RefreshAheadStrategy(
+            "RefresherTest.testClosedCloudSqlInstanceDataThrowsExceptionAfterSuccessfulRefresh",
+            executorService,
+            () -> Futures.immediateFuture(data),
+            rateLimiter);
+    assertThat(r.getConnectionInfo(TEST_TIMEOUT_MS)).isSameInstanceAs(data);
+
+    r.close();
+
+    assertThat(r.isClosed()).isTrue();
+    assertThrows(IllegalStateException.class, () -> r.getConnectionInfo(TEST_TIMEOUT_MS));
+    assertThrows(IllegalStateException.class, () -> r.refreshIfExpired());
+  }
+
+  @Test
+  public void testGetConnectionInfo_returnsValidDataWhileRefreshRuns() throws Exception {
+    ExampleData data = new ExampleData(Instant.now().plus(1, ChronoUnit.HOURS));
+    ExampleData refreshedData = new ExampleData(Instant.now().plus(2, ChronoUnit.HOURS));
+    AtomicInteger refreshCount = new AtomicInteger();
+    final PauseCondition cond = new PauseCondition();
+    RefreshAheadStrategy r =
+        new RefreshAheadStrategy(
+            "RefresherTest.testGetConnectionInfo_returnsValidDataWhileRefreshRuns",
+            executorService,
+            () -> {
+              if (refreshCount.getAndIncrement() == 0) {
+                return Futures.immediateFuture(data);
+              }
+              cond.pause();
+              return Futures.immediateFuture(refreshedData);
+            },
+            rateLimiter);
+    assertThat(r.getConnectionInfo(TEST_TIMEOUT_MS)).isSameInstanceAs(data);
+
+    r.forceRefresh();
+    cond.waitForPauseToStart(1000);
+
+    // The current data is still valid, so it is returned while the refresh is paused.
+    assertThat(r.getConnectionInfo(TEST_TIMEOUT_MS)).isSameInstanceAs(data);
+    r.refreshIfExpired();
+
+    cond.proceed();
+    r.getNext().get();
+    assertThat(r.getConnectionInfo(TEST_TIMEOUT_MS)).isSameInstanceAs(refreshedData);
+  }
+
   @Test
   public void testClosedCloudSqlInstanceDataStopsRefreshTasks() throws Exception {
     ExampleData data = new ExampleData(Instant.now().plus(1, ChronoUnit.HOURS));
@@ -22,6 +22,8 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.Parameterized;
@@ -67,4 +69,34 @@ public class RefreshCalculatorTest {
             refreshCalculator.calculateSecondsUntilNextRefresh(NOW, NOW.plus(input)));
     assertThat(nextRefresh).isEqualTo(want);
   }
+
+  @Test
+  public void testJitterOnlyMovesRefreshesEarlier() {
+    final Instant NOW = Instant.now().truncatedTo(SECONDS);
+    for (int i = 0; i < 20; i++) {
+      RefreshCalculator c = RefreshCalculator.withJitter("pod-" + i, "p:r:i");
+      long got = c.calculateSecondsUntilNextRefresh(NOW, NOW.plus(input));
+      assertThat(got).isAtMost(want.getSeconds());
+      assertThat(got).isAtLeast((long) (want.getSeconds() * (1 - RefreshCalculator.MAX_JITTER)));
+    }
+  }
+
+  @Test
+  public void testJitterIsStableForProcessAndInstance() {
+    assertThat(RefreshCalculator.withJitter("pod-1", "p:r:i").getJitter())
+        .isEqualTo(RefreshCalculator.withJitter("pod-1", "p:r:i").getJitter());
+  }
+
+  @Test
+  public void testJitterSpreadsRefreshesAcrossProcesses() {
+    final Instant NOW = Instant.now().truncatedTo(SECONDS);
+    Set<Long> refreshTimes = new HashSet<>();
+    for (int i = 0; i < 20; i++) {
+      RefreshCalculator c = RefreshCalculator.withJitter("pod-" + i, "p:r:i");
+      assertThat(c.getJitter()).isAtLeast(0.0);
+      assertThat(c.getJitter()).isLessThan(RefreshCalculator.MAX_JITTER);
+      refreshTimes.add(c.calculateSecondsUntilNextRefresh(NOW, NOW.plus(Duration.ofHours(1))));
+    }
+    assertThat(refreshTimes.size()).isGreaterThan(10);
+  }
 }
@@ -18,6 +18,16 @@ package com.google.cloud.sql.core;
 
 import static com.google.common.truth.Truth.assertThat;
 
+import com.google.cloud.sql.RetryPolicy;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Assert;
 import org.junit.Test;
@@ -103,4 +113,162 @@ public class RetryingCallableTest {
     }
     assertThat(counter.get()).isEqualTo(1);
   }
+
+  @Test
+  public void testCallAsync_retrySucceedsAfterFailures() throws Exception {
+    // A single thread: if a retry slept on it, the next attempt could not run.
+    ListeningScheduledExecutorService executor =
+        MoreExecutors.listeningDecorator(Executors.newSingleThreadScheduledExecutor());
+    final AtomicInteger counter = new AtomicInteger();
+    RetryingCallable<Integer> r =
+        new RetryingCallable<>(
+            () -> {
+              int i = counter.incrementAndGet();
+              if (i < 3) {
+                throw new Exception("nope");
+              }
+              return i;
+            });
+
+    try {
+      ListenableFuture<Integer> f = r.callAsync(executor);
+      // While waiting to retry, the executor's thread is free to run other tasks.
+      assertThat(executor.submit(() -> "free").get(1, TimeUnit.SECONDS)).isEqualTo("free");
+
+      assertThat(f.get(10, TimeUnit.SECONDS)).isEqualTo(3);
+      assertThat(counter.get()).isEqualTo(3);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testCallAsync_stopsAfterFatalException() throws Exception {
+    ListeningScheduledExecutorService executor =
+        MoreExecutors.listeningDecorator(Executors.newSingleThreadScheduledExecutor());
+    final AtomicInteger counter = new AtomicInteger();
+    RetryingCallable<Integer> r =
+        new RetryingCallable<Integer>(
+            () -> {
+              counter.incrementAndGet();
+              throw new Exception("nope");
+            }) {
+          @Override
+          protected boolean isFatalException(Exception e) {
+            return true;
+          }
+        };
+
+    try {
+      ExecutionException ex =
+          Assert.assertThrows(
+              ExecutionException.class, () -> r.callAsync(executor).get(10, TimeUnit.SECONDS));
+      assertThat(ex).hasCauseThat().hasMessageThat().isEqualTo("nope");
+      assertThat(counter.get()).isEqualTo(1);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void testPolicy_limitsAttemptsAndCountsRetries() {
+    final AtomicInteger counter = new AtomicInteger();
+    RetryCounters counters = new RetryCounters(null);
+    RetryingCallable<Integer> r =
+        new RetryingCallable<>(
+            () -> {
+              counter.incrementAndGet();
+              throw new Exception("nope");
+            },
+            new RetryPolicy.Builder()
+                .withMaxAttempts(3)
+                .withInitialBackoff(Duration.ofMillis(1))
+                .build(),
+            "test",
+            counters);
+
+    Assert.assertThrows(Exception.class, r::call);
+
+    assertThat(counter.get()).isEqualTo(3);
+    assertThat(counters.getRetryCount("test")).isEqualTo(2);
+  }
+
+  @Test
+  public void testPolicy_retriesOnlyRetryableExceptions() {
+    final AtomicInteger counter = new AtomicInteger();
+    RetryingCallable<Integer> r =
+        new RetryingCallable<>(
+            () -> {
+              throw counter.incrementAndGet() < 2
+                  ? new IllegalStateException("retry")
+                  : new IllegalArgumentException("fatal");
+            },
+            new RetryPolicy.Builder()
+                .withInitialBackoff(Duration.ofMillis(1))
+                .withRetryable(e -> e instanceof IllegalStateException)
+                .build(),
+            "test",
+            null);
+
+    Assert.assertThrows(IllegalArgumentException.class, r::call);
+    assertThat(counter.get()).isEqualTo(2);
+  }
+
+  @Test
+  public void testPolicy_stopsRetryingAfterTotalTimeout() {
+    final AtomicInteger counter = new AtomicInteger();
+    RetryingCallable<Integer> r =
+        new RetryingCallable<>(
+            () -> {
+              counter.incrementAndGet();
+              throw new Exception("nope");
+            },
+            new RetryPolicy.Builder()
+                .withMaxAttempts(100)
+                .withInitialBackoff(Duration.ofMillis(100))
+                .withBackoffMultiplier(1)
+                .withTotalTimeout(Duration.ofMillis(250))
+                .build(),
+            "test",
+            null);
+
+    Assert.assertThrows(Exception.class, r::call);
+    assertThat(counter.get()).isEqualTo(3);
+  }
+
+  @Test
+  public void testCallAsync_retriesAttemptThatTimesOut() throws Exception {
+    ListeningScheduledExecutorService executor =
+        MoreExecutors.listeningDecorator(Executors.newScheduledThreadPool(2));
+    final AtomicInteger counter = new AtomicInteger();
+    CountDownLatch never = new CountDownLatch(1);
+    RetryCounters counters = new RetryCounters(null);
+    RetryingCallable<Integer> r =
+        new RetryingCallable<Integer>(
+            () -> {
+              int i = counter.incrementAndGet();
+              if (i == 1) {
+                never.await();
+              }
+              return i;
+            },
+            new RetryPolicy.Builder()
+                .withInitialBackoff(Duration.ofMillis(1))
+                .withAttemptTimeout(Duration.ofMillis(100))
+                .build(),
+            "test",
+            counters) {
+          @Override
+          protected boolean isFatalException(Exception e) {
+            return !(e instanceof TimeoutException);
+          }
+        };
+
+    try {
+      assertThat(r.callAsync(executor).get(10, TimeUnit.SECONDS)).isEqualTo(2);
+      assertThat(counters.getRetryCount("test")).isEqualTo(1);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
 }
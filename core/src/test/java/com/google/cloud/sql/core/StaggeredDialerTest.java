@@ -0,0 +1,144 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class StaggeredDialerTest {
+  private static final String BLACKHOLE_IP = "10.0.0.1";
+  private static final String FAILING_IP = "10.0.0.2";
+  private static final String GOOD_IP = "10.0.0.3";
+
+  private StaggeredDialer dialer;
+
+  @Before
+  public void setUp() {
+    dialer = new StaggeredDialer(Duration.ofMillis(100));
+  }
+
+  @After
+  public void tearDown() {
+    dialer.close();
+  }
+
+  @Test
+  public void testDial_startsNextAttemptAfterDelay() throws Exception {
+    FakeOpener opener = new FakeOpener();
+
+    long start = System.currentTimeMillis();
+    SSLSocket socket =
+        dialer.dial(Arrays.asList(BLACKHOLE_IP, GOOD_IP), opener, new ConnectDeadline(10000));
+    long elapsed = System.currentTimeMillis() - start;
+
+    assertThat(socket).isSameInstanceAs(opener.sockets.get(GOOD_IP));
+    assertThat(elapsed).isLessThan(5000L);
+    // The losing attempt is closed, which aborts the blocked connect.
+    assertThat(opener.sockets.get(BLACKHOLE_IP).isClosed()).isTrue();
+  }
+
+  @Test
+  public void testDial_startsNextAttemptImmediatelyOnFailure() throws Exception {
+    StaggeredDialer slowDialer = new StaggeredDialer(Duration.ofMinutes(5));
+    try {
+      FakeOpener opener = new FakeOpener();
+
+      SSLSocket socket =
+          slowDialer.dial(Arrays.asList(FAILING_IP, GOOD_IP), opener, new ConnectDeadline(10000));
+
+      assertThat(socket).isSameInstanceAs(opener.sockets.get(GOOD_IP));
+    } finally {
+      slowDialer.close();
+    }
+  }
+
+  @Test
+  public void testDial_throwsLastExceptionWhenAllAttemptsFail() {
+    FakeOpener opener = new FakeOpener();
+
+    IOException ex =
+        assertThrows(
+            IOException.class,
+            () ->
+                dialer.dial(
+                    Arrays.asList(FAILING_IP, FAILING_IP), opener, new ConnectDeadline(10000)));
+
+    assertThat(ex).hasMessageThat().contains("Connection refused");
+  }
+
+  @Test
+  public void testDial_throwsWhenDeadlinePasses() {
+    FakeOpener opener = new FakeOpener();
+
+    assertThrows(
+        SocketTimeoutException.class,
+        () ->
+            dialer.dial(
+                Arrays.asList(BLACKHOLE_IP, BLACKHOLE_IP), opener, new ConnectDeadline(300)));
+
+    for (SSLSocket socket : opener.sockets.values()) {
+      assertThat(socket.isClosed()).isTrue();
+    }
+  }
+
+  /** Simulates a blackholed address, a refused address, and a healthy address. */
+  private static class FakeOpener implements StaggeredDialer.SocketOpener {
+    private final Map<String, SSLSocket> sockets = new ConcurrentHashMap<>();
+
+    @Override
+    public SSLSocket create() throws IOException {
+      try {
+        return (SSLSocket) SSLContext.getDefault().getSocketFactory().createSocket();
+      } catch (Exception e) {
+        throw new IOException(e);
+      }
+    }
+
+    @Override
+    public void connect(SSLSocket socket, String targetIp, int timeoutMs) throws IOException {
+      sockets.put(targetIp, socket);
+      if (FAILING_IP.equals(targetIp)) {
+        throw new IOException("Connection refused");
+      }
+      if (BLACKHOLE_IP.equals(targetIp)) {
+        while (!socket.isClosed()) {
+          try {
+            Thread.sleep(10);
+          } catch (InterruptedException e) {
+            // keep waiting until the socket is closed
+          }
+        }
+        throw new IOException("Socket closed");
+      }
+    }
+  }
+}
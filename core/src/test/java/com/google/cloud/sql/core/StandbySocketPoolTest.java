@@ -0,0 +1,169 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class StandbySocketPoolTest {
+  private ScheduledExecutorService scheduler;
+  private FakeOpener opener;
+
+  @Before
+  public void setUp() {
+    scheduler = Executors.newSingleThreadScheduledExecutor();
+    opener = new FakeOpener();
+  }
+
+  @After
+  public void tearDown() {
+    scheduler.shutdownNow();
+  }
+
+  @Test
+  public void testPoll_refillsPoolInBackground() throws Exception {
+    StandbySocketPool pool = newPool(Duration.ofMinutes(1));
+    ConnectionMetadata metadata = newMetadata();
+
+    assertThat(pool.poll(metadata)).isNull();
+    assertThat(pool.getStandbyCount()).isEqualTo(2);
+
+    SSLSocket socket = pool.poll(metadata);
+
+    assertThat(socket).isSameInstanceAs(opener.opened.get(0));
+    assertThat(socket.isClosed()).isFalse();
+    assertThat(pool.getStandbyCount()).isEqualTo(2);
+    assertThat(opener.opened).hasSize(3);
+  }
+
+  @Test
+  public void testPoll_discardsSocketsFromPreviousRefresh() throws Exception {
+    StandbySocketPool pool = newPool(Duration.ofMinutes(1));
+    pool.poll(newMetadata());
+    List<SSLSocket> stale = new ArrayList<>(opener.opened);
+
+    SSLSocket socket = pool.poll(newMetadata());
+
+    assertThat(socket).isNull();
+    for (SSLSocket s : stale) {
+      assertThat(s.isClosed()).isTrue();
+    }
+    assertThat(pool.getStandbyCount()).isEqualTo(2);
+  }
+
+  @Test
+  public void testRefill_fillsPoolBeforeFirstPoll() throws Exception {
+    StandbySocketPool pool = newPool(Duration.ofMinutes(1));
+    ConnectionMetadata metadata = newMetadata();
+
+    pool.refill(metadata);
+
+    assertThat(pool.getStandbyCount()).isEqualTo(2);
+    assertThat(pool.poll(metadata)).isSameInstanceAs(opener.opened.get(0));
+  }
+
+  @Test
+  public void testRefill_replacesSocketsFromPreviousRefresh() throws Exception {
+    StandbySocketPool pool = newPool(Duration.ofMinutes(1));
+    pool.refill(newMetadata());
+    List<SSLSocket> stale = new ArrayList<>(opener.opened);
+
+    pool.refill(newMetadata());
+
+    for (SSLSocket s : stale) {
+      assertThat(s.isClosed()).isTrue();
+    }
+    assertThat(pool.getStandbyCount()).isEqualTo(2);
+    assertThat(opener.opened).hasSize(4);
+  }
+
+  @Test
+  public void testPoll_discardsIdleSockets() throws Exception {
+    StandbySocketPool pool = newPool(Duration.ofMillis(50));
+    ConnectionMetadata metadata = newMetadata();
+    pool.poll(metadata);
+
+    Thread.sleep(200);
+
+    assertThat(pool.getStandbyCount()).isEqualTo(0);
+    for (SSLSocket s : opener.opened) {
+      assertThat(s.isClosed()).isTrue();
+    }
+  }
+
+  @Test
+  public void testClose_closesSocketsAndStopsRefill() throws Exception {
+    StandbySocketPool pool = newPool(Duration.ofMinutes(1));
+    ConnectionMetadata metadata = newMetadata();
+    pool.poll(metadata);
+
+    pool.close();
+
+    for (SSLSocket s : opener.opened) {
+      assertThat(s.isClosed()).isTrue();
+    }
+    assertThat(pool.poll(metadata)).isNull();
+    assertThat(pool.getStandbyCount()).isEqualTo(0);
+    assertThat(opener.opened).hasSize(2);
+  }
+
+  private StandbySocketPool newPool(Duration maxIdle) {
+    return new StandbySocketPool(
+        "myProject:myRegion:myInstance",
+        2,
+        maxIdle,
+        MoreExecutors.directExecutor(),
+        scheduler,
+        opener);
+  }
+
+  /** Each call returns metadata as if the connection info had been refreshed. */
+  private static ConnectionMetadata newMetadata() throws Exception {
+    SSLContext sslContext = SSLContext.getInstance("TLSv1.3");
+    sslContext.init(null, null, null);
+    return new ConnectionMetadata(
+        Collections.singletonList("10.0.0.1"), new HashMap<>(), null, null, sslContext, null);
+  }
+
+  private static class FakeOpener implements StandbySocketPool.Opener {
+    private final List<SSLSocket> opened = Collections.synchronizedList(new ArrayList<>());
+
+    @Override
+    public SSLSocket open(ConnectionMetadata metadata) throws IOException {
+      SSLSocket socket = (SSLSocket) metadata.getSslContext().getSocketFactory().createSocket();
+      opened.add(socket);
+      return socket;
+    }
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.cloud.sql.ConnectorMetrics;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.security.KeyStore;
+import java.security.KeyStore.PasswordProtection;
+import java.security.KeyStore.PrivateKeyEntry;
+import java.security.SecureRandom;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.TrustManagerFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class TlsSessionCacheTest {
+  private static final String IP = "127.0.0.1";
+
+  private FakeSslServer server;
+  private int port;
+
+  @Before
+  public void setUp() throws Exception {
+    server = new FakeSslServer();
+    port = server.start(IP);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    server.stop();
+  }
+
+  @Test
+  public void testGetSslContext_resumesSessionsAcrossCertificateRefresh() throws Exception {
+    List<Boolean> recorded = Collections.synchronizedList(new ArrayList<>());
+    ConnectorMetrics metrics =
+        new ConnectorMetrics() {
+          @Override
+          public void recordConnectPhase(String instanceName, ConnectPhase phase, long nanos) {}
+
+          @Override
+          public void recordHandshake(String instanceName, boolean resumed) {
+            assertThat(instanceName).isEqualTo("myProject:myRegion:myInstance");
+            recorded.add(resumed);
+          }
+        };
+    TlsSessionCache cache = new TlsSessionCache("myProject:myRegion:myInstance", metrics);
+    ConnectionMetadata first = newMetadata(TestKeys.getServerCert());
+
+    SSLContext ctx = cache.getSslContext(first);
+    connect(cache, ctx);
+    connect(cache, cache.getSslContext(first));
+
+    assertThat(cache.getFullHandshakeCount()).isEqualTo(1L);
+    assertThat(cache.getResumedHandshakeCount()).isEqualTo(1L);
+
+    // A certificate refresh with the same server CA keeps the session cache.
+    ConnectionMetadata refreshed = newMetadata(TestKeys.getServerCert());
+    assertThat(cache.getSslContext(refreshed)).isSameInstanceAs(ctx);
+    connect(cache, cache.getSslContext(refreshed));
+
+    assertThat(cache.getFullHandshakeCount()).isEqualTo(1L);
+    assertThat(cache.getResumedHandshakeCount()).isEqualTo(2L);
+    assertThat(recorded).containsExactly(false, true, true).inOrder();
+  }
+
+  @Test
+  public void testGetSslContext_discardsSessionsWhenServerCaChanges() throws Exception {
+    TlsSessionCache cache = new TlsSessionCache("myProject:myRegion:myInstance");
+    SSLContext ctx = cache.getSslContext(newMetadata(TestKeys.getServerCert()));
+    connect(cache, ctx);
+    assertThat(cache.getCachedSessionCount()).isEqualTo(1);
+
+    SSLContext rotated = cache.getSslContext(newMetadata(TestKeys.getServerCert2()));
+
+    assertThat(rotated).isNotSameInstanceAs(ctx);
+    assertThat(cache.getCachedSessionCount()).isEqualTo(0);
+  }
+
+  private void connect(TlsSessionCache cache, SSLContext ctx) throws Exception {
+    SSLSocket socket = (SSLSocket) ctx.getSocketFactory().createSocket();
+    try {
+      socket.connect(new InetSocketAddress(IP, port));
+      socket.startHandshake();
+      cache.recordHandshake(socket);
+      BufferedReader reader =
+          new BufferedReader(new InputStreamReader(socket.getInputStream(), UTF_8));
+      assertThat(reader.readLine()).isEqualTo(CloudSqlCoreTestingBase.SERVER_MESSAGE);
+    } finally {
+      socket.close();
+    }
+  }
+
+  private static ConnectionMetadata newMetadata(X509Certificate serverCa) throws Exception {
+    Certificate clientCert =
+        CertificateFactory.getInstance("X.509")
+            .generateCertificate(
+                new ByteArrayInputStream(
+                    TestKeys.createEphemeralCert(Duration.ZERO).getBytes(UTF_8)));
+    KeyStore keyStore = KeyStore.getInstance(KeyStore.getDefaultType());
+    keyStore.load(null, null);
+    keyStore.setEntry(
+        "ephemeral",
+        new PrivateKeyEntry(
+            TestKeys.getClientKeyPair().getPrivate(), new Certificate[] {clientCert}),
+        new PasswordProtection(new char[0]));
+    KeyManagerFactory kmf = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+    kmf.init(keyStore, new char[0]);
+
+    KeyStore trustStore = KeyStore.getInstance(KeyStore.getDefaultType());
+    trustStore.load(null, null);
+    trustStore.setCertificateEntry("instance", serverCa);
+    TrustManagerFactory tmf = TrustManagerFactory.getInstance("X.509");
+    tmf.init(trustStore);
+
+    SSLContext sslContext = SSLContext.getInstance("TLSv1.3");
+    sslContext.init(kmf.getKeyManagers(), tmf.getTrustManagers(), new SecureRandom());
+    return new ConnectionMetadata(
+        Collections.singletonList(IP), new HashMap<>(), kmf, tmf, sslContext, null);
+  }
+}
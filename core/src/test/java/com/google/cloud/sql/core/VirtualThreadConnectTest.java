@@ -0,0 +1,232 @@
+/*
+ * Copyright 2026 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.sql.core;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assume.assumeTrue;
+
+import com.google.cloud.sql.AuthType;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import java.lang.reflect.Method;
+import java.security.KeyPair;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Timer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Runs thousands of concurrent connection info lookups, as made by Connector.connect(), on virtual
+ * threads while the refresh they wait for is blocked, like a slow Admin API call. If the caches
+ * blocked while holding a monitor, each waiting virtual thread would pin its carrier thread, and no
+ * other virtual thread could run until the refresh completed. The tests check that unrelated
+ * virtual threads, more of them than there are carrier threads, still run in the meantime.
+ *
+ * <p>The tests are skipped on a JDK without virtual threads.
+ */
+@RunWith(JUnit4.class)
+public class VirtualThreadConnectTest {
+  private static final int CONNECT_COUNT = 5000;
+
+  private ExecutorService threads;
+  private ListeningScheduledExecutorService refreshExecutor;
+  private Timer timer;
+  private BlockingStubRepository repo;
+
+  @Before
+  public void setUp() throws Exception {
+    threads = newVirtualThreadExecutor();
+    assumeTrue("This JDK has no virtual threads", threads != null);
+    refreshExecutor = MoreExecutors.listeningDecorator(Executors.newScheduledThreadPool(2));
+    timer = new Timer("VirtualThreadConnectTest", true);
+    repo = new BlockingStubRepository();
+  }
+
+  @After
+  public void tearDown() {
+    if (threads == null) {
+      return;
+    }
+    repo.unblock();
+    threads.shutdownNow();
+    refreshExecutor.shutdownNow();
+    timer.cancel();
+  }
+
+  @Test(timeout = 60000)
+  public void testLazyRefresh_blockedRefreshDoesNotPinCarrierThreads() throws Exception {
+    MonitoredCache instance =
+        new MonitoredCache(
+            new LazyRefreshConnectionInfoCache(newConfig(), repo, new StubCredentialFactory(), null),
+            timer,
+            c -> null);
+
+    runConnects(instance);
+
+    assertThat(repo.getRefreshCount()).isEqualTo(1);
+    instance.close();
+  }
+
+  @Test(timeout = 60000)
+  public void testRefreshAhead_blockedRefreshDoesNotPinCarrierThreads() throws Exception {
+    MonitoredCache instance =
+        new MonitoredCache(
+            new RefreshAheadConnectionInfoCache(
+                newConfig(),
+                repo,
+                new StubCredentialFactory(),
+                refreshExecutor,
+                Futures.immediateFuture(null),
+                0),
+            timer,
+            c -> null);
+
+    runConnects(instance);
+
+    assertThat(repo.getRefreshCount()).isEqualTo(1);
+    instance.close();
+  }
+
+  /**
+   * Looks up the connection info like Connector.connect() while the refresh is blocked, then checks
+   * that unrelated virtual threads run before the refresh is unblocked.
+   */
+  private void runConnects(MonitoredCache instance) throws Exception {
+    AtomicInteger started = new AtomicInteger();
+    List<Future<ConnectionMetadata>> connects = new ArrayList<>();
+    for (int i = 0; i < CONNECT_COUNT; i++) {
+      connects.add(
+          threads.submit(
+              () -> {
+                started.incrementAndGet();
+                instance.refreshIfExpired();
+                return instance.getConnectionMetadata(30000);
+              }));
+    }
+    assertThat(repo.awaitBlocked(10, TimeUnit.SECONDS)).isTrue();
+    for (int i = 0; i < 1000 && started.get() < CONNECT_COUNT; i++) {
+      Thread.sleep(10);
+    }
+    // Every connect started, so carrier threads were free while the first ones were waiting.
+    assertThat(started.get()).isEqualTo(CONNECT_COUNT);
+
+    int unrelatedCount = getCarrierCount() * 4;
+    CountDownLatch unrelated = new CountDownLatch(unrelatedCount);
+    for (int i = 0; i < unrelatedCount; i++) {
+      threads.submit(unrelated::countDown);
+    }
+    // If the waiting connects pinned the carrier threads, this work would not run until the
+    // refresh completed.
+    assertThat(unrelated.await(10, TimeUnit.SECONDS)).isTrue();
+    assertThat(repo.getBlockedCount()).isEqualTo(1);
+
+    repo.unblock();
+    for (Future<ConnectionMetadata> f : connects) {
+      assertThat(f.get(30, TimeUnit.SECONDS).getPreferredIpAddresses()).containsExactly("10.1.1.1");
+    }
+    assertThat(instance.isClosed()).isFalse();
+  }
+
+  private static ConnectionConfig newConfig() {
+    return new ConnectionConfig.Builder()
+        .withCloudSqlInstance("project:region:instance")
+        .withIpTypes("PUBLIC")
+        .build();
+  }
+
+  /** Returns the number of carrier threads of the default virtual thread scheduler. */
+  private static int getCarrierCount() {
+    return Integer.getInteger(
+        "jdk.virtualThreadScheduler.parallelism", Runtime.getRuntime().availableProcessors());
+  }
+
+  private static ExecutorService newVirtualThreadExecutor() throws Exception {
+    try {
+      Method m = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      return (ExecutorService) m.invoke(null);
+    } catch (NoSuchMethodException e) {
+      // This JDK has no virtual threads.
+      return null;
+    }
+  }
+
+  /** Blocks each refresh until unblock() is called, like a slow call to the Admin API. */
+  private static class BlockingStubRepository extends StubConnectionInfoRepository {
+    private final CountDownLatch blocked = new CountDownLatch(1);
+    private final CountDownLatch released = new CountDownLatch(1);
+    private final AtomicInteger blockedCount = new AtomicInteger();
+
+    boolean awaitBlocked(long timeout, TimeUnit unit) throws InterruptedException {
+      return blocked.await(timeout, unit);
+    }
+
+    int getBlockedCount() {
+      return blockedCount.get();
+    }
+
+    void unblock() {
+      released.countDown();
+    }
+
+    private void block() {
+      blockedCount.incrementAndGet();
+      blocked.countDown();
+      try {
+        released.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    @Override
+    public ListenableFuture<ConnectionInfo> getConnectionInfo(
+        CloudSqlInstanceName instanceName,
+        AccessTokenSupplier accessTokenSupplier,
+        AuthType authType,
+        ListeningScheduledExecutorService executor,
+        ListenableFuture<KeyPair> keyPair) {
+      return Futures.transformAsync(
+          executor.submit(this::block),
+          unused ->
+              super.getConnectionInfo(
+                  instanceName, accessTokenSupplier, authType, executor, keyPair),
+          MoreExecutors.directExecutor());
+    }
+
+    @Override
+    public ConnectionInfo getConnectionInfoSync(
+        CloudSqlInstanceName instanceName,
+        AccessTokenSupplier accessTokenSupplier,
+        AuthType authType,
+        KeyPair keyPair) {
+      block();
+      return super.getConnectionInfoSync(instanceName, accessTokenSupplier, authType, keyPair);
+    }
+  }
+}